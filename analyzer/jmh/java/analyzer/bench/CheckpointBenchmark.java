@@ -0,0 +1,95 @@
+package analyzer.bench;
+
+import analyzer.Token.Token;
+import analyzer.Token.TokenType;
+import analyzer.exceptions.ScannerException;
+import analyzer.scanner.CheckpointIndex;
+import analyzer.scanner.MappedFileScanner;
+import analyzer.scanner.SymbolTable;
+import analyzer.scanner.TokenValidator;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+// Viewing a few lines near the end of a large file: scanning up to them from the
+// start against restoring the checkpoint before them, and what recording the
+// checkpoints costs a full scan
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CheckpointBenchmark {
+    private static final int VIEWED_LINES = 20;
+
+    @Param({"16777216"})
+    public int sizeBytes;
+
+    @Param({"65536"})
+    public int interval;
+
+    private Path file;
+    private CheckpointIndex checkpoints;
+    private int firstLine;
+    private final TokenValidator validator = new TokenValidator();
+    private final SymbolTable symbolTable = new SymbolTable();
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException, ScannerException {
+        file = Files.createTempFile("checkpoint-bench", ".c");
+        Files.writeString(file, SyntheticCorpus.generate(CorpusProfile.KEYWORD_HEAVY, sizeBytes));
+        checkpoints = recordCheckpoints();
+        firstLine = checkpoints.last().getLine() - VIEWED_LINES;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public CheckpointIndex recordCheckpoints() throws IOException, ScannerException {
+        CheckpointIndex index = new CheckpointIndex(interval);
+        try (MappedFileScanner scanner = new MappedFileScanner(file, validator, symbolTable)) {
+            scanner.recordCheckpoints(index);
+            while (scanner.nextToken().getType() != TokenType.EOF) {
+                // Scan to the end
+            }
+        }
+        return index;
+    }
+
+    @Benchmark
+    public int viewFromStart() throws IOException, ScannerException {
+        try (MappedFileScanner scanner = new MappedFileScanner(file, validator, symbolTable)) {
+            return view(scanner);
+        }
+    }
+
+    @Benchmark
+    public int viewFromCheckpoint() throws IOException, ScannerException {
+        try (MappedFileScanner scanner = new MappedFileScanner(file, validator, symbolTable)) {
+            scanner.restore(checkpoints.floorLine(firstLine));
+            return view(scanner);
+        }
+    }
+
+    private int view(MappedFileScanner scanner) throws IOException, ScannerException {
+        int count = 0;
+        Token token = scanner.nextToken();
+        while (token.getType() != TokenType.EOF && token.getLine() < firstLine + VIEWED_LINES) {
+            if (token.getLine() >= firstLine) count++;
+            token = scanner.nextToken();
+        }
+        return count;
+    }
+}
@@ -0,0 +1,8 @@
+package analyzer.bench;
+
+public enum CorpusProfile {
+    KEYWORD_HEAVY,
+    COMMENT_HEAVY,
+    LITERAL_HEAVY,
+    PREPROCESSOR_HEAVY
+}
@@ -0,0 +1,85 @@
+package analyzer.bench;
+
+import analyzer.Token.Token;
+import analyzer.Token.TokenBuffer;
+import analyzer.Token.TokenType;
+import analyzer.exceptions.ScannerException;
+import analyzer.scanner.CScanner;
+import analyzer.scanner.MappedFileScanner;
+import analyzer.scanner.SymbolTable;
+import analyzer.scanner.TokenValidator;
+import analyzer.scanner.Utf8Scanner;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+// End-to-end scans of a file on disk, the way Main reads and scans it
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class FileScanBenchmark {
+    @Param({"KEYWORD_HEAVY", "COMMENT_HEAVY", "LITERAL_HEAVY", "PREPROCESSOR_HEAVY"})
+    public CorpusProfile profile;
+
+    @Param({"8388608"})
+    public int sizeBytes;
+
+    private Path file;
+    private long fileSize;
+    private final TokenValidator validator = new TokenValidator();
+    private final SymbolTable symbolTable = new SymbolTable();
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        file = Files.createTempFile("scan-bench-" + profile, ".c");
+        Files.writeString(file, SyntheticCorpus.generate(profile, sizeBytes));
+        fileSize = Files.size(file);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public int readStringAndScan(ThroughputCounters counters) throws IOException, ScannerException {
+        counters.add(fileSize);
+        String source = Files.readString(file);
+        TokenBuffer tokens = new CScanner(validator, symbolTable).scanTokenBuffer(source);
+        return tokens.size();
+    }
+
+    // The bytes are scanned as they are read, without decoding them into a String
+    @Benchmark
+    public int readBytesAndScan(ThroughputCounters counters) throws IOException, ScannerException {
+        counters.add(fileSize);
+        byte[] source = Files.readAllBytes(file);
+        TokenBuffer tokens = new Utf8Scanner(validator, symbolTable).scanTokenBuffer(source);
+        return tokens.size();
+    }
+
+    @Benchmark
+    public int mappedStreamingScan(ThroughputCounters counters) throws IOException, ScannerException {
+        counters.add(fileSize);
+        int count = 0;
+        try (MappedFileScanner scanner = new MappedFileScanner(file, validator, symbolTable)) {
+            Token token;
+            do {
+                token = scanner.nextToken();
+                count++;
+            } while (token.getType() != TokenType.EOF);
+        }
+        return count;
+    }
+}
@@ -0,0 +1,80 @@
+package analyzer.bench;
+
+import analyzer.Token.TokenType;
+import analyzer.scanner.TokenValidator;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+// Keyword classification of every identifier-like word in the keyword-heavy corpus
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class KeywordBenchmark {
+    private static final int WORDS = 4096;
+
+    private final TokenValidator validator = new TokenValidator();
+    private String source;
+    private String[] words;
+    private int[] starts;
+    private int[] ends;
+
+    @Setup
+    public void setup() {
+        source = SyntheticCorpus.generate(CorpusProfile.KEYWORD_HEAVY, 64 * 1024);
+        List<int[]> ranges = new ArrayList<>();
+        int i = 0;
+        while (i < source.length() && ranges.size() < WORDS) {
+            if (Character.isLetter(source.charAt(i)) || source.charAt(i) == '_') {
+                int start = i;
+                while (i < source.length() && (Character.isLetterOrDigit(source.charAt(i)) || source.charAt(i) == '_')) i++;
+                ranges.add(new int[] {start, i});
+            } else {
+                i++;
+            }
+        }
+
+        words = new String[WORDS];
+        starts = new int[WORDS];
+        ends = new int[WORDS];
+        for (int w = 0; w < WORDS; w++) {
+            int[] range = ranges.get(w % ranges.size());
+            starts[w] = range[0];
+            ends[w] = range[1];
+            words[w] = source.substring(range[0], range[1]);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(WORDS)
+    public void isKeyword(Blackhole blackhole) {
+        for (String word : words) {
+            blackhole.consume(validator.isKeyword(word));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(WORDS)
+    public void isKeywordThenGetKeywordType(Blackhole blackhole) {
+        for (String word : words) {
+            blackhole.consume(validator.isKeyword(word) ? validator.getKeywordType(word) : TokenType.IDENTIFIER);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(WORDS)
+    public void getKeywordTypeOnRange(Blackhole blackhole) {
+        for (int w = 0; w < WORDS; w++) {
+            blackhole.consume(validator.getKeywordType(source, starts[w], ends[w]));
+        }
+    }
+}
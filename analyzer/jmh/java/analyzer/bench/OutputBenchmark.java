@@ -0,0 +1,115 @@
+package analyzer.bench;
+
+import analyzer.Token.TokenBuffer;
+import analyzer.interfaces.ITokenSink;
+import analyzer.exceptions.ScannerException;
+import analyzer.output.BinaryTokenReader;
+import analyzer.output.BinaryTokenWriter;
+import analyzer.output.OutputFormat;
+import analyzer.scanner.CScanner;
+import analyzer.scanner.SymbolTable;
+import analyzer.scanner.TokenValidator;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+// Writing a scanned buffer out: one String.format and println per token (what Main
+// used to do) against the batching text sinks and the binary token stream, and
+// reading that stream back. Output goes to a null sink
+// so only encoding is measured; the counter is source MB per second.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class OutputBenchmark {
+    @Param({"KEYWORD_HEAVY", "LITERAL_HEAVY"})
+    public CorpusProfile profile;
+
+    @Param({"1048576"})
+    public int sizeBytes;
+
+    private TokenBuffer tokens;
+    private PrintStream text;
+    private WritableByteChannel binary;
+    private ByteBuffer encoded;
+
+    @Setup
+    public void setup() throws ScannerException, IOException {
+        String source = SyntheticCorpus.generate(profile, sizeBytes);
+        tokens = new CScanner(new TokenValidator(), new SymbolTable()).scanTokenBuffer(source);
+        text = new PrintStream(OutputStream.nullOutputStream());
+        binary = Channels.newChannel(OutputStream.nullOutputStream());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (BinaryTokenWriter writer = new BinaryTokenWriter(Channels.newChannel(out), true)) {
+            writer.write(tokens);
+        }
+        encoded = ByteBuffer.allocateDirect(out.size());
+        encoded.put(out.toByteArray()).flip();
+    }
+
+    @Benchmark
+    public void printText(ThroughputCounters counters) {
+        counters.add(sizeBytes);
+        for (int i = 0; i < tokens.size(); i++) {
+            text.println(tokens.get(i));
+        }
+    }
+
+    @Benchmark
+    public void writeTextSink(ThroughputCounters counters) throws IOException {
+        counters.add(sizeBytes);
+        writeSink(OutputFormat.TEXT);
+    }
+
+    @Benchmark
+    public void writeJsonSink(ThroughputCounters counters) throws IOException {
+        counters.add(sizeBytes);
+        writeSink(OutputFormat.NDJSON);
+    }
+
+    @Benchmark
+    public void writeCsvSink(ThroughputCounters counters) throws IOException {
+        counters.add(sizeBytes);
+        writeSink(OutputFormat.CSV);
+    }
+
+    @Benchmark
+    public void writeBinary(ThroughputCounters counters) throws IOException {
+        counters.add(sizeBytes);
+        // Not closed: that would close the shared sink
+        BinaryTokenWriter writer = new BinaryTokenWriter(binary, true);
+        writer.write(tokens);
+        writer.flush();
+    }
+
+    @Benchmark
+    public int readBinary(ThroughputCounters counters) throws IOException {
+        counters.add(sizeBytes);
+        BinaryTokenReader reader = new BinaryTokenReader(encoded);
+        int lines = 0;
+        while (reader.next()) {
+            lines += reader.getLine();
+        }
+        return lines;
+    }
+
+    private void writeSink(OutputFormat format) throws IOException {
+        try (ITokenSink sink = format.open(Writer.nullWriter(), 0)) {
+            sink.write(tokens);
+        }
+    }
+}
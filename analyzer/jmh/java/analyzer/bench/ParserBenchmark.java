@@ -0,0 +1,58 @@
+package analyzer.bench;
+
+import analyzer.Token.TokenBuffer;
+import analyzer.exceptions.ParseException;
+import analyzer.exceptions.ScannerException;
+import analyzer.parser.Parser;
+import analyzer.parser.SyntaxTree;
+import analyzer.scanner.CScanner;
+import analyzer.scanner.SymbolTable;
+import analyzer.scanner.TokenValidator;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+// Parsing the same sources ScannerBenchmark scans, from tokens scanned once in setup
+// and together with the scan, so the two stages compare in MB/s of source. With the
+// gc profiler the allocation per op is the arena of the tree.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ParserBenchmark {
+    @Param({"KEYWORD_HEAVY", "COMMENT_HEAVY", "LITERAL_HEAVY", "PREPROCESSOR_HEAVY"})
+    public CorpusProfile profile;
+
+    @Param({"1048576"})
+    public int sizeBytes;
+
+    private String source;
+    private TokenBuffer tokens;
+    private CScanner scanner;
+    private Parser parser;
+
+    @Setup
+    public void setup() throws ScannerException {
+        source = SyntheticCorpus.generate(profile, sizeBytes);
+        scanner = new CScanner(new TokenValidator(), new SymbolTable());
+        tokens = scanner.scanTokenBuffer(source);
+        parser = new Parser();
+    }
+
+    @Benchmark
+    public SyntaxTree parse(ThroughputCounters counters) throws ParseException {
+        counters.add(source.length());
+        return parser.parse(tokens);
+    }
+
+    @Benchmark
+    public SyntaxTree scanAndParse(ThroughputCounters counters) throws ScannerException, ParseException {
+        counters.add(source.length());
+        return parser.parse(scanner.scanTokenBuffer(source));
+    }
+}
@@ -0,0 +1,86 @@
+package analyzer.bench;
+
+import analyzer.exceptions.PreprocessorException;
+import analyzer.preprocessor.HeaderCache;
+import analyzer.preprocessor.PreprocessedUnit;
+import analyzer.preprocessor.Preprocessor;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+// Preprocessing a source file that includes a large guarded header several times and
+// invokes its macros, the way translation units of one project share headers. With
+// a warm HeaderCache the header is scanned once per trial and only walked per op;
+// a cold cache scans it again for every file.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class PreprocessorBenchmark {
+    private static final int INCLUDES = 4;
+
+    @Param({"262144"})
+    public int headerBytes;
+
+    private Path directory;
+    private Path header;
+    private Path unit;
+    private long bytes;
+    private Preprocessor warm;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        directory = Files.createTempDirectory("preprocessor-bench");
+        header = directory.resolve("common.h");
+        unit = directory.resolve("unit.c");
+
+        String headerSource = "#ifndef COMMON_H\n#define COMMON_H\n"
+                + "#define SQUARE(x) ((x) * (x))\n#define SUM(a, ...) ((a) + SUM_REST(__VA_ARGS__))\n"
+                + "#define SUM_REST(...) (0, ##__VA_ARGS__)\n"
+                + SyntheticCorpus.generate(CorpusProfile.KEYWORD_HEAVY, headerBytes)
+                + "#endif\n";
+        StringBuilder unitSource = new StringBuilder();
+        for (int i = 0; i < INCLUDES; i++) {
+            unitSource.append("#include \"common.h\"\n");
+        }
+        for (int i = 0; i < 1000; i++) {
+            unitSource.append("int u").append(i).append(" = SQUARE(").append(i).append(") + SUM(")
+                    .append(i).append(", u0, 2);\n");
+        }
+        Files.writeString(header, headerSource);
+        Files.writeString(unit, unitSource);
+        bytes = headerSource.length() + unitSource.length();
+
+        warm = new Preprocessor(List.of(directory), new HeaderCache());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(header);
+        Files.deleteIfExists(unit);
+        Files.deleteIfExists(directory);
+    }
+
+    @Benchmark
+    public PreprocessedUnit warmHeaderCache(ThroughputCounters counters) throws PreprocessorException, IOException {
+        counters.add(bytes);
+        return warm.preprocess(unit);
+    }
+
+    @Benchmark
+    public PreprocessedUnit coldHeaderCache(ThroughputCounters counters) throws PreprocessorException, IOException {
+        counters.add(bytes);
+        return new Preprocessor(List.of(directory), new HeaderCache()).preprocess(unit);
+    }
+}
@@ -0,0 +1,92 @@
+package analyzer.bench;
+
+import analyzer.Token.Token;
+import analyzer.Token.TokenBuffer;
+import analyzer.exceptions.ScannerException;
+import analyzer.metrics.ScanMetrics;
+import analyzer.scanner.CScanner;
+import analyzer.scanner.InstrumentedScanner;
+import analyzer.scanner.ScannerOptions;
+import analyzer.scanner.SymbolTable;
+import analyzer.scanner.TableDrivenScanner;
+import analyzer.scanner.TokenValidator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+// Whole-source scans per corpus profile. The "megabytes" counter is reported per
+// second, i.e. as MB/s; run with the gc profiler (the default in build.gradle) for
+// the allocation rate.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ScannerBenchmark {
+    @Param({"KEYWORD_HEAVY", "COMMENT_HEAVY", "LITERAL_HEAVY", "PREPROCESSOR_HEAVY"})
+    public CorpusProfile profile;
+
+    @Param({"1048576"})
+    public int sizeBytes;
+
+    private String source;
+    private CScanner scanner;
+    private CScanner skippingScanner;
+    private CScanner recoveringScanner;
+    private TableDrivenScanner tableDriven;
+    private InstrumentedScanner instrumented;
+
+    @Setup
+    public void setup() {
+        source = SyntheticCorpus.generate(profile, sizeBytes);
+        scanner = new CScanner(new TokenValidator(), new SymbolTable());
+        skippingScanner = new CScanner(new TokenValidator(), new SymbolTable(), ScannerOptions.SKIP_TRIVIA);
+        recoveringScanner = new CScanner(new TokenValidator(), new SymbolTable(), ScannerOptions.RECOVER);
+        tableDriven = new TableDrivenScanner(new TokenValidator(), new SymbolTable());
+        instrumented = new InstrumentedScanner(new TokenValidator(), new SymbolTable(), new ScanMetrics());
+    }
+
+    @Benchmark
+    public List<Token> scanTokens(ThroughputCounters counters) throws ScannerException {
+        counters.add(source.length());
+        return scanner.scanTokens(source);
+    }
+
+    @Benchmark
+    public TokenBuffer scanTokenBuffer(ThroughputCounters counters) throws ScannerException {
+        counters.add(source.length());
+        return scanner.scanTokenBuffer(source);
+    }
+
+    // Comments and preprocessor lines skipped instead of tokenized
+    @Benchmark
+    public TokenBuffer skipTriviaScanTokenBuffer(ThroughputCounters counters) throws ScannerException {
+        counters.add(source.length());
+        return skippingScanner.scanTokenBuffer(source);
+    }
+
+    // Recovery mode on error-free input: should match scanTokenBuffer
+    @Benchmark
+    public TokenBuffer recoveringScanTokenBuffer(ThroughputCounters counters) throws ScannerException {
+        counters.add(source.length());
+        return recoveringScanner.scanTokenBuffer(source);
+    }
+
+    @Benchmark
+    public TokenBuffer tableDrivenScanTokenBuffer(ThroughputCounters counters) throws ScannerException {
+        counters.add(source.length());
+        return tableDriven.scanTokenBuffer(source);
+    }
+
+    // The cost of metrics when they are on; scanTokenBuffer is the same scan with them off
+    @Benchmark
+    public TokenBuffer instrumentedScanTokenBuffer(ThroughputCounters counters) throws ScannerException {
+        counters.add(source.length());
+        return instrumented.scanTokenBuffer(source);
+    }
+}
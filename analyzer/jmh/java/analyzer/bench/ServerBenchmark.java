@@ -0,0 +1,99 @@
+package analyzer.bench;
+
+import analyzer.exceptions.ScannerException;
+import analyzer.output.BinaryTokenReader;
+import analyzer.server.ScanClient;
+import analyzer.server.ScanServer;
+import analyzer.server.ScannerPool;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+// Latency of one file through a running scan server over a Unix domain socket:
+// framing, the pooled scan, encoding and decoding the reply. The file is read by the
+// server (as a build tool would ask for it) or sent inline with the request.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ServerBenchmark {
+    @Param({"KEYWORD_HEAVY", "LITERAL_HEAVY"})
+    public CorpusProfile profile;
+
+    @Param({"16384"})
+    public int sizeBytes;
+
+    private Path directory;
+    private Path file;
+    private String source;
+    private ScanServer server;
+    private ScanClient client;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException, InterruptedException {
+        directory = Files.createTempDirectory("scan-server");
+        file = directory.resolve("input.c");
+        source = SyntheticCorpus.generate(profile, sizeBytes);
+        Files.writeString(file, source);
+
+        Path socket = directory.resolve("scan.sock");
+        server = new ScanServer(new ScannerPool(1));
+        server.warmUp(ScanServer.DEFAULT_WARMUP_ROUNDS);
+        Thread acceptor = new Thread(() -> {
+            try {
+                server.serve(socket);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        acceptor.setDaemon(true);
+        acceptor.start();
+        client = connect(socket);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        client.close();
+        server.close();
+        Files.deleteIfExists(file);
+        Files.deleteIfExists(directory);
+    }
+
+    @Benchmark
+    public int scanFileRequest() throws IOException, ScannerException {
+        return count(client.scanFile(file, false));
+    }
+
+    @Benchmark
+    public int scanSourceRequest() throws IOException, ScannerException {
+        return count(client.scanSource(source, true));
+    }
+
+    // The socket file appears before the server listens on it
+    private static ScanClient connect(Path socket) throws IOException, InterruptedException {
+        for (int attempt = 0; ; attempt++) {
+            try {
+                return ScanClient.connect(socket);
+            } catch (IOException e) {
+                if (attempt == 100) throw e;
+                Thread.sleep(10);
+            }
+        }
+    }
+
+    private static int count(BinaryTokenReader tokens) throws IOException {
+        int count = 0;
+        while (tokens.next()) count++;
+        return count;
+    }
+}
@@ -0,0 +1,78 @@
+package analyzer.bench;
+
+import analyzer.scanner.Swar;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+// The byte searches behind comment, string and whitespace skipping: word-at-a-time
+// (Swar) against the byte loop they replace, over a direct buffer like a mapped file
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class SkipBenchmark {
+    @Param({"COMMENT_HEAVY", "LITERAL_HEAVY"})
+    public CorpusProfile profile;
+
+    @Param({"1048576"})
+    public int sizeBytes;
+
+    private ByteBuffer bytes;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        byte[] source = SyntheticCorpus.generate(profile, sizeBytes).getBytes(StandardCharsets.ISO_8859_1);
+        bytes = ByteBuffer.allocateDirect(source.length);
+        bytes.put(source).flip();
+    }
+
+    // Line counting, as done for block comments
+    @Benchmark
+    public int countNewlinesScalar(ThroughputCounters counters) {
+        counters.add(bytes.limit());
+        int count = 0;
+        for (int i = 0; i < bytes.limit(); i++) {
+            if (bytes.get(i) == '\n') count++;
+        }
+        return count;
+    }
+
+    @Benchmark
+    public int countNewlinesSwar(ThroughputCounters counters) {
+        counters.add(bytes.limit());
+        return Swar.count(bytes, 0, bytes.limit(), (byte) '\n');
+    }
+
+    // Walks every stop a string literal body has to look at
+    @Benchmark
+    public int stringStopsScalar(ThroughputCounters counters) {
+        counters.add(bytes.limit());
+        int stops = 0;
+        for (int i = 0; i < bytes.limit(); i++) {
+            byte b = bytes.get(i);
+            if (b == '"' || b == '\\' || b == '\n') stops++;
+        }
+        return stops;
+    }
+
+    @Benchmark
+    public int stringStopsSwar(ThroughputCounters counters) {
+        counters.add(bytes.limit());
+        int stops = 0;
+        int end = bytes.limit();
+        for (int i = Swar.indexOfAny(bytes, 0, end, (byte) '"', (byte) '\\', (byte) '\n'); i < end;
+             i = Swar.indexOfAny(bytes, i + 1, end, (byte) '"', (byte) '\\', (byte) '\n')) {
+            stops++;
+        }
+        return stops;
+    }
+}
@@ -0,0 +1,107 @@
+package analyzer.bench;
+
+import analyzer.Token.LexemePool;
+import analyzer.exceptions.ScannerException;
+import analyzer.index.SymbolIndex;
+import analyzer.index.SymbolIndexFile;
+import analyzer.scanner.CScanner;
+import analyzer.scanner.ScopedSymbolTable;
+import analyzer.scanner.SymbolTable;
+import analyzer.scanner.TokenValidator;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+// Building a SymbolIndex from the symbol tables of a batch of keyword-heavy files,
+// and querying it once written: lookups run against the memory-mapped file, one
+// name per op, cycling through every name in the index.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SymbolIndexBenchmark {
+    @Param({"64"})
+    public int files;
+
+    @Param({"65536"})
+    public int fileBytes;
+
+    private ScopedSymbolTable[] tables;
+    private Path[] paths;
+    private Path indexPath;
+    private SymbolIndexFile indexFile;
+    private String[] names;
+    private int next = 0;
+
+    @Setup(Level.Trial)
+    public void setup() throws ScannerException, IOException {
+        tables = new ScopedSymbolTable[files];
+        paths = new Path[files];
+        CScanner scanner = new CScanner(new TokenValidator(), new SymbolTable());
+        for (int i = 0; i < files; i++) {
+            // Functions and types are shared by every file, the flags are private to one
+            String source = SyntheticCorpus.generate(CorpusProfile.KEYWORD_HEAVY, fileBytes)
+                    .replace("flag", "file" + i + "_flag");
+            tables[i] = new ScopedSymbolTable(new LexemePool());
+            tables[i].index(scanner.scanTokenBuffer(source));
+            paths[i] = Path.of("src", "file" + i + ".c");
+        }
+
+        SymbolIndex index = merge();
+        indexPath = Files.createTempFile("symbol-index-bench", ".idx");
+        index.write(indexPath);
+        indexFile = SymbolIndexFile.open(indexPath);
+
+        LexemePool pool = tables[0].getLexemePool();
+        names = new String[pool.size()];
+        for (int id = 0; id < names.length; id++) {
+            names[id] = pool.getName(id);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(indexPath);
+    }
+
+    @Benchmark
+    public SymbolIndex merge() {
+        SymbolIndex index = new SymbolIndex();
+        for (int i = 0; i < tables.length; i++) {
+            index.merge(paths[i], tables[i]);
+        }
+        return index;
+    }
+
+    @Benchmark
+    public int countOccurrences() {
+        return indexFile.countOccurrences(nextName());
+    }
+
+    // Every position of one name, as a "find references" query reads them
+    @Benchmark
+    public int findOccurrences() {
+        SymbolIndexFile.Occurrences occurrences = indexFile.find(nextName());
+        int lines = 0;
+        while (occurrences.next()) {
+            lines += occurrences.getLine();
+        }
+        return lines;
+    }
+
+    private String nextName() {
+        String name = names[next];
+        next = next + 1 == names.length ? 0 : next + 1;
+        return name;
+    }
+}
@@ -0,0 +1,99 @@
+package analyzer.bench;
+
+import analyzer.Token.LexemePool;
+import analyzer.Token.Token;
+import analyzer.Token.TokenBuffer;
+import analyzer.Token.TokenType;
+import analyzer.exceptions.ScannerException;
+import analyzer.scanner.CScanner;
+import analyzer.scanner.ScopedSymbolTable;
+import analyzer.scanner.SymbolTable;
+import analyzer.scanner.TokenValidator;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+// Registration and interning of every identifier occurrence of a 1 MB keyword-heavy source
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SymbolTableBenchmark {
+    private final SymbolTable symbolTable = new SymbolTable();
+    private final LexemePool pool = new LexemePool();
+    private final ScopedSymbolTable scopedTable = new ScopedSymbolTable(pool);
+    private TokenBuffer tokens;
+    private Token[] identifiers;
+    private Token[] interned;
+
+    @Setup
+    public void setup() throws ScannerException {
+        String source = SyntheticCorpus.generate(CorpusProfile.KEYWORD_HEAVY, 1024 * 1024);
+        tokens = new CScanner(new TokenValidator(), new SymbolTable()).scanTokenBuffer(source);
+        List<Token> found = new ArrayList<>();
+        List<Token> foundInterned = new ArrayList<>();
+        for (int i = 0; i < tokens.size(); i++) {
+            if (tokens.getType(i) == TokenType.IDENTIFIER) {
+                found.add(tokens.get(i));
+                foundInterned.add(tokens.getSymbol(i, pool));
+            }
+        }
+        identifiers = found.toArray(new Token[0]);
+        interned = foundInterned.toArray(new Token[0]);
+    }
+
+    @Benchmark
+    public SymbolTable addSymbol() {
+        symbolTable.clear();
+        for (Token token : identifiers) {
+            symbolTable.addSymbol(token.getLexeme(), token);
+        }
+        return symbolTable;
+    }
+
+    @Benchmark
+    public SymbolTable addSymbolById() {
+        symbolTable.clear();
+        for (Token token : interned) {
+            symbolTable.addSymbol(token.getSymbolId(), token);
+        }
+        return symbolTable;
+    }
+
+    // Every occurrence with its token index and brace scope
+    @Benchmark
+    public ScopedSymbolTable indexScoped() {
+        scopedTable.clear();
+        scopedTable.index(tokens);
+        return scopedTable;
+    }
+
+    // Lexeme copies as the scanner used to make them, against pool lookups of the same ranges
+    @Benchmark
+    public int substringLexemes() {
+        int length = 0;
+        for (int i = 0; i < tokens.size(); i++) {
+            if (tokens.getType(i) == TokenType.IDENTIFIER) length += tokens.getLexeme(i).length();
+        }
+        return length;
+    }
+
+    @Benchmark
+    public int internLexemes() {
+        int ids = 0;
+        CharSequence source = tokens.getSource();
+        for (int i = 0; i < tokens.size(); i++) {
+            if (tokens.getType(i) == TokenType.IDENTIFIER) {
+                int start = tokens.getStart(i);
+                ids += pool.intern(source, start, start + tokens.getLength(i));
+            }
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,88 @@
+package analyzer.bench;
+
+import java.util.Random;
+
+// Deterministic C-like sources for benchmarks. Every profile only uses constructs
+// the scanner accepts, so runs measure scanning rather than error handling.
+public final class SyntheticCorpus {
+    private static final long SEED = 0x5EED;
+
+    private static final String[] TYPES = {"int", "char", "long", "short", "float", "double", "unsigned int", "signed char"};
+    private static final String[] NAMES = {"i", "j", "count", "size", "buffer", "node", "result", "index", "value", "length"};
+
+    private SyntheticCorpus() {
+    }
+
+    public static String generate(CorpusProfile profile, int targetBytes) {
+        Random random = new Random(SEED + profile.ordinal());
+        StringBuilder out = new StringBuilder(targetBytes + 256);
+        int unit = 0;
+        while (out.length() < targetBytes) {
+            switch (profile) {
+                case KEYWORD_HEAVY: keywordUnit(out, random, unit); break;
+                case COMMENT_HEAVY: commentUnit(out, random, unit); break;
+                case LITERAL_HEAVY: literalUnit(out, random, unit); break;
+                case PREPROCESSOR_HEAVY: preprocessorUnit(out, random, unit); break;
+                default: throw new IllegalArgumentException("Unknown profile: " + profile);
+            }
+            unit++;
+        }
+        return out.toString();
+    }
+
+    private static void keywordUnit(StringBuilder out, Random random, int unit) {
+        String type = pick(TYPES, random);
+        String name = pick(NAMES, random);
+        out.append("typedef struct node").append(unit).append(" { union { int a; float b; } u; enum kind k; } node")
+                .append(unit).append("_t;\n");
+        out.append("extern volatile ").append(type).append(" flag").append(unit).append(";\n");
+        out.append("static ").append(type).append(" fn").append(unit)
+                .append("(register int ").append(name).append(", const char *p) {\n");
+        out.append("    auto int n = 0;\n");
+        out.append("    while (").append(name).append(" > 0) {\n");
+        out.append("        if (p[").append(name).append("] == 0) break; else continue;\n");
+        out.append("    }\n");
+        out.append("    for (n = 0; n < sizeof(").append(type).append("); n++) {\n");
+        out.append("        if (n & 1) return n;\n");
+        out.append("    }\n");
+        out.append("    do { n--; } while (n);\n");
+        out.append("    return (").append(type).append(") ").append(name).append(";\n}\n\n");
+    }
+
+    private static void commentUnit(StringBuilder out, Random random, int unit) {
+        out.append("/*\n * Function ").append(unit).append(" computes something important.\n");
+        for (int i = 0; i < 1 + random.nextInt(4); i++) {
+            out.append(" * Detail line ").append(i).append(": the quick brown fox jumps over the lazy dog.\n");
+        }
+        out.append(" */\n");
+        out.append("int fn").append(unit).append("(int x) { // entry point\n");
+        out.append("    // adjust the input before use\n");
+        out.append("    return x + ").append(random.nextInt(100)).append("; /* trailing note */\n}\n\n");
+    }
+
+    private static void literalUnit(StringBuilder out, Random random, int unit) {
+        out.append("char *s").append(unit).append(" = \"message ").append(unit)
+                .append(" with \\\"escapes\\\" and a newline\\n\";\n");
+        out.append("char c").append(unit).append(" = '").append((char) ('a' + random.nextInt(26))).append("';\n");
+        out.append("char e").append(unit).append(" = '\\t';\n");
+        out.append("int n").append(unit).append(" = ").append(random.nextInt(1000000)).append(";\n");
+        out.append("double d").append(unit).append(" = ").append(random.nextInt(1000)).append('.')
+                .append(random.nextInt(100000)).append(";\n");
+        out.append("unsigned long h").append(unit).append(" = 0x").append(Integer.toHexString(random.nextInt()))
+                .append("UL; float f").append(unit).append(" = ").append(random.nextInt(1000)).append(".5e-")
+                .append(random.nextInt(30)).append("f;\n");
+    }
+
+    private static void preprocessorUnit(StringBuilder out, Random random, int unit) {
+        out.append("#ifndef GUARD_").append(unit).append('\n');
+        out.append("#define GUARD_").append(unit).append('\n');
+        out.append("#include <header").append(random.nextInt(50)).append(".h>\n");
+        out.append("#define VALUE_").append(unit).append(' ').append(random.nextInt(1000)).append('\n');
+        out.append("int v").append(unit).append(" = VALUE_").append(unit).append(";\n");
+        out.append("#endif\n");
+    }
+
+    private static String pick(String[] values, Random random) {
+        return values[random.nextInt(values.length)];
+    }
+}
@@ -0,0 +1,27 @@
+package analyzer.bench;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+// Secondary result for throughput benchmarks: bytes scanned, reported as MB/s
+@State(Scope.Thread)
+@AuxCounters(AuxCounters.Type.OPERATIONS)
+public class ThroughputCounters {
+    private long bytes;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+        bytes = 0;
+    }
+
+    public void add(long scanned) {
+        bytes += scanned;
+    }
+
+    public double megabytes() {
+        return bytes / (1024.0 * 1024.0);
+    }
+}
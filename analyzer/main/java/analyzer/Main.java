@@ -1,43 +1,564 @@
 
 package analyzer;
 
+import analyzer.batch.BatchReport;
+import analyzer.batch.BatchScanner;
+import analyzer.cache.TokenCache;
 import analyzer.interfaces.IScanner;
 import analyzer.interfaces.ITokenValidator;
 import analyzer.interfaces.ISymbolTable;
+import analyzer.interfaces.ITokenSink;
+import analyzer.metrics.ScanMetrics;
+import analyzer.output.BinaryTokenWriter;
+import analyzer.output.OutputFormat;
 import analyzer.scanner.CScanner;
+import analyzer.scanner.CheckpointIndex;
+import analyzer.scanner.ChunkedScanner;
+import analyzer.scanner.InstrumentedScanner;
+import analyzer.scanner.MappedFileScanner;
+import analyzer.scanner.ScannerOptions;
+import analyzer.scanner.ScannerState;
+import analyzer.scanner.TokenStream;
 import analyzer.scanner.TokenValidator;
 import analyzer.scanner.SymbolTable;
+import analyzer.scanner.TableDrivenScanner;
+import analyzer.server.ScanServer;
+import analyzer.server.ScannerPool;
 import analyzer.Token.Token;
+import analyzer.Token.TokenBuffer;
+import analyzer.Token.TokenType;
+import analyzer.exceptions.Diagnostics;
+import analyzer.exceptions.ParseException;
 import analyzer.exceptions.ScannerException;
+import analyzer.exceptions.PreprocessorException;
+import analyzer.index.SymbolIndex;
+import analyzer.index.SymbolIndexFile;
+import analyzer.parser.Parser;
+import analyzer.preprocessor.HeaderCache;
+import analyzer.preprocessor.Preprocessor;
+import java.io.BufferedWriter;
+import java.io.FileDescriptor;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Scanner;
+import java.util.function.BiFunction;
+import javax.management.JMException;
 
 public class Main {
     private static final ITokenValidator validator = new TokenValidator();
     private static final ISymbolTable symbolTable = new SymbolTable();
-    private static final IScanner scanner = new CScanner(validator, symbolTable);
+    private static BiFunction<ITokenValidator, ISymbolTable, IScanner> scannerFactory = CScanner::new;
+    private static IScanner scanner = new CScanner(validator, symbolTable);
+    private static boolean tableDriven = false;
+    private static TokenCache cache = null;
+    private static ScannerOptions options = ScannerOptions.DEFAULT;
+    private static OutputFormat format = OutputFormat.TEXT;
+    private static ScanMetrics metrics = null;
 
     public static void main(String[] args) {
-        if (args.length == 1) {
+        // --dfa selects the table-driven engine for in-memory and batch scans
+        if (args.length > 0 && "--dfa".equals(args[0])) {
+            tableDriven = true;
+            scannerFactory = TableDrivenScanner::new;
+            scanner = new TableDrivenScanner(validator, symbolTable);
+            args = Arrays.copyOfRange(args, 1, args.length);
+        }
+
+        // --skip-trivia drops comments and preprocessor lines (CScanner only)
+        if (args.length > 0 && "--skip-trivia".equals(args[0])) {
+            if (tableDriven) {
+                System.err.println("--skip-trivia is not supported by the table-driven scanner");
+                System.exit(64);
+            }
+            options = ScannerOptions.SKIP_TRIVIA;
+            scannerFactory = (v, s) -> new CScanner(v, s, ScannerOptions.SKIP_TRIVIA);
+            scanner = new CScanner(validator, symbolTable, options);
+            args = Arrays.copyOfRange(args, 1, args.length);
+        }
+
+        // --recover turns lexical errors into UNKNOWN tokens and diagnostics instead of
+        // stopping at the first one (CScanner only)
+        if (args.length > 0 && "--recover".equals(args[0])) {
+            if (tableDriven) {
+                System.err.println("--recover is not supported by the table-driven scanner");
+                System.exit(64);
+            }
+            ScannerOptions recovering = new ScannerOptions(options.skipsComments(), options.skipsPreprocessor(),
+                    true, ScannerOptions.DEFAULT_MAX_DIAGNOSTICS);
+            options = recovering;
+            scannerFactory = (v, s) -> new CScanner(v, s, recovering);
+            scanner = new CScanner(validator, symbolTable, options);
+            args = Arrays.copyOfRange(args, 1, args.length);
+        }
+
+        // --metrics times the scan per lexeme category and publishes the totals over
+        // JMX and JFR; the summary goes to stderr
+        if (args.length > 0 && "--metrics".equals(args[0])) {
+            if (tableDriven) {
+                System.err.println("--metrics is not supported by the table-driven scanner");
+                System.exit(64);
+            }
+            metrics = new ScanMetrics();
+            try {
+                metrics.register(ScanMetrics.DEFAULT_OBJECT_NAME);
+            } catch (JMException e) {
+                System.err.println("Metrics are not published over JMX: " + e.getMessage());
+            }
+            scanner = new InstrumentedScanner(validator, symbolTable, options, metrics);
+            args = Arrays.copyOfRange(args, 1, args.length);
+        }
+
+        // --format <text | ndjson | csv> selects how tokens are printed
+        if (args.length > 1 && "--format".equals(args[0])) {
+            try {
+                format = OutputFormat.parse(args[1]);
+            } catch (IllegalArgumentException e) {
+                System.err.println(e.getMessage());
+                System.exit(64);
+            }
+            args = Arrays.copyOfRange(args, 2, args.length);
+        }
+
+        // --cache <dir> reuses the tokens of files scanned before
+        if (args.length > 1 && "--cache".equals(args[0])) {
+            // Cache keys cover the source and scanner version, not the options
+            if (options != ScannerOptions.DEFAULT) {
+                System.err.println("--cache cannot be combined with --skip-trivia or --recover");
+                System.exit(64);
+            }
+            try {
+                cache = new TokenCache(TokenCache.DEFAULT_MEMORY_LIMIT, Path.of(args[1]));
+            } catch (IOException e) {
+                System.err.println("Error opening cache: " + e.getMessage());
+                System.exit(74);
+            }
+            args = Arrays.copyOfRange(args, 2, args.length);
+        }
+
+        // --emit-binary <out> <file> writes the tokens in TokenFormat; "-" is stdout / stdin
+        if (args.length > 0 && "--emit-binary".equals(args[0])) {
+            if (args.length != 3) {
+                System.err.println("Usage: --emit-binary <out | -> <file | ->");
+                System.exit(64);
+            }
+            runEmitBinary(args[2], args[1]);
+        } else if (args.length > 0 && "--batch".equals(args[0])) {
+            rejectMetrics("--batch");
+            runBatch(Arrays.asList(args).subList(1, args.length));
+        } else if (args.length > 2 && "--checkpoint".equals(args[0])) {
+            rejectTableDriven("--checkpoint");
+            rejectMetrics("--checkpoint");
+            runCheckpoint(Arrays.asList(args).subList(1, args.length));
+        } else if (args.length == 4 && "--lines".equals(args[0])) {
+            rejectTableDriven("--lines");
+            rejectMetrics("--lines");
+            runLines(args[1], args[2], args[3]);
+        } else if (args.length > 2 && "--lookup".equals(args[0])) {
+            rejectMetrics("--lookup");
+            runLookup(args[1], Arrays.asList(args).subList(2, args.length));
+        } else if (args.length > 0 && "--serve".equals(args[0])) {
+            rejectMetrics("--serve");
+            runServer(Arrays.asList(args).subList(1, args.length));
+        } else if (args.length == 2 && "--chunked".equals(args[0])) {
+            if (options.recoversErrors()) {
+                System.err.println("--chunked cannot be combined with --recover");
+                System.exit(64);
+            }
+            rejectTableDriven("--chunked");
+            rejectMetrics("--chunked");
+            runChunked(args[1]);
+        } else if (args.length == 2 && "--parse".equals(args[0])) {
+            runParse(args[1]);
+        } else if (args.length > 1 && "--preprocess".equals(args[0])) {
+            rejectTableDriven("--preprocess");
+            rejectMetrics("--preprocess");
+            runPreprocess(Arrays.asList(args).subList(1, args.length));
+        } else if (args.length == 1) {
             runFile(args[0]);
         } else {
             runPrompt();
         }
+
+        if (metrics != null) {
+            System.err.println(metrics);
+        }
     }
 
     private static void runFile(String path) {
+        // The streaming paths are built on CScanner; cached tokens need the whole text,
+        // and metrics come from the in-memory scanner
+        if (tableDriven || cache != null || metrics != null) {
+            runFileInMemory(path);
+            return;
+        }
+
+        // "-" streams standard input, anything else a memory-mapped file
+        try (TokenStream tokens = "-".equals(path)
+                ? TokenStream.open(Channels.newChannel(System.in), validator, symbolTable, options)
+                : TokenStream.open(Path.of(path), validator, symbolTable, options)) {
+            printHeader();
+            ITokenSink sink = openSink();
+            try {
+                while (tokens.hasNext()) {
+                    sink.write(tokens.next());
+                }
+            } finally {
+                // Tokens scanned before an error are still printed
+                sink.flush();
+            }
+            printFooter();
+            printDiagnostics(tokens.getDiagnostics());
+        } catch (ScannerException e) {
+            System.err.println("Scanner Error: " + e.getMessage());
+        } catch (IOException e) {
+            System.err.println("Error reading file: " + e.getMessage());
+            System.exit(74);
+        }
+    }
+
+    private static void runFileInMemory(String path) {
+        try {
+            String source = "-".equals(path)
+                    ? new String(System.in.readAllBytes(), StandardCharsets.UTF_8)
+                    : Files.readString(Path.of(path));
+            if (cache == null) {
+                scan(source);
+                return;
+            }
+
+            print(cache.scan(source, scanner, symbolTable));
+            // Keep machine-readable output clean
+            (format == OutputFormat.TEXT ? System.out : System.err).println(cache);
+        } catch (ScannerException e) {
+            System.err.println("Scanner Error: " + e.getMessage());
+        } catch (IOException e) {
+            System.err.println("Error reading file: " + e.getMessage());
+            System.exit(74);
+        }
+    }
+
+    // Scans a whole file into a TokenBuffer and writes it out with literal payloads,
+    // skipping Token objects and text formatting altogether
+    private static void runEmitBinary(String path, String out) {
+        try {
+            String source = "-".equals(path)
+                    ? new String(System.in.readAllBytes(), StandardCharsets.UTF_8)
+                    : Files.readString(Path.of(path));
+            TokenBuffer tokens = cache != null
+                    ? cache.scan(source, scanner, symbolTable)
+                    : scanner.scanTokenBuffer(source);
+
+            WritableByteChannel channel = "-".equals(out)
+                    ? Channels.newChannel(System.out)
+                    : FileChannel.open(Path.of(out), StandardOpenOption.CREATE,
+                            StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+            try (BinaryTokenWriter writer = new BinaryTokenWriter(channel, true)) {
+                writer.write(tokens);
+            }
+            printDiagnostics(scanner.getDiagnostics());
+        } catch (ScannerException e) {
+            System.err.println("Scanner Error: " + e.getMessage());
+            System.exit(65);
+        } catch (IOException e) {
+            System.err.println("I/O error: " + e.getMessage());
+            System.exit(74);
+        }
+    }
+
+    // A positive count argument; anything else prints the usage line and exits
+    private static int parsePositive(String value, String usage) {
+        try {
+            int number = Integer.parseInt(value);
+            if (number > 0) return number;
+        } catch (NumberFormatException e) {
+            // Reported below with the usage line
+        }
+        System.err.println("Usage: " + usage);
+        System.exit(64);
+        return 0;
+    }
+
+    // Modes that build their own CScanner would silently ignore --dfa
+    private static void rejectTableDriven(String mode) {
+        if (tableDriven) {
+            System.err.println(mode + " is not supported by the table-driven scanner");
+            System.exit(64);
+        }
+    }
+
+    // Only scans through the in-memory scanner are instrumented; ScanMetrics counts
+    // one scan at a time, so the parallel modes could not share it anyway
+    private static void rejectMetrics(String mode) {
+        if (metrics != null) {
+            System.err.println("--metrics cannot be combined with " + mode);
+            System.exit(64);
+        }
+    }
+
+    // Splits one large file into chunks that are scanned on all cores
+    private static void runChunked(String path) {
+        try {
+            String source = Files.readString(Path.of(path));
+            print(new ChunkedScanner(validator, options).scan(source, symbolTable));
+        } catch (ScannerException e) {
+            System.err.println("Scanner Error: " + e.getMessage());
+        } catch (IOException e) {
+            System.err.println("Error reading file: " + e.getMessage());
+            System.exit(74);
+        }
+    }
+
+    // Prints the syntax tree of a file as an indented outline
+    private static void runParse(String path) {
         try {
             String source = Files.readString(Path.of(path));
-            scan(source);
+            TokenBuffer tokens = scanner.scanTokenBuffer(source);
+            BufferedWriter out = new BufferedWriter(new OutputStreamWriter(System.out, Charset.defaultCharset()),
+                    64 * 1024);
+            new Parser().parse(tokens).print(out);
+            out.flush();
+        } catch (ScannerException e) {
+            System.err.println("Scanner Error: " + e.getMessage());
+            System.exit(65);
+        } catch (ParseException e) {
+            System.err.println("Parse Error: " + e.getMessage());
+            System.exit(65);
         } catch (IOException e) {
             System.err.println("Error reading file: " + e.getMessage());
             System.exit(74);
         }
     }
 
+    // --preprocess [-I dir]... [-D name[=value]]... [-U name]... <file>...: prints the
+    // tokens of each file after preprocessing; the files share one header cache
+    private static void runPreprocess(List<String> args) {
+        List<Path> searchPaths = new ArrayList<>();
+        List<String> definitions = new ArrayList<>();
+        int i = 0;
+        for (; i + 1 < args.size() && args.get(i).matches("-[IDU]"); i += 2) {
+            if ("-I".equals(args.get(i))) {
+                searchPaths.add(Path.of(args.get(i + 1)));
+            } else {
+                definitions.add(args.get(i) + args.get(i + 1));
+            }
+        }
+        if (i == args.size()) {
+            System.err.println("Usage: --preprocess [-I dir]... [-D name[=value]]... [-U name]... <file>...");
+            System.exit(64);
+        }
+
+        HeaderCache headers = new HeaderCache();
+        Preprocessor preprocessor = new Preprocessor(searchPaths, headers);
+        for (String definition : definitions) {
+            String name = definition.substring(2);
+            int equals = name.indexOf('=');
+            if (definition.startsWith("-U")) {
+                preprocessor.undefine(name);
+            } else if (equals < 0) {
+                preprocessor.define(name, "1");
+            } else {
+                preprocessor.define(name.substring(0, equals), name.substring(equals + 1));
+            }
+        }
+
+        try {
+            for (String file : args.subList(i, args.size())) {
+                TokenBuffer tokens = preprocessor.preprocess(Path.of(file)).getTokens();
+                printHeader();
+                ITokenSink sink = openSink();
+                sink.write(tokens);
+                sink.flush();
+            }
+            // Keep machine-readable output clean
+            (format == OutputFormat.TEXT ? System.out : System.err).println(headers);
+        } catch (PreprocessorException e) {
+            System.err.println("Preprocessor Error: " + e.getMessage());
+            System.exit(65);
+        } catch (IOException e) {
+            System.err.println("Error reading file: " + e.getMessage());
+            System.exit(74);
+        }
+    }
+
+    // --batch [-j threads] [--index out] <file | directory | @file-list>...
+    private static void runBatch(List<String> args) {
+        int threads = Runtime.getRuntime().availableProcessors();
+        if (args.size() >= 2 && "-j".equals(args.get(0))) {
+            threads = parsePositive(args.get(1),
+                    "--batch [-j threads] [--index out] <file | directory | @file-list>...");
+            args = args.subList(2, args.size());
+        }
+        Path indexPath = null;
+        if (args.size() >= 2 && "--index".equals(args.get(0))) {
+            indexPath = Path.of(args.get(1));
+            args = args.subList(2, args.size());
+        }
+
+        try {
+            List<Path> files = BatchScanner.collectSources(args);
+            SymbolIndex index = indexPath == null ? null : new SymbolIndex();
+            BatchReport report = new BatchScanner(threads, scannerFactory, index).scan(files);
+            report.print(System.out);
+            if (index != null) {
+                index.write(indexPath);
+                System.out.println("Index: " + index);
+            }
+            if (report.getErrorCount() > 0) {
+                System.exit(65);
+            }
+        } catch (IOException e) {
+            System.err.println("Error reading file: " + e.getMessage());
+            System.exit(74);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.err.println("Batch scan interrupted");
+            System.exit(70);
+        }
+    }
+
+    // --checkpoint [-k kilobytes] <index> <file>: scans a file, adding a checkpoint to
+    // the index every so many kilobytes; a scan that died resumes from the last one
+    private static void runCheckpoint(List<String> args) {
+        String usage = "--checkpoint [-k kilobytes] <index> <file>";
+        int interval = CheckpointIndex.DEFAULT_INTERVAL;
+        if (args.size() >= 2 && "-k".equals(args.get(0))) {
+            int kilobytes = parsePositive(args.get(1), usage);
+            if (kilobytes > Integer.MAX_VALUE / 1024) {
+                System.err.println("Checkpoint interval too large: " + kilobytes + " KB");
+                System.exit(64);
+            }
+            interval = kilobytes * 1024;
+            args = args.subList(2, args.size());
+        }
+        if (args.size() != 2) {
+            System.err.println("Usage: " + usage);
+            System.exit(64);
+        }
+
+        Path source = Path.of(args.get(1));
+        try (CheckpointIndex checkpoints = CheckpointIndex.open(Path.of(args.get(0)), source, interval);
+             MappedFileScanner tokens = new MappedFileScanner(source, validator, symbolTable, options)) {
+            ScannerState resumed = checkpoints.last();
+            tokens.restore(resumed);
+            tokens.recordCheckpoints(checkpoints);
+            long count = 0;
+            while (tokens.nextToken().getType() != TokenType.EOF) {
+                count++;
+            }
+            System.out.println("Resumed at line " + resumed.getLine() + ", scanned " + count + " tokens");
+            System.out.println(checkpoints);
+            printDiagnostics(tokens.getDiagnostics());
+        } catch (ScannerException e) {
+            System.err.println("Scanner Error: " + e.getMessage());
+            System.exit(65);
+        } catch (IOException e) {
+            System.err.println("Error reading file: " + e.getMessage());
+            System.exit(74);
+        }
+    }
+
+    // --lines <index> <file> <from>[:<to>]: the tokens of those lines, scanned from the
+    // checkpoint before them rather than from the start of the file
+    private static void runLines(String indexPath, String path, String range) {
+        int separator = range.indexOf(':');
+        String usage = "--lines <index> <file> <from>[:<to>]";
+        int from = parsePositive(separator < 0 ? range : range.substring(0, separator), usage);
+        int to = separator < 0 ? from : parsePositive(range.substring(separator + 1), usage);
+
+        try (MappedFileScanner tokens = new MappedFileScanner(Path.of(path), validator, symbolTable, options)) {
+            tokens.restore(CheckpointIndex.load(Path.of(indexPath), Path.of(path)).floorLine(from));
+            printHeader();
+            ITokenSink sink = openSink();
+            try {
+                // Tokens come in line order, so the scan stops at the first one past the range
+                Token token = tokens.nextToken();
+                while (token.getType() != TokenType.EOF && token.getLine() <= to) {
+                    if (token.getLine() >= from) sink.write(token);
+                    token = tokens.nextToken();
+                }
+            } finally {
+                sink.flush();
+            }
+            printDiagnostics(tokens.getDiagnostics());
+        } catch (ScannerException e) {
+            System.err.println("Scanner Error: " + e.getMessage());
+            System.exit(65);
+        } catch (IOException e) {
+            System.err.println("Error reading file: " + e.getMessage());
+            System.exit(74);
+        }
+    }
+
+    // --lookup <index> <name>...: every occurrence of each name as path:line:column
+    private static void runLookup(String indexPath, List<String> names) {
+        try {
+            SymbolIndexFile index = SymbolIndexFile.open(Path.of(indexPath));
+            for (String name : names) {
+                SymbolIndexFile.Occurrences occurrences = index.find(name);
+                while (occurrences.next()) {
+                    System.out.println(index.getFile(occurrences.getFile()) + ":" + occurrences.getLine() + ":"
+                            + occurrences.getColumn() + ": " + name);
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Error reading index: " + e.getMessage());
+            System.exit(74);
+        }
+    }
+
+    // --serve [-j threads] [socket | -]: answers ScanProtocol requests on a Unix domain
+    // socket until killed, or on standard input and output until the input ends
+    private static void runServer(List<String> args) {
+        int threads = Runtime.getRuntime().availableProcessors();
+        if (args.size() >= 2 && "-j".equals(args.get(0))) {
+            threads = parsePositive(args.get(1), "--serve [-j threads] [socket | -]");
+            args = args.subList(2, args.size());
+        }
+        String socket = args.isEmpty() ? "-" : args.get(0);
+
+        ScanServer server = new ScanServer(new ScannerPool(threads, scannerFactory));
+        try {
+            server.warmUp(ScanServer.DEFAULT_WARMUP_ROUNDS);
+            if ("-".equals(socket)) {
+                // Raw descriptors: anything buffered in System.out would corrupt the frames
+                server.serve(new FileInputStream(FileDescriptor.in).getChannel(),
+                        new FileOutputStream(FileDescriptor.out).getChannel());
+                server.close();
+                return;
+            }
+
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    server.close();
+                } catch (IOException e) {
+                    System.err.println("Error removing socket: " + e.getMessage());
+                }
+            }));
+            System.err.println("Serving on " + socket + " with " + threads + " scanners");
+            server.serve(Path.of(socket));
+        } catch (IOException e) {
+            System.err.println("Server error: " + e.getMessage());
+            System.exit(74);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.err.println("Server interrupted");
+            System.exit(70);
+        }
+    }
+
     private static void runPrompt() {
         Scanner input = new Scanner(System.in);
 
@@ -59,18 +580,51 @@ public class Main {
 
     private static void scan(String source) {
         try {
-            List<Token> tokens = scanner.scanTokens(source);
+            print(scanner.scanTokenBuffer(source));
+            printDiagnostics(scanner.getDiagnostics());
+        } catch (ScannerException e) {
+            System.err.println("Scanner Error: " + e.getMessage());
+        } catch (IOException e) {
+            System.err.println("Error writing tokens: " + e.getMessage());
+        }
+    }
+
+    private static void print(TokenBuffer tokens) throws IOException {
+        printHeader();
+        ITokenSink sink = openSink();
+        sink.write(tokens);
+        sink.flush();
+        printFooter();
+    }
+
+    // Tokens go through a sink that formats into one buffer and writes System.out in
+    // large batches. It is flushed, never closed, so System.out stays usable.
+    private static ITokenSink openSink() {
+        return format.open(new BufferedWriter(new OutputStreamWriter(System.out, Charset.defaultCharset()),
+                64 * 1024), 0);
+    }
 
+    // Errors recovered with --recover, reported the way a failed scan reports its error
+    private static void printDiagnostics(Diagnostics diagnostics) {
+        for (int i = 0; i < diagnostics.size(); i++) {
+            System.err.println("Scanner Error: " + diagnostics.getMessage(i));
+        }
+        if (diagnostics.getDroppedCount() > 0) {
+            System.err.println("... and " + diagnostics.getDroppedCount() + " more errors");
+        }
+    }
+
+    // The machine-readable formats carry nothing but tokens
+    private static void printHeader() {
+        if (format == OutputFormat.TEXT) {
             System.out.println("\n=== TOKENS ===");
-            for (Token token : tokens) {
-                System.out.println(token);
-            }
+        }
+    }
 
+    private static void printFooter() {
+        if (format == OutputFormat.TEXT) {
             System.out.println("\n=== SYMBOL TABLE ===");
             System.out.println("Symbols found: " + ((SymbolTable) symbolTable).size());
-
-        } catch (ScannerException e) {
-            System.err.println("Scanner Error: " + e.getMessage());
         }
     }
 }
@@ -0,0 +1,116 @@
+package analyzer.Token;
+
+import java.util.Arrays;
+
+// Interns identifier lexemes straight from a source char range. Every distinct name
+// gets one canonical String and a dense symbol id (0, 1, 2, ... in order of first
+// appearance); looking up a name that was seen before allocates nothing. Ids stay
+// valid for the lifetime of the pool, across all sources scanned with it.
+//
+// Names live in an open-addressing table of ids with linear probing. A pool is not
+// thread-safe; every scanner owns its own.
+public class LexemePool {
+    private static final int MIN_CAPACITY = 64;
+
+    private int[] slots;        // id + 1, or 0 for an empty slot
+    private String[] names;
+    private int[] hashes;
+    private int size = 0;
+
+    public LexemePool() {
+        this(MIN_CAPACITY);
+    }
+
+    public LexemePool(int expectedNames) {
+        int capacity = Integer.highestOneBit(Math.max(MIN_CAPACITY, expectedNames) * 2 - 1) << 1;
+        this.slots = new int[capacity];
+        this.names = new String[capacity >> 1];
+        this.hashes = new int[capacity >> 1];
+    }
+
+    // Symbol id of text[start, end), adding the name if it is new
+    public int intern(CharSequence text, int start, int end) {
+        int hash = hash(text, start, end);
+        int mask = slots.length - 1;
+        int slot = hash & mask;
+        while (slots[slot] != 0) {
+            int id = slots[slot] - 1;
+            if (hashes[id] == hash && matches(names[id], text, start, end)) return id;
+            slot = (slot + 1) & mask;
+        }
+        return add(text.subSequence(start, end).toString(), hash, slot);
+    }
+
+    public int intern(String name) {
+        return intern(name, 0, name.length());
+    }
+
+    // Symbol id of a name, or -1 if the pool has never seen it
+    public int find(CharSequence name) {
+        int hash = hash(name, 0, name.length());
+        int mask = slots.length - 1;
+        for (int slot = hash & mask; slots[slot] != 0; slot = (slot + 1) & mask) {
+            int id = slots[slot] - 1;
+            if (hashes[id] == hash && matches(names[id], name, 0, name.length())) return id;
+        }
+        return -1;
+    }
+
+    public String getName(int id) {
+        if (id < 0 || id >= size) {
+            throw new IndexOutOfBoundsException("Symbol id " + id + " out of bounds for size " + size);
+        }
+        return names[id];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private int add(String name, int hash, int slot) {
+        int id = size++;
+        names[id] = name;
+        hashes[id] = hash;
+        slots[slot] = id + 1;
+
+        // Keep the table at most half full
+        if (size == names.length) grow();
+        return id;
+    }
+
+    private void grow() {
+        int capacity = slots.length << 1;
+        int mask = capacity - 1;
+        slots = new int[capacity];
+        for (int id = 0; id < size; id++) {
+            int slot = hashes[id] & mask;
+            while (slots[slot] != 0) slot = (slot + 1) & mask;
+            slots[slot] = id + 1;
+        }
+        names = Arrays.copyOf(names, capacity >> 1);
+        hashes = Arrays.copyOf(hashes, capacity >> 1);
+    }
+
+    private static boolean matches(String name, CharSequence text, int start, int end) {
+        if (name.length() != end - start) return false;
+        if (text instanceof String) return name.regionMatches(0, (String) text, start, end - start);
+        for (int i = 0; i < name.length(); i++) {
+            if (name.charAt(i) != text.charAt(start + i)) return false;
+        }
+        return true;
+    }
+
+    // String.hashCode over the range, two chars per step to shorten the dependency
+    // chain. Names like x1, x2, x3 have consecutive hash codes, which would cluster
+    // under linear probing, so the result is scrambled before it picks a slot.
+    private static int hash(CharSequence text, int start, int end) {
+        int h = 0;
+        int i = start;
+        for (; i + 1 < end; i += 2) {
+            h = 961 * h + 31 * text.charAt(i) + text.charAt(i + 1);
+        }
+        if (i < end) h = 31 * h + text.charAt(i);
+        h *= 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
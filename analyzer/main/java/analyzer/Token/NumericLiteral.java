@@ -0,0 +1,260 @@
+package analyzer.Token;
+
+import java.math.BigInteger;
+
+// C99 integer and floating constants (6.4.4.1, 6.4.4.2), parsed straight from the
+// chars of the source into a long: the value of an integer constant, or the bits of
+// a double for a floating one. No String is built except for the rare floating
+// constants that need more than the fast path below.
+//
+// A constant is first delimited as a preprocessing number (6.4.8): a digit or '.'
+// digit followed by letters, digits, '_', '.' and signs after e, E, p or P. Text
+// such as "08" or "12abc" is one malformed number, not several tokens.
+//
+// Instances keep the result of the last parse and are reused by their scanner.
+public final class NumericLiteral {
+    private static final long MAX_EXACT_DOUBLE = 1L << 53;
+    private static final long MAX_EXACT_FLOAT = 1L << 24;
+    private static final int MAX_MANTISSA_DIGITS = 18;
+    private static final int MAX_EXPONENT = 100_000;
+    private static final double[] DOUBLE_POWERS = new double[23];
+    private static final float[] FLOAT_POWERS = new float[11];
+    static {
+        DOUBLE_POWERS[0] = 1;
+        for (int i = 1; i < DOUBLE_POWERS.length; i++) DOUBLE_POWERS[i] = DOUBLE_POWERS[i - 1] * 10;
+        FLOAT_POWERS[0] = 1;
+        for (int i = 1; i < FLOAT_POWERS.length; i++) FLOAT_POWERS[i] = FLOAT_POWERS[i - 1] * 10;
+    }
+
+    private TokenType type;
+    private long bits;
+    private boolean tooLarge;
+
+    // Position just past the preprocessing number that starts at start, or start if
+    // no number starts there
+    public static int end(CharSequence text, int start, int limit) {
+        if (start >= limit) return start;
+        char first = text.charAt(start);
+        if (first == '.') {
+            if (start + 1 >= limit || !isDigit(text.charAt(start + 1))) return start;
+        } else if (!isDigit(first)) {
+            return start;
+        }
+
+        int i = start + 1;
+        while (i < limit) {
+            char c = text.charAt(i);
+            if ((c == '+' || c == '-') && isExponentMark(text.charAt(i - 1))) {
+                i++;
+            } else if (isDigit(c) || isLetter(c) || c == '.') {
+                i++;
+            } else {
+                break;
+            }
+        }
+        return i;
+    }
+
+    // Parses text[start, end), a whole preprocessing number. Returns false if it is
+    // not a valid constant; isTooLarge() then tells an integer that does not fit in
+    // 64 bits from a malformed one.
+    public boolean parse(CharSequence text, int start, int end) {
+        type = null;
+        bits = 0;
+        tooLarge = false;
+
+        boolean hex = end - start > 2 && text.charAt(start) == '0'
+                && (text.charAt(start + 1) == 'x' || text.charAt(start + 1) == 'X');
+        int i = hex ? start + 2 : start;
+
+        int integerStart = i;
+        while (i < end && isDigit(text.charAt(i), hex)) i++;
+        int integerEnd = i;
+
+        int fractionStart = i;
+        int fractionEnd = i;
+        boolean isFloat = false;
+        if (i < end && text.charAt(i) == '.') {
+            isFloat = true;
+            fractionStart = ++i;
+            while (i < end && isDigit(text.charAt(i), hex)) i++;
+            fractionEnd = i;
+        }
+        if (integerStart == integerEnd && fractionStart == fractionEnd) return false;
+
+        int exponent = 0;
+        boolean hasExponent = false;
+        if (i < end && isExponentMark(text.charAt(i), hex)) {
+            isFloat = true;
+            hasExponent = true;
+            i++;
+            boolean negative = false;
+            if (i < end && (text.charAt(i) == '+' || text.charAt(i) == '-')) {
+                negative = text.charAt(i++) == '-';
+            }
+            int digitsStart = i;
+            while (i < end && isDigit(text.charAt(i))) {
+                exponent = Math.min(exponent * 10 + (text.charAt(i++) - '0'), MAX_EXPONENT);
+            }
+            if (i == digitsStart) return false;
+            if (negative) exponent = -exponent;
+        }
+        int suffixStart = i;
+
+        if (isFloat) {
+            // A hexadecimal floating constant must have a binary exponent
+            if (hex && !hasExponent) return false;
+            if (!isFloatSuffix(text, suffixStart, end)) return false;
+            boolean single = end - suffixStart == 1 && (text.charAt(suffixStart) | 0x20) == 'f';
+            double value = hex
+                    ? slowFloat(text, start, suffixStart, single)
+                    : decimalFloat(text, integerStart, integerEnd, fractionStart, fractionEnd,
+                            exponent, single, start, suffixStart);
+            type = TokenType.FLOAT_LITERAL;
+            bits = Double.doubleToRawLongBits(value);
+            return true;
+        }
+
+        if (!isIntegerSuffix(text, suffixStart, end)) return false;
+        boolean octal = !hex && text.charAt(start) == '0';
+        int radixBits = hex ? 4 : octal ? 3 : 0;
+        long value = 0;
+        for (int j = integerStart; j < integerEnd; j++) {
+            int digit = Character.digit(text.charAt(j), 16);
+            if (radixBits == 0) {
+                // Unsigned overflow of value * 10 + digit
+                if (Long.compareUnsigned(value, Long.divideUnsigned(-1L, 10)) > 0
+                        || Long.compareUnsigned(value * 10, -1L - digit) > 0) {
+                    tooLarge = true;
+                    return false;
+                }
+                value = value * 10 + digit;
+            } else {
+                if (digit >= (1 << radixBits)) return false;
+                if (value >>> (Long.SIZE - radixBits) != 0) {
+                    tooLarge = true;
+                    return false;
+                }
+                value = (value << radixBits) | digit;
+            }
+        }
+        type = TokenType.INTEGER_LITERAL;
+        bits = value;
+        return true;
+    }
+
+    // Getters
+    public TokenType getType() { return type; }
+    public long getBits() { return bits; }
+    public boolean isTooLarge() { return tooLarge; }
+
+    // Value bits of a scanned numeric lexeme, 0 if it is malformed
+    public static long valueBits(CharSequence text, int start, int end) {
+        NumericLiteral literal = new NumericLiteral();
+        return literal.parse(text, start, end) ? literal.bits : 0;
+    }
+
+    // Boxed form of the value bits for code that works with objects: a Long, a
+    // BigInteger for integers above Long.MAX_VALUE, or a Double
+    public static Object box(TokenType type, long bits) {
+        if (type == TokenType.FLOAT_LITERAL) return Double.longBitsToDouble(bits);
+        if (bits >= 0) return bits;
+        return new BigInteger(Long.toUnsignedString(bits));
+    }
+
+    // Decimal significand and exponent are accumulated in a long and an int; when both
+    // the significand and the power of ten are exact in the target type, one
+    // multiplication or division rounds correctly (Clinger's fast path)
+    private static double decimalFloat(CharSequence text, int integerStart, int integerEnd,
+                                       int fractionStart, int fractionEnd, int exponent,
+                                       boolean single, int start, int suffixStart) {
+        long mantissa = 0;
+        int digits = 0;
+        boolean exact = true;
+        for (int j = integerStart; j < integerEnd; j++) {
+            int digit = text.charAt(j) - '0';
+            if (digits < MAX_MANTISSA_DIGITS) {
+                mantissa = mantissa * 10 + digit;
+                if (mantissa != 0) digits++;
+            } else {
+                exponent++;
+                exact &= digit == 0;
+            }
+        }
+        for (int j = fractionStart; j < fractionEnd; j++) {
+            int digit = text.charAt(j) - '0';
+            if (digits < MAX_MANTISSA_DIGITS) {
+                mantissa = mantissa * 10 + digit;
+                if (mantissa != 0) digits++;
+                exponent--;
+            } else {
+                exact &= digit == 0;
+            }
+        }
+
+        if (mantissa == 0) return 0.0;
+        if (exact) {
+            if (single && mantissa <= MAX_EXACT_FLOAT && Math.abs(exponent) < FLOAT_POWERS.length) {
+                float value = mantissa;
+                return exponent < 0 ? value / FLOAT_POWERS[-exponent] : value * FLOAT_POWERS[exponent];
+            }
+            if (!single && mantissa <= MAX_EXACT_DOUBLE && Math.abs(exponent) < DOUBLE_POWERS.length) {
+                double value = mantissa;
+                return exponent < 0 ? value / DOUBLE_POWERS[-exponent] : value * DOUBLE_POWERS[exponent];
+            }
+        }
+        return slowFloat(text, start, suffixStart, single);
+    }
+
+    // Java reads the same decimal and hexadecimal forms as C once the suffix is gone
+    private static double slowFloat(CharSequence text, int start, int end, boolean single) {
+        String digits = text.subSequence(start, end).toString();
+        return single ? Float.parseFloat(digits) : Double.parseDouble(digits);
+    }
+
+    private static boolean isFloatSuffix(CharSequence text, int start, int end) {
+        if (start == end) return true;
+        if (end - start > 1) return false;
+        char c = (char) (text.charAt(start) | 0x20);
+        return c == 'f' || c == 'l';
+    }
+
+    // u or U, l, L, ll or LL, in either order
+    private static boolean isIntegerSuffix(CharSequence text, int start, int end) {
+        boolean unsigned = false;
+        boolean isLong = false;
+        int i = start;
+        while (i < end) {
+            char c = text.charAt(i++);
+            if ((c == 'u' || c == 'U') && !unsigned) {
+                unsigned = true;
+            } else if ((c == 'l' || c == 'L') && !isLong) {
+                isLong = true;
+                if (i < end && text.charAt(i) == c) i++;
+            } else {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isDigit(char c, boolean hex) {
+        return isDigit(c) || (hex && (c | 0x20) >= 'a' && (c | 0x20) <= 'f');
+    }
+
+    private static boolean isLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || c == '_';
+    }
+
+    private static boolean isExponentMark(char c) {
+        return c == 'e' || c == 'E' || c == 'p' || c == 'P';
+    }
+
+    private static boolean isExponentMark(char c, boolean hex) {
+        return hex ? c == 'p' || c == 'P' : c == 'e' || c == 'E';
+    }
+}
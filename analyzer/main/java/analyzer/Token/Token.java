@@ -1,17 +1,35 @@
 package analyzer.Token;
 public class Token {
+    // Symbol id of tokens that were not interned in a LexemePool
+    public static final int NO_SYMBOL = -1;
+
     private final TokenType type;
     private final String lexeme;
     private final int line;
     private final int column;
     private final Object value;
+    private final int symbolId;
 
-    public Token(TokenType type, String lexeme, int line, int column, Object value) {
+    // Value of numeric literals, kept unboxed: an integer's 64 bits or a double's raw bits
+    private final long numericValue;
+
+    public Token(TokenType type, String lexeme, int line, int column, Object value, int symbolId,
+                 long numericValue) {
         this.type = type;
         this.lexeme = lexeme;
         this.line = line;
         this.column = column;
         this.value = value;
+        this.symbolId = symbolId;
+        this.numericValue = numericValue;
+    }
+
+    public Token(TokenType type, String lexeme, int line, int column, Object value, int symbolId) {
+        this(type, lexeme, line, column, value, symbolId, 0);
+    }
+
+    public Token(TokenType type, String lexeme, int line, int column, Object value) {
+        this(type, lexeme, line, column, value, NO_SYMBOL);
     }
 
     public Token(TokenType type, String lexeme, int line, int column) {
@@ -23,12 +41,38 @@ public class Token {
     public String getLexeme() { return lexeme; }
     public int getLine() { return line; }
     public int getColumn() { return column; }
-    public Object getValue() { return value; }
+    public int getSymbolId() { return symbolId; }
+
+    // Unboxed values of INTEGER_LITERAL (unsigned above Long.MAX_VALUE) and FLOAT_LITERAL tokens
+    public long getLongValue() { return numericValue; }
+    public double getDoubleValue() { return Double.longBitsToDouble(numericValue); }
+
+    // Numeric values are only boxed when asked for
+    public Object getValue() {
+        if (value == null && isNumber(type)) return NumericLiteral.box(type, numericValue);
+        return value;
+    }
+
+    public static boolean isNumber(TokenType type) {
+        return type == TokenType.INTEGER_LITERAL || type == TokenType.FLOAT_LITERAL;
+    }
+
+    // Value carried by literal tokens, derived from the lexeme text
+    public static Object literalValue(TokenType type, String lexeme) {
+        switch (type) {
+            case INTEGER_LITERAL:
+            case FLOAT_LITERAL:
+                return NumericLiteral.box(type, NumericLiteral.valueBits(lexeme, 0, lexeme.length()));
+            case CHAR_LITERAL: return lexeme.charAt(1);
+            case STRING_LITERAL: return lexeme.substring(1, lexeme.length() - 1);
+            default: return null;
+        }
+    }
 
     @Override
     public String toString() {
         return String.format("Token{type=%s, lexeme='%s', line=%d, col=%d, value=%s}",
-                type, lexeme, line, column, value);
+                type, lexeme, line, column, getValue());
     }
 
     @Override
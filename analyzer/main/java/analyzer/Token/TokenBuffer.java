@@ -0,0 +1,171 @@
+package analyzer.Token;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+// Structure-of-arrays token storage: one slot per token in parallel primitive
+// arrays, with lexemes kept as (start, length) ranges into the source.
+public class TokenBuffer {
+    private static final TokenType[] TYPES = TokenType.values();
+    private static final int MIN_CAPACITY = 16;
+
+    private final CharSequence source;
+    private byte[] types;
+    private int[] starts;
+    private int[] lengths;
+    private int[] lines;
+    private int[] columns;
+    private long[] values;
+    private int size = 0;
+
+    public TokenBuffer(CharSequence source) {
+        this(source, Math.max(MIN_CAPACITY, source.length() / 8));
+    }
+
+    public TokenBuffer(CharSequence source, int capacity) {
+        this.source = source;
+        capacity = Math.max(MIN_CAPACITY, capacity);
+        this.types = new byte[capacity];
+        this.starts = new int[capacity];
+        this.lengths = new int[capacity];
+        this.lines = new int[capacity];
+        this.columns = new int[capacity];
+        this.values = new long[capacity];
+    }
+
+    public void add(TokenType type, int start, int length, int line, int column) {
+        add(type, start, length, line, column, 0);
+    }
+
+    // value: the bits of a numeric literal's value (see Token.getLongValue), else 0
+    public void add(TokenType type, int start, int length, int line, int column, long value) {
+        if (size == types.length) ensureCapacity(size + 1);
+        types[size] = (byte) type.ordinal();
+        starts[size] = start;
+        lengths[size] = length;
+        lines[size] = line;
+        columns[size] = column;
+        values[size] = value;
+        size++;
+    }
+
+    // Appends all tokens of another buffer over the same source
+    public void append(TokenBuffer other) {
+        if (other.source != source) {
+            throw new IllegalArgumentException("Token buffers refer to different sources");
+        }
+        ensureCapacity(size + other.size);
+        System.arraycopy(other.types, 0, types, size, other.size);
+        System.arraycopy(other.starts, 0, starts, size, other.size);
+        System.arraycopy(other.lengths, 0, lengths, size, other.size);
+        System.arraycopy(other.lines, 0, lines, size, other.size);
+        System.arraycopy(other.columns, 0, columns, size, other.size);
+        System.arraycopy(other.values, 0, values, size, other.size);
+        size += other.size;
+    }
+
+    // Appends tokens [from, to) of a buffer over another version of the source, moving
+    // their offsets and lines by the given amounts (columns are kept)
+    public void appendShifted(TokenBuffer other, int from, int to, int startShift, int lineShift) {
+        int count = to - from;
+        ensureCapacity(size + count);
+        System.arraycopy(other.types, from, types, size, count);
+        System.arraycopy(other.lengths, from, lengths, size, count);
+        System.arraycopy(other.columns, from, columns, size, count);
+        System.arraycopy(other.values, from, values, size, count);
+        for (int i = 0; i < count; i++) {
+            starts[size + i] = other.starts[from + i] + startShift;
+            lines[size + i] = other.lines[from + i] + lineShift;
+        }
+        size += count;
+    }
+
+    // Drops every token from the given index on
+    public void truncate(int newSize) {
+        if (newSize < 0 || newSize > size) {
+            throw new IndexOutOfBoundsException("Cannot truncate " + size + " tokens to " + newSize);
+        }
+        size = newSize;
+    }
+
+    public int size() { return size; }
+    public CharSequence getSource() { return source; }
+
+    // Getters
+    public TokenType getType(int index) { return TYPES[types[checkIndex(index)]]; }
+    public int getStart(int index) { return starts[checkIndex(index)]; }
+    public int getLength(int index) { return lengths[checkIndex(index)]; }
+    public int getLine(int index) { return lines[checkIndex(index)]; }
+    public int getColumn(int index) { return columns[checkIndex(index)]; }
+    public long getLongValue(int index) { return values[checkIndex(index)]; }
+    public double getDoubleValue(int index) { return Double.longBitsToDouble(values[checkIndex(index)]); }
+
+    public String getLexeme(int index) {
+        int start = starts[checkIndex(index)];
+        return source.subSequence(start, start + lengths[index]).toString();
+    }
+
+    // Value of a literal as Token.getValue would box it; null for other tokens
+    public Object getValue(int index) {
+        TokenType type = getType(index);
+        switch (type) {
+            case INTEGER_LITERAL:
+            case FLOAT_LITERAL: return NumericLiteral.box(type, values[index]);
+            case CHAR_LITERAL:
+            case STRING_LITERAL: return Token.literalValue(type, getLexeme(index));
+            default: return null;
+        }
+    }
+
+    // Materializes a Token for callers that still work with objects
+    public Token get(int index) {
+        TokenType type = getType(index);
+        String lexeme = getLexeme(index);
+        Object value = Token.isNumber(type) ? null : Token.literalValue(type, lexeme);
+        return new Token(type, lexeme, lines[index], columns[index], value, Token.NO_SYMBOL, values[index]);
+    }
+
+    // Materializes an identifier with its canonical lexeme and symbol id from the pool
+    public Token getSymbol(int index, LexemePool pool) {
+        int start = starts[checkIndex(index)];
+        int id = pool.intern(source, start, start + lengths[index]);
+        return new Token(getType(index), pool.getName(id), lines[index], columns[index], null, id);
+    }
+
+    // Lazy List view; tokens are created on access and not retained
+    public List<Token> asList() {
+        return new TokenList();
+    }
+
+    private int checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Token index " + index + " out of bounds for size " + size);
+        }
+        return index;
+    }
+
+    private void ensureCapacity(int required) {
+        if (required <= types.length) return;
+        int capacity = Math.max(required, types.length + (types.length >> 1));
+        types = Arrays.copyOf(types, capacity);
+        starts = Arrays.copyOf(starts, capacity);
+        lengths = Arrays.copyOf(lengths, capacity);
+        lines = Arrays.copyOf(lines, capacity);
+        columns = Arrays.copyOf(columns, capacity);
+        values = Arrays.copyOf(values, capacity);
+    }
+
+    private class TokenList extends AbstractList<Token> implements RandomAccess {
+        @Override
+        public Token get(int index) {
+            return TokenBuffer.this.get(index);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
@@ -19,14 +19,15 @@ public enum TokenType {
     // Operators
     PLUS, MINUS, MULTIPLY, DIVIDE, MODULO,
     ASSIGN, PLUS_ASSIGN, MINUS_ASSIGN, MULTIPLY_ASSIGN, DIVIDE_ASSIGN, MODULO_ASSIGN,
+    LEFT_SHIFT_ASSIGN, RIGHT_SHIFT_ASSIGN, AND_ASSIGN, OR_ASSIGN, XOR_ASSIGN,
     INCREMENT, DECREMENT,
     EQUAL, NOT_EQUAL, LESS_THAN, LESS_EQUAL, GREATER_THAN, GREATER_EQUAL,
     LOGICAL_AND, LOGICAL_OR, LOGICAL_NOT,
     BITWISE_AND, BITWISE_OR, BITWISE_XOR, BITWISE_NOT, LEFT_SHIFT, RIGHT_SHIFT,
-    CONDITIONAL, ARROW, DOT,
+    CONDITIONAL, COLON, ARROW, DOT,
 
     // Delimiters
-    SEMICOLON, COMMA, LEFT_PAREN, RIGHT_PAREN,
+    SEMICOLON, COMMA, ELLIPSIS, LEFT_PAREN, RIGHT_PAREN,
     LEFT_BRACE, RIGHT_BRACE, LEFT_BRACKET, RIGHT_BRACKET,
 
     // Special
@@ -0,0 +1,80 @@
+package analyzer.batch;
+
+import java.io.PrintStream;
+import java.util.List;
+
+public class BatchReport {
+    private final List<FileScanResult> results;
+    private final long elapsedNanos;
+    private final int threads;
+
+    public BatchReport(List<FileScanResult> results, long elapsedNanos, int threads) {
+        this.results = results;
+        this.elapsedNanos = elapsedNanos;
+        this.threads = threads;
+    }
+
+    // Results are in the same order as the input files, whatever order they finished in
+    public List<FileScanResult> getResults() { return results; }
+    public long getElapsedNanos() { return elapsedNanos; }
+    public int getThreads() { return threads; }
+
+    public long getTotalTokens() {
+        long total = 0;
+        for (FileScanResult result : results) total += result.getTokenCount();
+        return total;
+    }
+
+    public long getTotalBytes() {
+        long total = 0;
+        for (FileScanResult result : results) total += result.getBytes();
+        return total;
+    }
+
+    public int getErrorCount() {
+        int errors = 0;
+        for (FileScanResult result : results) {
+            if (!result.isSuccess()) errors++;
+        }
+        return errors;
+    }
+
+    public long getDiagnosticCount() {
+        long diagnostics = 0;
+        for (FileScanResult result : results) diagnostics += result.getDiagnosticCount();
+        return diagnostics;
+    }
+
+    public double getFilesPerSecond() {
+        return perSecond(results.size());
+    }
+
+    public double getTokensPerSecond() {
+        return perSecond(getTotalTokens());
+    }
+
+    public double getMegabytesPerSecond() {
+        return perSecond(getTotalBytes()) / (1024 * 1024);
+    }
+
+    public void print(PrintStream out) {
+        for (FileScanResult result : results) {
+            out.println(result);
+        }
+
+        out.println("\n=== BATCH SUMMARY ===");
+        out.println("Files: " + results.size() + " (" + getErrorCount() + " with errors)");
+        out.println("Tokens: " + getTotalTokens());
+        if (getDiagnosticCount() > 0) {
+            out.println("Diagnostics: " + getDiagnosticCount());
+        }
+        out.println("Threads: " + threads);
+        out.printf("Time: %.1f ms%n", elapsedNanos / 1e6);
+        out.printf("Throughput: %.1f files/sec, %.0f tokens/sec, %.1f MB/s%n",
+                getFilesPerSecond(), getTokensPerSecond(), getMegabytesPerSecond());
+    }
+
+    private double perSecond(double count) {
+        return elapsedNanos == 0 ? 0 : count * 1e9 / elapsedNanos;
+    }
+}
@@ -0,0 +1,146 @@
+package analyzer.batch;
+
+import analyzer.Token.TokenBuffer;
+import analyzer.exceptions.ScannerException;
+import analyzer.index.SymbolIndex;
+import analyzer.interfaces.IScanner;
+import analyzer.interfaces.ISymbolTable;
+import analyzer.interfaces.ITokenValidator;
+import analyzer.scanner.CScanner;
+import analyzer.scanner.ScopedSymbolTable;
+import analyzer.scanner.SymbolTable;
+import analyzer.scanner.TokenValidator;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BiFunction;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+// Scans many files concurrently on a fork-join pool. CScanner is stateful, so every
+// worker thread gets its own scanner and symbol table. Given a SymbolIndex, each
+// worker also records the identifier occurrences of every file it scans and merges
+// them into the index, which workers share without taking a lock.
+public class BatchScanner {
+    private final int parallelism;
+    private final BiFunction<ITokenValidator, ISymbolTable, IScanner> scannerFactory;
+    private final SymbolIndex index;
+    private final ThreadLocal<Worker> workers = ThreadLocal.withInitial(this::newWorker);
+
+    public BatchScanner() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public BatchScanner(int parallelism) {
+        this(parallelism, CScanner::new);
+    }
+
+    public BatchScanner(int parallelism, BiFunction<ITokenValidator, ISymbolTable, IScanner> scannerFactory) {
+        this(parallelism, scannerFactory, null);
+    }
+
+    public BatchScanner(int parallelism, BiFunction<ITokenValidator, ISymbolTable, IScanner> scannerFactory,
+                        SymbolIndex index) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1: " + parallelism);
+        }
+        this.parallelism = parallelism;
+        this.scannerFactory = scannerFactory;
+        this.index = index;
+    }
+
+    public BatchReport scan(List<Path> files) throws InterruptedException {
+        FileScanResult[] results = new FileScanResult[files.size()];
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        long start = System.nanoTime();
+        try {
+            pool.submit(() -> IntStream.range(0, results.length).parallel()
+                    .forEach(i -> results[i] = scanFile(files.get(i))))
+                    .get();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Batch scan failed", e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+        long elapsed = System.nanoTime() - start;
+        return new BatchReport(Arrays.asList(results), elapsed, parallelism);
+    }
+
+    // Expands directories to the .c/.h files below them and "@list" arguments to the
+    // paths listed one per line in that file. Directory contents are sorted so that
+    // the batch order is reproducible.
+    public static List<Path> collectSources(List<String> arguments) throws IOException {
+        List<Path> files = new ArrayList<>();
+        for (String argument : arguments) {
+            if (argument.startsWith("@")) {
+                for (String line : Files.readAllLines(Path.of(argument.substring(1)))) {
+                    if (!line.isBlank()) files.add(Path.of(line.trim()));
+                }
+            } else if (Files.isDirectory(Path.of(argument))) {
+                try (Stream<Path> walk = Files.walk(Path.of(argument))) {
+                    walk.filter(Files::isRegularFile)
+                            .filter(BatchScanner::isSourceFile)
+                            .sorted()
+                            .forEach(files::add);
+                } catch (UncheckedIOException e) {
+                    throw e.getCause();
+                }
+            } else {
+                files.add(Path.of(argument));
+            }
+        }
+        return files;
+    }
+
+    private static boolean isSourceFile(Path path) {
+        String name = path.getFileName().toString();
+        return name.endsWith(".c") || name.endsWith(".h");
+    }
+
+    private FileScanResult scanFile(Path path) {
+        Worker worker = workers.get();
+        long bytes = 0;
+        try {
+            byte[] data = Files.readAllBytes(path);
+            bytes = data.length;
+            String source = new String(data, StandardCharsets.UTF_8);
+            TokenBuffer tokens = worker.scanner.scanTokenBuffer(source);
+            if (index != null) {
+                worker.references.clear();
+                worker.references.index(tokens);
+                index.merge(path, worker.references);
+            }
+            return new FileScanResult(path, bytes, tokens.size(), worker.symbolTable.size(), null,
+                    worker.scanner.getDiagnostics().getReportedCount());
+        } catch (ScannerException e) {
+            return new FileScanResult(path, bytes, 0, 0, "Scanner Error: " + e.getMessage());
+        } catch (IOException e) {
+            return new FileScanResult(path, bytes, 0, 0, "Error reading file: " + e.getMessage());
+        }
+    }
+
+    private Worker newWorker() {
+        SymbolTable symbolTable = new SymbolTable();
+        return new Worker(scannerFactory.apply(new TokenValidator(), symbolTable), symbolTable,
+                index == null ? null : new ScopedSymbolTable());
+    }
+
+    private static class Worker {
+        private final IScanner scanner;
+        private final SymbolTable symbolTable;
+        private final ScopedSymbolTable references;
+
+        private Worker(IScanner scanner, SymbolTable symbolTable, ScopedSymbolTable references) {
+            this.scanner = scanner;
+            this.symbolTable = symbolTable;
+            this.references = references;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package analyzer.batch;
+
+import java.nio.file.Path;
+
+public class FileScanResult {
+    private final Path path;
+    private final long bytes;
+    private final int tokenCount;
+    private final int symbolCount;
+    private final String error;
+    private final int diagnosticCount;
+
+    public FileScanResult(Path path, long bytes, int tokenCount, int symbolCount, String error) {
+        this(path, bytes, tokenCount, symbolCount, error, 0);
+    }
+
+    // Files scanned in recovery mode succeed with the number of errors recovered
+    public FileScanResult(Path path, long bytes, int tokenCount, int symbolCount, String error,
+                          int diagnosticCount) {
+        this.path = path;
+        this.bytes = bytes;
+        this.tokenCount = tokenCount;
+        this.symbolCount = symbolCount;
+        this.error = error;
+        this.diagnosticCount = diagnosticCount;
+    }
+
+    // Getters
+    public Path getPath() { return path; }
+    public long getBytes() { return bytes; }
+    public int getTokenCount() { return tokenCount; }
+    public int getSymbolCount() { return symbolCount; }
+    public String getError() { return error; }
+    public int getDiagnosticCount() { return diagnosticCount; }
+    public boolean isSuccess() { return error == null; }
+
+    @Override
+    public String toString() {
+        if (error != null) {
+            return path + ": " + error;
+        }
+        String summary = path + ": " + tokenCount + " tokens, " + symbolCount + " symbols";
+        return diagnosticCount == 0 ? summary : summary + ", " + diagnosticCount + " diagnostics";
+    }
+}
@@ -0,0 +1,193 @@
+package analyzer.cache;
+
+import analyzer.interfaces.IScanner;
+import analyzer.interfaces.ISymbolTable;
+import analyzer.scanner.CScanner;
+import analyzer.Token.LexemePool;
+import analyzer.Token.Token;
+import analyzer.Token.TokenBuffer;
+import analyzer.Token.TokenType;
+import analyzer.exceptions.ScannerException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Token streams keyed by the SHA-256 of the scanner version and the source text,
+// so an unchanged file is never scanned twice. Entries are kept encoded: an LRU
+// memory tier bounded by the encoded size, backed by an optional directory of
+// <key>.tok files that survives between runs. The disk tier is best effort; a
+// file that cannot be read or written is treated as a miss. ScannerOptions are not
+// part of the key, so only scanners with the default options may share a cache.
+public class TokenCache {
+    public static final long DEFAULT_MEMORY_LIMIT = 64L * 1024 * 1024;
+
+    private final long memoryLimit;
+    private final Path directory;
+    private final LinkedHashMap<String, byte[]> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long memoryBytes = 0;
+
+    private long hits = 0;
+    private long diskHits = 0;
+    private long misses = 0;
+    private long evictions = 0;
+
+    public TokenCache(long memoryLimit) {
+        this.memoryLimit = memoryLimit;
+        this.directory = null;
+    }
+
+    public TokenCache(long memoryLimit, Path directory) throws IOException {
+        this.memoryLimit = memoryLimit;
+        this.directory = Files.createDirectories(directory);
+    }
+
+    // Returns the cached tokens of source, or scans it and caches the result. On a hit
+    // the identifiers are registered in the symbol table just like a scan would.
+    // Sources that fail to scan are not cached.
+    public TokenBuffer scan(String source, IScanner scanner, ISymbolTable symbolTable) throws ScannerException {
+        String key = key(source);
+        TokenBuffer tokens = lookup(key, source);
+        if (tokens == null) {
+            tokens = scanner.scanTokenBuffer(source);
+            store(key, tokens);
+            return tokens;
+        }
+
+        symbolTable.clear();
+        LexemePool pool = scanner.getLexemePool();
+        for (int i = 0; i < tokens.size(); i++) {
+            if (tokens.getType(i) == TokenType.IDENTIFIER) {
+                Token token = tokens.getSymbol(i, pool);
+                symbolTable.addSymbol(token.getSymbolId(), token);
+            }
+        }
+        return tokens;
+    }
+
+    // Cached tokens of source, or null on a miss
+    public TokenBuffer get(String source) {
+        return lookup(key(source), source);
+    }
+
+    public void put(TokenBuffer tokens) {
+        String source = tokens.getSource().toString();
+        store(key(source), tokens);
+    }
+
+    private TokenBuffer lookup(String key, String source) {
+        byte[] data;
+        synchronized (this) {
+            data = entries.get(key);
+        }
+        if (data != null) {
+            TokenBuffer tokens = TokenCodec.decode(data, source, CScanner.VERSION);
+            if (tokens != null) {
+                synchronized (this) {
+                    hits++;
+                }
+                return tokens;
+            }
+        }
+
+        data = readFile(key);
+        if (data != null) {
+            TokenBuffer tokens = TokenCodec.decode(data, source, CScanner.VERSION);
+            if (tokens != null) {
+                synchronized (this) {
+                    hits++;
+                    diskHits++;
+                    remember(key, data);
+                }
+                return tokens;
+            }
+        }
+
+        synchronized (this) {
+            misses++;
+        }
+        return null;
+    }
+
+    private void store(String key, TokenBuffer tokens) {
+        byte[] data = TokenCodec.encode(tokens, CScanner.VERSION);
+        synchronized (this) {
+            remember(key, data);
+        }
+        writeFile(key, data);
+    }
+
+    private void remember(String key, byte[] data) {
+        if (data.length > memoryLimit) return;
+
+        byte[] replaced = entries.put(key, data);
+        memoryBytes += data.length - (replaced == null ? 0 : replaced.length);
+
+        Iterator<Map.Entry<String, byte[]>> eldest = entries.entrySet().iterator();
+        while (memoryBytes > memoryLimit) {
+            memoryBytes -= eldest.next().getValue().length;
+            eldest.remove();
+            evictions++;
+        }
+    }
+
+    private byte[] readFile(String key) {
+        if (directory == null) return null;
+        Path file = directory.resolve(key + ".tok");
+        try {
+            return Files.isRegularFile(file) ? Files.readAllBytes(file) : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    // Written to a temporary file first, so concurrent readers never see half an entry
+    private void writeFile(String key, byte[] data) {
+        if (directory == null) return;
+        try {
+            Path temp = Files.createTempFile(directory, key, ".tmp");
+            Files.write(temp, data);
+            Files.move(temp, directory.resolve(key + ".tok"),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            // Keep the memory entry; the next run simply scans again
+        }
+    }
+
+    private static String key(String source) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(ByteBuffer.allocate(4).putInt(0, CScanner.VERSION));
+            digest.update(source.getBytes(StandardCharsets.UTF_8));
+
+            StringBuilder key = new StringBuilder(64);
+            for (byte b : digest.digest()) {
+                key.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return key.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    // Statistics
+    public synchronized long getHits() { return hits; }
+    public synchronized long getDiskHits() { return diskHits; }
+    public synchronized long getMisses() { return misses; }
+    public synchronized long getEvictions() { return evictions; }
+    public synchronized long getMemoryBytes() { return memoryBytes; }
+    public synchronized int getEntryCount() { return entries.size(); }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("TokenCache{hits=%d (disk %d), misses=%d, evictions=%d, entries=%d, bytes=%d}",
+                hits, diskHits, misses, evictions, entries.size(), memoryBytes);
+    }
+}
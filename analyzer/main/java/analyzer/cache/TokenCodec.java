@@ -0,0 +1,126 @@
+package analyzer.cache;
+
+import analyzer.Token.NumericLiteral;
+import analyzer.Token.Token;
+import analyzer.Token.TokenBuffer;
+import analyzer.Token.TokenType;
+import java.io.ByteArrayOutputStream;
+
+// Compact binary form of a TokenBuffer without its source text:
+//
+//   magic "CTOK", scanner version, source length, token count
+//   per token: type ordinal, start delta, length, line delta, column
+//
+// Everything after the magic is a varint; deltas are zig-zag encoded because
+// preprocessor lexemes start before the token they follow. Values of numeric
+// literals are not stored; they are parsed again from the source on decode.
+final class TokenCodec {
+    private static final int MAGIC = 0x43544F4B;
+    private static final TokenType[] TYPES = TokenType.values();
+
+    private TokenCodec() {
+    }
+
+    static byte[] encode(TokenBuffer tokens, int version) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(16 + tokens.size() * 5);
+        out.write(MAGIC >>> 24);
+        out.write(MAGIC >>> 16);
+        out.write(MAGIC >>> 8);
+        out.write(MAGIC);
+        writeVarint(out, version);
+        writeVarint(out, tokens.getSource().length());
+        writeVarint(out, tokens.size());
+
+        int start = 0;
+        int line = 1;
+        for (int i = 0; i < tokens.size(); i++) {
+            writeVarint(out, tokens.getType(i).ordinal());
+            writeVarint(out, zigZag(tokens.getStart(i) - start));
+            writeVarint(out, tokens.getLength(i));
+            writeVarint(out, zigZag(tokens.getLine(i) - line));
+            writeVarint(out, tokens.getColumn(i));
+            start = tokens.getStart(i);
+            line = tokens.getLine(i);
+        }
+        return out.toByteArray();
+    }
+
+    // Returns null if the data was written by another scanner version, for a source
+    // of another length, or is damaged
+    static TokenBuffer decode(byte[] data, String source, int version) {
+        Reader in = new Reader(data);
+        if (data.length < 4 || in.readInt() != MAGIC) return null;
+        if (in.readVarint() != version || in.readVarint() != source.length()) return null;
+
+        int count = in.readVarint();
+        if (count < 0) return null;
+        TokenBuffer tokens = new TokenBuffer(source, count);
+        NumericLiteral number = new NumericLiteral();
+        int start = 0;
+        int line = 1;
+        for (int i = 0; i < count; i++) {
+            int type = in.readVarint();
+            start += unZigZag(in.readVarint());
+            int length = in.readVarint();
+            line += unZigZag(in.readVarint());
+            int column = in.readVarint();
+            if (in.failed || type < 0 || type >= TYPES.length
+                    || start < 0 || length < 0 || start + length > source.length()) {
+                return null;
+            }
+            long value = 0;
+            if (Token.isNumber(TYPES[type])) {
+                if (!number.parse(source, start, start + length)) return null;
+                value = number.getBits();
+            }
+            tokens.add(TYPES[type], start, length, line, column, value);
+        }
+        return in.failed || in.position != data.length ? null : tokens;
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    private static int zigZag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    private static int unZigZag(int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static class Reader {
+        private final byte[] data;
+        private int position = 0;
+        private boolean failed = false;
+
+        Reader(byte[] data) {
+            this.data = data;
+        }
+
+        int readInt() {
+            int value = 0;
+            for (int i = 0; i < 4; i++) {
+                value = (value << 8) | (data[position++] & 0xFF);
+            }
+            return value;
+        }
+
+        int readVarint() {
+            int value = 0;
+            for (int shift = 0; shift < 32; shift += 7) {
+                if (position == data.length) break;
+                byte b = data[position++];
+                value |= (b & 0x7F) << shift;
+                if (b >= 0) return value;
+            }
+            failed = true;
+            return 0;
+        }
+    }
+}
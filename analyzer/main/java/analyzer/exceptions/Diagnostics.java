@@ -0,0 +1,100 @@
+package analyzer.exceptions;
+
+// Lexical errors collected by a scanner in recovery mode, in source order. Storage
+// is preallocated for a fixed number of entries; problems past that are still
+// counted (getReportedCount) but not kept, so a hopeless file cannot use up memory.
+public class Diagnostics {
+    public enum Kind {
+        UNEXPECTED_CHARACTER("Unexpected character: "),
+        UNTERMINATED_STRING("Unterminated string"),
+        UNTERMINATED_CHARACTER("Unterminated character literal"),
+        UNTERMINATED_COMMENT("Unterminated block comment"),
+        INVALID_NUMBER("Invalid numeric literal"),
+        INTEGER_TOO_LARGE("Integer literal too large");
+
+        private final String message;
+
+        Kind(String message) {
+            this.message = message;
+        }
+
+        public String getMessage() { return message; }
+    }
+
+    private static final Kind[] KINDS = Kind.values();
+
+    private final byte[] kinds;
+    private final int[] lines;
+    private final int[] columns;
+    private final char[] characters;
+    private int reported = 0;
+
+    public Diagnostics(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Capacity must not be negative: " + capacity);
+        }
+        this.kinds = new byte[capacity];
+        this.lines = new int[capacity];
+        this.columns = new int[capacity];
+        this.characters = new char[capacity];
+    }
+
+    // character is the offending char of UNEXPECTED_CHARACTER and ignored otherwise
+    public void report(Kind kind, char character, int line, int column) {
+        if (reported < kinds.length) {
+            kinds[reported] = (byte) kind.ordinal();
+            lines[reported] = line;
+            columns[reported] = column;
+            characters[reported] = character;
+        }
+        reported++;
+    }
+
+    // Forgets everything reported after the first count problems; streaming scanners
+    // use it before they scan a lexeme again with more input
+    public void truncate(int count) {
+        reported = Math.min(reported, count);
+    }
+
+    public void clear() {
+        reported = 0;
+    }
+
+    // Kept entries
+    public int size() {
+        return Math.min(reported, kinds.length);
+    }
+
+    public boolean isEmpty() {
+        return reported == 0;
+    }
+
+    public int getCapacity() { return kinds.length; }
+    public int getReportedCount() { return reported; }
+    public int getDroppedCount() { return reported - size(); }
+
+    // Getters
+    public Kind getKind(int index) { return KINDS[kinds[checkIndex(index)]]; }
+    public int getLine(int index) { return lines[checkIndex(index)]; }
+    public int getColumn(int index) { return columns[checkIndex(index)]; }
+
+    // The message the scanner would have thrown without recovery
+    public String getMessage(int index) {
+        return toException(index).getMessage();
+    }
+
+    public ScannerException toException(int index) {
+        Kind kind = getKind(index);
+        String message = kind == Kind.UNEXPECTED_CHARACTER
+                ? kind.getMessage() + characters[index]
+                : kind.getMessage();
+        return new ScannerException(message, lines[index], columns[index]);
+    }
+
+    private int checkIndex(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Diagnostic " + index + " out of bounds for size " + size());
+        }
+        return index;
+    }
+}
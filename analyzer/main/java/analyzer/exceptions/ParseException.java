@@ -0,0 +1,15 @@
+package analyzer.exceptions;
+
+public class ParseException extends Exception {
+    private final int line;
+    private final int column;
+
+    public ParseException(String message, int line, int column) {
+        super(String.format("Parse error at line %d, column %d: %s", line, column, message));
+        this.line = line;
+        this.column = column;
+    }
+
+    public int getLine() { return line; }
+    public int getColumn() { return column; }
+}
@@ -0,0 +1,18 @@
+package analyzer.exceptions;
+
+public class PreprocessorException extends Exception {
+    private final String file;
+    private final int line;
+    private final int column;
+
+    public PreprocessorException(String message, String file, int line, int column) {
+        super(String.format("Preprocessor error in %s at line %d, column %d: %s", file, line, column, message));
+        this.file = file;
+        this.line = line;
+        this.column = column;
+    }
+
+    public String getFile() { return file; }
+    public int getLine() { return line; }
+    public int getColumn() { return column; }
+}
@@ -0,0 +1,14 @@
+package analyzer.exceptions;
+
+// Carries a ScannerException out of APIs that cannot throw checked exceptions,
+// such as Iterator.next() and streams
+public class UncheckedScannerException extends RuntimeException {
+    public UncheckedScannerException(ScannerException cause) {
+        super(cause.getMessage(), cause);
+    }
+
+    @Override
+    public ScannerException getCause() {
+        return (ScannerException) super.getCause();
+    }
+}
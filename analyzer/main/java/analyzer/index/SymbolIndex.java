@@ -0,0 +1,237 @@
+package analyzer.index;
+
+import analyzer.Token.LexemePool;
+import analyzer.scanner.ScopedSymbolTable;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+// Repository-wide "where is X used" index, filled from the ScopedSymbolTable of each
+// scanned file by any number of threads at once. Names map to a lock-free stack of
+// per-file blocks: merging a file builds one block per distinct name and publishes
+// it with a single compare-and-set, so threads merging different files never wait
+// on each other. The name map is a ConcurrentHashMap, whose reads take no lock and
+// whose inserts lock a single bin; names come from the files' LexemePools, whose
+// canonical strings have their hash codes cached.
+//
+// write() lays the index out in SymbolIndexFormat, to be queried through
+// SymbolIndexFile without reading it into the heap. It must not run concurrently
+// with merge().
+public class SymbolIndex {
+    private final ConcurrentHashMap<String, Postings> symbols = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Integer, Path> files = new ConcurrentHashMap<>();
+    private final AtomicInteger fileCount = new AtomicInteger();
+    private final LongAdder occurrenceCount = new LongAdder();
+
+    // Adds every occurrence recorded in the table under a new file id, which is
+    // returned. Occurrences the table only counted (past its limit) are left out.
+    public int merge(Path file, ScopedSymbolTable table) {
+        int fileId = fileCount.getAndIncrement();
+        files.put(fileId, file);
+
+        // Only the names of this file, however many the table's pool has seen before
+        LexemePool pool = table.getLexemePool();
+        for (int i = 0; i < table.getRecordedCount(); i++) {
+            int id = table.getRecordedId(i);
+            int count = table.getOccurrenceCount(id);
+            if (count == 0) continue;
+
+            int[] positions = new int[2 * count];
+            int filled = 0;
+            for (int occurrence = table.getFirstOccurrence(id); occurrence != ScopedSymbolTable.NONE;
+                 occurrence = table.getNextOccurrence(occurrence)) {
+                positions[filled++] = table.getLine(occurrence);
+                positions[filled++] = table.getColumn(occurrence);
+            }
+            if (filled == 0) continue;
+            if (filled < positions.length) positions = Arrays.copyOf(positions, filled);
+
+            String name = pool.getName(id);
+            Postings postings = symbols.get(name);
+            if (postings == null) postings = symbols.computeIfAbsent(name, key -> new Postings());
+            postings.push(new Block(fileId, positions));
+            occurrenceCount.add(filled / 2);
+        }
+        return fileId;
+    }
+
+    public int getSymbolCount() { return symbols.size(); }
+    public int getFileCount() { return fileCount.get(); }
+    public long getOccurrenceCount() { return occurrenceCount.sum(); }
+
+    public Path getFile(int fileId) {
+        Path file = files.get(fileId);
+        if (file == null) {
+            throw new IndexOutOfBoundsException("File " + fileId + " out of bounds for count " + fileCount.get());
+        }
+        return file;
+    }
+
+    public int getOccurrenceCount(String name) {
+        Postings postings = symbols.get(name);
+        int count = 0;
+        for (Block block = postings == null ? null : postings.head; block != null; block = block.next) {
+            count += block.positions.length / 2;
+        }
+        return count;
+    }
+
+    // Writes the index in SymbolIndexFormat. The file is replaced atomically, so a
+    // reader never maps half an index.
+    public void write(Path path) throws IOException {
+        List<String> names = new ArrayList<>(symbols.keySet());
+        names.sort(Comparator.naturalOrder());
+        int symbolCount = names.size();
+        int fileTotal = fileCount.get();
+        int slots = SymbolIndexFormat.slotCount(symbolCount);
+
+        // Merge order decides the file ids, so the files are renumbered in path order
+        // to write the same index for the same files every time
+        Integer[] byPath = new Integer[fileTotal];
+        for (int i = 0; i < fileTotal; i++) byPath[i] = i;
+        Arrays.sort(byPath, Comparator.comparing(this::getFile));
+        int[] renumbered = new int[fileTotal];
+        for (int i = 0; i < fileTotal; i++) renumbered[byPath[i]] = i;
+
+        // Sections are written in order, so every offset is worked out first
+        Block[][] blocks = new Block[symbolCount][];
+        long occurrences = 0;
+        long filesOffset = SymbolIndexFormat.HEADER_BYTES + (long) slots * SymbolIndexFormat.SLOT_BYTES;
+        long offset = filesOffset + (long) fileTotal * Integer.BYTES;
+        int[] postingsOffsets = new int[symbolCount];
+        for (int i = 0; i < symbolCount; i++) {
+            blocks[i] = sortedBlocks(symbols.get(names.get(i)), renumbered);
+            postingsOffsets[i] = checkOffset(offset);
+            offset += 2 * Integer.BYTES;
+            for (Block block : blocks[i]) {
+                offset += 2 * Integer.BYTES + (long) block.positions.length * Integer.BYTES;
+                occurrences += block.positions.length / 2;
+            }
+        }
+
+        byte[][] strings = new byte[symbolCount + fileTotal][];
+        int[] stringOffsets = new int[strings.length];
+        for (int i = 0; i < strings.length; i++) {
+            strings[i] = (i < symbolCount ? names.get(i) : getFile(byPath[i - symbolCount]).toString())
+                    .getBytes(StandardCharsets.UTF_8);
+            stringOffsets[i] = checkOffset(offset);
+            offset += Integer.BYTES + strings[i].length;
+        }
+        checkOffset(offset);
+        if (occurrences > Integer.MAX_VALUE) {
+            throw new IOException("Too many occurrences for a symbol index: " + occurrences);
+        }
+
+        int[] table = new int[slots * 3];
+        for (int i = 0; i < symbolCount; i++) {
+            int hash = SymbolIndexFormat.hash(names.get(i));
+            int slot = hash & (slots - 1);
+            while (table[slot * 3 + 1] != 0) slot = (slot + 1) & (slots - 1);
+            table[slot * 3] = hash;
+            table[slot * 3 + 1] = stringOffsets[i];
+            table[slot * 3 + 2] = postingsOffsets[i];
+        }
+
+        Path temp = Files.createTempFile(path.toAbsolutePath().getParent(), path.getFileName().toString(), ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp),
+                64 * 1024))) {
+            out.writeInt(SymbolIndexFormat.MAGIC);
+            out.writeInt(SymbolIndexFormat.VERSION);
+            out.writeInt(symbolCount);
+            out.writeInt(fileTotal);
+            out.writeInt(slots);
+            out.writeInt((int) filesOffset);
+            out.writeInt((int) occurrences);
+            for (int value : table) out.writeInt(value);
+            for (int i = 0; i < fileTotal; i++) out.writeInt(stringOffsets[symbolCount + i]);
+            for (Block[] symbolBlocks : blocks) {
+                int count = 0;
+                for (Block block : symbolBlocks) count += block.positions.length / 2;
+                out.writeInt(count);
+                out.writeInt(symbolBlocks.length);
+                for (Block block : symbolBlocks) {
+                    out.writeInt(renumbered[block.file]);
+                    out.writeInt(block.positions.length / 2);
+                    for (int value : block.positions) out.writeInt(value);
+                }
+            }
+            for (byte[] string : strings) {
+                out.writeInt(string.length);
+                out.write(string);
+            }
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("SymbolIndex{symbols=%d, files=%d, occurrences=%d}",
+                getSymbolCount(), getFileCount(), getOccurrenceCount());
+    }
+
+    private static Block[] sortedBlocks(Postings postings, int[] renumbered) {
+        int count = 0;
+        for (Block block = postings.head; block != null; block = block.next) count++;
+        Block[] blocks = new Block[count];
+        for (Block block = postings.head; block != null; block = block.next) blocks[--count] = block;
+        Arrays.sort(blocks, Comparator.comparingInt(block -> renumbered[block.file]));
+        return blocks;
+    }
+
+    private static int checkOffset(long offset) throws IOException {
+        if (offset > Integer.MAX_VALUE) {
+            throw new IOException("Symbol index larger than 2 GB");
+        }
+        return (int) offset;
+    }
+
+    // Occurrences of one name in one file, as line and column pairs in scan order
+    private static final class Block {
+        final int file;
+        final int[] positions;
+        Block next;
+
+        Block(int file, int[] positions) {
+            this.file = file;
+            this.positions = positions;
+        }
+    }
+
+    // Treiber stack of the blocks of one name
+    private static final class Postings {
+        private static final VarHandle HEAD;
+        static {
+            try {
+                HEAD = MethodHandles.lookup().findVarHandle(Postings.class, "head", Block.class);
+            } catch (ReflectiveOperationException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+
+        volatile Block head;
+
+        void push(Block block) {
+            Block current;
+            do {
+                current = head;
+                block.next = current;
+            } while (!HEAD.compareAndSet(this, current, block));
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package analyzer.index;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// A SymbolIndexFormat file, memory-mapped and queried in place: a lookup hashes the
+// name, probes the slot table and compares the UTF-8 bytes of the names it meets,
+// so it touches a few pages of the file and reads nothing else. Several threads may
+// query the same SymbolIndexFile.
+//
+//   SymbolIndexFile index = SymbolIndexFile.open(path);
+//   SymbolIndexFile.Occurrences uses = index.find("malloc");
+//   while (uses.next()) { ... index.getFile(uses.getFile()) ... uses.getLine() ... }
+public class SymbolIndexFile {
+    private final ByteBuffer bytes;
+    private final int symbolCount;
+    private final int fileCount;
+    private final int slotMask;
+    private final int filesOffset;
+    private final int occurrenceCount;
+
+    // Reads an index held in the buffer's [position, limit)
+    public SymbolIndexFile(ByteBuffer bytes) throws IOException {
+        this.bytes = bytes.slice();
+        if (this.bytes.remaining() < SymbolIndexFormat.HEADER_BYTES
+                || this.bytes.getInt(0) != SymbolIndexFormat.MAGIC) {
+            throw new IOException("Not a symbol index");
+        }
+        int version = this.bytes.getInt(4);
+        if (version != SymbolIndexFormat.VERSION) {
+            throw new IOException("Unsupported symbol index version " + version);
+        }
+        this.symbolCount = this.bytes.getInt(SymbolIndexFormat.SYMBOL_COUNT);
+        this.fileCount = this.bytes.getInt(SymbolIndexFormat.FILE_COUNT);
+        int slotCount = this.bytes.getInt(SymbolIndexFormat.SLOT_COUNT);
+        this.slotMask = slotCount - 1;
+        this.filesOffset = this.bytes.getInt(SymbolIndexFormat.FILES_OFFSET);
+        this.occurrenceCount = this.bytes.getInt(SymbolIndexFormat.OCCURRENCE_COUNT);
+        if (Integer.bitCount(slotCount) != 1 || symbolCount >= slotCount || fileCount < 0
+                || filesOffset != SymbolIndexFormat.HEADER_BYTES + (long) slotCount * SymbolIndexFormat.SLOT_BYTES
+                || filesOffset + (long) fileCount * Integer.BYTES > this.bytes.limit()) {
+            throw new IOException("Corrupt symbol index header");
+        }
+    }
+
+    public static SymbolIndexFile open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Symbol index too large to map: " + path);
+            }
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new SymbolIndexFile(mapped);
+        }
+    }
+
+    // Getters
+    public int getSymbolCount() { return symbolCount; }
+    public int getFileCount() { return fileCount; }
+    public int getOccurrenceCount() { return occurrenceCount; }
+
+    public String getFile(int fileId) {
+        if (fileId < 0 || fileId >= fileCount) {
+            throw new IndexOutOfBoundsException("File " + fileId + " out of bounds for count " + fileCount);
+        }
+        return string(bytes.getInt(filesOffset + fileId * Integer.BYTES));
+    }
+
+    // Occurrences of the name in all files; 0 if it was never seen
+    public int countOccurrences(String name) {
+        int postings = findPostings(name);
+        return postings == 0 ? 0 : bytes.getInt(postings);
+    }
+
+    // Occurrences of the name, by file id and then in scan order within a file. The
+    // cursor is empty if the name was never seen.
+    public Occurrences find(String name) {
+        return new Occurrences(bytes, findPostings(name));
+    }
+
+    // Offset of the name's postings, or 0
+    private int findPostings(String name) {
+        byte[] key = name.getBytes(StandardCharsets.UTF_8);
+        int hash = SymbolIndexFormat.hash(name);
+        for (int slot = hash & slotMask; ; slot = (slot + 1) & slotMask) {
+            int base = SymbolIndexFormat.HEADER_BYTES + slot * SymbolIndexFormat.SLOT_BYTES;
+            int nameOffset = bytes.getInt(base + 4);
+            if (nameOffset == 0) return 0;
+            if (bytes.getInt(base) == hash && equalsAt(nameOffset, key)) return bytes.getInt(base + 8);
+        }
+    }
+
+    private boolean equalsAt(int offset, byte[] key) {
+        if (bytes.getInt(offset) != key.length) return false;
+        int start = offset + Integer.BYTES;
+        for (int i = 0; i < key.length; i++) {
+            if (bytes.get(start + i) != key[i]) return false;
+        }
+        return true;
+    }
+
+    private String string(int offset) {
+        byte[] utf8 = new byte[bytes.getInt(offset)];
+        bytes.get(offset + Integer.BYTES, utf8);
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+
+    // Cursor over the postings of one name. next() moves to the next occurrence and
+    // the getters read the current one.
+    public static final class Occurrences {
+        private final ByteBuffer bytes;
+        private int position;
+        private int groupsLeft;
+        private int inGroupLeft;
+
+        // Current occurrence
+        private int file = -1;
+        private int line;
+        private int column;
+
+        private Occurrences(ByteBuffer bytes, int postings) {
+            this.bytes = bytes;
+            if (postings != 0) {
+                this.groupsLeft = bytes.getInt(postings + Integer.BYTES);
+                this.position = postings + 2 * Integer.BYTES;
+            }
+        }
+
+        // Moves to the next occurrence; false after the last one
+        public boolean next() {
+            while (inGroupLeft == 0) {
+                if (groupsLeft == 0) return false;
+                groupsLeft--;
+                file = bytes.getInt(position);
+                inGroupLeft = bytes.getInt(position + Integer.BYTES);
+                position += 2 * Integer.BYTES;
+            }
+            inGroupLeft--;
+            line = bytes.getInt(position);
+            column = bytes.getInt(position + Integer.BYTES);
+            position += 2 * Integer.BYTES;
+            return true;
+        }
+
+        // Getters
+        public int getFile() { return file; }
+        public int getLine() { return line; }
+        public int getColumn() { return column; }
+    }
+}
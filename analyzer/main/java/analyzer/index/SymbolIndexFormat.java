@@ -0,0 +1,44 @@
+package analyzer.index;
+
+// On-disk layout of a SymbolIndex, read in place by SymbolIndexFile:
+//
+//   header    magic "CSYI", format version, symbol count, file count, slot count,
+//             offset of the file table, total occurrences
+//   slots     slot count x [name hash, name offset, postings offset]
+//   files     file count x [path offset]
+//   postings  per symbol: occurrence count, file count, then per file in id order:
+//             file id, occurrence count, occurrence count x [line, column]
+//   strings   per name and path: byte length, UTF-8 bytes
+//
+// Every number is a big-endian int and offsets count from the start of the file, so
+// the whole index is one mappable region of at most 2 GB. The slots are an open
+// addressing hash table (a power of two in size, at most half full, linear probing)
+// over the names; a slot whose name offset is 0 is empty, since the header is there.
+public final class SymbolIndexFormat {
+    public static final int MAGIC = 0x43535949;
+    public static final int VERSION = 1;
+
+    static final int HEADER_BYTES = 7 * Integer.BYTES;
+    static final int SLOT_BYTES = 3 * Integer.BYTES;
+
+    // Header fields, by offset
+    static final int SYMBOL_COUNT = 8;
+    static final int FILE_COUNT = 12;
+    static final int SLOT_COUNT = 16;
+    static final int FILES_OFFSET = 20;
+    static final int OCCURRENCE_COUNT = 24;
+
+    private SymbolIndexFormat() {
+    }
+
+    // String.hashCode with its high bits folded in, so that masking it to the slot
+    // count keeps them
+    static int hash(String name) {
+        int h = name.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    static int slotCount(int symbols) {
+        return Integer.highestOneBit(Math.max(1, symbols * 2 - 1)) << 1;
+    }
+}
@@ -0,0 +1,11 @@
+package analyzer.interfaces;
+
+import analyzer.Token.TokenBuffer;
+import analyzer.exceptions.ParseException;
+import analyzer.parser.SyntaxTree;
+
+public interface IParser {
+    // Builds the syntax tree of a translation unit from its scanned tokens. Comments and
+    // preprocessor lines are skipped; the tree refers to the tokens by index.
+    SyntaxTree parse(TokenBuffer tokens) throws ParseException;
+}
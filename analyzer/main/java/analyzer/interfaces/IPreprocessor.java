@@ -0,0 +1,13 @@
+package analyzer.interfaces;
+
+import analyzer.exceptions.PreprocessorException;
+import analyzer.preprocessor.PreprocessedUnit;
+import java.io.IOException;
+import java.nio.file.Path;
+
+public interface IPreprocessor {
+    // Runs the directives of a source file and the files it includes and expands its
+    // macros. The result holds the tokens a compiler proper sees, with the file and
+    // position each one comes from.
+    PreprocessedUnit preprocess(Path file) throws PreprocessorException, IOException;
+}
@@ -0,0 +1,14 @@
+package analyzer.interfaces;
+
+import analyzer.Token.TokenType;
+import analyzer.exceptions.ScannerException;
+
+// Receives the progress of an instrumented scan: one scanStarted, a tokenScanned per
+// token (nanos is the time spent on it, including the whitespace before it), then
+// scanFinished or scanFailed. Calls come from the scanning thread.
+public interface IScanListener {
+    void scanStarted(int length);
+    void tokenScanned(TokenType type, int length, long nanos);
+    void scanFailed(ScannerException error);
+    void scanFinished(int symbols);
+}
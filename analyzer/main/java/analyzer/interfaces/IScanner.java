@@ -1,12 +1,28 @@
 package analyzer.interfaces;
 
+import analyzer.Token.LexemePool;
 import analyzer.Token.Token;
+import analyzer.Token.TokenBuffer;
+import analyzer.exceptions.Diagnostics;
 import analyzer.exceptions.ScannerException;
 import java.util.List;
 
 public interface IScanner {
     List<Token> scanTokens(String source) throws ScannerException;
+    TokenBuffer scanTokenBuffer(String source) throws ScannerException;
+
+    // Pull-based scanning: setSource starts over on a new source (clearing the symbol
+    // table) and getNextToken returns one token at a time, registering identifiers and
+    // skipping whitespace, until it returns EOF
+    void setSource(String source);
     Token getNextToken() throws ScannerException;
+
     void reset();
     boolean hasMoreTokens();
+
+    // Pool that interns the identifiers this scanner registers
+    LexemePool getLexemePool();
+
+    // Errors recovered during the current scan (see ScannerOptions)
+    Diagnostics getDiagnostics();
 }
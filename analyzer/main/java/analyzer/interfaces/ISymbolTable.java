@@ -5,6 +5,15 @@ import analyzer.Token.Token;
 public interface ISymbolTable {
     void addSymbol(String name, Token token);
     Token getSymbol(String name);
+
+    // Symbols interned in a LexemePool, looked up by their dense symbol id
+    void addSymbol(int symbolId, Token token);
+    Token getSymbol(int symbolId);
+
     boolean containsSymbol(String name);
+    void removeSymbol(String name);
     void clear();
+
+    // Number of distinct symbols
+    int size();
 }
\ No newline at end of file
@@ -0,0 +1,17 @@
+package analyzer.interfaces;
+
+import analyzer.Token.Token;
+import analyzer.Token.TokenBuffer;
+import java.io.IOException;
+
+// Destination for scanned tokens, such as a text dump on standard output. Sinks may
+// buffer; nothing is guaranteed to be written before flush() or close().
+public interface ITokenSink extends AutoCloseable {
+    void write(Token token) throws IOException;
+    void write(TokenBuffer tokens) throws IOException;
+
+    void flush() throws IOException;
+
+    @Override
+    void close() throws IOException;
+}
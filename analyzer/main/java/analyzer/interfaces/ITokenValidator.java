@@ -7,6 +7,9 @@ public interface ITokenValidator {
     boolean isValidIdentifier(String text);
     boolean isValidNumber(String text);
     TokenType getKeywordType(String text);
+
+    // Keyword type of source[start, end), or null for an identifier
+    TokenType getKeywordType(CharSequence source, int start, int end);
 }
 
 
@@ -0,0 +1,41 @@
+package analyzer.metrics;
+
+import analyzer.Token.TokenType;
+
+// Groups of token types that take noticeably different paths through the scanner
+public enum LexemeCategory {
+    IDENTIFIER,
+    KEYWORD,
+    NUMBER,
+    STRING,
+    COMMENT,
+    PREPROCESSOR,
+    OPERATOR;
+
+    private static final LexemeCategory[] BY_TYPE = new LexemeCategory[TokenType.values().length];
+
+    static {
+        for (TokenType type : TokenType.values()) {
+            BY_TYPE[type.ordinal()] = classify(type);
+        }
+    }
+
+    public static LexemeCategory of(TokenType type) {
+        return BY_TYPE[type.ordinal()];
+    }
+
+    private static LexemeCategory classify(TokenType type) {
+        switch (type) {
+            case IDENTIFIER: return IDENTIFIER;
+            case INTEGER_LITERAL:
+            case FLOAT_LITERAL: return NUMBER;
+            case CHAR_LITERAL:
+            case STRING_LITERAL: return STRING;
+            case COMMENT: return COMMENT;
+            case PREPROCESSOR: return PREPROCESSOR;
+            default:
+                return type.compareTo(TokenType.AUTO) >= 0 && type.compareTo(TokenType.WHILE) <= 0
+                        ? KEYWORD : OPERATOR;
+        }
+    }
+}
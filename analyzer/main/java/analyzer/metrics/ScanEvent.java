@@ -0,0 +1,49 @@
+package analyzer.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+// One JFR event per finished or failed scan; its duration is the whole scan
+@Name("analyzer.Scan")
+@Label("Scan")
+@Category("Analyzer")
+@Description("One source scanned by an instrumented scanner")
+class ScanEvent extends Event {
+    @Label("Bytes")
+    @DataAmount
+    long bytes;
+
+    @Label("Tokens")
+    long tokens;
+
+    @Label("Symbols")
+    int symbols;
+
+    @Label("Failed")
+    boolean failed;
+
+    @Label("Identifier Time")
+    @Timespan
+    long identifierNanos;
+
+    @Label("Number Time")
+    @Timespan
+    long numberNanos;
+
+    @Label("String Time")
+    @Timespan
+    long stringNanos;
+
+    @Label("Comment Time")
+    @Timespan
+    long commentNanos;
+
+    @Label("Preprocessor Time")
+    @Timespan
+    long preprocessorNanos;
+}
@@ -0,0 +1,174 @@
+package analyzer.metrics;
+
+import analyzer.interfaces.IScanListener;
+import analyzer.Token.TokenType;
+import analyzer.exceptions.ScannerException;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+// Listener that totals what instrumented scans report: bytes, tokens per type, time
+// per lexeme category, failures and the symbol table size after each scan. The
+// running scan is counted in plain arrays owned by the scanning thread and merged
+// into the totals when it ends, so the per-token cost is two array increments.
+// Every finished scan is also recorded as a JFR event (analyzer.Scan) when a
+// recording has it enabled, and the totals can be published as an MXBean.
+//
+// One scan at a time: give each scanning thread its own instance.
+public class ScanMetrics implements IScanListener, ScanMetricsMXBean {
+    public static final String DEFAULT_OBJECT_NAME = "analyzer:type=ScanMetrics";
+
+    private static final TokenType[] TYPES = TokenType.values();
+    private static final LexemeCategory[] CATEGORIES = LexemeCategory.values();
+
+    // Running scan
+    private final long[] scanTokens = new long[TYPES.length];
+    private final long[] scanNanos = new long[CATEGORIES.length];
+    private int scanBytes;
+    private ScanEvent event;
+
+    // Totals, guarded by this
+    private final long[] tokens = new long[TYPES.length];
+    private final long[] nanos = new long[CATEGORIES.length];
+    private long scans = 0;
+    private long failedScans = 0;
+    private long bytes = 0;
+    private int symbolTableSize = 0;
+    private int peakSymbolTableSize = 0;
+    private long symbolsAdded = 0;
+
+    // Publishes the totals on the platform MBean server
+    public void register(String objectName) throws JMException {
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this, new ObjectName(objectName));
+    }
+
+    @Override
+    public void scanStarted(int length) {
+        Arrays.fill(scanTokens, 0);
+        Arrays.fill(scanNanos, 0);
+        scanBytes = length;
+        event = new ScanEvent();
+        event.begin();
+    }
+
+    @Override
+    public void tokenScanned(TokenType type, int length, long nanos) {
+        scanTokens[type.ordinal()]++;
+        scanNanos[LexemeCategory.of(type).ordinal()] += nanos;
+    }
+
+    @Override
+    public void scanFailed(ScannerException error) {
+        finish(true, -1);
+    }
+
+    @Override
+    public void scanFinished(int symbols) {
+        finish(false, symbols);
+    }
+
+    // ScanMetricsMXBean
+    @Override public synchronized long getScans() { return scans; }
+    @Override public synchronized long getFailedScans() { return failedScans; }
+    @Override public synchronized long getBytesScanned() { return bytes; }
+    @Override public synchronized int getSymbolTableSize() { return symbolTableSize; }
+    @Override public synchronized int getPeakSymbolTableSize() { return peakSymbolTableSize; }
+    @Override public synchronized long getSymbolsAdded() { return symbolsAdded; }
+
+    @Override
+    public synchronized long getTokensScanned() {
+        long total = 0;
+        for (long count : tokens) total += count;
+        return total;
+    }
+
+    public synchronized long getTokens(TokenType type) {
+        return tokens[type.ordinal()];
+    }
+
+    public synchronized long getNanos(LexemeCategory category) {
+        return nanos[category.ordinal()];
+    }
+
+    // Types that occurred, in declaration order
+    @Override
+    public synchronized Map<String, Long> getTokensByType() {
+        Map<String, Long> byType = new LinkedHashMap<>();
+        for (TokenType type : TYPES) {
+            if (tokens[type.ordinal()] > 0) byType.put(type.name(), tokens[type.ordinal()]);
+        }
+        return byType;
+    }
+
+    @Override
+    public synchronized Map<String, Long> getNanosByCategory() {
+        Map<String, Long> byCategory = new LinkedHashMap<>();
+        for (LexemeCategory category : CATEGORIES) {
+            byCategory.put(category.name(), nanos[category.ordinal()]);
+        }
+        return byCategory;
+    }
+
+    @Override
+    public synchronized void reset() {
+        Arrays.fill(tokens, 0);
+        Arrays.fill(nanos, 0);
+        scans = 0;
+        failedScans = 0;
+        bytes = 0;
+        symbolTableSize = 0;
+        peakSymbolTableSize = 0;
+        symbolsAdded = 0;
+    }
+
+    // A failed scan keeps the last known symbol table size
+    private void finish(boolean failed, int symbols) {
+        long scanned = 0;
+        synchronized (this) {
+            for (int i = 0; i < TYPES.length; i++) {
+                tokens[i] += scanTokens[i];
+                scanned += scanTokens[i];
+            }
+            for (int i = 0; i < CATEGORIES.length; i++) {
+                nanos[i] += scanNanos[i];
+            }
+            scans++;
+            if (failed) failedScans++;
+            bytes += scanBytes;
+            if (symbols >= 0) {
+                symbolTableSize = symbols;
+                peakSymbolTableSize = Math.max(peakSymbolTableSize, symbols);
+                symbolsAdded += symbols;
+            }
+        }
+
+        ScanEvent finished = event;
+        event = null;
+        if (finished == null || !finished.shouldCommit()) return;
+        finished.bytes = scanBytes;
+        finished.tokens = scanned;
+        finished.symbols = symbols;
+        finished.failed = failed;
+        finished.identifierNanos = scanNanos[LexemeCategory.IDENTIFIER.ordinal()];
+        finished.numberNanos = scanNanos[LexemeCategory.NUMBER.ordinal()];
+        finished.stringNanos = scanNanos[LexemeCategory.STRING.ordinal()];
+        finished.commentNanos = scanNanos[LexemeCategory.COMMENT.ordinal()];
+        finished.preprocessorNanos = scanNanos[LexemeCategory.PREPROCESSOR.ordinal()];
+        finished.commit();
+    }
+
+    @Override
+    public synchronized String toString() {
+        StringBuilder time = new StringBuilder();
+        for (LexemeCategory category : CATEGORIES) {
+            if (time.length() > 0) time.append(", ");
+            time.append(category.name().toLowerCase()).append('=')
+                    .append(String.format("%.3fms", nanos[category.ordinal()] / 1e6));
+        }
+        return String.format("ScanMetrics{scans=%d (failed %d), bytes=%d, tokens=%d, symbols=%d (peak %d), time: %s}",
+                scans, failedScans, bytes, getTokensScanned(), symbolTableSize, peakSymbolTableSize, time);
+    }
+}
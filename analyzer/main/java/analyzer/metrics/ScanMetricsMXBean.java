@@ -0,0 +1,17 @@
+package analyzer.metrics;
+
+import java.util.Map;
+
+// Totals of all finished scans, as published over JMX
+public interface ScanMetricsMXBean {
+    long getScans();
+    long getFailedScans();
+    long getBytesScanned();
+    long getTokensScanned();
+    Map<String, Long> getTokensByType();
+    Map<String, Long> getNanosByCategory();
+    int getSymbolTableSize();
+    int getPeakSymbolTableSize();
+    long getSymbolsAdded();
+    void reset();
+}
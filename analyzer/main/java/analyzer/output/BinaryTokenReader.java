@@ -0,0 +1,118 @@
+package analyzer.output;
+
+import analyzer.Token.TokenType;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Cursor over a TokenFormat stream. next() decodes one token in place and the
+// getters read the current one, so iterating a token file creates no Token objects;
+// payloads are returned as slices of the underlying buffer. A file is memory-mapped
+// rather than read, which limits it to 2 GB.
+//
+//   BinaryTokenReader tokens = BinaryTokenReader.open(path);
+//   while (tokens.next()) { ... tokens.getType() ... }
+public class BinaryTokenReader {
+    private final ByteBuffer bytes;
+    private final boolean payloads;
+    private int position = 4;
+
+    // Current token
+    private TokenType type;
+    private int start = 0;
+    private int length;
+    private int line = 1;
+    private int column;
+    private int payloadOffset;
+    private int payloadLength = -1;
+
+    // Reads a stream held in the buffer's [position, limit)
+    public BinaryTokenReader(ByteBuffer bytes) throws IOException {
+        this.bytes = bytes.slice();
+        if (this.bytes.remaining() < 4 || this.bytes.getInt(0) != TokenFormat.MAGIC) {
+            throw new IOException("Not a token stream");
+        }
+        int version = readVarint();
+        if (version != TokenFormat.VERSION) {
+            throw new IOException("Unsupported token stream version " + version);
+        }
+        this.payloads = (readVarint() & TokenFormat.FLAG_PAYLOADS) != 0;
+    }
+
+    public static BinaryTokenReader open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Token file too large to map: " + path);
+            }
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new BinaryTokenReader(mapped);
+        }
+    }
+
+    // Moves to the next token; false at the end of the stream
+    public boolean next() throws IOException {
+        if (position == bytes.limit()) return false;
+
+        int ordinal = readVarint();
+        if (ordinal < 0 || ordinal >= TokenFormat.TYPES.length) {
+            throw new IOException("Invalid token type " + ordinal + " at byte " + position);
+        }
+        type = TokenFormat.TYPES[ordinal];
+        start += TokenFormat.unZigZag(readVarint());
+        length = readVarint();
+        line += TokenFormat.unZigZag(readVarint());
+        column = readVarint();
+
+        payloadLength = -1;
+        if (payloads && TokenFormat.hasPayload(type)) {
+            payloadLength = readVarint();
+            payloadOffset = position;
+            if (payloadLength < 0 || payloadLength > bytes.limit() - position) {
+                throw new IOException("Truncated token stream at byte " + position);
+            }
+            position += payloadLength;
+        }
+        return true;
+    }
+
+    public boolean hasPayloads() { return payloads; }
+
+    // Getters
+    public TokenType getType() { return type; }
+    public int getStart() { return start; }
+    public int getLength() { return length; }
+    public int getLine() { return line; }
+    public int getColumn() { return column; }
+
+    public boolean hasPayload() {
+        return payloadLength >= 0;
+    }
+
+    // The literal's UTF-8 text as a read-only view of the stream, or null
+    public ByteBuffer getPayload() {
+        if (payloadLength < 0) return null;
+        return bytes.slice(payloadOffset, payloadLength).asReadOnlyBuffer();
+    }
+
+    public String getPayloadString() {
+        if (payloadLength < 0) return null;
+        byte[] text = new byte[payloadLength];
+        bytes.get(payloadOffset, text);
+        return new String(text, StandardCharsets.UTF_8);
+    }
+
+    private int readVarint() throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            if (position == bytes.limit()) break;
+            byte b = bytes.get(position++);
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) return value;
+        }
+        throw new IOException("Truncated token stream at byte " + position);
+    }
+}
@@ -0,0 +1,133 @@
+package analyzer.output;
+
+import analyzer.Token.TokenBuffer;
+import analyzer.Token.TokenType;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+// Writes tokens in the TokenFormat binary layout to a channel. Tokens are encoded
+// into a direct buffer that is handed to the channel whenever it fills up, so a
+// whole TokenBuffer costs a handful of write calls and no per-token objects.
+// Closing flushes and closes the channel.
+public class BinaryTokenWriter implements AutoCloseable {
+    private static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    private final WritableByteChannel channel;
+    private final ByteBuffer buffer;
+    private final boolean payloads;
+    private int previousStart = 0;
+    private int previousLine = 1;
+
+    public BinaryTokenWriter(WritableByteChannel channel, boolean payloads) throws IOException {
+        this(channel, payloads, DEFAULT_BUFFER_SIZE);
+    }
+
+    public BinaryTokenWriter(WritableByteChannel channel, boolean payloads, int bufferSize) throws IOException {
+        if (bufferSize < TokenFormat.MAX_TOKEN_BYTES) {
+            throw new IllegalArgumentException("Buffer must hold at least one token: " + bufferSize);
+        }
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocateDirect(bufferSize);
+        this.payloads = payloads;
+        writeHeader();
+    }
+
+    // Starts another stream on the same channel, dropping anything not flushed yet, so
+    // one writer and its buffer can serve many short streams (e.g. server responses)
+    public void reset() {
+        buffer.clear();
+        previousStart = 0;
+        previousLine = 1;
+        writeHeader();
+    }
+
+    // Writes every token of the buffer, EOF included
+    public void write(TokenBuffer tokens) throws IOException {
+        CharSequence source = tokens.getSource();
+        for (int i = 0; i < tokens.size(); i++) {
+            write(tokens.getType(i), tokens.getStart(i), tokens.getLength(i),
+                    tokens.getLine(i), tokens.getColumn(i), source);
+        }
+    }
+
+    // Writes one token whose lexeme is source[start, start + length)
+    public void write(TokenType type, int start, int length, int line, int column, CharSequence source)
+            throws IOException {
+        if (buffer.remaining() < TokenFormat.MAX_TOKEN_BYTES) flush();
+        writeVarint(type.ordinal());
+        writeVarint(TokenFormat.zigZag(start - previousStart));
+        writeVarint(length);
+        writeVarint(TokenFormat.zigZag(line - previousLine));
+        writeVarint(column);
+        previousStart = start;
+        previousLine = line;
+
+        if (payloads && TokenFormat.hasPayload(type)) {
+            writePayload(source, start, start + length);
+        }
+    }
+
+    // Hands everything buffered so far to the channel
+    public void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+
+    // ASCII text, by far the common case, is copied char by char; anything else is
+    // encoded through a String
+    private void writePayload(CharSequence source, int start, int end) throws IOException {
+        int i = start;
+        while (i < end && source.charAt(i) < 0x80) i++;
+        if (i < end) {
+            writeBytes(source.subSequence(start, end).toString().getBytes(StandardCharsets.UTF_8));
+            return;
+        }
+
+        if (buffer.remaining() < 5) flush();
+        writeVarint(end - start);
+        for (i = start; i < end; i++) {
+            if (!buffer.hasRemaining()) flush();
+            buffer.put((byte) source.charAt(i));
+        }
+    }
+
+    private void writeBytes(byte[] bytes) throws IOException {
+        if (buffer.remaining() < 5) flush();
+        writeVarint(bytes.length);
+        int offset = 0;
+        while (offset < bytes.length) {
+            if (!buffer.hasRemaining()) flush();
+            int count = Math.min(buffer.remaining(), bytes.length - offset);
+            buffer.put(bytes, offset, count);
+            offset += count;
+        }
+    }
+
+    private void writeHeader() {
+        buffer.putInt(TokenFormat.MAGIC);
+        writeVarint(TokenFormat.VERSION);
+        writeVarint(payloads ? TokenFormat.FLAG_PAYLOADS : 0);
+    }
+
+    private void writeVarint(int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+}
@@ -0,0 +1,43 @@
+package analyzer.output;
+
+import analyzer.Token.TokenType;
+import java.io.Writer;
+
+// RFC 4180 CSV with a header row: type,lexeme,line,column. Lexemes containing a
+// comma, quote or line break are quoted, with quotes doubled.
+public class CsvTokenSink extends FormattingTokenSink {
+    public CsvTokenSink(Writer out) {
+        this(out, 0);
+    }
+
+    public CsvTokenSink(Writer out, int flushEvery) {
+        super(out, flushEvery);
+        append("type,lexeme,line,column\r\n");
+    }
+
+    @Override
+    protected void format(StringBuilder out, TokenType type, CharSequence text, int start, int end,
+                          int line, int column, Object value) {
+        out.append(type.name()).append(',');
+        if (needsQuotes(text, start, end)) {
+            out.append('"');
+            for (int i = start; i < end; i++) {
+                char c = text.charAt(i);
+                if (c == '"') out.append('"');
+                out.append(c);
+            }
+            out.append('"');
+        } else {
+            out.append(text, start, end);
+        }
+        out.append(',').append(line).append(',').append(column).append("\r\n");
+    }
+
+    private static boolean needsQuotes(CharSequence text, int start, int end) {
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,92 @@
+package analyzer.output;
+
+import analyzer.interfaces.ITokenSink;
+import analyzer.Token.Token;
+import analyzer.Token.TokenBuffer;
+import analyzer.Token.TokenType;
+import java.io.IOException;
+import java.io.Writer;
+
+// Base of the text-based sinks. Tokens are formatted one after another into a
+// single reusable StringBuilder, which is handed to the Writer in large batches;
+// the Writer itself is only flushed every flushEvery tokens (0: only on flush() and
+// close()), so a dump costs no per-token formatter, lock or flush.
+public abstract class FormattingTokenSink implements ITokenSink {
+    private static final int BATCH_CHARS = 16 * 1024;
+
+    private final Writer out;
+    private final int flushEvery;
+    private final StringBuilder batch = new StringBuilder(BATCH_CHARS + 256);
+    private int unflushed = 0;
+
+    protected FormattingTokenSink(Writer out, int flushEvery) {
+        if (flushEvery < 0) {
+            throw new IllegalArgumentException("Flush interval must not be negative: " + flushEvery);
+        }
+        this.out = out;
+        this.flushEvery = flushEvery;
+    }
+
+    // Appends one token, lexeme text[start, end), and its line terminator
+    protected abstract void format(StringBuilder out, TokenType type, CharSequence text, int start, int end,
+                                   int line, int column, Object value);
+
+    // Whether format prints the value; if not, it is passed as null and never boxed
+    protected boolean wantsValue() {
+        return false;
+    }
+
+    @Override
+    public void write(Token token) throws IOException {
+        String lexeme = token.getLexeme();
+        format(batch, token.getType(), lexeme, 0, lexeme.length(), token.getLine(), token.getColumn(),
+                wantsValue() ? token.getValue() : null);
+        written();
+    }
+
+    @Override
+    public void write(TokenBuffer tokens) throws IOException {
+        CharSequence source = tokens.getSource();
+        boolean values = wantsValue();
+        for (int i = 0; i < tokens.size(); i++) {
+            TokenType type = tokens.getType(i);
+            int start = tokens.getStart(i);
+            int end = start + tokens.getLength(i);
+            format(batch, type, source, start, end, tokens.getLine(i), tokens.getColumn(i),
+                    values ? tokens.getValue(i) : null);
+            written();
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        drain();
+        out.flush();
+        unflushed = 0;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            drain();
+        } finally {
+            out.close();
+        }
+    }
+
+    // Text added outside of any token, e.g. a header line
+    protected void append(CharSequence text) {
+        batch.append(text);
+    }
+
+    private void written() throws IOException {
+        if (batch.length() >= BATCH_CHARS) drain();
+        if (flushEvery > 0 && ++unflushed == flushEvery) flush();
+    }
+
+    private void drain() throws IOException {
+        if (batch.length() == 0) return;
+        out.append(batch);
+        batch.setLength(0);
+    }
+}
@@ -0,0 +1,47 @@
+package analyzer.output;
+
+import analyzer.Token.TokenType;
+import java.io.Writer;
+
+// Newline-delimited JSON, one object per token:
+//   {"type":"IDENTIFIER","lexeme":"main","line":3,"column":5}
+public class JsonLinesTokenSink extends FormattingTokenSink {
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    public JsonLinesTokenSink(Writer out) {
+        this(out, 0);
+    }
+
+    public JsonLinesTokenSink(Writer out, int flushEvery) {
+        super(out, flushEvery);
+    }
+
+    @Override
+    protected void format(StringBuilder out, TokenType type, CharSequence text, int start, int end,
+                          int line, int column, Object value) {
+        out.append("{\"type\":\"").append(type.name()).append("\",\"lexeme\":\"");
+        escape(out, text, start, end);
+        out.append("\",\"line\":").append(line)
+                .append(",\"column\":").append(column)
+                .append("}\n");
+    }
+
+    private static void escape(StringBuilder out, CharSequence text, int start, int end) {
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '"': out.append("\\\""); break;
+                case '\\': out.append("\\\\"); break;
+                case '\n': out.append("\\n"); break;
+                case '\r': out.append("\\r"); break;
+                case '\t': out.append("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        out.append("\\u00").append(HEX[c >> 4]).append(HEX[c & 0xF]);
+                    } else {
+                        out.append(c);
+                    }
+            }
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package analyzer.output;
+
+import analyzer.interfaces.ITokenSink;
+import java.io.Writer;
+
+// The text formats Main can dump tokens in
+public enum OutputFormat {
+    TEXT {
+        @Override
+        public ITokenSink open(Writer out, int flushEvery) {
+            return new TextTokenSink(out, flushEvery);
+        }
+    },
+    NDJSON {
+        @Override
+        public ITokenSink open(Writer out, int flushEvery) {
+            return new JsonLinesTokenSink(out, flushEvery);
+        }
+    },
+    CSV {
+        @Override
+        public ITokenSink open(Writer out, int flushEvery) {
+            return new CsvTokenSink(out, flushEvery);
+        }
+    };
+
+    public abstract ITokenSink open(Writer out, int flushEvery);
+
+    // Case-insensitive, e.g. "ndjson"
+    public static OutputFormat parse(String name) {
+        for (OutputFormat format : values()) {
+            if (format.name().equalsIgnoreCase(name)) return format;
+        }
+        throw new IllegalArgumentException("Unknown output format: " + name);
+    }
+}
@@ -0,0 +1,31 @@
+package analyzer.output;
+
+import analyzer.Token.TokenType;
+import java.io.Writer;
+
+// One line per token, exactly as Token.toString prints it
+public class TextTokenSink extends FormattingTokenSink {
+    public TextTokenSink(Writer out) {
+        this(out, 0);
+    }
+
+    public TextTokenSink(Writer out, int flushEvery) {
+        super(out, flushEvery);
+    }
+
+    @Override
+    protected boolean wantsValue() {
+        return true;
+    }
+
+    @Override
+    protected void format(StringBuilder out, TokenType type, CharSequence text, int start, int end,
+                          int line, int column, Object value) {
+        out.append("Token{type=").append(type.name())
+                .append(", lexeme='").append(text, start, end)
+                .append("', line=").append(line)
+                .append(", col=").append(column)
+                .append(", value=").append(value)
+                .append("}\n");
+    }
+}
@@ -0,0 +1,53 @@
+package analyzer.output;
+
+import analyzer.Token.TokenType;
+
+// Binary token stream for piping scanner output into other tools:
+//
+//   magic "CTKS", format version, flags
+//   per token: type ordinal, start delta, length, line delta, column
+//              [payload byte length, payload UTF-8 bytes]   (literals, FLAG_PAYLOADS only)
+//
+// Everything after the magic is an unsigned LEB128 varint. Start and line deltas
+// are relative to the previous token and zig-zag encoded, so neither has to increase
+// (preprocessed tokens keep the lines of the files they come from). The stream has no
+// token count, so it can be written while scanning; it ends with the EOF token and
+// the end of the data.
+// Payloads carry the text of literal tokens so readers can use them without the
+// source file.
+public final class TokenFormat {
+    public static final int MAGIC = 0x43544B53;
+    public static final int VERSION = 2;
+
+    // Flags
+    public static final int FLAG_PAYLOADS = 1;
+
+    // Largest encoding of one token without its payload: five varints of up to five bytes
+    static final int MAX_TOKEN_BYTES = 25;
+
+    static final TokenType[] TYPES = TokenType.values();
+
+    private TokenFormat() {
+    }
+
+    // Token types whose text is written as a payload
+    public static boolean hasPayload(TokenType type) {
+        switch (type) {
+            case INTEGER_LITERAL:
+            case FLOAT_LITERAL:
+            case CHAR_LITERAL:
+            case STRING_LITERAL:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    static int zigZag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    static int unZigZag(int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
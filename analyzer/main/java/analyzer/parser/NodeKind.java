@@ -0,0 +1,66 @@
+package analyzer.parser;
+
+// Kinds of syntax tree nodes. The comment on each kind lists its children in order,
+// with "?" for an optional child and "*" for a list. Unless noted otherwise a node's
+// token is its first token.
+public enum NodeKind {
+    // Declarations
+    TRANSLATION_UNIT,       // (FUNCTION_DEFINITION | DECLARATION)*; no token
+    FUNCTION_DEFINITION,    // SPECIFIERS, DECLARATOR, DECLARATION* (old-style parameters), COMPOUND_STATEMENT
+    DECLARATION,            // SPECIFIERS, INIT_DECLARATOR*
+    SPECIFIERS,             // (SPECIFIER | TYPEDEF_NAME | STRUCT_SPECIFIER | ENUM_SPECIFIER)*, empty for implicit int
+    SPECIFIER,              // storage class, type keyword or qualifier
+    TYPEDEF_NAME,
+    STRUCT_SPECIFIER,       // token: struct or union; NAME?, MEMBER_LIST?
+    MEMBER_LIST,            // MEMBER_DECLARATION*
+    MEMBER_DECLARATION,     // SPECIFIERS, MEMBER_DECLARATOR*
+    MEMBER_DECLARATOR,      // DECLARATOR?, bit width expression?
+    ENUM_SPECIFIER,         // NAME?, ENUMERATOR_LIST?
+    ENUMERATOR_LIST,        // ENUMERATOR*
+    ENUMERATOR,             // token: the name; value expression?
+    INIT_DECLARATOR,        // DECLARATOR, (expression | INITIALIZER_LIST)?
+    DECLARATOR,             // token: the declared name, none if abstract; (POINTER | ARRAY | FUNCTION)*
+                            // from the name outwards, so "*a[3]" is ARRAY, POINTER
+    POINTER,                // SPECIFIER* (qualifiers)
+    ARRAY,                  // size expression?
+    FUNCTION,               // PARAMETER* and ELLIPSIS?, or NAME* for an old-style identifier list
+    PARAMETER,              // SPECIFIERS, DECLARATOR?
+    ELLIPSIS,
+    TYPE_NAME,              // SPECIFIERS, DECLARATOR? (abstract)
+    INITIALIZER_LIST,       // (expression | INITIALIZER_LIST)*
+    NAME,                   // tag, member or label name
+
+    // Statements
+    COMPOUND_STATEMENT,     // (DECLARATION | statement)*
+    EXPRESSION_STATEMENT,   // expression?
+    IF_STATEMENT,           // condition, statement, else statement?
+    SWITCH_STATEMENT,       // expression, statement
+    WHILE_STATEMENT,        // condition, statement
+    DO_STATEMENT,           // statement, condition
+    FOR_STATEMENT,          // DECLARATION | initializer | EMPTY, condition | EMPTY, step | EMPTY, statement
+    GOTO_STATEMENT,         // NAME
+    CONTINUE_STATEMENT,
+    BREAK_STATEMENT,
+    RETURN_STATEMENT,       // expression?
+    LABELED_STATEMENT,      // token: the label; statement
+    CASE_STATEMENT,         // expression, statement
+    DEFAULT_STATEMENT,      // statement
+    EMPTY,                  // missing clause of a for statement; no token
+
+    // Expressions; the token of an operator node is its operator
+    COMMA_EXPRESSION,       // left, right
+    ASSIGNMENT,             // target, value
+    CONDITIONAL_EXPRESSION, // token: "?"; condition, then, else
+    BINARY_EXPRESSION,      // left, right
+    CAST_EXPRESSION,        // token: "("; TYPE_NAME, operand
+    UNARY_EXPRESSION,       // prefix operator, including ++ and --; operand
+    SIZEOF_EXPRESSION,      // operand
+    SIZEOF_TYPE,            // TYPE_NAME
+    POSTFIX_EXPRESSION,     // postfix ++ or --; operand
+    CALL_EXPRESSION,        // token: "("; function, argument*
+    INDEX_EXPRESSION,       // token: "["; array, index
+    MEMBER_EXPRESSION,      // token: "." or "->"; object, NAME
+    IDENTIFIER,
+    CONSTANT,               // integer, floating or character constant; its value is on the token
+    STRING                  // STRING* for the adjacent literals concatenated with it
+}
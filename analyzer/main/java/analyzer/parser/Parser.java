@@ -0,0 +1,910 @@
+package analyzer.parser;
+
+import analyzer.Token.LexemePool;
+import analyzer.Token.TokenBuffer;
+import analyzer.Token.TokenType;
+import analyzer.exceptions.ParseException;
+import analyzer.interfaces.IParser;
+import java.util.Arrays;
+
+// Recursive-descent parser for C89 translation units. It works on the scanner's
+// TokenBuffer without materializing tokens and builds a SyntaxTree arena, so a parse
+// allocates a few arrays that grow with the input instead of an object per node. The
+// scratch arrays are kept between parses; a parser is not thread-safe.
+//
+// Typedef names are told apart from other identifiers with a scoped table of names
+// indexed by LexemePool id. Beyond C89, declarations may follow statements in a block
+// and open a for statement, as most code written since expects. The first error ends
+// the parse.
+public class Parser implements IParser {
+    // Deeper nesting is reported as an error instead of overflowing the stack
+    public static final int MAX_NESTING = 512;
+
+    private static final int NONE = SyntaxTree.NONE;
+
+    // Declarator forms: with a name, without one (type names), or either (parameters)
+    private static final int NAMED = 0;
+    private static final int ABSTRACT = 1;
+    private static final int EITHER = 2;
+
+    // What a name means in the current scope; never declared reads as ORDINARY
+    private static final byte ORDINARY = 1;
+    private static final byte TYPEDEF = 2;
+
+    // Binding strength of binary operators, 0 for other tokens
+    private static final int[] PRECEDENCE = new int[TokenType.values().length];
+    static {
+        PRECEDENCE[TokenType.LOGICAL_OR.ordinal()] = 1;
+        PRECEDENCE[TokenType.LOGICAL_AND.ordinal()] = 2;
+        PRECEDENCE[TokenType.BITWISE_OR.ordinal()] = 3;
+        PRECEDENCE[TokenType.BITWISE_XOR.ordinal()] = 4;
+        PRECEDENCE[TokenType.BITWISE_AND.ordinal()] = 5;
+        PRECEDENCE[TokenType.EQUAL.ordinal()] = 6;
+        PRECEDENCE[TokenType.NOT_EQUAL.ordinal()] = 6;
+        PRECEDENCE[TokenType.LESS_THAN.ordinal()] = 7;
+        PRECEDENCE[TokenType.LESS_EQUAL.ordinal()] = 7;
+        PRECEDENCE[TokenType.GREATER_THAN.ordinal()] = 7;
+        PRECEDENCE[TokenType.GREATER_EQUAL.ordinal()] = 7;
+        PRECEDENCE[TokenType.LEFT_SHIFT.ordinal()] = 8;
+        PRECEDENCE[TokenType.RIGHT_SHIFT.ordinal()] = 8;
+        PRECEDENCE[TokenType.PLUS.ordinal()] = 9;
+        PRECEDENCE[TokenType.MINUS.ordinal()] = 9;
+        PRECEDENCE[TokenType.MULTIPLY.ordinal()] = 10;
+        PRECEDENCE[TokenType.DIVIDE.ordinal()] = 10;
+        PRECEDENCE[TokenType.MODULO.ordinal()] = 10;
+    }
+
+    private final LexemePool names;
+
+    // Significant tokens of the current parse, with an EOF entry after the last one
+    private TokenBuffer tokens;
+    private int[] indexes = new int[64];
+    private TokenType[] types = new TokenType[64];
+    private int count;
+    private int pos;
+    private int depth;
+    private SyntaxTree tree;
+
+    // Scoped meaning of names: the current one by id, and the (id, previous) pairs to
+    // restore when a scope closes
+    private byte[] nameKinds = new byte[64];
+    private int[] shadowed = new int[64];
+    private int shadowedSize;
+    private int[] scopes = new int[16];
+    private int scopeDepth;
+    private int typedefs;
+    private boolean specifiersTypedef;
+
+    // Pointers of the declarators being parsed, appended after their suffixes
+    private int[] pointers = new int[16];
+    private int pointerCount;
+
+    public Parser() {
+        this(new LexemePool());
+    }
+
+    public Parser(LexemePool names) {
+        this.names = names;
+    }
+
+    @Override
+    public SyntaxTree parse(TokenBuffer tokens) throws ParseException {
+        load(tokens);
+        SyntaxTree result = new SyntaxTree(tokens, count + count / 2);
+        this.tree = result;
+        try {
+            int root = tree.add(NodeKind.TRANSLATION_UNIT, NONE);
+            while (peek() != TokenType.EOF) {
+                tree.addChild(root, externalDeclaration());
+            }
+            tree.setRoot(root);
+            return result;
+        } finally {
+            // The parser outlives the tree and the tokens
+            this.tree = null;
+            this.tokens = null;
+        }
+    }
+
+    // Collects the significant tokens and clears the scopes of the previous parse
+    private void load(TokenBuffer tokens) {
+        this.tokens = tokens;
+        int size = tokens.size();
+        if (indexes.length < size + 1) {
+            indexes = new int[size + 1];
+            types = new TokenType[size + 1];
+        }
+        count = 0;
+        for (int i = 0; i < size; i++) {
+            TokenType type = tokens.getType(i);
+            if (type == TokenType.EOF) break;
+            if (type == TokenType.COMMENT || type == TokenType.PREPROCESSOR
+                    || type == TokenType.WHITESPACE || type == TokenType.NEWLINE) {
+                continue;
+            }
+            indexes[count] = i;
+            types[count] = type;
+            count++;
+        }
+        // Errors at the end are reported at the EOF token, or the last token
+        indexes[count] = size == 0 ? NONE : size - 1;
+        types[count] = TokenType.EOF;
+        pos = 0;
+        depth = 0;
+
+        Arrays.fill(nameKinds, 0, Math.min(nameKinds.length, names.size()), (byte) 0);
+        shadowedSize = 0;
+        scopeDepth = 0;
+        typedefs = 0;
+        pointerCount = 0;
+    }
+
+    // Declarations
+
+    private int externalDeclaration() throws ParseException {
+        int first = current();
+        int specifiers = declarationSpecifiers();
+        boolean typedef = specifiersTypedef;
+        if (tree.getFirstChild(specifiers) == NONE
+                && peek() != TokenType.IDENTIFIER && peek() != TokenType.MULTIPLY && peek() != TokenType.LEFT_PAREN) {
+            throw error("Expected declaration but found " + describe());
+        }
+        if (peek() == TokenType.SEMICOLON) {
+            return emptyDeclaration(first, specifiers);
+        }
+
+        int declarator = declarator(NAMED);
+        if (!typedef && isFunction(declarator) && (peek() == TokenType.LEFT_BRACE || startsDeclaration())) {
+            return functionDefinition(first, specifiers, declarator);
+        }
+        return declarationRest(first, specifiers, declarator, typedef);
+    }
+
+    private int functionDefinition(int first, int specifiers, int declarator) throws ParseException {
+        int function = tree.add(NodeKind.FUNCTION_DEFINITION, first);
+        tree.addChild(function, specifiers);
+        tree.addChild(function, declarator);
+        declare(tree.getToken(declarator), false);
+
+        // Parameter names are in scope for the whole body
+        openScope();
+        int parameters = tree.getFirstChild(declarator);
+        for (int parameter = tree.getFirstChild(parameters); parameter != NONE;
+             parameter = tree.getNextSibling(parameter)) {
+            if (tree.getKind(parameter) == NodeKind.PARAMETER) {
+                int parameterDeclarator = tree.getChild(parameter, 1);
+                if (parameterDeclarator != NONE) declare(tree.getToken(parameterDeclarator), false);
+            } else if (tree.getKind(parameter) == NodeKind.NAME) {
+                declare(tree.getToken(parameter), false);
+            }
+        }
+        while (peek() != TokenType.LEFT_BRACE) {
+            tree.addChild(function, declaration());
+        }
+        tree.addChild(function, compoundStatement(false));
+        closeScope();
+        return function;
+    }
+
+    private int declaration() throws ParseException {
+        int first = current();
+        int specifiers = declarationSpecifiers();
+        boolean typedef = specifiersTypedef;
+        if (tree.getFirstChild(specifiers) == NONE) {
+            throw error("Expected declaration but found " + describe());
+        }
+        if (peek() == TokenType.SEMICOLON) {
+            return emptyDeclaration(first, specifiers);
+        }
+        return declarationRest(first, specifiers, declarator(NAMED), typedef);
+    }
+
+    // A declaration that only declares a tag, such as "struct s;"
+    private int emptyDeclaration(int first, int specifiers) throws ParseException {
+        int declaration = tree.add(NodeKind.DECLARATION, first);
+        tree.addChild(declaration, specifiers);
+        advance();
+        return declaration;
+    }
+
+    // The init-declarator list after the first declarator
+    private int declarationRest(int first, int specifiers, int declarator, boolean typedef) throws ParseException {
+        int declaration = tree.add(NodeKind.DECLARATION, first);
+        tree.addChild(declaration, specifiers);
+        while (true) {
+            // A name is in scope from the end of its declarator, so before its initializer
+            declare(tree.getToken(declarator), typedef);
+            int init = tree.add(NodeKind.INIT_DECLARATOR, tree.getToken(declarator));
+            tree.addChild(init, declarator);
+            if (accept(TokenType.ASSIGN)) {
+                tree.addChild(init, initializer());
+            }
+            tree.addChild(declaration, init);
+            if (!accept(TokenType.COMMA)) break;
+            declarator = declarator(NAMED);
+        }
+        expect(TokenType.SEMICOLON, "';'");
+        return declaration;
+    }
+
+    // Storage classes, type specifiers and qualifiers in any order. Sets specifiersTypedef.
+    private int declarationSpecifiers() throws ParseException {
+        int specifiers = tree.add(NodeKind.SPECIFIERS, current());
+        boolean sawType = false;
+        // Struct members parse specifiers of their own
+        boolean typedef = false;
+        while (true) {
+            switch (peek()) {
+                case TYPEDEF:
+                    typedef = true;
+                    tree.addChild(specifiers, tree.add(NodeKind.SPECIFIER, advance()));
+                    continue;
+                case AUTO: case REGISTER: case STATIC: case EXTERN: case CONST: case VOLATILE:
+                    tree.addChild(specifiers, tree.add(NodeKind.SPECIFIER, advance()));
+                    continue;
+                case VOID: case CHAR: case SHORT: case INT: case LONG: case FLOAT: case DOUBLE:
+                case SIGNED: case UNSIGNED:
+                    sawType = true;
+                    tree.addChild(specifiers, tree.add(NodeKind.SPECIFIER, advance()));
+                    continue;
+                case STRUCT: case UNION:
+                    sawType = true;
+                    tree.addChild(specifiers, structSpecifier());
+                    continue;
+                case ENUM:
+                    sawType = true;
+                    tree.addChild(specifiers, enumSpecifier());
+                    continue;
+                case IDENTIFIER:
+                    // A typedef name after another type specifier is the declared name
+                    if (!sawType && isTypedefName(pos)) {
+                        sawType = true;
+                        tree.addChild(specifiers, tree.add(NodeKind.TYPEDEF_NAME, advance()));
+                        continue;
+                    }
+                    break;
+                default:
+                    break;
+            }
+            specifiersTypedef = typedef;
+            return specifiers;
+        }
+    }
+
+    private int structSpecifier() throws ParseException {
+        int struct = tree.add(NodeKind.STRUCT_SPECIFIER, advance());
+        boolean named = peek() == TokenType.IDENTIFIER;
+        if (named) {
+            tree.addChild(struct, tree.add(NodeKind.NAME, advance()));
+        }
+        if (peek() != TokenType.LEFT_BRACE) {
+            if (!named) throw error("Expected struct name or '{' but found " + describe());
+            return struct;
+        }
+
+        enter();
+        int members = tree.add(NodeKind.MEMBER_LIST, advance());
+        while (!accept(TokenType.RIGHT_BRACE)) {
+            int member = tree.add(NodeKind.MEMBER_DECLARATION, current());
+            int specifiers = declarationSpecifiers();
+            if (tree.getFirstChild(specifiers) == NONE) {
+                throw error("Expected member declaration but found " + describe());
+            }
+            tree.addChild(member, specifiers);
+            if (peek() != TokenType.SEMICOLON) {
+                do {
+                    int declarator = tree.add(NodeKind.MEMBER_DECLARATOR, current());
+                    if (peek() != TokenType.COLON) {
+                        tree.addChild(declarator, declarator(NAMED));
+                    }
+                    if (accept(TokenType.COLON)) {
+                        tree.addChild(declarator, conditional());
+                    }
+                    tree.addChild(member, declarator);
+                } while (accept(TokenType.COMMA));
+            }
+            expect(TokenType.SEMICOLON, "';'");
+            tree.addChild(members, member);
+        }
+        tree.addChild(struct, members);
+        leave();
+        return struct;
+    }
+
+    private int enumSpecifier() throws ParseException {
+        int specifier = tree.add(NodeKind.ENUM_SPECIFIER, advance());
+        boolean named = peek() == TokenType.IDENTIFIER;
+        if (named) {
+            tree.addChild(specifier, tree.add(NodeKind.NAME, advance()));
+        }
+        if (peek() != TokenType.LEFT_BRACE) {
+            if (!named) throw error("Expected enum name or '{' but found " + describe());
+            return specifier;
+        }
+
+        enter();
+        int list = tree.add(NodeKind.ENUMERATOR_LIST, advance());
+        do {
+            if (peek() == TokenType.RIGHT_BRACE) break;
+            int enumerator = tree.add(NodeKind.ENUMERATOR, expect(TokenType.IDENTIFIER, "enumerator"));
+            declare(tree.getToken(enumerator), false);
+            if (accept(TokenType.ASSIGN)) {
+                tree.addChild(enumerator, conditional());
+            }
+            tree.addChild(list, enumerator);
+        } while (accept(TokenType.COMMA));
+        expect(TokenType.RIGHT_BRACE, "'}'");
+        tree.addChild(specifier, list);
+        leave();
+        return specifier;
+    }
+
+    private int declarator(int form) throws ParseException {
+        int declarator = tree.add(NodeKind.DECLARATOR, NONE);
+        derive(declarator, form);
+        return declarator;
+    }
+
+    // One level of a declarator: its pointers, then the name or a parenthesized inner
+    // declarator, then array and function suffixes. Suffixes bind tighter than the
+    // pointers before them, so they are added first.
+    private void derive(int declarator, int form) throws ParseException {
+        enter();
+        int firstPointer = pointerCount;
+        while (peek() == TokenType.MULTIPLY) {
+            int pointer = tree.add(NodeKind.POINTER, advance());
+            while (peek() == TokenType.CONST || peek() == TokenType.VOLATILE) {
+                tree.addChild(pointer, tree.add(NodeKind.SPECIFIER, advance()));
+            }
+            if (pointerCount == pointers.length) pointers = Arrays.copyOf(pointers, pointerCount * 2);
+            pointers[pointerCount++] = pointer;
+        }
+
+        if (peek() == TokenType.IDENTIFIER && form != ABSTRACT) {
+            tree.setToken(declarator, advance());
+        } else if (peek() == TokenType.LEFT_PAREN && isNestedDeclarator(form)) {
+            advance();
+            derive(declarator, form);
+            expect(TokenType.RIGHT_PAREN, "')'");
+        } else if (form == NAMED) {
+            throw error("Expected identifier but found " + describe());
+        }
+
+        while (true) {
+            if (peek() == TokenType.LEFT_BRACKET) {
+                int array = tree.add(NodeKind.ARRAY, advance());
+                if (peek() != TokenType.RIGHT_BRACKET) {
+                    tree.addChild(array, conditional());
+                }
+                expect(TokenType.RIGHT_BRACKET, "']'");
+                tree.addChild(declarator, array);
+            } else if (peek() == TokenType.LEFT_PAREN) {
+                tree.addChild(declarator, functionSuffix());
+            } else {
+                break;
+            }
+        }
+
+        while (pointerCount > firstPointer) {
+            tree.addChild(declarator, pointers[--pointerCount]);
+        }
+        leave();
+    }
+
+    // Whether a "(" in a declarator opens an inner declarator rather than parameters
+    private boolean isNestedDeclarator(int form) {
+        if (form == NAMED) return true;
+        TokenType next = peek(1);
+        if (next == TokenType.MULTIPLY || next == TokenType.LEFT_PAREN || next == TokenType.LEFT_BRACKET) return true;
+        return form == EITHER && next == TokenType.IDENTIFIER && !isTypedefName(pos + 1);
+    }
+
+    private int functionSuffix() throws ParseException {
+        int function = tree.add(NodeKind.FUNCTION, advance());
+        // Parameter names shadow typedef names only up to the closing parenthesis
+        openScope();
+        if (peek() == TokenType.IDENTIFIER && !isTypedefName(pos)) {
+            do {
+                tree.addChild(function, tree.add(NodeKind.NAME, expect(TokenType.IDENTIFIER, "parameter name")));
+            } while (accept(TokenType.COMMA));
+        } else if (peek() != TokenType.RIGHT_PAREN) {
+            do {
+                if (peek() == TokenType.ELLIPSIS) {
+                    tree.addChild(function, tree.add(NodeKind.ELLIPSIS, advance()));
+                    break;
+                }
+                int parameter = tree.add(NodeKind.PARAMETER, current());
+                int specifiers = declarationSpecifiers();
+                if (tree.getFirstChild(specifiers) == NONE) {
+                    throw error("Expected parameter declaration but found " + describe());
+                }
+                tree.addChild(parameter, specifiers);
+                if (peek() != TokenType.COMMA && peek() != TokenType.RIGHT_PAREN) {
+                    int declarator = declarator(EITHER);
+                    declare(tree.getToken(declarator), false);
+                    tree.addChild(parameter, declarator);
+                }
+                tree.addChild(function, parameter);
+            } while (accept(TokenType.COMMA));
+        }
+        closeScope();
+        expect(TokenType.RIGHT_PAREN, "')'");
+        return function;
+    }
+
+    private int typeName() throws ParseException {
+        int typeName = tree.add(NodeKind.TYPE_NAME, current());
+        int specifiers = declarationSpecifiers();
+        if (tree.getFirstChild(specifiers) == NONE) {
+            throw error("Expected type name but found " + describe());
+        }
+        tree.addChild(typeName, specifiers);
+        if (peek() != TokenType.RIGHT_PAREN) {
+            tree.addChild(typeName, declarator(ABSTRACT));
+        }
+        return typeName;
+    }
+
+    private int initializer() throws ParseException {
+        if (peek() != TokenType.LEFT_BRACE) {
+            return assignment();
+        }
+        enter();
+        int list = tree.add(NodeKind.INITIALIZER_LIST, advance());
+        do {
+            if (peek() == TokenType.RIGHT_BRACE) break;
+            tree.addChild(list, initializer());
+        } while (accept(TokenType.COMMA));
+        expect(TokenType.RIGHT_BRACE, "'}'");
+        leave();
+        return list;
+    }
+
+    // Statements
+
+    private int statement() throws ParseException {
+        enter();
+        int statement;
+        switch (peek()) {
+            case LEFT_BRACE:
+                statement = compoundStatement(true);
+                break;
+            case IF:
+                statement = ifStatement();
+                break;
+            case SWITCH:
+                statement = tree.add(NodeKind.SWITCH_STATEMENT, advance());
+                tree.addChild(statement, parenthesized());
+                tree.addChild(statement, statement());
+                break;
+            case WHILE:
+                statement = tree.add(NodeKind.WHILE_STATEMENT, advance());
+                tree.addChild(statement, parenthesized());
+                tree.addChild(statement, statement());
+                break;
+            case DO:
+                statement = tree.add(NodeKind.DO_STATEMENT, advance());
+                tree.addChild(statement, statement());
+                expect(TokenType.WHILE, "'while'");
+                tree.addChild(statement, parenthesized());
+                expect(TokenType.SEMICOLON, "';'");
+                break;
+            case FOR:
+                statement = forStatement();
+                break;
+            case GOTO:
+                statement = tree.add(NodeKind.GOTO_STATEMENT, advance());
+                tree.addChild(statement, tree.add(NodeKind.NAME, expect(TokenType.IDENTIFIER, "label")));
+                expect(TokenType.SEMICOLON, "';'");
+                break;
+            case CONTINUE:
+                statement = tree.add(NodeKind.CONTINUE_STATEMENT, advance());
+                expect(TokenType.SEMICOLON, "';'");
+                break;
+            case BREAK:
+                statement = tree.add(NodeKind.BREAK_STATEMENT, advance());
+                expect(TokenType.SEMICOLON, "';'");
+                break;
+            case RETURN:
+                statement = tree.add(NodeKind.RETURN_STATEMENT, advance());
+                if (peek() != TokenType.SEMICOLON) {
+                    tree.addChild(statement, expression());
+                }
+                expect(TokenType.SEMICOLON, "';'");
+                break;
+            case CASE:
+                statement = tree.add(NodeKind.CASE_STATEMENT, advance());
+                tree.addChild(statement, conditional());
+                expect(TokenType.COLON, "':'");
+                tree.addChild(statement, statement());
+                break;
+            case DEFAULT:
+                statement = tree.add(NodeKind.DEFAULT_STATEMENT, advance());
+                expect(TokenType.COLON, "':'");
+                tree.addChild(statement, statement());
+                break;
+            default:
+                if (peek() == TokenType.IDENTIFIER && peek(1) == TokenType.COLON) {
+                    statement = tree.add(NodeKind.LABELED_STATEMENT, advance());
+                    advance();
+                    tree.addChild(statement, statement());
+                    break;
+                }
+                statement = tree.add(NodeKind.EXPRESSION_STATEMENT, current());
+                if (peek() != TokenType.SEMICOLON) {
+                    tree.addChild(statement, expression());
+                }
+                expect(TokenType.SEMICOLON, "';'");
+                break;
+        }
+        leave();
+        return statement;
+    }
+
+    // A function body shares the scope its parameters were declared in
+    private int compoundStatement(boolean newScope) throws ParseException {
+        int block = tree.add(NodeKind.COMPOUND_STATEMENT, expect(TokenType.LEFT_BRACE, "'{'"));
+        if (newScope) openScope();
+        while (!accept(TokenType.RIGHT_BRACE)) {
+            if (peek() == TokenType.EOF) {
+                throw error("Expected '}' but found " + describe());
+            }
+            tree.addChild(block, startsDeclaration() ? declaration() : statement());
+        }
+        if (newScope) closeScope();
+        return block;
+    }
+
+    // An "else if" arm is linked in as the else branch of the arm before it, as
+    // recursion would, but in a loop: a long flat chain is not nesting
+    private int ifStatement() throws ParseException {
+        int first = tree.add(NodeKind.IF_STATEMENT, advance());
+        int arm = first;
+        while (true) {
+            tree.addChild(arm, parenthesized());
+            tree.addChild(arm, statement());
+            if (!accept(TokenType.ELSE)) break;
+            if (peek() != TokenType.IF) {
+                tree.addChild(arm, statement());
+                break;
+            }
+            int next = tree.add(NodeKind.IF_STATEMENT, advance());
+            tree.addChild(arm, next);
+            arm = next;
+        }
+        return first;
+    }
+
+    private int forStatement() throws ParseException {
+        int statement = tree.add(NodeKind.FOR_STATEMENT, advance());
+        expect(TokenType.LEFT_PAREN, "'('");
+        openScope();
+        if (startsDeclaration()) {
+            tree.addChild(statement, declaration());
+        } else {
+            tree.addChild(statement, optionalExpression(TokenType.SEMICOLON));
+            expect(TokenType.SEMICOLON, "';'");
+        }
+        tree.addChild(statement, optionalExpression(TokenType.SEMICOLON));
+        expect(TokenType.SEMICOLON, "';'");
+        tree.addChild(statement, optionalExpression(TokenType.RIGHT_PAREN));
+        expect(TokenType.RIGHT_PAREN, "')'");
+        tree.addChild(statement, statement());
+        closeScope();
+        return statement;
+    }
+
+    private int optionalExpression(TokenType end) throws ParseException {
+        return peek() == end ? tree.add(NodeKind.EMPTY, NONE) : expression();
+    }
+
+    private int parenthesized() throws ParseException {
+        expect(TokenType.LEFT_PAREN, "'('");
+        int expression = expression();
+        expect(TokenType.RIGHT_PAREN, "')'");
+        return expression;
+    }
+
+    // Expressions
+
+    private int expression() throws ParseException {
+        int left = assignment();
+        while (peek() == TokenType.COMMA) {
+            int operator = advance();
+            left = binary(NodeKind.COMMA_EXPRESSION, operator, left, assignment());
+        }
+        return left;
+    }
+
+    // Any conditional expression is accepted as the target; whether it is an lvalue
+    // is not checked
+    private int assignment() throws ParseException {
+        enter();
+        int left = conditional();
+        switch (peek()) {
+            case ASSIGN: case PLUS_ASSIGN: case MINUS_ASSIGN: case MULTIPLY_ASSIGN: case DIVIDE_ASSIGN:
+            case MODULO_ASSIGN: case LEFT_SHIFT_ASSIGN: case RIGHT_SHIFT_ASSIGN: case AND_ASSIGN:
+            case OR_ASSIGN: case XOR_ASSIGN:
+                int operator = advance();
+                left = binary(NodeKind.ASSIGNMENT, operator, left, assignment());
+                break;
+            default:
+                break;
+        }
+        leave();
+        return left;
+    }
+
+    private int conditional() throws ParseException {
+        int condition = binaryExpression(1);
+        if (peek() != TokenType.CONDITIONAL) {
+            return condition;
+        }
+        int node = tree.add(NodeKind.CONDITIONAL_EXPRESSION, advance());
+        tree.addChild(node, condition);
+        tree.addChild(node, expression());
+        expect(TokenType.COLON, "':'");
+        enter();
+        tree.addChild(node, conditional());
+        leave();
+        return node;
+    }
+
+    // Precedence climbing over the left-associative binary operators
+    private int binaryExpression(int minPrecedence) throws ParseException {
+        int left = cast();
+        int precedence;
+        while ((precedence = PRECEDENCE[peek().ordinal()]) >= minPrecedence) {
+            int operator = advance();
+            left = binary(NodeKind.BINARY_EXPRESSION, operator, left, binaryExpression(precedence + 1));
+        }
+        return left;
+    }
+
+    private int cast() throws ParseException {
+        if (peek() != TokenType.LEFT_PAREN || !startsTypeName(pos + 1)) {
+            return unary();
+        }
+        enter();
+        int node = tree.add(NodeKind.CAST_EXPRESSION, advance());
+        tree.addChild(node, typeName());
+        expect(TokenType.RIGHT_PAREN, "')'");
+        tree.addChild(node, cast());
+        leave();
+        return node;
+    }
+
+    private int unary() throws ParseException {
+        int node;
+        switch (peek()) {
+            case INCREMENT: case DECREMENT:
+                node = tree.add(NodeKind.UNARY_EXPRESSION, advance());
+                tree.addChild(node, unaryOperand(false));
+                return node;
+            case BITWISE_AND: case MULTIPLY: case PLUS: case MINUS: case BITWISE_NOT: case LOGICAL_NOT:
+                node = tree.add(NodeKind.UNARY_EXPRESSION, advance());
+                tree.addChild(node, unaryOperand(true));
+                return node;
+            case SIZEOF:
+                int operator = advance();
+                if (peek() == TokenType.LEFT_PAREN && startsTypeName(pos + 1)) {
+                    node = tree.add(NodeKind.SIZEOF_TYPE, operator);
+                    advance();
+                    tree.addChild(node, typeName());
+                    expect(TokenType.RIGHT_PAREN, "')'");
+                } else {
+                    node = tree.add(NodeKind.SIZEOF_EXPRESSION, operator);
+                    tree.addChild(node, unaryOperand(false));
+                }
+                return node;
+            default:
+                return postfix();
+        }
+    }
+
+    private int unaryOperand(boolean castAllowed) throws ParseException {
+        enter();
+        int operand = castAllowed ? cast() : unary();
+        leave();
+        return operand;
+    }
+
+    private int postfix() throws ParseException {
+        int expression = primary();
+        while (true) {
+            int node;
+            switch (peek()) {
+                case LEFT_BRACKET:
+                    node = tree.add(NodeKind.INDEX_EXPRESSION, advance());
+                    tree.addChild(node, expression);
+                    tree.addChild(node, expression());
+                    expect(TokenType.RIGHT_BRACKET, "']'");
+                    break;
+                case LEFT_PAREN:
+                    node = tree.add(NodeKind.CALL_EXPRESSION, advance());
+                    tree.addChild(node, expression);
+                    if (peek() != TokenType.RIGHT_PAREN) {
+                        do {
+                            tree.addChild(node, assignment());
+                        } while (accept(TokenType.COMMA));
+                    }
+                    expect(TokenType.RIGHT_PAREN, "')'");
+                    break;
+                case DOT: case ARROW:
+                    node = tree.add(NodeKind.MEMBER_EXPRESSION, advance());
+                    tree.addChild(node, expression);
+                    tree.addChild(node, tree.add(NodeKind.NAME, expect(TokenType.IDENTIFIER, "member name")));
+                    break;
+                case INCREMENT: case DECREMENT:
+                    node = tree.add(NodeKind.POSTFIX_EXPRESSION, advance());
+                    tree.addChild(node, expression);
+                    break;
+                default:
+                    return expression;
+            }
+            expression = node;
+        }
+    }
+
+    private int primary() throws ParseException {
+        switch (peek()) {
+            case IDENTIFIER:
+                return tree.add(NodeKind.IDENTIFIER, advance());
+            case INTEGER_LITERAL: case FLOAT_LITERAL: case CHAR_LITERAL:
+                return tree.add(NodeKind.CONSTANT, advance());
+            case STRING_LITERAL:
+                int string = tree.add(NodeKind.STRING, advance());
+                while (peek() == TokenType.STRING_LITERAL) {
+                    tree.addChild(string, tree.add(NodeKind.STRING, advance()));
+                }
+                return string;
+            case LEFT_PAREN:
+                advance();
+                int expression = expression();
+                expect(TokenType.RIGHT_PAREN, "')'");
+                return expression;
+            default:
+                throw error("Expected expression but found " + describe());
+        }
+    }
+
+    private int binary(NodeKind kind, int operator, int left, int right) {
+        int node = tree.add(kind, operator);
+        tree.addChild(node, left);
+        tree.addChild(node, right);
+        return node;
+    }
+
+    // Lookahead helpers
+
+    private boolean startsDeclaration() {
+        switch (peek()) {
+            case TYPEDEF: case AUTO: case REGISTER: case STATIC: case EXTERN:
+                return true;
+            case IDENTIFIER:
+                // A label may reuse a typedef name
+                return peek(1) != TokenType.COLON && isTypedefName(pos);
+            default:
+                return startsTypeName(pos);
+        }
+    }
+
+    private boolean startsTypeName(int at) {
+        switch (types[Math.min(at, count)]) {
+            case VOID: case CHAR: case SHORT: case INT: case LONG: case FLOAT: case DOUBLE:
+            case SIGNED: case UNSIGNED: case STRUCT: case UNION: case ENUM: case CONST: case VOLATILE:
+                return true;
+            case IDENTIFIER:
+                return isTypedefName(at);
+            default:
+                return false;
+        }
+    }
+
+    // A declarator whose derivation closest to the name is a function
+    private boolean isFunction(int declarator) {
+        int first = tree.getFirstChild(declarator);
+        return first != NONE && tree.getKind(first) == NodeKind.FUNCTION;
+    }
+
+    // Scopes
+
+    private void openScope() {
+        if (scopeDepth == scopes.length) scopes = Arrays.copyOf(scopes, scopeDepth * 2);
+        scopes[scopeDepth++] = shadowedSize;
+    }
+
+    private void closeScope() {
+        int mark = scopes[--scopeDepth];
+        while (shadowedSize > mark) {
+            shadowedSize -= 2;
+            int id = shadowed[shadowedSize];
+            byte previous = (byte) shadowed[shadowedSize + 1];
+            if (nameKinds[id] == TYPEDEF) typedefs--;
+            if (previous == TYPEDEF) typedefs++;
+            nameKinds[id] = previous;
+        }
+    }
+
+    private void declare(int token, boolean typedef) {
+        // Without typedef names in scope there is nothing for an ordinary name to shadow
+        if (token == NONE || (!typedef && typedefs == 0)) return;
+        int start = tokens.getStart(token);
+        int id = names.intern(tokens.getSource(), start, start + tokens.getLength(token));
+        if (id >= nameKinds.length) {
+            nameKinds = Arrays.copyOf(nameKinds, Math.max(id + 1, nameKinds.length * 2));
+        }
+        byte kind = typedef ? TYPEDEF : ORDINARY;
+        byte previous = nameKinds[id];
+        if (previous == kind) return;
+
+        if (shadowedSize + 2 > shadowed.length) shadowed = Arrays.copyOf(shadowed, shadowed.length * 2);
+        shadowed[shadowedSize++] = id;
+        shadowed[shadowedSize++] = previous;
+        if (previous == TYPEDEF) typedefs--;
+        if (kind == TYPEDEF) typedefs++;
+        nameKinds[id] = kind;
+    }
+
+    private boolean isTypedefName(int at) {
+        if (typedefs == 0 || types[Math.min(at, count)] != TokenType.IDENTIFIER) return false;
+        int token = indexes[at];
+        int start = tokens.getStart(token);
+        int id = names.intern(tokens.getSource(), start, start + tokens.getLength(token));
+        return id < nameKinds.length && nameKinds[id] == TYPEDEF;
+    }
+
+    // Token access
+
+    private TokenType peek() {
+        return types[pos];
+    }
+
+    private TokenType peek(int ahead) {
+        return types[Math.min(pos + ahead, count)];
+    }
+
+    // Index in the TokenBuffer of the current token
+    private int current() {
+        return indexes[pos];
+    }
+
+    private int advance() {
+        int token = indexes[pos];
+        if (pos < count) pos++;
+        return token;
+    }
+
+    private boolean accept(TokenType type) {
+        if (types[pos] != type) return false;
+        if (pos < count) pos++;
+        return true;
+    }
+
+    private int expect(TokenType type, String what) throws ParseException {
+        if (types[pos] != type) {
+            throw error("Expected " + what + " but found " + describe());
+        }
+        return advance();
+    }
+
+    private void enter() throws ParseException {
+        if (++depth > MAX_NESTING) {
+            throw error("Nesting deeper than " + MAX_NESTING + " levels");
+        }
+    }
+
+    private void leave() {
+        depth--;
+    }
+
+    private String describe() {
+        return peek() == TokenType.EOF ? "end of input" : "'" + tokens.getLexeme(indexes[pos]) + "'";
+    }
+
+    private ParseException error(String message) {
+        int token = indexes[pos];
+        if (token == NONE) return new ParseException(message, 1, 1);
+        return new ParseException(message, tokens.getLine(token), tokens.getColumn(token));
+    }
+}
@@ -0,0 +1,160 @@
+package analyzer.parser;
+
+import analyzer.Token.TokenBuffer;
+import java.io.IOException;
+import java.util.Arrays;
+
+// Arena-allocated syntax tree: node i is slot i of parallel arrays (kind, token, first
+// child, next sibling), so a tree of any size is a handful of arrays instead of an
+// object per node. Children form a list linked through the next sibling; NONE ends a
+// list and marks a node without a token. Tokens are indexes into the TokenBuffer the
+// tree was parsed from, so positions and values come from there.
+public class SyntaxTree {
+    public static final int NONE = -1;
+
+    private static final NodeKind[] KINDS = NodeKind.values();
+    private static final int MIN_CAPACITY = 16;
+
+    private final TokenBuffer tokens;
+    private byte[] kinds;
+    private int[] tokenIndexes;
+    private int[] firstChildren;
+    private int[] lastChildren;
+    private int[] nextSiblings;
+    private int size = 0;
+    private int root = NONE;
+
+    public SyntaxTree(TokenBuffer tokens) {
+        this(tokens, tokens.size());
+    }
+
+    public SyntaxTree(TokenBuffer tokens, int capacity) {
+        this.tokens = tokens;
+        capacity = Math.max(MIN_CAPACITY, capacity);
+        this.kinds = new byte[capacity];
+        this.tokenIndexes = new int[capacity];
+        this.firstChildren = new int[capacity];
+        this.lastChildren = new int[capacity];
+        this.nextSiblings = new int[capacity];
+    }
+
+    // Adds a node without children or parent and returns its index
+    int add(NodeKind kind, int token) {
+        if (size == kinds.length) grow();
+        kinds[size] = (byte) kind.ordinal();
+        tokenIndexes[size] = token;
+        firstChildren[size] = NONE;
+        lastChildren[size] = NONE;
+        nextSiblings[size] = NONE;
+        return size++;
+    }
+
+    // Appends a node that has no parent yet to the children of another
+    void addChild(int parent, int child) {
+        int last = lastChildren[parent];
+        if (last == NONE) {
+            firstChildren[parent] = child;
+        } else {
+            nextSiblings[last] = child;
+        }
+        lastChildren[parent] = child;
+    }
+
+    void setToken(int node, int token) {
+        tokenIndexes[node] = token;
+    }
+
+    void setRoot(int root) {
+        this.root = root;
+    }
+
+    public int size() { return size; }
+    public int getRoot() { return root; }
+    public TokenBuffer getTokens() { return tokens; }
+
+    // Getters
+    public NodeKind getKind(int node) { return KINDS[kinds[checkIndex(node)]]; }
+    public int getToken(int node) { return tokenIndexes[checkIndex(node)]; }
+    public int getFirstChild(int node) { return firstChildren[checkIndex(node)]; }
+    public int getNextSibling(int node) { return nextSiblings[checkIndex(node)]; }
+
+    public int getChildCount(int node) {
+        int count = 0;
+        for (int child = getFirstChild(node); child != NONE; child = nextSiblings[child]) {
+            count++;
+        }
+        return count;
+    }
+
+    // The n-th child, or NONE if there are fewer
+    public int getChild(int node, int n) {
+        int child = getFirstChild(node);
+        for (int i = 0; i < n && child != NONE; i++) {
+            child = nextSiblings[child];
+        }
+        return child;
+    }
+
+    // Text of the node's token, or null for a node without one
+    public String getLexeme(int node) {
+        int token = getToken(node);
+        return token == NONE ? null : tokens.getLexeme(token);
+    }
+
+    // Indented outline, one node per line with its token and position. Operator chains
+    // make trees far deeper than the parser's nesting limit, so the walk keeps its own
+    // stack of (node, depth) pairs instead of recursing.
+    public void print(Appendable out) throws IOException {
+        if (root == NONE) return;
+        int[] stack = new int[32];
+        int top = 0;
+        stack[top++] = root;
+        stack[top++] = 0;
+        while (top > 0) {
+            int depth = stack[--top];
+            int node = stack[--top];
+            print(out, node, depth);
+
+            // Children are pushed last to first, so they come off the stack in order
+            int first = top;
+            for (int child = firstChildren[node]; child != NONE; child = nextSiblings[child]) {
+                if (top + 2 > stack.length) stack = Arrays.copyOf(stack, stack.length * 2);
+                stack[top++] = child;
+                stack[top++] = depth + 1;
+            }
+            for (int low = first, high = top - 2; low < high; low += 2, high -= 2) {
+                int child = stack[low];
+                stack[low] = stack[high];
+                stack[high] = child;
+            }
+        }
+    }
+
+    private void print(Appendable out, int node, int depth) throws IOException {
+        for (int i = 0; i < depth; i++) out.append("  ");
+        out.append(getKind(node).name());
+        int token = tokenIndexes[node];
+        if (token != NONE) {
+            out.append(" '").append(tokens.getLexeme(token)).append("' ")
+                    .append(String.valueOf(tokens.getLine(token))).append(':')
+                    .append(String.valueOf(tokens.getColumn(token)));
+        }
+        out.append('\n');
+    }
+
+    private int checkIndex(int node) {
+        if (node < 0 || node >= size) {
+            throw new IndexOutOfBoundsException("Node " + node + " out of bounds for size " + size);
+        }
+        return node;
+    }
+
+    private void grow() {
+        int capacity = kinds.length + (kinds.length >> 1);
+        kinds = Arrays.copyOf(kinds, capacity);
+        tokenIndexes = Arrays.copyOf(tokenIndexes, capacity);
+        firstChildren = Arrays.copyOf(firstChildren, capacity);
+        lastChildren = Arrays.copyOf(lastChildren, capacity);
+        nextSiblings = Arrays.copyOf(nextSiblings, capacity);
+    }
+}
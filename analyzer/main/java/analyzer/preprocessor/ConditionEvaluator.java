@@ -0,0 +1,235 @@
+package analyzer.preprocessor;
+
+import analyzer.Token.TokenType;
+import analyzer.exceptions.PreprocessorException;
+import java.util.List;
+
+// Evaluates the controlling expression of an #if or #elif once its macros have been
+// expanded and "defined" has been replaced by 0 or 1. Arithmetic is done in 64 bits,
+// signed unless an operand is unsigned, as in intmax_t and uintmax_t. A name left
+// over after expansion is 0; so is a call of one, which covers the __has_attribute
+// family of compiler built-ins. Operators are parsed by precedence climbing like
+// the Parser's expressions, and an operand that is not evaluated (the right side of
+// a decided && or ||, the branch of ?: not taken) may divide by zero.
+final class ConditionEvaluator {
+    private final List<PreprocessingToken> tokens;
+    private final String file;
+    private final int line;
+    private final int column;
+    private int position = 0;
+
+    // Whether the value the last parse method returned is unsigned
+    private boolean unsigned;
+
+    ConditionEvaluator(List<PreprocessingToken> tokens, String file, int line, int column) {
+        this.tokens = tokens;
+        this.file = file;
+        this.line = line;
+        this.column = column;
+    }
+
+    long evaluate() throws PreprocessorException {
+        if (tokens.isEmpty()) throw error("Missing expression in #if", null);
+        long value = conditional(true);
+        if (position < tokens.size()) throw error("Unexpected '" + peek() + "' in #if", peek());
+        return value;
+    }
+
+    private long conditional(boolean evaluated) throws PreprocessorException {
+        long condition = binary(1, evaluated);
+        if (!check(TokenType.CONDITIONAL)) return condition;
+        position++;
+
+        long then = conditional(evaluated && condition != 0);
+        boolean thenUnsigned = unsigned;
+        expect(TokenType.COLON, "':'");
+        long otherwise = conditional(evaluated && condition == 0);
+        unsigned |= thenUnsigned;
+        return condition != 0 ? then : otherwise;
+    }
+
+    private long binary(int minPrecedence, boolean evaluated) throws PreprocessorException {
+        long left = unary(evaluated);
+        boolean leftUnsigned = unsigned;
+        while (position < tokens.size()) {
+            PreprocessingToken operator = peek();
+            int precedence = precedence(operator.type);
+            if (precedence < minPrecedence) break;
+            position++;
+
+            if (operator.is(TokenType.LOGICAL_AND) || operator.is(TokenType.LOGICAL_OR)) {
+                boolean decided = operator.is(TokenType.LOGICAL_AND) ? left == 0 : left != 0;
+                long right = binary(precedence + 1, evaluated && !decided);
+                left = decided ? (left != 0 ? 1 : 0) : (right != 0 ? 1 : 0);
+                leftUnsigned = false;
+                continue;
+            }
+
+            long right = binary(precedence + 1, evaluated);
+            boolean either = leftUnsigned || unsigned;
+            left = apply(operator, left, right, either, evaluated);
+            switch (operator.type) {
+                case EQUAL: case NOT_EQUAL: case LESS_THAN: case LESS_EQUAL: case GREATER_THAN: case GREATER_EQUAL:
+                    leftUnsigned = false;
+                    break;
+                case LEFT_SHIFT: case RIGHT_SHIFT:
+                    break;
+                default:
+                    leftUnsigned = either;
+            }
+        }
+        unsigned = leftUnsigned;
+        return left;
+    }
+
+    private long apply(PreprocessingToken operator, long left, long right, boolean unsigned, boolean evaluated)
+            throws PreprocessorException {
+        switch (operator.type) {
+            case BITWISE_OR: return left | right;
+            case BITWISE_XOR: return left ^ right;
+            case BITWISE_AND: return left & right;
+            case EQUAL: return left == right ? 1 : 0;
+            case NOT_EQUAL: return left != right ? 1 : 0;
+            case LESS_THAN: return compare(left, right, unsigned) < 0 ? 1 : 0;
+            case LESS_EQUAL: return compare(left, right, unsigned) <= 0 ? 1 : 0;
+            case GREATER_THAN: return compare(left, right, unsigned) > 0 ? 1 : 0;
+            case GREATER_EQUAL: return compare(left, right, unsigned) >= 0 ? 1 : 0;
+            case LEFT_SHIFT: return left << right;
+            case RIGHT_SHIFT: return unsigned ? left >>> right : left >> right;
+            case PLUS: return left + right;
+            case MINUS: return left - right;
+            case MULTIPLY: return left * right;
+            default:
+                // Division and remainder
+                if (right == 0) {
+                    if (evaluated) throw error("Division by zero in #if", operator);
+                    return 0;
+                }
+                if (operator.is(TokenType.DIVIDE)) {
+                    return unsigned ? Long.divideUnsigned(left, right) : left / right;
+                }
+                return unsigned ? Long.remainderUnsigned(left, right) : left % right;
+        }
+    }
+
+    private long unary(boolean evaluated) throws PreprocessorException {
+        if (position == tokens.size()) throw error("Missing operand in #if", null);
+        PreprocessingToken token = tokens.get(position++);
+        long value;
+        switch (token.type) {
+            case PLUS:
+                return unary(evaluated);
+            case MINUS:
+                return -unary(evaluated);
+            case BITWISE_NOT:
+                return ~unary(evaluated);
+            case LOGICAL_NOT:
+                value = unary(evaluated) == 0 ? 1 : 0;
+                unsigned = false;
+                return value;
+            case LEFT_PAREN:
+                value = conditional(evaluated);
+                expect(TokenType.RIGHT_PAREN, "')'");
+                return value;
+            case INTEGER_LITERAL:
+                // Too large for a signed long means unsigned, as for a hexadecimal constant
+                unsigned = token.value < 0 || token.text.indexOf('u') >= 0 || token.text.indexOf('U') >= 0;
+                return token.value;
+            case CHAR_LITERAL:
+                unsigned = false;
+                return characterValue(token.text);
+            case FLOAT_LITERAL:
+                throw error("Floating constant in #if", token);
+            default:
+                if (!token.isName()) throw error("Unexpected '" + token + "' in #if", token);
+                if (check(TokenType.LEFT_PAREN)) skipArguments();
+                unsigned = false;
+                return 0;
+        }
+    }
+
+    // Skips the parenthesized arguments of a call, nested parentheses included
+    private void skipArguments() throws PreprocessorException {
+        int depth = 0;
+        do {
+            if (position == tokens.size()) throw error("Missing ')' in #if", null);
+            PreprocessingToken token = tokens.get(position++);
+            if (token.is(TokenType.LEFT_PAREN)) depth++;
+            if (token.is(TokenType.RIGHT_PAREN)) depth--;
+        } while (depth > 0);
+    }
+
+    // Value of a character constant; one with several chars has the value of the first
+    static long characterValue(String text) {
+        if (text.length() < 3) return 0;
+        char c = text.charAt(1);
+        if (c != '\\') return c;
+
+        char escape = text.charAt(2);
+        switch (escape) {
+            case 'n': return '\n';
+            case 't': return '\t';
+            case 'r': return '\r';
+            case 'a': return 7;
+            case 'b': return '\b';
+            case 'f': return '\f';
+            case 'v': return 11;
+            case 'x': return digits(text, 3, 16, Integer.MAX_VALUE);
+            default:
+                if (escape >= '0' && escape <= '7') return digits(text, 2, 8, 3);
+                return escape;
+        }
+    }
+
+    private static long digits(String text, int from, int radix, int limit) {
+        long value = 0;
+        for (int i = from; i < text.length() && i - from < limit; i++) {
+            int digit = Character.digit(text.charAt(i), radix);
+            if (digit < 0) break;
+            value = value * radix + digit;
+        }
+        return value;
+    }
+
+    private static int compare(long left, long right, boolean unsigned) {
+        return unsigned ? Long.compareUnsigned(left, right) : Long.compare(left, right);
+    }
+
+    private static int precedence(TokenType type) {
+        switch (type) {
+            case LOGICAL_OR: return 1;
+            case LOGICAL_AND: return 2;
+            case BITWISE_OR: return 3;
+            case BITWISE_XOR: return 4;
+            case BITWISE_AND: return 5;
+            case EQUAL: case NOT_EQUAL: return 6;
+            case LESS_THAN: case LESS_EQUAL: case GREATER_THAN: case GREATER_EQUAL: return 7;
+            case LEFT_SHIFT: case RIGHT_SHIFT: return 8;
+            case PLUS: case MINUS: return 9;
+            case MULTIPLY: case DIVIDE: case MODULO: return 10;
+            default: return -1;
+        }
+    }
+
+    private boolean check(TokenType type) {
+        return position < tokens.size() && tokens.get(position).is(type);
+    }
+
+    private PreprocessingToken peek() {
+        return tokens.get(position);
+    }
+
+    private void expect(TokenType type, String description) throws PreprocessorException {
+        if (!check(type)) {
+            throw error("Expected " + description + " in #if", position < tokens.size() ? peek() : null);
+        }
+        position++;
+    }
+
+    // At the token, or at the directive when the expression ended early
+    private PreprocessorException error(String message, PreprocessingToken token) {
+        return token == null
+                ? new PreprocessorException(message, file, line, column)
+                : new PreprocessorException(message, file, token.line, token.column);
+    }
+}
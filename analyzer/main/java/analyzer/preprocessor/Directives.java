@@ -0,0 +1,120 @@
+package analyzer.preprocessor;
+
+// Text-level helpers for the lexeme of a PREPROCESSOR token: the '#', the directive
+// name and the rest. They work on chars so that skipped groups of an #if and include
+// guards are recognized without lexing the directive.
+final class Directives {
+    private Directives() {
+    }
+
+    // Removes every backslash-newline, with the blanks allowed between the two
+    static String splice(String lexeme) {
+        int backslash = lexeme.indexOf('\\');
+        if (backslash < 0) return lexeme;
+
+        StringBuilder spliced = new StringBuilder(lexeme.length());
+        int copied = 0;
+        for (; backslash >= 0; backslash = lexeme.indexOf('\\', backslash + 1)) {
+            if (continuesLine(lexeme, backslash + 1)) {
+                spliced.append(lexeme, copied, backslash);
+                copied = lexeme.indexOf('\n', backslash) + 1;
+                backslash = copied - 1;
+            }
+        }
+        return spliced.append(lexeme, copied, lexeme.length()).toString();
+    }
+
+    // Whether only blanks come between the given position (just after a backslash)
+    // and the end of the line
+    static boolean continuesLine(CharSequence text, int from) {
+        int i = from;
+        while (i < text.length() && isBlank(text.charAt(i))) i++;
+        return i < text.length() && text.charAt(i) == '\n';
+    }
+
+    // Position of the first char at or after from that is not a blank or part of a
+    // comment; a line comment runs to the end
+    static int skipSpace(String text, int from) {
+        int i = from;
+        while (i < text.length()) {
+            char c = text.charAt(i);
+            if (isBlank(c) || c == '\n') {
+                i++;
+            } else if (text.startsWith("/*", i)) {
+                int close = text.indexOf("*/", i + 2);
+                i = close < 0 ? text.length() : close + 2;
+            } else if (text.startsWith("//", i)) {
+                return text.length();
+            } else {
+                break;
+            }
+        }
+        return i;
+    }
+
+    // End of the name that starts at from; from itself if there is none
+    static int nameEnd(String text, int from) {
+        int i = from;
+        while (i < text.length() && isNameChar(text.charAt(i))) i++;
+        return i;
+    }
+
+    // Name of a spliced directive, "" for a null directive
+    static String name(String directive) {
+        int start = skipSpace(directive, 1);
+        return directive.substring(start, nameEnd(directive, start));
+    }
+
+    // Position after the directive name, where its operands start
+    static int bodyStart(String directive) {
+        return nameEnd(directive, skipSpace(directive, 1));
+    }
+
+    // Macro an include guard tests: X in "#ifndef X" or "#if !defined X" and
+    // "#if !defined(X)", with nothing else on the line; null for other directives
+    static String guardMacro(String directive) {
+        String name = name(directive);
+        int i = skipSpace(directive, bodyStart(directive));
+        boolean parenthesized = false;
+        if ("if".equals(name)) {
+            if (i == directive.length() || directive.charAt(i) != '!') return null;
+            i = skipSpace(directive, i + 1);
+            if (!"defined".equals(directive.substring(i, nameEnd(directive, i)))) return null;
+            i = skipSpace(directive, nameEnd(directive, i));
+            if (i < directive.length() && directive.charAt(i) == '(') {
+                parenthesized = true;
+                i = skipSpace(directive, i + 1);
+            }
+        } else if (!"ifndef".equals(name)) {
+            return null;
+        }
+
+        int end = nameEnd(directive, i);
+        if (end == i || Character.isDigit(directive.charAt(i))) return null;
+        String macro = directive.substring(i, end);
+        i = skipSpace(directive, end);
+        if (parenthesized) {
+            if (i == directive.length() || directive.charAt(i) != ')') return null;
+            i = skipSpace(directive, i + 1);
+        }
+        return i == directive.length() ? macro : null;
+    }
+
+    // Whether only blanks come between the start of the line and the given position
+    static boolean startsLine(CharSequence source, int position) {
+        for (int i = position - 1; i >= 0; i--) {
+            char c = source.charAt(i);
+            if (c == '\n') return true;
+            if (!isBlank(c)) return false;
+        }
+        return true;
+    }
+
+    private static boolean isBlank(char c) {
+        return c == ' ' || c == '\t' || c == '\r';
+    }
+
+    private static boolean isNameChar(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_';
+    }
+}
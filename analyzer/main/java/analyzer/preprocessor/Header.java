@@ -0,0 +1,88 @@
+package analyzer.preprocessor;
+
+import analyzer.Token.TokenBuffer;
+import analyzer.Token.TokenType;
+import analyzer.exceptions.Diagnostics;
+import analyzer.exceptions.ScannerException;
+import analyzer.scanner.CScanner;
+import analyzer.scanner.ScannerOptions;
+import analyzer.scanner.SymbolTable;
+import analyzer.scanner.TokenValidator;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+// A source file scanned for preprocessing. The scan recovers from lexical errors:
+// text in a skipped #if group need not be valid C, so an UNKNOWN token is an error
+// only once the Preprocessor reaches it in a group it keeps. Headers are immutable
+// and shared between threads through the HeaderCache.
+final class Header {
+    final Path path;
+    final String source;
+    final TokenBuffer tokens;
+    final Diagnostics diagnostics;
+
+    // Macro of the include guard around the whole file, or null
+    final String guard;
+
+    private Header(Path path, String source, TokenBuffer tokens, Diagnostics diagnostics) {
+        this.path = path;
+        this.source = source;
+        this.tokens = tokens;
+        this.diagnostics = diagnostics;
+        this.guard = findGuard(tokens);
+    }
+
+    static Header load(Path path) throws IOException {
+        String source = Files.readString(path);
+        CScanner scanner = new CScanner(new TokenValidator(), new SymbolTable(), ScannerOptions.RECOVER);
+        try {
+            return new Header(path, source, scanner.scanTokenBuffer(source), scanner.getDiagnostics());
+        } catch (ScannerException e) {
+            throw new IllegalStateException("Recovering scan failed: " + e.getMessage(), e);
+        }
+    }
+
+    // The guard is the macro of an #ifndef X or #if !defined X that comes first in the
+    // file and whose #endif comes last, with no #else or #elif of its own. Once X is
+    // defined, including the file again would produce no tokens, so it is skipped.
+    private static String findGuard(TokenBuffer tokens) {
+        int first = skipComments(tokens, 0);
+        if (tokens.getType(first) != TokenType.PREPROCESSOR) return null;
+        String guard = Directives.guardMacro(Directives.splice(tokens.getLexeme(first)));
+        if (guard == null) return null;
+
+        int depth = 1;
+        int i = first + 1;
+        for (; depth > 0; i++) {
+            TokenType type = tokens.getType(i);
+            if (type == TokenType.EOF) return null;
+            if (type != TokenType.PREPROCESSOR || !Directives.startsLine(tokens.getSource(), tokens.getStart(i))) {
+                continue;
+            }
+            switch (Directives.name(Directives.splice(tokens.getLexeme(i)))) {
+                case "if":
+                case "ifdef":
+                case "ifndef":
+                    depth++;
+                    break;
+                case "endif":
+                    depth--;
+                    break;
+                case "else":
+                case "elif":
+                    if (depth == 1) return null;
+                    break;
+                default:
+                    break;
+            }
+        }
+        return tokens.getType(skipComments(tokens, i)) == TokenType.EOF ? guard : null;
+    }
+
+    private static int skipComments(TokenBuffer tokens, int from) {
+        int i = from;
+        while (tokens.getType(i) == TokenType.COMMENT) i++;
+        return i;
+    }
+}
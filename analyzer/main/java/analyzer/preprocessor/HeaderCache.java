@@ -0,0 +1,68 @@
+package analyzer.preprocessor;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// Scanned headers of a run, shared by every Preprocessor given the same cache, so a
+// header included by many translation units is read and scanned once. Entries are
+// keyed by absolute, normalized path and files are assumed not to change during the
+// run. Lookups of include candidates are remembered as well, since most of them
+// probe directories where the header is not.
+//
+// The cache is thread-safe. The first thread to ask for a header scans it; others
+// asking for the same header meanwhile wait for that scan instead of repeating it.
+public class HeaderCache {
+    private final ConcurrentHashMap<Path, Header> headers = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Path, Boolean> files = new ConcurrentHashMap<>();
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder skips = new LongAdder();
+
+    // The scanned header at an absolute, normalized path
+    Header get(Path path) throws IOException {
+        requests.increment();
+        try {
+            return headers.computeIfAbsent(path, key -> {
+                misses.increment();
+                try {
+                    return Header.load(key);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    boolean isFile(Path path) {
+        return files.computeIfAbsent(path, Files::isRegularFile);
+    }
+
+    // An #include that was dropped because of the header's guard or #pragma once
+    void countSkip() {
+        skips.increment();
+    }
+
+    public void clear() {
+        headers.clear();
+        files.clear();
+    }
+
+    public int size() { return headers.size(); }
+
+    // Getters
+    public long getHits() { return requests.sum() - misses.sum(); }
+    public long getMisses() { return misses.sum(); }
+    public long getSkips() { return skips.sum(); }
+
+    @Override
+    public String toString() {
+        return String.format("HeaderCache{headers=%d, hits=%d, misses=%d, skippedIncludes=%d}",
+                size(), getHits(), getMisses(), getSkips());
+    }
+}
@@ -0,0 +1,43 @@
+package analyzer.preprocessor;
+
+// Names of the macros a token came out of, which must not expand it again (Prosser's
+// algorithm). Sets are immutable lists of LexemePool ids; they hold a few names, as
+// many as macros are nested, so membership is a linear search.
+final class HideSet {
+    static final HideSet EMPTY = new HideSet(-1, null);
+
+    private final int name;
+    private final HideSet rest;
+
+    private HideSet(int name, HideSet rest) {
+        this.name = name;
+        this.rest = rest;
+    }
+
+    boolean contains(int id) {
+        for (HideSet set = this; set != EMPTY; set = set.rest) {
+            if (set.name == id) return true;
+        }
+        return false;
+    }
+
+    HideSet add(int id) {
+        return contains(id) ? this : new HideSet(id, this);
+    }
+
+    HideSet union(HideSet other) {
+        HideSet result = this;
+        for (HideSet set = other; set != EMPTY; set = set.rest) {
+            result = result.add(set.name);
+        }
+        return result;
+    }
+
+    HideSet intersection(HideSet other) {
+        HideSet result = EMPTY;
+        for (HideSet set = this; set != EMPTY; set = set.rest) {
+            if (other.contains(set.name)) result = result.add(set.name);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,36 @@
+package analyzer.preprocessor;
+
+// A #define. The replacement list is kept as tokens, with the parameter each token
+// names (or -1) alongside, so expansion never compares names. A variadic macro's
+// last parameter collects the rest of the arguments (__VA_ARGS__ or "name...").
+final class Macro {
+    enum Kind { OBJECT, FUNCTION, FILE, LINE }
+
+    static final int NOT_A_PARAMETER = -1;
+
+    final String name;
+    final Kind kind;
+    final int parameterCount;
+    final boolean variadic;
+    final PreprocessingToken[] body;
+    final int[] parameters;
+
+    Macro(String name, Kind kind, int parameterCount, boolean variadic, PreprocessingToken[] body,
+          int[] parameters) {
+        this.name = name;
+        this.kind = kind;
+        this.parameterCount = parameterCount;
+        this.variadic = variadic;
+        this.body = body;
+        this.parameters = parameters;
+    }
+
+    // __FILE__ and __LINE__, whose replacement depends on where they are used
+    static Macro builtin(String name, Kind kind) {
+        return new Macro(name, kind, 0, false, new PreprocessingToken[0], new int[0]);
+    }
+
+    boolean isFunctionLike() {
+        return kind == Kind.FUNCTION;
+    }
+}
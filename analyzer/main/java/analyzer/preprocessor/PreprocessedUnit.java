@@ -0,0 +1,43 @@
+package analyzer.preprocessor;
+
+import analyzer.Token.TokenBuffer;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+
+// Output of the Preprocessor for one source file: the tokens the compiler proper
+// sees, ending with EOF, and the file each token comes from. Lines and columns are
+// those in that file; a token produced by a macro is placed at the macro's
+// invocation, while tokens passed in as arguments keep their own positions.
+//
+// Lexemes are taken from a text the preprocessor builds as it goes: the tokens in
+// order, separated by a space, with a newline wherever the line or file changes. It
+// scans back to the same tokens, much like the output of "cc -E".
+public class PreprocessedUnit {
+    private final TokenBuffer tokens;
+    private final int[] fileIndexes;
+    private final List<Path> files;
+
+    PreprocessedUnit(TokenBuffer tokens, int[] fileIndexes, List<Path> files) {
+        this.tokens = tokens;
+        this.fileIndexes = fileIndexes;
+        this.files = Collections.unmodifiableList(files);
+    }
+
+    public TokenBuffer getTokens() { return tokens; }
+    public CharSequence getText() { return tokens.getSource(); }
+
+    // Files in the order they were first entered; the source file is the first
+    public List<Path> getFiles() { return files; }
+
+    // Getters
+    public int getFileIndex(int token) { return fileIndexes[checkIndex(token)]; }
+    public Path getFile(int token) { return files.get(getFileIndex(token)); }
+
+    private int checkIndex(int token) {
+        if (token < 0 || token >= tokens.size()) {
+            throw new IndexOutOfBoundsException("Token index " + token + " out of bounds for size " + tokens.size());
+        }
+        return token;
+    }
+}
@@ -0,0 +1,67 @@
+package analyzer.preprocessor;
+
+import analyzer.Token.TokenType;
+
+// A token that takes part in macro expansion or a directive. Tokens copied straight
+// from a file never become one of these; the Preprocessor moves them from the scanned
+// TokenBuffer to its output directly. "#" and "##" in directives have no token type
+// of their own and are PREPROCESSOR tokens with that text.
+final class PreprocessingToken {
+    final TokenType type;
+    final String text;
+    final long value;       // bits of a numeric literal's value, as in TokenBuffer
+    final int file;         // index into the unit's file list
+    final int line;
+    final int column;
+    final boolean space;    // whitespace or a comment comes before it
+    final HideSet hideSet;
+
+    PreprocessingToken(TokenType type, String text, long value, int file, int line, int column,
+                       boolean space, HideSet hideSet) {
+        this.type = type;
+        this.text = text;
+        this.value = value;
+        this.file = file;
+        this.line = line;
+        this.column = column;
+        this.space = space;
+        this.hideSet = hideSet;
+    }
+
+    // The same token at the position of a macro invocation
+    PreprocessingToken at(PreprocessingToken invocation, boolean space) {
+        return new PreprocessingToken(type, text, value, invocation.file, invocation.line, invocation.column,
+                space, hideSet);
+    }
+
+    PreprocessingToken withHideSet(HideSet hideSet) {
+        return new PreprocessingToken(type, text, value, file, line, column, space, hideSet);
+    }
+
+    boolean is(TokenType type) {
+        return this.type == type;
+    }
+
+    boolean isHash() {
+        return type == TokenType.PREPROCESSOR && "#".equals(text);
+    }
+
+    boolean isPaste() {
+        return type == TokenType.PREPROCESSOR && "##".equals(text);
+    }
+
+    // Identifiers and keywords, which are all names to the preprocessor
+    boolean isName() {
+        return isName(type);
+    }
+
+    static boolean isName(TokenType type) {
+        return type == TokenType.IDENTIFIER
+                || (type.compareTo(TokenType.AUTO) >= 0 && type.compareTo(TokenType.WHILE) <= 0);
+    }
+
+    @Override
+    public String toString() {
+        return text;
+    }
+}
@@ -0,0 +1,984 @@
+package analyzer.preprocessor;
+
+import analyzer.interfaces.IPreprocessor;
+import analyzer.Token.LexemePool;
+import analyzer.Token.TokenBuffer;
+import analyzer.Token.TokenType;
+import analyzer.exceptions.Diagnostics;
+import analyzer.exceptions.PreprocessorException;
+import analyzer.exceptions.ScannerException;
+import analyzer.scanner.CScanner;
+import analyzer.scanner.ScannerOptions;
+import analyzer.scanner.SymbolTable;
+import analyzer.scanner.TokenValidator;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Preprocessing stage between the scanner and the parser. It walks the scanned tokens
+// of a file, carries out the directives (PREPROCESSOR tokens), enters included files
+// and expands macros, and hands on every other token. Tokens that no macro touches
+// are copied from the scanned TokenBuffer straight to the output; only macro
+// invocations and directive operands become PreprocessingTokens.
+//
+// Macro expansion follows Prosser's algorithm: every token carries the set of macros
+// it came out of, which cannot expand it again. Arguments are expanded before they
+// are substituted, except next to # and ##; pasted tokens are scanned again and must
+// form a single token. GNU extensions that system headers rely on are accepted:
+// named variadic parameters ("args..."), ", ## __VA_ARGS__" and #include_next.
+// __FILE__, __LINE__ and __STDC__ are predefined.
+//
+// Included files come from a HeaderCache, which scans each one once per run, and
+// an #include is dropped without touching the header's tokens once its include
+// guard is defined or it has been marked #pragma once. "file" is searched for next
+// to the including file and then in the search paths, <file> in the search paths
+// only. #line, #warning, #ident and unknown #pragmas are ignored. A Preprocessor is
+// not thread-safe; threads each use their own and may share a HeaderCache.
+public class Preprocessor implements IPreprocessor {
+    public static final int MAX_INCLUDE_DEPTH = 200;
+
+    private static final String COMMAND_LINE = "<command line>";
+
+    // States of an #if on the condition stack
+    private static final int TAKING = 0;        // the current group is kept
+    private static final int SEEKING = 1;       // no group kept yet; an #elif or #else may be
+    private static final int DONE = 2;          // a group was kept, or the whole #if is skipped
+    private static final int ELSE_SEEN = 4;     // flag: no #elif or #else may follow
+
+    private final List<Path> searchPaths = new ArrayList<>();
+    private final HeaderCache cache;
+    private final List<String> definitions = new ArrayList<>();
+    private final LexemePool names = new LexemePool();
+    private final CScanner lexer = new CScanner(new TokenValidator(), new SymbolTable(), ScannerOptions.RECOVER);
+    private final CScanner pasteLexer = new CScanner(new TokenValidator(), new SymbolTable());
+    private Macro[] macros = new Macro[64];
+
+    // State of the file being preprocessed
+    private final ArrayDeque<Frame> frames = new ArrayDeque<>();
+    private final ArrayDeque<PreprocessingToken> pending = new ArrayDeque<>();
+    private final Set<Path> onceOnly = new HashSet<>();
+    private final Map<Path, Integer> fileIndexes = new HashMap<>();
+    private int[] conditions = new int[16];
+    private int[] conditionLines = new int[16];
+    private int conditionDepth = 0;
+    private int collectingArguments = 0;
+    private int resolvedSearchIndex;
+    private List<Path> files;
+    private StringBuilder text;
+    private TokenBuffer out;
+    private int[] outFiles;
+    private int lastFile;
+    private int lastLine;
+    private int endLine;
+    private int endColumn;
+
+    public Preprocessor(List<Path> searchPaths) {
+        this(searchPaths, new HeaderCache());
+    }
+
+    public Preprocessor(List<Path> searchPaths, HeaderCache cache) {
+        for (Path path : searchPaths) {
+            this.searchPaths.add(path.toAbsolutePath().normalize());
+        }
+        this.cache = cache;
+    }
+
+    // Defines a macro for every file preprocessed from now on, like "-D name=body".
+    // The name may have a parameter list: define("MAX(a, b)", "((a) > (b) ? (a) : (b))").
+    public void define(String name, String body) {
+        definitions.add("#define " + name + " " + body);
+    }
+
+    public void undefine(String name) {
+        definitions.add("#undef " + name);
+    }
+
+    public HeaderCache getCache() {
+        return cache;
+    }
+
+    @Override
+    public PreprocessedUnit preprocess(Path file) throws PreprocessorException, IOException {
+        Path path = file.toAbsolutePath().normalize();
+        // A source file is preprocessed once, so only headers go through the cache
+        Header source = Header.load(path);
+        reset(source.tokens.size());
+        enter(source, -1);
+        run();
+
+        TokenBuffer tokens = new TokenBuffer(text.toString(), out.size() + 1);
+        tokens.appendShifted(out, 0, out.size(), 0, 0);
+        tokens.add(TokenType.EOF, text.length(), 0, endLine, endColumn);
+        recordFile(tokens.size() - 1, 0);
+        return new PreprocessedUnit(tokens, Arrays.copyOf(outFiles, tokens.size()), files);
+    }
+
+    private void reset(int capacity) throws PreprocessorException {
+        frames.clear();
+        pending.clear();
+        onceOnly.clear();
+        fileIndexes.clear();
+        conditionDepth = 0;
+        collectingArguments = 0;
+        files = new ArrayList<>();
+        text = new StringBuilder(capacity * 4);
+        out = new TokenBuffer(text, capacity);
+        outFiles = new int[Math.max(16, capacity)];
+        lastFile = -1;
+        lastLine = -1;
+
+        Arrays.fill(macros, null);
+        setMacro("__FILE__", Macro.builtin("__FILE__", Macro.Kind.FILE));
+        setMacro("__LINE__", Macro.builtin("__LINE__", Macro.Kind.LINE));
+        commandLine("#define __STDC__ 1");
+        for (String definition : definitions) {
+            commandLine(definition);
+        }
+    }
+
+    private void commandLine(String directive) throws PreprocessorException {
+        List<PreprocessingToken> operands = lex(directive, Directives.bodyStart(directive), -1, 1, 1);
+        if ("define".equals(Directives.name(directive))) {
+            define(operands, null, 1, 1);
+        } else {
+            undefine(operands, null, 1, 1);
+        }
+    }
+
+    // Main loop: pending tokens of an expansion first, then the current file's tokens
+    private void run() throws PreprocessorException, IOException {
+        while (true) {
+            PreprocessingToken token = pending.pollFirst();
+            if (token != null) {
+                expand(token);
+                continue;
+            }
+
+            Frame frame = frames.peek();
+            if (frame == null) return;
+            TokenBuffer tokens = frame.header.tokens;
+            int i = frame.next++;
+            TokenType type = tokens.getType(i);
+            if (type == TokenType.EOF) {
+                leave(frame, i);
+            } else if (type == TokenType.COMMENT || isWhiteSpace(frame, i)) {
+                continue;
+            } else if (type == TokenType.PREPROCESSOR && Directives.startsLine(frame.header.source, tokens.getStart(i))) {
+                directive(frame, i);
+            } else if (skipping()) {
+                continue;
+            } else if (PreprocessingToken.isName(type) && isMacro(frame, i)) {
+                expand(token(frame, i));
+            } else {
+                emit(frame, i);
+            }
+        }
+    }
+
+    private boolean isMacro(Frame frame, int i) {
+        int start = frame.header.tokens.getStart(i);
+        int id = names.intern(frame.header.source, start, start + frame.header.tokens.getLength(i));
+        return id < macros.length && macros[id] != null;
+    }
+
+    // The scanner has no rule for form feeds and vertical tabs, which C counts as white
+    // space, or for a backslash-newline between two tokens outside a directive
+    private static boolean isWhiteSpace(Frame frame, int i) {
+        return isWhiteSpace(frame.header.tokens, i);
+    }
+
+    private static boolean isWhiteSpace(TokenBuffer tokens, int i) {
+        if (tokens.getType(i) != TokenType.UNKNOWN || tokens.getLength(i) != 1) return false;
+        CharSequence source = tokens.getSource();
+        int start = tokens.getStart(i);
+        char c = source.charAt(start);
+        if (c == '\\') return Directives.continuesLine(source, start + 1);
+        return c == '\f' || c == '\u000B';
+    }
+
+    // Output
+
+    private void emit(Frame frame, int i) throws PreprocessorException {
+        TokenBuffer tokens = frame.header.tokens;
+        TokenType type = tokens.getType(i);
+        if (type == TokenType.UNKNOWN || type == TokenType.PREPROCESSOR) {
+            throw invalidToken(frame, i);
+        }
+        int line = tokens.getLine(i);
+        separate(frame.file, line);
+        int start = tokens.getStart(i);
+        int length = tokens.getLength(i);
+        int outStart = text.length();
+        text.append(frame.header.source, start, start + length);
+        out.add(type, outStart, length, line, tokens.getColumn(i), tokens.getLongValue(i));
+        recordFile(out.size() - 1, frame.file);
+    }
+
+    private void emit(PreprocessingToken token) throws PreprocessorException {
+        if (token.is(TokenType.UNKNOWN)) {
+            throw error("Invalid token '" + token + "'", token);
+        }
+        if (token.is(TokenType.PREPROCESSOR)) {
+            throw error("'" + token + "' outside a directive", token);
+        }
+        separate(token.file, token.line);
+        out.add(token.type, text.length(), token.text.length(), token.line, token.column, token.value);
+        text.append(token.text);
+        recordFile(out.size() - 1, token.file);
+    }
+
+    // Tokens are separated by a space, or by a newline where the line or file changes
+    private void separate(int file, int line) {
+        if (text.length() > 0) {
+            text.append(file != lastFile || line != lastLine ? '\n' : ' ');
+        }
+        lastFile = file;
+        lastLine = line;
+    }
+
+    private void recordFile(int token, int file) {
+        if (token == outFiles.length) {
+            outFiles = Arrays.copyOf(outFiles, outFiles.length + (outFiles.length >> 1));
+        }
+        outFiles[token] = file;
+    }
+
+    // Macro expansion
+
+    // Expands a token that is a macro name, or emits it
+    private void expand(PreprocessingToken token) throws PreprocessorException, IOException {
+        List<PreprocessingToken> replacement = replacement(token, null);
+        if (replacement == null) {
+            emit(token);
+            return;
+        }
+        for (int i = replacement.size() - 1; i >= 0; i--) {
+            pending.addFirst(replacement.get(i));
+        }
+    }
+
+    // Fully expands a list of tokens on its own, as an argument or the operands of a
+    // directive. In a condition, "defined" and __has_include are evaluated first.
+    private List<PreprocessingToken> expandAll(List<PreprocessingToken> tokens, boolean condition, Frame frame)
+            throws PreprocessorException, IOException {
+        ArrayDeque<PreprocessingToken> input = new ArrayDeque<>(tokens);
+        List<PreprocessingToken> result = new ArrayList<>(tokens.size());
+        while (!input.isEmpty()) {
+            PreprocessingToken token = input.pollFirst();
+            if (condition && token.isName()) {
+                if ("defined".equals(token.text)) {
+                    result.add(number(defined(input, token) ? 1 : 0, token));
+                    continue;
+                }
+                if ("__has_include".equals(token.text) || "__has_include_next".equals(token.text)) {
+                    result.add(number(hasInclude(input, token, frame) ? 1 : 0, token));
+                    continue;
+                }
+            }
+            List<PreprocessingToken> replacement = replacement(token, input);
+            if (replacement == null) {
+                result.add(token);
+                continue;
+            }
+            for (int i = replacement.size() - 1; i >= 0; i--) {
+                input.addFirst(replacement.get(i));
+            }
+        }
+        return result;
+    }
+
+    // Replacement of a macro invocation, or null if the token does not invoke a macro.
+    // The arguments of a function-like macro are read from input, or from the pending
+    // tokens and the current file when input is null.
+    private List<PreprocessingToken> replacement(PreprocessingToken name, ArrayDeque<PreprocessingToken> input)
+            throws PreprocessorException, IOException {
+        if (!name.isName()) return null;
+        int id = names.intern(name.text);
+        Macro macro = id < macros.length ? macros[id] : null;
+        if (macro == null || name.hideSet.contains(id)) return null;
+
+        switch (macro.kind) {
+            case FILE:
+                String file = fileName(name.file).replace("\\", "\\\\").replace("\"", "\\\"");
+                return List.of(new PreprocessingToken(TokenType.STRING_LITERAL, '"' + file + '"', 0,
+                        name.file, name.line, name.column, name.space, name.hideSet));
+            case LINE:
+                return List.of(number(name.line, name));
+            case OBJECT:
+                return substitute(macro, name, null, name.hideSet.add(id));
+            default:
+                if (!nextIsLeftParen(input)) return null;
+                nextToken(input, name);
+                List<List<PreprocessingToken>> arguments = new ArrayList<>();
+                PreprocessingToken close = collectArguments(macro, name, input, arguments);
+                return substitute(macro, name, arguments, name.hideSet.intersection(close.hideSet).add(id));
+        }
+    }
+
+    private boolean nextIsLeftParen(ArrayDeque<PreprocessingToken> input) {
+        if (input != null) return !input.isEmpty() && input.peekFirst().is(TokenType.LEFT_PAREN);
+        if (!pending.isEmpty()) return pending.peekFirst().is(TokenType.LEFT_PAREN);
+
+        Frame frame = frames.peek();
+        TokenBuffer tokens = frame.header.tokens;
+        int i = frame.next;
+        while (tokens.getType(i) == TokenType.COMMENT || isWhiteSpace(frame, i)) i++;
+        return tokens.getType(i) == TokenType.LEFT_PAREN;
+    }
+
+    // Next token of a macro invocation. In a file, arguments may span lines and even
+    // contain directives, though not #include; they end with the file.
+    private PreprocessingToken nextToken(ArrayDeque<PreprocessingToken> input, PreprocessingToken name)
+            throws PreprocessorException, IOException {
+        PreprocessingToken token = input != null ? input.pollFirst() : pending.pollFirst();
+        if (token != null || input != null) return token;
+
+        Frame frame = frames.peek();
+        TokenBuffer tokens = frame.header.tokens;
+        collectingArguments++;
+        try {
+            while (true) {
+                int i = frame.next;
+                TokenType type = tokens.getType(i);
+                if (type == TokenType.EOF) return null;
+                frame.next++;
+                if (type == TokenType.COMMENT || isWhiteSpace(frame, i)) continue;
+                if (type == TokenType.PREPROCESSOR && Directives.startsLine(frame.header.source, tokens.getStart(i))) {
+                    directive(frame, i);
+                    continue;
+                }
+                if (skipping()) continue;
+                return token(frame, i);
+            }
+        } finally {
+            collectingArguments--;
+        }
+    }
+
+    // Splits the arguments at commas outside parentheses and returns the closing ")"
+    private PreprocessingToken collectArguments(Macro macro, PreprocessingToken name,
+                                                ArrayDeque<PreprocessingToken> input,
+                                                List<List<PreprocessingToken>> arguments)
+            throws PreprocessorException, IOException {
+        List<PreprocessingToken> argument = new ArrayList<>();
+        int depth = 0;
+        while (true) {
+            PreprocessingToken token = nextToken(input, name);
+            if (token == null) {
+                throw error("Unterminated argument list invoking macro " + macro.name, name);
+            }
+            if (token.is(TokenType.LEFT_PAREN)) {
+                depth++;
+            } else if (token.is(TokenType.RIGHT_PAREN)) {
+                if (depth == 0) {
+                    arguments.add(argument);
+                    return checkArguments(macro, name, arguments, token);
+                }
+                depth--;
+            } else if (token.is(TokenType.COMMA) && depth == 0
+                    && !(macro.variadic && arguments.size() == macro.parameterCount - 1)) {
+                arguments.add(argument);
+                argument = new ArrayList<>();
+                continue;
+            }
+            argument.add(token);
+        }
+    }
+
+    private PreprocessingToken checkArguments(Macro macro, PreprocessingToken name,
+                                              List<List<PreprocessingToken>> arguments, PreprocessingToken close)
+            throws PreprocessorException {
+        // "F()" passes one empty argument, which is none for a macro without parameters;
+        // the variable arguments may be left out altogether
+        if (macro.parameterCount == 0 && arguments.size() == 1 && arguments.get(0).isEmpty()) {
+            arguments.clear();
+        }
+        if (macro.variadic && arguments.size() == macro.parameterCount - 1) {
+            arguments.add(new ArrayList<>());
+        }
+        if (arguments.size() != macro.parameterCount) {
+            throw error(String.format("Macro %s expects %d arguments, got %d",
+                    macro.name, macro.parameterCount, arguments.size()), name);
+        }
+        return close;
+    }
+
+    // Replacement list with the arguments substituted, every token placed at the
+    // invocation and hidden from the given macros
+    private List<PreprocessingToken> substitute(Macro macro, PreprocessingToken invocation,
+                                                List<List<PreprocessingToken>> arguments, HideSet hideSet)
+            throws PreprocessorException, IOException {
+        PreprocessingToken[] body = macro.body;
+        int[] parameters = macro.parameters;
+        List<PreprocessingToken> result = new ArrayList<>(body.length);
+        List<List<PreprocessingToken>> expanded = new ArrayList<>();
+        boolean placemarker = false;
+
+        for (int i = 0; i < body.length; i++) {
+            PreprocessingToken token = body[i];
+            boolean space = i == 0 ? invocation.space : token.space;
+            int parameter = parameters[i];
+
+            if (token.isHash() && macro.isFunctionLike()) {
+                // Checked when the macro was defined: a parameter follows
+                result.add(stringize(arguments.get(parameters[++i]), token.at(invocation, space)));
+                placemarker = false;
+            } else if (token.isPaste()) {
+                i++;
+                boolean variableArguments = macro.variadic && parameters[i] == macro.parameterCount - 1;
+                List<PreprocessingToken> right = parameters[i] >= 0
+                        ? arguments.get(parameters[i])
+                        : List.of(body[i].at(invocation, body[i].space));
+                if (variableArguments && !placemarker && !result.isEmpty()
+                        && result.get(result.size() - 1).is(TokenType.COMMA)) {
+                    // ", ## __VA_ARGS__" drops the comma when there are no variable arguments
+                    if (right.isEmpty()) {
+                        result.remove(result.size() - 1);
+                    } else {
+                        result.addAll(right);
+                    }
+                } else if (placemarker) {
+                    // An empty left operand: the right one is taken as is
+                    result.addAll(right);
+                    placemarker = right.isEmpty();
+                } else if (!right.isEmpty()) {
+                    result.add(paste(result.remove(result.size() - 1), right.get(0)));
+                    result.addAll(right.subList(1, right.size()));
+                }
+            } else if (parameter >= 0) {
+                List<PreprocessingToken> argument = arguments.get(parameter);
+                if (i + 1 < body.length && body[i + 1].isPaste()) {
+                    // An operand of ## is substituted without expansion
+                    addArgument(result, argument, space);
+                    placemarker = argument.isEmpty();
+                } else {
+                    while (expanded.size() < arguments.size()) expanded.add(null);
+                    if (expanded.get(parameter) == null) {
+                        expanded.set(parameter, expandAll(argument, false, frames.peek()));
+                    }
+                    addArgument(result, expanded.get(parameter), space);
+                    placemarker = false;
+                }
+            } else {
+                result.add(token.at(invocation, space));
+                placemarker = false;
+            }
+        }
+
+        for (int i = 0; i < result.size(); i++) {
+            PreprocessingToken token = result.get(i);
+            result.set(i, token.withHideSet(token.hideSet.union(hideSet)));
+        }
+        return result;
+    }
+
+    private static void addArgument(List<PreprocessingToken> result, List<PreprocessingToken> argument,
+                                    boolean space) {
+        for (int i = 0; i < argument.size(); i++) {
+            PreprocessingToken token = argument.get(i);
+            result.add(i == 0 && token.space != space
+                    ? new PreprocessingToken(token.type, token.text, token.value, token.file, token.line,
+                            token.column, space, token.hideSet)
+                    : token);
+        }
+    }
+
+    // The # operator: the spelling of an argument as a string literal, with one space
+    // wherever the argument had whitespace
+    private static PreprocessingToken stringize(List<PreprocessingToken> argument, PreprocessingToken at) {
+        StringBuilder literal = new StringBuilder("\"");
+        for (int i = 0; i < argument.size(); i++) {
+            PreprocessingToken token = argument.get(i);
+            if (i > 0 && token.space) literal.append(' ');
+            if (token.is(TokenType.STRING_LITERAL) || token.is(TokenType.CHAR_LITERAL)) {
+                for (int j = 0; j < token.text.length(); j++) {
+                    char c = token.text.charAt(j);
+                    if (c == '"' || c == '\\') literal.append('\\');
+                    literal.append(c);
+                }
+            } else {
+                literal.append(token.text);
+            }
+        }
+        literal.append('"');
+        return new PreprocessingToken(TokenType.STRING_LITERAL, literal.toString(), 0, at.file, at.line, at.column,
+                at.space, HideSet.EMPTY);
+    }
+
+    // The ## operator: the two spellings joined must scan as exactly one token
+    private PreprocessingToken paste(PreprocessingToken left, PreprocessingToken right) throws PreprocessorException {
+        String joined = left.text + right.text;
+        // The scanner has no "##" punctuator; the pasted one is an ordinary token, not
+        // an operator (C99 6.10.3.3 example: "#define hash_hash # ## #")
+        if (left.isHash() && right.isHash()) {
+            return new PreprocessingToken(TokenType.PREPROCESSOR, joined, 0, left.file, left.line, left.column,
+                    left.space, left.hideSet.intersection(right.hideSet));
+        }
+        TokenBuffer tokens;
+        try {
+            tokens = pasteLexer.scanTokenBuffer(joined);
+        } catch (ScannerException e) {
+            tokens = null;
+        }
+        if (tokens == null || tokens.size() != 2 || tokens.getLength(0) != joined.length()
+                || tokens.getType(0) == TokenType.COMMENT || tokens.getType(0) == TokenType.PREPROCESSOR) {
+            throw error("Pasting \"" + left + "\" and \"" + right + "\" does not give a valid token", left);
+        }
+        return new PreprocessingToken(tokens.getType(0), joined, tokens.getLongValue(0), left.file, left.line,
+                left.column, left.space, left.hideSet.intersection(right.hideSet));
+    }
+
+    private static PreprocessingToken number(long value, PreprocessingToken at) {
+        return new PreprocessingToken(TokenType.INTEGER_LITERAL, Long.toString(value), value, at.file, at.line,
+                at.column, at.space, at.hideSet);
+    }
+
+    // Directives
+
+    private void directive(Frame frame, int index) throws PreprocessorException, IOException {
+        TokenBuffer tokens = frame.header.tokens;
+        String lexeme = tokens.getLexeme(index);
+        String directive = Directives.splice(lexeme);
+        String name = Directives.name(directive);
+        switch (name) {
+            case "if":
+            case "ifdef":
+            case "ifndef":
+            case "elif":
+            case "else":
+            case "endif":
+                conditional(name, directive, frame, index);
+                return;
+            default:
+                break;
+        }
+        if (skipping()) return;
+
+        int line = directiveLine(frame, index);
+        int column = directiveColumn(frame, index);
+        switch (name) {
+            case "":
+                // The null directive
+                break;
+            case "define":
+                define(lex(directive, Directives.bodyStart(directive), frame.file, line, column), frame, line, column);
+                break;
+            case "undef":
+                undefine(lex(directive, Directives.bodyStart(directive), frame.file, line, column), frame, line, column);
+                break;
+            case "include":
+            case "include_next":
+                include(directive, "include_next".equals(name), frame, line, column);
+                break;
+            case "error":
+                throw error("#error" + directive.substring(Directives.bodyStart(directive)), frame, line, column);
+            case "pragma":
+                List<PreprocessingToken> operands = lex(directive, Directives.bodyStart(directive), frame.file,
+                        line, column);
+                if (operands.size() == 1 && "once".equals(operands.get(0).text)) {
+                    onceOnly.add(frame.header.path);
+                }
+                break;
+            case "line":
+            case "warning":
+            case "ident":
+            case "sccs":
+                break;
+            default:
+                throw error("Unknown directive #" + name, frame, line, column);
+        }
+    }
+
+    private void conditional(String name, String directive, Frame frame, int index)
+            throws PreprocessorException, IOException {
+        if (name.startsWith("if")) {
+            boolean taken = !skipping() && test(name, directive, frame, index);
+            if (conditionDepth == conditions.length) {
+                conditions = Arrays.copyOf(conditions, conditionDepth * 2);
+                conditionLines = Arrays.copyOf(conditionLines, conditionDepth * 2);
+            }
+            conditions[conditionDepth] = skipping() ? DONE : taken ? TAKING : SEEKING;
+            conditionLines[conditionDepth] = directiveLine(frame, index);
+            conditionDepth++;
+            return;
+        }
+
+        if (conditionDepth == frame.conditionDepth) {
+            throw error("#" + name + " without #if", frame, directiveLine(frame, index), directiveColumn(frame, index));
+        }
+        int state = conditions[conditionDepth - 1];
+        if ("endif".equals(name)) {
+            conditionDepth--;
+            return;
+        }
+        if ((state & ELSE_SEEN) != 0) {
+            throw error("#" + name + " after #else", frame, directiveLine(frame, index), directiveColumn(frame, index));
+        }
+        if ("else".equals(name)) {
+            conditions[conditionDepth - 1] = (state == SEEKING ? TAKING : DONE) | ELSE_SEEN;
+        } else if (state == TAKING) {
+            conditions[conditionDepth - 1] = DONE;
+        } else if (state == SEEKING && test("if", directive, frame, index)) {
+            conditions[conditionDepth - 1] = TAKING;
+        }
+    }
+
+    private boolean skipping() {
+        return conditionDepth > 0 && (conditions[conditionDepth - 1] & ~ELSE_SEEN) != TAKING;
+    }
+
+    // Whether the group of an #if, #ifdef or #ifndef is kept
+    private boolean test(String name, String directive, Frame frame, int index)
+            throws PreprocessorException, IOException {
+        int line = directiveLine(frame, index);
+        int column = directiveColumn(frame, index);
+        List<PreprocessingToken> operands = lex(directive, Directives.bodyStart(directive), frame.file, line, column);
+        if ("if".equals(name)) {
+            List<PreprocessingToken> expression = expandAll(operands, true, frame);
+            return new ConditionEvaluator(expression, fileName(frame.file), line, column).evaluate() != 0;
+        }
+        if (operands.isEmpty() || !operands.get(0).isName()) {
+            throw error("Macro name missing in #" + name, frame, line, column);
+        }
+        return isDefined(operands.get(0).text) == "ifdef".equals(name);
+    }
+
+    // Operand of "defined": a name, possibly in parentheses
+    private boolean defined(ArrayDeque<PreprocessingToken> input, PreprocessingToken operator)
+            throws PreprocessorException {
+        PreprocessingToken name = input.pollFirst();
+        boolean parenthesized = name != null && name.is(TokenType.LEFT_PAREN);
+        if (parenthesized) name = input.pollFirst();
+        if (name == null || !name.isName()) {
+            throw error("Macro name missing after defined", operator);
+        }
+        if (parenthesized) {
+            PreprocessingToken close = input.pollFirst();
+            if (close == null || !close.is(TokenType.RIGHT_PAREN)) {
+                throw error("Missing ')' after defined", operator);
+            }
+        }
+        return isDefined(name.text);
+    }
+
+    // __has_include("file") and __has_include(<file>)
+    private boolean hasInclude(ArrayDeque<PreprocessingToken> input, PreprocessingToken operator, Frame frame)
+            throws PreprocessorException {
+        PreprocessingToken open = input.pollFirst();
+        if (open == null || !open.is(TokenType.LEFT_PAREN)) {
+            throw error("Missing '(' after " + operator, operator);
+        }
+        List<PreprocessingToken> operand = new ArrayList<>();
+        for (PreprocessingToken token = input.pollFirst(); token == null || !token.is(TokenType.RIGHT_PAREN);
+             token = input.pollFirst()) {
+            if (token == null) throw error("Missing ')' after " + operator, operator);
+            operand.add(token);
+        }
+        String header = headerName(operand);
+        if (header == null) throw error("Expected \"file\" or <file> after " + operator, operator);
+        boolean next = "__has_include_next".equals(operator.text);
+        return resolve(header.substring(1, header.length() - 1), header.charAt(0) == '<', next, frame) != null;
+    }
+
+    private boolean isDefined(String name) {
+        if ("__has_include".equals(name) || "__has_include_next".equals(name)) return true;
+        int id = names.intern(name);
+        return id < macros.length && macros[id] != null;
+    }
+
+    private void define(List<PreprocessingToken> operands, Frame frame, int line, int column)
+            throws PreprocessorException {
+        if (operands.isEmpty() || !operands.get(0).isName()) {
+            throw error("Macro name missing in #define", frame, line, column);
+        }
+        PreprocessingToken name = operands.get(0);
+        if ("defined".equals(name.text)) {
+            throw error("\"defined\" cannot be used as a macro name", frame, line, column);
+        }
+
+        int i = 1;
+        List<String> parameters = new ArrayList<>();
+        boolean functionLike = operands.size() > 1 && operands.get(1).is(TokenType.LEFT_PAREN) && !operands.get(1).space;
+        boolean variadic = false;
+        if (functionLike) {
+            i = 2;
+            while (true) {
+                if (i == operands.size()) throw error("Missing ')' in macro parameter list", frame, line, column);
+                PreprocessingToken token = operands.get(i++);
+                if (token.is(TokenType.RIGHT_PAREN) && parameters.isEmpty()) break;
+                if (token.is(TokenType.ELLIPSIS)) {
+                    variadic = true;
+                    parameters.add("__VA_ARGS__");
+                } else if (token.isName() && !parameters.contains(token.text)) {
+                    parameters.add(token.text);
+                    if (i < operands.size() && operands.get(i).is(TokenType.ELLIPSIS)) {
+                        variadic = true;
+                        i++;
+                    }
+                } else {
+                    throw error("Invalid macro parameter '" + token + "'", token);
+                }
+                if (i == operands.size()) throw error("Missing ')' in macro parameter list", frame, line, column);
+                PreprocessingToken separator = operands.get(i++);
+                if (separator.is(TokenType.RIGHT_PAREN)) break;
+                if (variadic || !separator.is(TokenType.COMMA)) {
+                    throw error("Expected ',' or ')' in macro parameter list", separator);
+                }
+            }
+        }
+
+        PreprocessingToken[] body = operands.subList(i, operands.size()).toArray(new PreprocessingToken[0]);
+        int[] indexes = new int[body.length];
+        for (int j = 0; j < body.length; j++) {
+            indexes[j] = body[j].isName() ? parameters.indexOf(body[j].text) : Macro.NOT_A_PARAMETER;
+        }
+        if (body.length > 0 && (body[0].isPaste() || body[body.length - 1].isPaste())) {
+            throw error("'##' cannot appear at either end of a macro body", body[0]);
+        }
+        for (int j = 0; functionLike && j < body.length; j++) {
+            if (body[j].isHash() && (j + 1 == body.length || indexes[j + 1] < 0)) {
+                throw error("'#' is not followed by a macro parameter", body[j]);
+            }
+        }
+
+        Macro.Kind kind = functionLike ? Macro.Kind.FUNCTION : Macro.Kind.OBJECT;
+        setMacro(name.text, new Macro(name.text, kind, parameters.size(), variadic, body, indexes));
+    }
+
+    private void undefine(List<PreprocessingToken> operands, Frame frame, int line, int column)
+            throws PreprocessorException {
+        if (operands.isEmpty() || !operands.get(0).isName()) {
+            throw error("Macro name missing in #undef", frame, line, column);
+        }
+        setMacro(operands.get(0).text, null);
+    }
+
+    private void setMacro(String name, Macro macro) {
+        int id = names.intern(name);
+        if (id >= macros.length) {
+            macros = Arrays.copyOf(macros, Math.max(id + 1, macros.length * 2));
+        }
+        macros[id] = macro;
+    }
+
+    private void include(String directive, boolean next, Frame frame, int line, int column)
+            throws PreprocessorException, IOException {
+        if (collectingArguments > 0) {
+            throw error("#include in the arguments of a macro", frame, line, column);
+        }
+
+        // <file> and "file" are taken as written; anything else is expanded first
+        int start = Directives.skipSpace(directive, Directives.bodyStart(directive));
+        String header = null;
+        if (start < directive.length() && (directive.charAt(start) == '<' || directive.charAt(start) == '"')) {
+            int end = directive.indexOf(directive.charAt(start) == '<' ? '>' : '"', start + 1);
+            if (end > 0) header = directive.substring(start, end + 1);
+        } else {
+            header = headerName(expandAll(lex(directive, start, frame.file, line, column), false, frame));
+        }
+        if (header == null) {
+            throw error("#include expects \"file\" or <file>", frame, line, column);
+        }
+        if (frames.size() >= MAX_INCLUDE_DEPTH) {
+            throw error("#include nested more than " + MAX_INCLUDE_DEPTH + " levels deep", frame, line, column);
+        }
+
+        Path path = resolve(header.substring(1, header.length() - 1), header.charAt(0) == '<', next, frame);
+        if (path == null) {
+            throw error("Cannot find include file " + header, frame, line, column);
+        }
+        if (onceOnly.contains(path)) {
+            cache.countSkip();
+            return;
+        }
+        Header included = cache.get(path);
+        if (included.guard != null && isDefined(included.guard)) {
+            cache.countSkip();
+            return;
+        }
+        enter(included, resolvedSearchIndex);
+    }
+
+    // "file" or <file> spelled by expanded tokens, or null
+    private static String headerName(List<PreprocessingToken> tokens) {
+        if (tokens.isEmpty()) return null;
+        PreprocessingToken first = tokens.get(0);
+        if (first.is(TokenType.STRING_LITERAL)) return first.text;
+        if (!first.is(TokenType.LESS_THAN)) return null;
+
+        StringBuilder name = new StringBuilder("<");
+        for (int i = 1; i < tokens.size(); i++) {
+            PreprocessingToken token = tokens.get(i);
+            if (token.space) name.append(' ');
+            name.append(token.text);
+            if (token.is(TokenType.GREATER_THAN)) return name.toString();
+        }
+        return null;
+    }
+
+    // The file an include names, or null. A file found in the search paths records
+    // where, so #include_next can go on with the next path.
+    private Path resolve(String name, boolean angled, boolean next, Frame frame) {
+        Path named = Path.of(name);
+        if (named.isAbsolute()) {
+            resolvedSearchIndex = -1;
+            named = named.normalize();
+            return cache.isFile(named) ? named : null;
+        }
+        if (!angled && !next && frame != null) {
+            Path sibling = frame.header.path.resolveSibling(named).normalize();
+            if (cache.isFile(sibling)) {
+                resolvedSearchIndex = -1;
+                return sibling;
+            }
+        }
+        int first = next && frame != null ? frame.searchIndex + 1 : 0;
+        for (int i = first; i < searchPaths.size(); i++) {
+            Path candidate = searchPaths.get(i).resolve(named).normalize();
+            if (cache.isFile(candidate)) {
+                resolvedSearchIndex = i;
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    private void enter(Header header, int searchIndex) {
+        Integer file = fileIndexes.get(header.path);
+        if (file == null) {
+            file = files.size();
+            files.add(header.path);
+            fileIndexes.put(header.path, file);
+        }
+        frames.push(new Frame(header, file, searchIndex, conditionDepth));
+    }
+
+    private void leave(Frame frame, int eof) throws PreprocessorException {
+        if (conditionDepth > frame.conditionDepth) {
+            throw new PreprocessorException("Unterminated #if", fileName(frame.file),
+                    conditionLines[conditionDepth - 1], 1);
+        }
+        frames.pop();
+        if (frames.isEmpty()) {
+            endLine = frame.header.tokens.getLine(eof);
+            endColumn = frame.header.tokens.getColumn(eof);
+        }
+    }
+
+    // Operands of a directive from the given position of its spliced text. "#" and "##"
+    // would scan as the start of another directive, so the text is scanned again after
+    // each of them. Tokens are placed by their offset on the directive's first line.
+    private List<PreprocessingToken> lex(String directive, int from, int file, int line, int column) {
+        List<PreprocessingToken> result = new ArrayList<>();
+        int offset = from;
+        int previousEnd = from;
+        while (true) {
+            TokenBuffer tokens = scan(lexer, directive.substring(offset));
+            int hash = -1;
+            for (int i = 0; i < tokens.size() - 1 && hash < 0; i++) {
+                TokenType type = tokens.getType(i);
+                int start = offset + tokens.getStart(i);
+                if (type == TokenType.PREPROCESSOR) {
+                    hash = start;
+                } else if (type != TokenType.COMMENT && !isWhiteSpace(tokens, i)) {
+                    result.add(new PreprocessingToken(type, tokens.getLexeme(i), tokens.getLongValue(i), file, line,
+                            column + start, start != previousEnd, HideSet.EMPTY));
+                    previousEnd = start + tokens.getLength(i);
+                }
+            }
+            if (hash < 0) return result;
+
+            int length = hash + 1 < directive.length() && directive.charAt(hash + 1) == '#' ? 2 : 1;
+            result.add(new PreprocessingToken(TokenType.PREPROCESSOR, directive.substring(hash, hash + length), 0,
+                    file, line, column + hash, hash != previousEnd, HideSet.EMPTY));
+            offset = hash + length;
+            previousEnd = offset;
+        }
+    }
+
+    private static TokenBuffer scan(CScanner scanner, String source) {
+        try {
+            return scanner.scanTokenBuffer(source);
+        } catch (ScannerException e) {
+            throw new IllegalStateException("Recovering scan failed: " + e.getMessage(), e);
+        }
+    }
+
+    private PreprocessingToken token(Frame frame, int i) {
+        TokenBuffer tokens = frame.header.tokens;
+        int start = tokens.getStart(i);
+        boolean space = i == 0 || tokens.getStart(i - 1) + tokens.getLength(i - 1) != start;
+        return new PreprocessingToken(tokens.getType(i), tokens.getLexeme(i), tokens.getLongValue(i), frame.file,
+                tokens.getLine(i), tokens.getColumn(i), space, HideSet.EMPTY);
+    }
+
+    // The PREPROCESSOR token carries the line and column where the directive ends
+    private static int directiveLine(Frame frame, int index) {
+        TokenBuffer tokens = frame.header.tokens;
+        int start = tokens.getStart(index);
+        int line = tokens.getLine(index);
+        for (int i = start; i < start + tokens.getLength(index); i++) {
+            if (frame.header.source.charAt(i) == '\n') line--;
+        }
+        return line;
+    }
+
+    private static int directiveColumn(Frame frame, int index) {
+        int start = frame.header.tokens.getStart(index);
+        return start - frame.header.source.lastIndexOf('\n', start - 1);
+    }
+
+    // Errors
+
+    private PreprocessorException invalidToken(Frame frame, int i) {
+        TokenBuffer tokens = frame.header.tokens;
+        int line = tokens.getLine(i);
+        int column = tokens.getColumn(i);
+        if (tokens.getType(i) == TokenType.PREPROCESSOR) {
+            return error("'#' is not at the start of a line", frame, directiveLine(frame, i),
+                    directiveColumn(frame, i));
+        }
+        Diagnostics diagnostics = frame.header.diagnostics;
+        for (int d = 0; d < diagnostics.size(); d++) {
+            if (diagnostics.getLine(d) == line && diagnostics.getColumn(d) == column) {
+                return error(diagnostics.getMessage(d).replaceFirst("^.*?: ", ""), frame, line, column);
+            }
+        }
+        return error("Invalid token '" + tokens.getLexeme(i) + "'", frame, line, column);
+    }
+
+    private PreprocessorException error(String message, Frame frame, int line, int column) {
+        return new PreprocessorException(message, frame == null ? COMMAND_LINE : fileName(frame.file), line, column);
+    }
+
+    private PreprocessorException error(String message, PreprocessingToken token) {
+        return new PreprocessorException(message, fileName(token.file), token.line, token.column);
+    }
+
+    private String fileName(int file) {
+        return file < 0 ? COMMAND_LINE : files.get(file).toString();
+    }
+
+    // A file being read, innermost first on the frame stack
+    private static final class Frame {
+        final Header header;
+        final int file;
+        final int searchIndex;      // search path the file was found in, or -1
+        final int conditionDepth;   // #if nesting where the file starts
+        int next = 0;
+
+        Frame(Header header, int file, int searchIndex, int conditionDepth) {
+            this.header = header;
+            this.file = file;
+            this.searchIndex = searchIndex;
+            this.conditionDepth = conditionDepth;
+        }
+    }
+}
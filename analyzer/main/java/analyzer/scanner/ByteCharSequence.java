@@ -0,0 +1,93 @@
+package analyzer.scanner;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+// Read-only CharSequence view over a byte region. Each byte is one char, which is
+// exact for the ASCII subset the scanner recognizes; lexemes are decoded as UTF-8
+// when materialized, so non-ASCII text in strings and comments survives intact.
+// Decoding an ASCII lexeme yields a compact Latin-1 String straight from the bytes.
+public class ByteCharSequence implements CharSequence {
+    private final ByteBuffer bytes;
+    private final int offset;
+    private final int length;
+
+    public ByteCharSequence(ByteBuffer bytes) {
+        this(bytes, 0, bytes.limit());
+    }
+
+    public ByteCharSequence(ByteBuffer bytes, int offset, int length) {
+        // The word-at-a-time searches read big-endian longs; a duplicate is always big-endian
+        this.bytes = bytes.order() == ByteOrder.BIG_ENDIAN ? bytes : bytes.duplicate();
+        this.offset = offset;
+        this.length = length;
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        return (char) (bytes.get(offset + index) & 0xFF);
+    }
+
+    // Bulk searches over [from, to) for the scanner's ASCII delimiters, a word at a
+    // time; each returns to when nothing is found
+    int indexOf(char c, int from, int to) {
+        return Swar.indexOf(bytes, offset + from, offset + to, (byte) c) - offset;
+    }
+
+    int indexOfAny(char a, char b, char c, int from, int to) {
+        return Swar.indexOfAny(bytes, offset + from, offset + to, (byte) a, (byte) b, (byte) c) - offset;
+    }
+
+    // First position of a char that is none of the three
+    int skipAny(char a, char b, char c, int from, int to) {
+        return Swar.skipAny(bytes, offset + from, offset + to, (byte) a, (byte) b, (byte) c) - offset;
+    }
+
+    int count(char c, int from, int to) {
+        return Swar.count(bytes, offset + from, offset + to, (byte) c);
+    }
+
+    // Chars of [from, to) that only continue a UTF-8 sequence
+    int countContinuationBytes(int from, int to) {
+        return Swar.countContinuationBytes(bytes, offset + from, offset + to);
+    }
+
+    static boolean isContinuationByte(char c) {
+        return (c & 0xC0) == 0x80;
+    }
+
+    // The character whose UTF-8 sequence starts at index: the high surrogate of a
+    // supplementary one, which is what a String holds at that position, or U+FFFD
+    // for a malformed sequence
+    char decodeAt(int index) {
+        int end = index + 1;
+        while (end < length && end - index < 4 && isContinuationByte(charAt(end))) end++;
+        String decoded = subSequence(index, end).toString();
+        return decoded.charAt(0);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        if (start < 0 || end > length || start > end) {
+            throw new IndexOutOfBoundsException("Range [" + start + ", " + end + ") out of bounds for length " + length);
+        }
+        return new ByteCharSequence(bytes, offset + start, end - start);
+    }
+
+    @Override
+    public String toString() {
+        // Heap buffers are decoded in place, without a copy of the bytes
+        if (bytes.hasArray()) {
+            return new String(bytes.array(), bytes.arrayOffset() + offset, length, StandardCharsets.UTF_8);
+        }
+        byte[] data = new byte[length];
+        bytes.get(offset, data);
+        return new String(data, StandardCharsets.UTF_8);
+    }
+}
@@ -3,8 +3,12 @@ package analyzer.scanner;
 import analyzer.interfaces.IScanner;
 import analyzer.interfaces.ITokenValidator;
 import analyzer.interfaces.ISymbolTable;
+import analyzer.Token.LexemePool;
+import analyzer.Token.NumericLiteral;
 import analyzer.Token.Token;
+import analyzer.Token.TokenBuffer;
 import analyzer.Token.TokenType;
+import analyzer.exceptions.Diagnostics;
 import analyzer.exceptions.ScannerException;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -12,13 +16,36 @@ import java.util.List;
 import java.util.Map;
 
 public class CScanner implements IScanner {
+    // Version of the token stream produced for a given source. Bump it whenever the
+    // types, positions or lexemes change, so cached token streams are not reused.
+    public static final int VERSION = 4;
+
     private final ITokenValidator validator;
     private final ISymbolTable symbolTable;
-    private String source;
+    private final LexemePool lexemePool;
+    private final ScannerOptions options;
+    private final Diagnostics diagnostics;
+    private final NumericLiteral numbers = new NumericLiteral();
+    private CharSequence source;
+    private int end;
     private int current = 0;
     private int line = 1;
     private int column = 1;
-    private final List<Token> tokens = new ArrayList<>();
+
+    // Set by streaming scanners while the source is a window with more input behind it
+    private boolean moreInput = false;
+
+    // Set by Utf8Scanner: over UTF-8 bytes, columns count code points instead of bytes
+    private boolean codePointColumns = false;
+
+    // Position of the lexeme recognized by the last scanToken() call
+    private int tokenStart;
+    private int tokenLine;
+    private int tokenColumn;
+    private long tokenValue;
+
+    // Punctuation that begins a token, a comment or a preprocessor line
+    private static final String TOKEN_STARTS = "#/\"';,(){}[]+-*%=!<>&|^~?:.";
 
     // Operator mapping for quick lookup
     private static final Map<String, TokenType> OPERATORS = new HashMap<>();
@@ -34,6 +61,11 @@ public class CScanner implements IScanner {
         OPERATORS.put("*=", TokenType.MULTIPLY_ASSIGN);
         OPERATORS.put("/=", TokenType.DIVIDE_ASSIGN);
         OPERATORS.put("%=", TokenType.MODULO_ASSIGN);
+        OPERATORS.put("<<=", TokenType.LEFT_SHIFT_ASSIGN);
+        OPERATORS.put(">>=", TokenType.RIGHT_SHIFT_ASSIGN);
+        OPERATORS.put("&=", TokenType.AND_ASSIGN);
+        OPERATORS.put("|=", TokenType.OR_ASSIGN);
+        OPERATORS.put("^=", TokenType.XOR_ASSIGN);
         OPERATORS.put("++", TokenType.INCREMENT);
         OPERATORS.put("--", TokenType.DECREMENT);
         OPERATORS.put("==", TokenType.EQUAL);
@@ -52,52 +84,186 @@ public class CScanner implements IScanner {
         OPERATORS.put("<<", TokenType.LEFT_SHIFT);
         OPERATORS.put(">>", TokenType.RIGHT_SHIFT);
         OPERATORS.put("?", TokenType.CONDITIONAL);
+        OPERATORS.put(":", TokenType.COLON);
         OPERATORS.put("->", TokenType.ARROW);
         OPERATORS.put(".", TokenType.DOT);
+        OPERATORS.put("...", TokenType.ELLIPSIS);
     }
 
     // Dependency Injection (Dependency Inversion Principle)
     public CScanner(ITokenValidator validator, ISymbolTable symbolTable) {
+        this(validator, symbolTable, new LexemePool(), ScannerOptions.DEFAULT);
+    }
+
+    // A pool shared with the symbol table lets it index symbols by the ids on tokens
+    public CScanner(ITokenValidator validator, ISymbolTable symbolTable, LexemePool lexemePool) {
+        this(validator, symbolTable, lexemePool, ScannerOptions.DEFAULT);
+    }
+
+    public CScanner(ITokenValidator validator, ISymbolTable symbolTable, ScannerOptions options) {
+        this(validator, symbolTable, new LexemePool(), options);
+    }
+
+    public CScanner(ITokenValidator validator, ISymbolTable symbolTable, LexemePool lexemePool,
+                    ScannerOptions options) {
         this.validator = validator;
         this.symbolTable = symbolTable;
+        this.lexemePool = lexemePool;
+        this.options = options;
+        this.diagnostics = new Diagnostics(options.recoversErrors() ? options.getMaxDiagnostics() : 0);
     }
 
     @Override
     public List<Token> scanTokens(String source) throws ScannerException {
         this.source = source;
+        this.end = source.length();
         reset();
 
+        List<Token> tokens = new ArrayList<>();
         while (!isAtEnd()) {
-            Token token = scanToken();
-            if (token != null) {
+            TokenType type = scanToken();
+            if (type != null) {
+                Token token = makeToken(type);
                 tokens.add(token);
 
                 // Add identifiers to symbol table
-                if (token.getType() == TokenType.IDENTIFIER) {
-                    symbolTable.addSymbol(token.getLexeme(), token);
+                if (type == TokenType.IDENTIFIER) {
+                    symbolTable.addSymbol(token.getSymbolId(), token);
                 }
             }
         }
 
         tokens.add(new Token(TokenType.EOF, "", line, column));
-        return new ArrayList<>(tokens);
+        return tokens;
+    }
+
+    @Override
+    public TokenBuffer scanTokenBuffer(String source) throws ScannerException {
+        return scanBuffer(source);
+    }
+
+    // Any source; a ByteCharSequence is scanned as UTF-8 (see Utf8Scanner)
+    TokenBuffer scanBuffer(CharSequence source) throws ScannerException {
+        this.source = source;
+        this.end = source.length();
+        reset();
+
+        TokenBuffer buffer = new TokenBuffer(source);
+        while (!isAtEnd()) {
+            TokenType type = scanToken();
+            if (type != null) {
+                buffer.add(type, tokenStart, current - tokenStart, tokenLine, tokenColumn, tokenValue);
+
+                // Only identifiers are materialized, for the symbol table
+                if (type == TokenType.IDENTIFIER) {
+                    Token token = buffer.getSymbol(buffer.size() - 1, lexemePool);
+                    symbolTable.addSymbol(token.getSymbolId(), token);
+                }
+            }
+        }
+
+        buffer.add(TokenType.EOF, current, 0, line, column);
+        return buffer;
+    }
+
+    @Override
+    public void setSource(String source) {
+        this.source = source;
+        this.end = source.length();
+        reset();
     }
 
     @Override
     public Token getNextToken() throws ScannerException {
-        if (isAtEnd()) {
+        Token token = nextToken();
+        if (token == null) {
             return new Token(TokenType.EOF, "", line, column);
         }
-        return scanToken();
+        if (token.getType() == TokenType.IDENTIFIER) {
+            symbolTable.addSymbol(token.getSymbolId(), token);
+        }
+        return token;
+    }
+
+    // Where the scanner stands in the source set by setSource, between two tokens
+    public ScannerState snapshot() {
+        return new ScannerState(current, line, column);
+    }
+
+    // Continues the source set by setSource from a snapshot of a scan of the same
+    // source. The symbol table and diagnostics are kept.
+    public void restore(ScannerState state) {
+        if (source == null || state.getOffset() > end) {
+            throw new IllegalArgumentException("Scanner state " + state + " is outside the source");
+        }
+        this.current = (int) state.getOffset();
+        this.line = state.getLine();
+        this.column = state.getColumn();
+    }
+
+    // Streaming support: continues scanning a source from a known position without
+    // touching the symbol table, so callers can re-scan a token against a new window
+    void begin(CharSequence source, int current, int line, int column) {
+        this.source = source;
+        this.end = source.length();
+        this.current = current;
+        this.line = line;
+        this.column = column;
+    }
+
+    // Returns the next non-whitespace token, or null once the source is exhausted
+    Token nextToken() throws ScannerException {
+        while (!isAtEnd()) {
+            TokenType type = scanToken();
+            if (type != null) return makeToken(type);
+        }
+        return null;
+    }
+
+    // Scans [from, to) into the buffer without an EOF token or symbol registration.
+    // The range must start right after a newline that is not part of any lexeme.
+    void scanRange(CharSequence source, int from, int to, int line, TokenBuffer out) throws ScannerException {
+        begin(source, from, line, 1);
+        this.end = to;
+
+        while (scanNext(out)) {
+            // Keep scanning until the range is exhausted
+        }
+    }
+
+    // Scans the next non-whitespace lexeme into the buffer; false once the source is exhausted
+    boolean scanNext(TokenBuffer out) throws ScannerException {
+        while (!isAtEnd()) {
+            TokenType type = scanToken();
+            if (type != null) {
+                out.add(type, tokenStart, current - tokenStart, tokenLine, tokenColumn, tokenValue);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Unterminated lexemes at the end of a window are thrown even in recovery mode, so
+    // the streaming scanner retries them with more input instead of recovering
+    void expectMoreInput(boolean moreInput) {
+        this.moreInput = moreInput;
+    }
+
+    void countCodePointColumns(boolean codePointColumns) {
+        this.codePointColumns = codePointColumns;
     }
 
+    int getPosition() { return current; }
+    int getLine() { return line; }
+    int getColumn() { return column; }
+
     @Override
     public void reset() {
         current = 0;
         line = 1;
         column = 1;
-        tokens.clear();
         symbolTable.clear();
+        diagnostics.clear();
     }
 
     @Override
@@ -105,82 +271,117 @@ public class CScanner implements IScanner {
         return !isAtEnd();
     }
 
-    private Token scanToken() throws ScannerException {
+    @Override
+    public LexemePool getLexemePool() {
+        return lexemePool;
+    }
+
+    // Problems of the current scan; always empty unless the options recover errors
+    @Override
+    public Diagnostics getDiagnostics() {
+        return diagnostics;
+    }
+
+    // Recognizes one lexeme and records its position in tokenStart/tokenLine/tokenColumn.
+    // Returns null for whitespace.
+    private TokenType scanToken() throws ScannerException {
         char c = advance();
 
         switch (c) {
             case ' ':
             case '\r':
             case '\t':
-                // Ignore whitespace
-                return null;
+                // Ignore whitespace, the rest of the run in one go
+                return skipBlanks();
             case '\n':
                 line++;
                 column = 1;
                 return null;
             case '#':
+                if (options.skipsPreprocessor()) return skipDirective();
                 return preprocessor();
             case '/':
                 if (match('/')) {
+                    if (options.skipsComments()) return skipToLineEnd();
                     return lineComment();
                 } else if (match('*')) {
+                    if (options.skipsComments()) return skipBlockComment(line, column - 2);
                     return blockComment();
                 } else if (match('=')) {
-                    return new Token(TokenType.DIVIDE_ASSIGN, "/=", line, column - 2);
+                    return token(TokenType.DIVIDE_ASSIGN, 2);
                 } else {
-                    return new Token(TokenType.DIVIDE, "/", line, column - 1);
+                    return token(TokenType.DIVIDE, 1);
                 }
             case '"':
                 return stringLiteral();
             case '\'':
                 return charLiteral();
-            case ';': return new Token(TokenType.SEMICOLON, ";", line, column - 1);
-            case ',': return new Token(TokenType.COMMA, ",", line, column - 1);
-            case '(': return new Token(TokenType.LEFT_PAREN, "(", line, column - 1);
-            case ')': return new Token(TokenType.RIGHT_PAREN, ")", line, column - 1);
-            case '{': return new Token(TokenType.LEFT_BRACE, "{", line, column - 1);
-            case '}': return new Token(TokenType.RIGHT_BRACE, "}", line, column - 1);
-            case '[': return new Token(TokenType.LEFT_BRACKET, "[", line, column - 1);
-            case ']': return new Token(TokenType.RIGHT_BRACKET, "]", line, column - 1);
+            case ';': return token(TokenType.SEMICOLON, 1);
+            case ',': return token(TokenType.COMMA, 1);
+            case '(': return token(TokenType.LEFT_PAREN, 1);
+            case ')': return token(TokenType.RIGHT_PAREN, 1);
+            case '{': return token(TokenType.LEFT_BRACE, 1);
+            case '}': return token(TokenType.RIGHT_BRACE, 1);
+            case '[': return token(TokenType.LEFT_BRACKET, 1);
+            case ']': return token(TokenType.RIGHT_BRACKET, 1);
             case '+':
-                if (match('+')) return new Token(TokenType.INCREMENT, "++", line, column - 2);
-                if (match('=')) return new Token(TokenType.PLUS_ASSIGN, "+=", line, column - 2);
-                return new Token(TokenType.PLUS, "+", line, column - 1);
+                if (match('+')) return token(TokenType.INCREMENT, 2);
+                if (match('=')) return token(TokenType.PLUS_ASSIGN, 2);
+                return token(TokenType.PLUS, 1);
             case '-':
-                if (match('-')) return new Token(TokenType.DECREMENT, "--", line, column - 2);
-                if (match('=')) return new Token(TokenType.MINUS_ASSIGN, "-=", line, column - 2);
-                if (match('>')) return new Token(TokenType.ARROW, "->", line, column - 2);
-                return new Token(TokenType.MINUS, "-", line, column - 1);
+                if (match('-')) return token(TokenType.DECREMENT, 2);
+                if (match('=')) return token(TokenType.MINUS_ASSIGN, 2);
+                if (match('>')) return token(TokenType.ARROW, 2);
+                return token(TokenType.MINUS, 1);
             case '*':
-                if (match('=')) return new Token(TokenType.MULTIPLY_ASSIGN, "*=", line, column - 2);
-                return new Token(TokenType.MULTIPLY, "*", line, column - 1);
+                if (match('=')) return token(TokenType.MULTIPLY_ASSIGN, 2);
+                return token(TokenType.MULTIPLY, 1);
             case '%':
-                if (match('=')) return new Token(TokenType.MODULO_ASSIGN, "%=", line, column - 2);
-                return new Token(TokenType.MODULO, "%", line, column - 1);
+                if (match('=')) return token(TokenType.MODULO_ASSIGN, 2);
+                return token(TokenType.MODULO, 1);
             case '=':
-                if (match('=')) return new Token(TokenType.EQUAL, "==", line, column - 2);
-                return new Token(TokenType.ASSIGN, "=", line, column - 1);
+                if (match('=')) return token(TokenType.EQUAL, 2);
+                return token(TokenType.ASSIGN, 1);
             case '!':
-                if (match('=')) return new Token(TokenType.NOT_EQUAL, "!=", line, column - 2);
-                return new Token(TokenType.LOGICAL_NOT, "!", line, column - 1);
+                if (match('=')) return token(TokenType.NOT_EQUAL, 2);
+                return token(TokenType.LOGICAL_NOT, 1);
             case '<':
-                if (match('=')) return new Token(TokenType.LESS_EQUAL, "<=", line, column - 2);
-                if (match('<')) return new Token(TokenType.LEFT_SHIFT, "<<", line, column - 2);
-                return new Token(TokenType.LESS_THAN, "<", line, column - 1);
+                if (match('=')) return token(TokenType.LESS_EQUAL, 2);
+                if (match('<')) {
+                    if (match('=')) return token(TokenType.LEFT_SHIFT_ASSIGN, 3);
+                    return token(TokenType.LEFT_SHIFT, 2);
+                }
+                return token(TokenType.LESS_THAN, 1);
             case '>':
-                if (match('=')) return new Token(TokenType.GREATER_EQUAL, ">=", line, column - 2);
-                if (match('>')) return new Token(TokenType.RIGHT_SHIFT, ">>", line, column - 2);
-                return new Token(TokenType.GREATER_THAN, ">", line, column - 1);
+                if (match('=')) return token(TokenType.GREATER_EQUAL, 2);
+                if (match('>')) {
+                    if (match('=')) return token(TokenType.RIGHT_SHIFT_ASSIGN, 3);
+                    return token(TokenType.RIGHT_SHIFT, 2);
+                }
+                return token(TokenType.GREATER_THAN, 1);
             case '&':
-                if (match('&')) return new Token(TokenType.LOGICAL_AND, "&&", line, column - 2);
-                return new Token(TokenType.BITWISE_AND, "&", line, column - 1);
+                if (match('&')) return token(TokenType.LOGICAL_AND, 2);
+                if (match('=')) return token(TokenType.AND_ASSIGN, 2);
+                return token(TokenType.BITWISE_AND, 1);
             case '|':
-                if (match('|')) return new Token(TokenType.LOGICAL_OR, "||", line, column - 2);
-                return new Token(TokenType.BITWISE_OR, "|", line, column - 1);
-            case '^': return new Token(TokenType.BITWISE_XOR, "^", line, column - 1);
-            case '~': return new Token(TokenType.BITWISE_NOT, "~", line, column - 1);
-            case '?': return new Token(TokenType.CONDITIONAL, "?", line, column - 1);
-            case '.': return new Token(TokenType.DOT, ".", line, column - 1);
+                if (match('|')) return token(TokenType.LOGICAL_OR, 2);
+                if (match('=')) return token(TokenType.OR_ASSIGN, 2);
+                return token(TokenType.BITWISE_OR, 1);
+            case '^':
+                if (match('=')) return token(TokenType.XOR_ASSIGN, 2);
+                return token(TokenType.BITWISE_XOR, 1);
+            case '~': return token(TokenType.BITWISE_NOT, 1);
+            case '?': return token(TokenType.CONDITIONAL, 1);
+            case ':': return token(TokenType.COLON, 1);
+            case '.':
+                if (isDigit(peek())) return number();
+                // The only lexeme that needs two chars of lookahead: ".." alone is two dots
+                if (peek() == '.' && peekNext() == '.') {
+                    current += 2;
+                    column += 2;
+                    return token(TokenType.ELLIPSIS, 3);
+                }
+                return token(TokenType.DOT, 1);
             default:
                 if (isDigit(c)) {
                     return number();
@@ -188,73 +389,168 @@ public class CScanner implements IScanner {
                 if (isAlpha(c)) {
                     return identifier();
                 }
-                throw new ScannerException("Unexpected character: " + c, line, column - 1);
+                if (mustThrow()) {
+                    throw new ScannerException("Unexpected character: " + decoded(c), line, column - 1);
+                }
+                return unexpected(decoded(c));
         }
     }
 
-    private Token preprocessor() {
-        while (peek() != '\n' && !isAtEnd()) advance();
-        return new Token(TokenType.PREPROCESSOR,
-                source.substring(current - (column - 1), current),
-                line, column);
+    private TokenType preprocessor() {
+        int start = current - 1;
+        skipDirective();
+        return token(TokenType.PREPROCESSOR, start, line, column);
     }
 
-    private Token lineComment() {
+    private TokenType lineComment() {
         int start = current - 2;
-        while (peek() != '\n' && !isAtEnd()) advance();
-        return new Token(TokenType.COMMENT,
-                source.substring(start, current),
-                line, column);
+        skipToLineEnd();
+        return token(TokenType.COMMENT, start, line, column);
     }
 
-    private Token blockComment() throws ScannerException {
+    private TokenType blockComment() throws ScannerException {
         int start = current - 2;
         int startLine = line;
         int startColumn = column - 2;
 
-        while (!isAtEnd()) {
-            if (peek() == '*' && peekNext() == '/') {
-                advance(); // consume '*'
-                advance(); // consume '/'
-                return new Token(TokenType.COMMENT,
-                        source.substring(start, current),
-                        startLine, startColumn);
-            }
-            if (peek() == '\n') {
-                line++;
-                column = 1;
+        TokenType unterminated = skipBlockComment(startLine, startColumn);
+        if (unterminated != null) return unterminated;
+        return token(TokenType.COMMENT, start, startLine, startColumn);
+    }
+
+    private TokenType skipBlanks() {
+        int next = indexOfNonBlank(current);
+        column += next - current;
+        current = next;
+        return null;
+    }
+
+    // Moves to the next newline (or the end) in one search; the newline itself is
+    // left for scanToken. Returns null, so skipped text reads as whitespace.
+    private TokenType skipToLineEnd() {
+        int lineEnd = indexOf('\n', current);
+        column += columns(current, lineEnd);
+        current = lineEnd;
+        return null;
+    }
+
+    // Moves to the end of a directive, see directiveEnd. Its newlines count like those
+    // in a block comment, so the char after a continued line is at column 2. Returns null.
+    private TokenType skipDirective() {
+        int directiveEnd = directiveEnd(source, current, end);
+        int lastNewline = -1;
+        for (int newline = indexOf('\n', current); newline < directiveEnd; newline = indexOf('\n', newline + 1)) {
+            line++;
+            lastNewline = newline;
+        }
+        column = lastNewline < 0 ? column + columns(current, directiveEnd) : columns(lastNewline, directiveEnd) + 1;
+        current = directiveEnd;
+        return null;
+    }
+
+    // Position of the newline that ends the directive whose text goes on at from, or end.
+    // A line that ends in a backslash (blanks may follow it) continues the directive, and
+    // so does a block comment that is still open at the end of a line. Quotes and line
+    // comments are followed only so that a "/*" inside them opens nothing: a quote ends
+    // at its closing quote or an unescaped newline, a line comment with the directive.
+    // TableDrivenScanner's directive states and ChunkedScanner follow the same rules.
+    static int directiveEnd(CharSequence source, int from, int end) {
+        boolean continued = false;
+        boolean lineComment = false;
+        int i = from;
+        while (i < end) {
+            char c = source.charAt(i++);
+            if (c == '\n') {
+                if (!continued) return i - 1;
+                continued = false;
+            } else if (c == '\\') {
+                continued = true;
+            } else if (c != ' ' && c != '\t' && c != '\r') {
+                continued = false;
+                if (lineComment) continue;
+                if (c == '"' || c == '\'') {
+                    while (i < end && source.charAt(i) != c && source.charAt(i) != '\n') {
+                        if (source.charAt(i) == '\\') i++;
+                        i++;
+                    }
+                    if (i < end && source.charAt(i) == c) i++;
+                } else if (c == '/' && i < end && source.charAt(i) == '*') {
+                    int close = indexOfCommentEnd(source, i + 1, end);
+                    if (close < 0) return end;
+                    i = close + 2;
+                } else if (c == '/' && i < end && source.charAt(i) == '/') {
+                    lineComment = true;
+                    i++;
+                }
             }
-            advance();
         }
+        return end;
+    }
 
-        throw new ScannerException("Unterminated block comment", startLine, startColumn);
+    // Moves past the "*/" closing the comment that was just opened. Lines are counted
+    // between the two, and the column follows the rule the char-by-char loop used: a
+    // newline resets it to 1 before it is consumed, so the next char is at column 2.
+    // An unterminated comment runs to the end, which is what streaming scanners look
+    // for before they retry with more input; in recovery mode it becomes an UNKNOWN
+    // token, which is returned.
+    private TokenType skipBlockComment(int startLine, int startColumn) throws ScannerException {
+        int start = current - 2;
+        int close = indexOfCommentEnd(current);
+        int body = close < 0 ? end : close;
+        int commentEnd = close < 0 ? end : close + 2;
+
+        int lastNewline = -1;
+        for (int newline = indexOf('\n', current); newline < body; newline = indexOf('\n', newline + 1)) {
+            line++;
+            lastNewline = newline;
+        }
+        column = lastNewline < 0 ? column + columns(current, commentEnd) : columns(lastNewline, commentEnd) + 1;
+        current = commentEnd;
+
+        if (close < 0) {
+            if (mustThrow()) {
+                throw new ScannerException("Unterminated block comment", startLine, startColumn);
+            }
+            diagnostics.report(Diagnostics.Kind.UNTERMINATED_COMMENT, '\0', startLine, startColumn);
+            return token(TokenType.UNKNOWN, start, startLine, startColumn);
+        }
+        return null;
     }
 
-    private Token stringLiteral() throws ScannerException {
+    private TokenType stringLiteral() throws ScannerException {
         int start = current - 1;
+        int startLine = line;
         int startColumn = column - 1;
 
-        while (peek() != '"' && !isAtEnd()) {
+        // Plain characters are skipped in bulk up to the next quote, backslash or newline
+        while (true) {
+            int stop = indexOfStringStop(current);
+            column += columns(current, stop);
+            current = stop;
+            if (isAtEnd() || peek() == '"') break;
+
             if (peek() == '\n') {
                 line++;
                 column = 1;
+                advance();
+            } else {
+                advance(); // Handle escape sequences
+                if (!isAtEnd()) advance();
             }
-            if (peek() == '\\') advance(); // Handle escape sequences
-            advance();
         }
 
         if (isAtEnd()) {
-            throw new ScannerException("Unterminated string", line, startColumn);
+            if (mustThrow()) {
+                throw new ScannerException("Unterminated string", line, startColumn);
+            }
+            return unterminatedString(start, startLine, startColumn);
         }
 
         advance(); // Closing "
-        String value = source.substring(start + 1, current - 1);
-        return new Token(TokenType.STRING_LITERAL,
-                source.substring(start, current),
-                line, startColumn, value);
+        return token(TokenType.STRING_LITERAL, start, line, startColumn);
     }
 
-    private Token charLiteral() throws ScannerException {
+    private TokenType charLiteral() throws ScannerException {
         int start = current - 1;
         int startColumn = column - 1;
 
@@ -263,53 +559,209 @@ public class CScanner implements IScanner {
         }
 
         if (!isAtEnd()) advance(); // Character
+        skipContinuationBytes();
 
         if (peek() != '\'' || isAtEnd()) {
-            throw new ScannerException("Unterminated character literal", line, startColumn);
+            if (mustThrow()) {
+                throw new ScannerException("Unterminated character literal", line, startColumn);
+            }
+            // Only the quote is bad; what follows it is scanned again as ordinary text
+            current = start + 1;
+            column = startColumn + 1;
+            diagnostics.report(Diagnostics.Kind.UNTERMINATED_CHARACTER, '\0', line, startColumn);
+            return token(TokenType.UNKNOWN, start, line, startColumn);
         }
 
         advance(); // Closing '
-        String lexeme = source.substring(start, current);
-        char value = lexeme.charAt(1); // Get the actual character
-        return new Token(TokenType.CHAR_LITERAL, lexeme, line, startColumn, value);
+        return token(TokenType.CHAR_LITERAL, start, line, startColumn);
     }
 
-    private Token number() {
+    // The whole preprocessing number is taken, then its value is parsed from the same
+    // chars; a malformed number is one error, not a run of smaller tokens
+    private TokenType number() throws ScannerException {
         int start = current - 1;
         int startColumn = column - 1;
 
-        while (isDigit(peek())) advance();
+        int numberEnd = NumericLiteral.end(source, start, end);
+        column += numberEnd - current;
+        current = numberEnd;
 
-        boolean isFloat = false;
-        if (peek() == '.' && isDigit(peekNext())) {
-            isFloat = true;
-            advance(); // consume '.'
-            while (isDigit(peek())) advance();
+        if (!numbers.parse(source, start, numberEnd)) {
+            Diagnostics.Kind kind = numbers.isTooLarge()
+                    ? Diagnostics.Kind.INTEGER_TOO_LARGE
+                    : Diagnostics.Kind.INVALID_NUMBER;
+            if (mustThrow()) {
+                throw new ScannerException(kind.getMessage(), line, startColumn);
+            }
+            diagnostics.report(kind, '\0', line, startColumn);
+            return token(TokenType.UNKNOWN, start, line, startColumn);
         }
 
-        String lexeme = source.substring(start, current);
-        Object value = isFloat ? Double.parseDouble(lexeme) : Integer.parseInt(lexeme);
-        TokenType type = isFloat ? TokenType.FLOAT_LITERAL : TokenType.INTEGER_LITERAL;
-
-        return new Token(type, lexeme, line, startColumn, value);
+        token(numbers.getType(), start, line, startColumn);
+        tokenValue = numbers.getBits();
+        return numbers.getType();
     }
 
-    private Token identifier() {
+    private TokenType identifier() {
         int start = current - 1;
         int startColumn = column - 1;
 
         while (isAlphaNumeric(peek())) advance();
 
-        String text = source.substring(start, current);
-        TokenType type = validator.isKeyword(text) ?
-                validator.getKeywordType(text) : TokenType.IDENTIFIER;
+        TokenType type = validator.getKeywordType(source, start, current);
+        if (type == null) type = TokenType.IDENTIFIER;
+
+        return token(type, start, line, startColumn);
+    }
+
+    // Error recovery. Errors are thrown unless the options recover them, and always
+    // when the scan ran into the end of a window that more input will follow.
+    private boolean mustThrow() {
+        return !options.recoversErrors() || (moreInput && current + 1 >= end);
+    }
+
+    // A run of chars that cannot start any token becomes one UNKNOWN token
+    private TokenType unexpected(char c) {
+        int start = current - 1;
+        int startColumn = column - 1;
+        diagnostics.report(Diagnostics.Kind.UNEXPECTED_CHARACTER, c, line, startColumn);
+
+        int runEnd = current;
+        while (runEnd < end && !canStartToken(source.charAt(runEnd))) runEnd++;
+        column += columns(current, runEnd);
+        current = runEnd;
+        return token(TokenType.UNKNOWN, start, line, startColumn);
+    }
+
+    // A string without a closing quote is cut at the end of the line it starts on, the
+    // usual place of the missing quote, and scanning resumes at that newline
+    private TokenType unterminatedString(int start, int startLine, int startColumn) {
+        int lineEnd = indexOf('\n', start);
+        current = lineEnd;
+        line = startLine;
+        column = startColumn + columns(start, lineEnd);
+        diagnostics.report(Diagnostics.Kind.UNTERMINATED_STRING, '\0', startLine, startColumn);
+        return token(TokenType.UNKNOWN, start, startLine, startColumn);
+    }
 
-        return new Token(type, text, line, startColumn);
+    // Records a lexeme that ends at the current position
+    private TokenType token(TokenType type, int start, int line, int column) {
+        tokenStart = start;
+        tokenLine = line;
+        tokenColumn = column;
+        tokenValue = 0;
+        return type;
+    }
+
+    // Records a fixed-length operator or delimiter that was just consumed
+    private TokenType token(TokenType type, int length) {
+        return token(type, current - length, line, column - length);
+    }
+
+    // Identifiers take their lexeme from the pool, so a repeated name is not copied again
+    private Token makeToken(TokenType type) {
+        if (type == TokenType.IDENTIFIER) {
+            int id = lexemePool.intern(source, tokenStart, current);
+            return new Token(type, lexemePool.getName(id), tokenLine, tokenColumn, null, id);
+        }
+
+        String lexeme = source.subSequence(tokenStart, current).toString();
+        if (Token.isNumber(type)) {
+            return new Token(type, lexeme, tokenLine, tokenColumn, null, Token.NO_SYMBOL, tokenValue);
+        }
+        return new Token(type, lexeme, tokenLine, tokenColumn, Token.literalValue(type, lexeme));
     }
 
     // Utility methods
     private boolean isAtEnd() {
-        return current >= source.length();
+        return current >= end;
+    }
+
+    // Bulk searches. Strings use the intrinsic String.indexOf, which compares many
+    // chars per instruction; mapped and channel sources search eight bytes per step
+    // (see Swar); anything else falls back to a char loop.
+
+    // Position of the first c at or after from, or end
+    private int indexOf(char c, int from) {
+        if (source instanceof String) {
+            int index = ((String) source).indexOf(c, from);
+            return index < 0 || index > end ? end : index;
+        }
+        if (source instanceof ByteCharSequence) {
+            return ((ByteCharSequence) source).indexOf(c, from, end);
+        }
+        for (int i = from; i < end; i++) {
+            if (source.charAt(i) == c) return i;
+        }
+        return end;
+    }
+
+    // Position of the first "*/" that ends before the end of the source, or -1
+    private int indexOfCommentEnd(int from) {
+        if (source instanceof String) {
+            int index = ((String) source).indexOf("*/", from);
+            return index < 0 || index + 2 > end ? -1 : index;
+        }
+        for (int star = indexOf('*', from); star + 1 < end; star = indexOf('*', star + 1)) {
+            if (source.charAt(star + 1) == '/') return star;
+        }
+        return -1;
+    }
+
+    private static int indexOfCommentEnd(CharSequence source, int from, int end) {
+        if (source instanceof String) {
+            int index = ((String) source).indexOf("*/", from);
+            return index < 0 || index + 2 > end ? -1 : index;
+        }
+        for (int i = from; i + 1 < end; i++) {
+            if (source.charAt(i) == '*' && source.charAt(i + 1) == '/') return i;
+        }
+        return -1;
+    }
+
+    // Position of the first char that is not ' ', '\t' or '\r', or end
+    private int indexOfNonBlank(int from) {
+        if (source instanceof ByteCharSequence) {
+            return ((ByteCharSequence) source).skipAny(' ', '\t', '\r', from, end);
+        }
+        int i = from;
+        while (i < end && isBlank(source.charAt(i))) i++;
+        return i;
+    }
+
+    // Position of the first '"', '\\' or newline, or end
+    private int indexOfStringStop(int from) {
+        if (source instanceof ByteCharSequence) {
+            return ((ByteCharSequence) source).indexOfAny('"', '\\', '\n', from, end);
+        }
+        for (int i = from; i < end; i++) {
+            char c = source.charAt(i);
+            if (c == '"' || c == '\\' || c == '\n') return i;
+        }
+        return end;
+    }
+
+    // UTF-8 sources. A multi-byte character is one column in code point mode, and the
+    // rest of its sequence belongs to whatever lexeme its first byte is in.
+
+    // Columns taken by [from, to)
+    private int columns(int from, int to) {
+        if (!codePointColumns) return to - from;
+        return to - from - ((ByteCharSequence) source).countContinuationBytes(from, to);
+    }
+
+    private void skipContinuationBytes() {
+        if (!(source instanceof ByteCharSequence)) return;
+        while (!isAtEnd() && ByteCharSequence.isContinuationByte(source.charAt(current))) {
+            current++;
+            if (!codePointColumns) column++;
+        }
+    }
+
+    // The character an unexpected char stands for, for the message
+    private char decoded(char c) {
+        if (c < 0x80 || !(source instanceof ByteCharSequence)) return c;
+        return ((ByteCharSequence) source).decodeAt(current - 1);
     }
 
     private char advance() {
@@ -331,7 +783,7 @@ public class CScanner implements IScanner {
     }
 
     private char peekNext() {
-        if (current + 1 >= source.length()) return '\0';
+        if (current + 1 >= end) return '\0';
         return source.charAt(current + 1);
     }
 
@@ -339,6 +791,14 @@ public class CScanner implements IScanner {
         return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || c == '_';
     }
 
+    private boolean canStartToken(char c) {
+        return isAlphaNumeric(c) || isBlank(c) || c == '\n' || TOKEN_STARTS.indexOf(c) >= 0;
+    }
+
+    private boolean isBlank(char c) {
+        return c == ' ' || c == '\t' || c == '\r';
+    }
+
     private boolean isDigit(char c) {
         return c >= '0' && c <= '9';
     }
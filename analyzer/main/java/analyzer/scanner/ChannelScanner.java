@@ -0,0 +1,138 @@
+package analyzer.scanner;
+
+import analyzer.interfaces.ISymbolTable;
+import analyzer.interfaces.ITokenValidator;
+import analyzer.Token.Token;
+import analyzer.Token.TokenType;
+import analyzer.exceptions.Diagnostics;
+import analyzer.exceptions.ScannerException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+
+// Streams tokens out of any readable channel (a pipe, a socket, standard input)
+// through a heap buffer that is refilled as the scanner reaches its end. This is
+// the unmapped counterpart of MappedFileScanner: the buffer starts at a line start,
+// is compacted to the line of the lexeme being scanned when it runs out, and is
+// doubled when a single line does not fit. Columns count bytes.
+public class ChannelScanner implements AutoCloseable {
+    static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    private final ReadableByteChannel channel;
+    private final CScanner scanner;
+    private final ISymbolTable symbolTable;
+    private ByteBuffer buffer;
+    private ByteCharSequence window;
+    private boolean endOfInput = false;
+    private boolean done = false;
+
+    public ChannelScanner(ReadableByteChannel channel, ITokenValidator validator, ISymbolTable symbolTable)
+            throws IOException {
+        this(channel, validator, symbolTable, DEFAULT_BUFFER_SIZE, ScannerOptions.DEFAULT);
+    }
+
+    public ChannelScanner(ReadableByteChannel channel, ITokenValidator validator, ISymbolTable symbolTable,
+                          int bufferSize) throws IOException {
+        this(channel, validator, symbolTable, bufferSize, ScannerOptions.DEFAULT);
+    }
+
+    public ChannelScanner(ReadableByteChannel channel, ITokenValidator validator, ISymbolTable symbolTable,
+                          int bufferSize, ScannerOptions options) throws IOException {
+        this.channel = channel;
+        this.scanner = new CScanner(validator, symbolTable, options);
+        this.symbolTable = symbolTable;
+        this.buffer = ByteBuffer.allocate(bufferSize);
+
+        symbolTable.clear();
+        fill();
+        scanner.begin(window, 0, 1, 1);
+    }
+
+    // Returns the next token; EOF is returned once the channel is exhausted
+    public Token nextToken() throws ScannerException, IOException {
+        while (true) {
+            int start = scanner.getPosition();
+            int line = scanner.getLine();
+            int column = scanner.getColumn();
+            int reported = scanner.getDiagnostics().getReportedCount();
+
+            Token token;
+            try {
+                token = scanner.nextToken();
+            } catch (ScannerException e) {
+                if (!touchedWindowEnd()) throw e;
+                scanner.getDiagnostics().truncate(reported);
+                refill(start, line, column);
+                continue;
+            }
+
+            // A lexeme that ran into the end of the buffer may continue in the next read
+            if (touchedWindowEnd()) {
+                scanner.getDiagnostics().truncate(reported);
+                refill(start, line, column);
+                continue;
+            }
+
+            if (token == null) {
+                done = true;
+                return new Token(TokenType.EOF, "", scanner.getLine(), scanner.getColumn());
+            }
+            if (token.getType() == TokenType.IDENTIFIER) {
+                symbolTable.addSymbol(token.getSymbolId(), token);
+            }
+            return token;
+        }
+    }
+
+    public boolean hasMoreTokens() {
+        return !done;
+    }
+
+    // Errors recovered so far, with ScannerOptions that recover them
+    public Diagnostics getDiagnostics() {
+        return scanner.getDiagnostics();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    // The scanner looks at most one char past where it stops (e.g. "=" after "<", or
+    // the third "." after "..")
+    private boolean touchedWindowEnd() {
+        return scanner.getPosition() + 1 >= window.length() && !endOfInput;
+    }
+
+    // Keeps the line of the lexeme starting at the given buffer position, as
+    // MappedFileScanner does, and reads more input behind it
+    private void refill(int start, int line, int column) throws IOException {
+        int lineStart = Math.max(0, start - (column - 1));
+        if (lineStart == 0 && !buffer.hasRemaining()) {
+            if (buffer.capacity() > Integer.MAX_VALUE / 2) {
+                throw new IOException("Lexeme at line " + line + " does not fit in the read buffer");
+            }
+            ByteBuffer larger = ByteBuffer.allocate(buffer.capacity() * 2);
+            larger.put(buffer.flip());
+            buffer = larger;
+        } else {
+            buffer.flip().position(lineStart);
+            buffer.compact();
+        }
+
+        fill();
+        scanner.begin(window, start - lineStart, line, column);
+    }
+
+    // Reads until the buffer is full or the channel ends
+    private void fill() throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                endOfInput = true;
+                break;
+            }
+        }
+        window = new ByteCharSequence(buffer, 0, buffer.position());
+        scanner.expectMoreInput(!endOfInput);
+    }
+}
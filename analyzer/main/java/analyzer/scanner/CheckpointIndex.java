@@ -0,0 +1,244 @@
+package analyzer.scanner;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+// Side index of ScannerStates taken every so many bytes of a scan, so that a scan
+// can resume from the last one after a crash, and a region of a huge file can be
+// tokenized from the checkpoint before it instead of from the start.
+//
+// The file is a 32-byte header (magic "CSCK", format version, CScanner.VERSION, the
+// interval, then the size and modification time in milliseconds of the scanned file,
+// as longs) followed by one 16-byte record per checkpoint: the offset as a long,
+// then the line and column. Records are appended as checkpoints are added, so the
+// file is current up to the last one written when a scan dies; a torn last record
+// is dropped when the file is opened again. An index is only opened together with
+// the file it was built for: offsets into any other file, or into the same file
+// after an edit, would resume scans in the middle of lexemes. Checkpoints are kept in memory as
+// parallel primitive arrays, ascending by offset and line, and searched by bisection.
+public class CheckpointIndex implements AutoCloseable {
+    public static final int MAGIC = 0x4353434B;
+    public static final int VERSION = 1;
+    public static final int DEFAULT_INTERVAL = 1024 * 1024;
+
+    private static final int HEADER_BYTES = 32;
+    private static final int RECORD_BYTES = 16;
+
+    private final int interval;
+    private final FileChannel channel;
+    private final ByteBuffer record = ByteBuffer.allocate(RECORD_BYTES);
+    private long[] offsets = new long[16];
+    private int[] lines = new int[16];
+    private int[] columns = new int[16];
+    private int size = 0;
+
+    // In memory only
+    public CheckpointIndex(int interval) {
+        this(interval, null);
+    }
+
+    private CheckpointIndex(int interval, FileChannel channel) {
+        if (interval < 1) {
+            throw new IllegalArgumentException("Checkpoint interval must be at least 1 byte: " + interval);
+        }
+        this.interval = interval;
+        this.channel = channel;
+    }
+
+    // Opens the index file of a source for appending, creating it with the given
+    // interval or reading the checkpoints it already holds (and its interval)
+    public static CheckpointIndex open(Path path, Path source, int interval) throws IOException {
+        if (interval < 1) {
+            throw new IllegalArgumentException("Checkpoint interval must be at least 1 byte: " + interval);
+        }
+        long sourceSize = Files.size(source);
+        long sourceModified = Files.getLastModifiedTime(source).toMillis();
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            if (channel.size() == 0) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES)
+                        .putInt(MAGIC).putInt(VERSION).putInt(CScanner.VERSION).putInt(interval)
+                        .putLong(sourceSize).putLong(sourceModified).flip();
+                writeFully(channel, header, 0);
+                return new CheckpointIndex(interval, channel);
+            }
+            CheckpointIndex index = new CheckpointIndex(readHeader(channel, path, source), channel);
+            index.readRecords();
+            return index;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    // Reads the index file of a source into memory, read-only
+    public static CheckpointIndex load(Path path, Path source) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            CheckpointIndex index = new CheckpointIndex(readHeader(channel, path, source));
+            index.readRecords(channel);
+            return index;
+        }
+    }
+
+    // Whether a scan that has reached the offset should add a checkpoint
+    public boolean isDue(long offset) {
+        return offset >= (size == 0 ? 0 : offsets[size - 1]) + interval;
+    }
+
+    // Appends a checkpoint, which must lie past the last one
+    public void add(ScannerState state) throws IOException {
+        if (size > 0 && (state.getOffset() <= offsets[size - 1] || state.getLine() < lines[size - 1])) {
+            throw new IllegalArgumentException("Checkpoint " + state + " does not follow " + get(size - 1));
+        }
+        if (channel != null) {
+            record.clear();
+            record.putLong(state.getOffset()).putInt(state.getLine()).putInt(state.getColumn()).flip();
+            writeFully(channel, record, HEADER_BYTES + (long) size * RECORD_BYTES);
+        }
+        append(state.getOffset(), state.getLine(), state.getColumn());
+    }
+
+    public int size() { return size; }
+    public int getInterval() { return interval; }
+
+    public ScannerState get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Checkpoint " + index + " out of bounds for size " + size);
+        }
+        return new ScannerState(offsets[index], lines[index], columns[index]);
+    }
+
+    // The last checkpoint, or the start of the source if there is none
+    public ScannerState last() {
+        return size == 0 ? start() : get(size - 1);
+    }
+
+    // The last checkpoint before the line begins (a token on the checkpoint's own
+    // line may have started earlier), or the start of the source
+    public ScannerState floorLine(int line) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (lines[middle] < line) low = middle + 1; else high = middle;
+        }
+        return low == 0 ? start() : get(low - 1);
+    }
+
+    // The last checkpoint at or before the offset, or the start of the source
+    public ScannerState floorOffset(long offset) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (offsets[middle] <= offset) low = middle + 1; else high = middle;
+        }
+        return low == 0 ? start() : get(low - 1);
+    }
+
+    // Flushes the appended checkpoints to the storage device and closes the file
+    @Override
+    public void close() throws IOException {
+        if (channel == null) return;
+        try {
+            channel.force(false);
+        } finally {
+            channel.close();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("CheckpointIndex{checkpoints=%d, interval=%d, last=%s}", size, interval, last());
+    }
+
+    private static ScannerState start() {
+        return new ScannerState(0, 1, 1);
+    }
+
+    private static int readHeader(FileChannel channel, Path path, Path source) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        if (readFully(channel, header, 0) < HEADER_BYTES || header.getInt(0) != MAGIC) {
+            throw new IOException("Not a checkpoint index: " + path);
+        }
+        if (header.getInt(4) != VERSION) {
+            throw new IOException("Unsupported checkpoint index version " + header.getInt(4) + ": " + path);
+        }
+        // Checkpoints of another scanner version may not fall on its token boundaries
+        if (header.getInt(8) != CScanner.VERSION) {
+            throw new IOException("Checkpoint index written by scanner version " + header.getInt(8) + ": " + path);
+        }
+        int interval = header.getInt(12);
+        if (interval < 1) {
+            throw new IOException("Corrupt checkpoint index header: " + path);
+        }
+        if (header.getLong(16) != Files.size(source)
+                || header.getLong(24) != Files.getLastModifiedTime(source).toMillis()) {
+            throw new IOException("Checkpoint index " + path + " was not built for this version of " + source);
+        }
+        return interval;
+    }
+
+    // Reads the whole records and cuts off a torn one left by a crash
+    private void readRecords() throws IOException {
+        readRecords(channel);
+        channel.truncate(HEADER_BYTES + (long) size * RECORD_BYTES);
+    }
+
+    private void readRecords(FileChannel from) throws IOException {
+        long count = (from.size() - HEADER_BYTES) / RECORD_BYTES;
+        ByteBuffer records = ByteBuffer.allocate(64 * RECORD_BYTES);
+        long position = HEADER_BYTES;
+        for (long read = 0; read < count; ) {
+            records.clear();
+            records.limit((int) Math.min(records.capacity(), (count - read) * RECORD_BYTES));
+            if (readFully(from, records, position) < records.limit()) break;
+            records.flip();
+            while (records.hasRemaining()) {
+                long offset = records.getLong();
+                int line = records.getInt();
+                int column = records.getInt();
+                if (offset < 0 || line < 1 || column < 1 || (size > 0 && offset <= offsets[size - 1])) {
+                    throw new IOException("Corrupt checkpoint " + (read + 1));
+                }
+                append(offset, line, column);
+                read++;
+            }
+            position += records.limit();
+        }
+    }
+
+    private void append(long offset, int line, int column) {
+        if (size == offsets.length) {
+            offsets = Arrays.copyOf(offsets, size * 2);
+            lines = Arrays.copyOf(lines, size * 2);
+            columns = Arrays.copyOf(columns, size * 2);
+        }
+        offsets[size] = offset;
+        lines[size] = line;
+        columns[size] = column;
+        size++;
+    }
+
+    private static int readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        int total = 0;
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + total);
+            if (read < 0) break;
+            total += read;
+        }
+        return total;
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package analyzer.scanner;
+
+import analyzer.interfaces.ISymbolTable;
+import analyzer.interfaces.ITokenValidator;
+import analyzer.Token.LexemePool;
+import analyzer.Token.Token;
+import analyzer.Token.TokenBuffer;
+import analyzer.Token.TokenType;
+import analyzer.exceptions.ScannerException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Scans one large source on several cores. A cheap pre-pass walks the source with
+// just enough lexing to know when a newline is plain whitespace (not inside a
+// comment, string or character literal), splits there, and scans the chunks
+// concurrently. Chunks start at column 1 of a known line and record absolute
+// offsets, so stitching is a plain concatenation and the result is identical to
+// a sequential CScanner run, including which error is reported first.
+public class ChunkedScanner {
+    private static final int DEFAULT_CHUNK_SIZE = 4 * 1024 * 1024;
+
+    private final ITokenValidator validator;
+    private final int parallelism;
+    private final int chunkSize;
+    private final ScannerOptions options;
+    private final LexemePool lexemePool = new LexemePool();
+
+    public ChunkedScanner(ITokenValidator validator) {
+        this(validator, ScannerOptions.DEFAULT);
+    }
+
+    public ChunkedScanner(ITokenValidator validator, ScannerOptions options) {
+        this(validator, Runtime.getRuntime().availableProcessors(), DEFAULT_CHUNK_SIZE, options);
+    }
+
+    public ChunkedScanner(ITokenValidator validator, int parallelism, int chunkSize) {
+        this(validator, parallelism, chunkSize, ScannerOptions.DEFAULT);
+    }
+
+    // Options only change what each chunk emits, not where the source is split. Error
+    // recovery would change lexeme boundaries the split relies on, so it is refused.
+    public ChunkedScanner(ITokenValidator validator, int parallelism, int chunkSize, ScannerOptions options) {
+        if (parallelism < 1 || chunkSize < 1) {
+            throw new IllegalArgumentException("Parallelism and chunk size must be positive");
+        }
+        if (options.recoversErrors()) {
+            throw new IllegalArgumentException("Chunked scanning does not support error recovery");
+        }
+        this.validator = validator;
+        this.parallelism = parallelism;
+        this.chunkSize = chunkSize;
+        this.options = options;
+    }
+
+    public TokenBuffer scan(String source, ISymbolTable symbolTable) throws ScannerException {
+        List<int[]> chunks = split(source);
+
+        List<TokenBuffer> results = new ArrayList<>(chunks.size());
+        if (chunks.size() == 1) {
+            results.add(scanChunk(source, chunks.get(0)));
+        } else {
+            results.addAll(scanConcurrently(source, chunks));
+        }
+
+        TokenBuffer tokens = results.get(0);
+        for (int i = 1; i < results.size(); i++) {
+            tokens.append(results.get(i));
+        }
+
+        // Registration order matches the sequential scan, so the last occurrence wins
+        symbolTable.clear();
+        for (int i = 0; i < tokens.size(); i++) {
+            if (tokens.getType(i) == TokenType.IDENTIFIER) {
+                Token token = tokens.getSymbol(i, lexemePool);
+                symbolTable.addSymbol(token.getSymbolId(), token);
+            }
+        }
+        return tokens;
+    }
+
+    // Identifiers are interned while they are registered, after the chunks are joined
+    public LexemePool getLexemePool() {
+        return lexemePool;
+    }
+
+    private List<TokenBuffer> scanConcurrently(String source, List<int[]> chunks) throws ScannerException {
+        ExecutorService pool = Executors.newFixedThreadPool(Math.min(parallelism, chunks.size()));
+        try {
+            List<Future<TokenBuffer>> futures = new ArrayList<>(chunks.size());
+            for (int[] chunk : chunks) {
+                futures.add(pool.submit(() -> scanChunk(source, chunk)));
+            }
+
+            // Waiting in order means the first failing chunk is the error a sequential scan hits
+            List<TokenBuffer> results = new ArrayList<>(chunks.size());
+            for (Future<TokenBuffer> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof ScannerException) {
+                throw (ScannerException) e.getCause();
+            }
+            throw new IllegalStateException("Chunk scan failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Chunk scan interrupted", e);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private TokenBuffer scanChunk(String source, int[] chunk) throws ScannerException {
+        TokenBuffer out = new TokenBuffer(source, (chunk[1] - chunk[0]) / 8);
+        CScanner scanner = new CScanner(validator, new SymbolTable(), options);
+        scanner.scanRange(source, chunk[0], chunk[1], chunk[2], out);
+        if (chunk[1] == source.length()) {
+            out.add(TokenType.EOF, chunk[1], 0, scanner.getLine(), scanner.getColumn());
+        }
+        return out;
+    }
+
+    // Returns {from, to, line} triples. The pre-pass follows CScanner's rules for where
+    // comments, directives and literals end, including that an escaped newline inside a
+    // string does not advance the line count. Once it sees input the scanner would
+    // reject it stops splitting, leaving the error to the last chunk.
+    List<int[]> split(String source) {
+        List<int[]> chunks = new ArrayList<>();
+        int length = source.length();
+        int chunkStart = 0;
+        int chunkLine = 1;
+        int line = 1;
+        int i = 0;
+
+        while (i < length) {
+            char c = source.charAt(i);
+            switch (c) {
+                case '\n':
+                    line++;
+                    i++;
+                    if (i - chunkStart >= chunkSize && i < length) {
+                        chunks.add(new int[] {chunkStart, i, chunkLine});
+                        chunkStart = i;
+                        chunkLine = line;
+                    }
+                    continue;
+                case '#':
+                    int directiveEnd = CScanner.directiveEnd(source, i + 1, length);
+                    line += countNewlines(source, i, directiveEnd);
+                    i = directiveEnd;
+                    continue;
+                case '/':
+                    if (i + 1 < length && source.charAt(i + 1) == '/') {
+                        i = endOfLine(source, i);
+                        continue;
+                    }
+                    if (i + 1 < length && source.charAt(i + 1) == '*') {
+                        int close = source.indexOf("*/", i + 2);
+                        if (close < 0) {
+                            i = length;
+                            continue;
+                        }
+                        line += countNewlines(source, i + 2, close);
+                        i = close + 2;
+                        continue;
+                    }
+                    i++;
+                    continue;
+                case '"':
+                    i++;
+                    while (i < length && source.charAt(i) != '"') {
+                        if (source.charAt(i) == '\n') line++;
+                        if (source.charAt(i) == '\\') i++;
+                        i++;
+                    }
+                    i++;
+                    continue;
+                case '\'':
+                    i++;
+                    if (i < length && source.charAt(i) == '\\') i++;
+                    i++;
+                    if (i >= length || source.charAt(i) != '\'') {
+                        i = length;
+                        continue;
+                    }
+                    i++;
+                    continue;
+                default:
+                    i++;
+            }
+        }
+
+        chunks.add(new int[] {chunkStart, length, chunkLine});
+        return chunks;
+    }
+
+    private static int endOfLine(String source, int from) {
+        int newline = source.indexOf('\n', from);
+        return newline < 0 ? source.length() : newline;
+    }
+
+    private static int countNewlines(String source, int from, int to) {
+        int count = 0;
+        for (int i = from; i < to; i++) {
+            if (source.charAt(i) == '\n') count++;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,277 @@
+package analyzer.scanner;
+
+import analyzer.interfaces.ISymbolTable;
+import analyzer.interfaces.ITokenValidator;
+import analyzer.Token.LexemePool;
+import analyzer.Token.Token;
+import analyzer.Token.TokenBuffer;
+import analyzer.Token.TokenType;
+import analyzer.exceptions.ScannerException;
+import java.util.Arrays;
+
+// Keeps the token stream of an edited buffer up to date. An edit is re-lexed from
+// the nearest restart token before it until the new tokens line up with the old
+// ones again; the remaining old tokens are reused with shifted offsets and lines.
+//
+// Restart and resync points are tokens that report the exact scanner state at
+// their first char, so strings (which report their last line), line comments and
+// preprocessor lines (which report their end column) are never used. Since the
+// scanner's behaviour only depends on that state and the text that follows, a
+// block comment or string opened or closed by the edit is simply re-scanned until
+// the streams agree.
+//
+// The symbol table is updated by diff over occurrence counts per interned symbol
+// id: identifiers that disappear from the buffer are removed and identifiers in
+// the re-scanned region are re-registered, unless the symbol's last registration
+// lies in the shifted tail, which stays the table's entry as it would after a full
+// scan. Entries in the tail are re-registered from the shifted tokens when the edit
+// moves it. When the edit removes the registered occurrence of a symbol that still
+// occurs, the previous one is looked up in the unchanged prefix.
+public class IncrementalScanner {
+    private static final int NONE = -1;
+    private static final int LOST = -2;
+
+    private final ITokenValidator validator;
+    private final ISymbolTable symbolTable;
+    private final LexemePool lexemePool = new LexemePool();
+    private int[] identifierCounts = new int[64];   // occurrences by symbol id
+    private int[] lastStarts = newLastStarts(64);  // start of the registered occurrence, or NONE
+    private String source = "";
+    private TokenBuffer tokens;
+
+    public IncrementalScanner(ITokenValidator validator, ISymbolTable symbolTable) {
+        this.validator = validator;
+        this.symbolTable = symbolTable;
+    }
+
+    // Full scan; also used after an edit left the buffer with a scanner error
+    public TokenBuffer scan(String source) throws ScannerException {
+        this.source = source;
+        this.tokens = null;
+        Arrays.fill(identifierCounts, 0);
+        Arrays.fill(lastStarts, NONE);
+        symbolTable.clear();
+
+        CScanner scanner = new CScanner(validator, symbolTable);
+        scanner.begin(source, 0, 1, 1);
+        TokenBuffer scanned = new TokenBuffer(source);
+        while (scanner.scanNext(scanned)) {
+            // Identifiers are registered below, with this scanner's pool
+        }
+        scanned.add(TokenType.EOF, scanner.getPosition(), 0, scanner.getLine(), scanner.getColumn());
+
+        // Nothing to remove or shift; registers every identifier
+        updateSymbols(new TokenBuffer(source, 0), 0, 0, scanned, scanned, 0, 0);
+        tokens = scanned;
+        return scanned;
+    }
+
+    // Replaces removedLength chars at offset with insertedText and returns the new tokens
+    public TokenBuffer edit(int offset, int removedLength, String insertedText) throws ScannerException {
+        if (offset < 0 || removedLength < 0 || offset + removedLength > source.length()) {
+            throw new IndexOutOfBoundsException("Edit [" + offset + ", " + (offset + removedLength)
+                    + ") out of bounds for length " + source.length());
+        }
+        String edited = source.substring(0, offset) + insertedText + source.substring(offset + removedLength);
+        if (tokens == null) {
+            return scan(edited);
+        }
+
+        TokenBuffer previous = tokens;
+        source = edited;
+        tokens = null;
+        TokenBuffer updated = relex(previous, edited, offset, removedLength, insertedText.length());
+        tokens = updated;
+        return updated;
+    }
+
+    public TokenBuffer getTokens() {
+        return tokens;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    // Symbol ids are stable across edits; a name keeps its id after it disappears
+    public LexemePool getLexemePool() {
+        return lexemePool;
+    }
+
+    private TokenBuffer relex(TokenBuffer previous, String edited, int offset, int removedLength, int insertedLength)
+            throws ScannerException {
+        int delta = insertedLength - removedLength;
+        int editEnd = offset + insertedLength;
+        int eof = previous.size() - 1;
+
+        int restart = findRestart(previous, offset);
+        CScanner scanner = new CScanner(validator, symbolTable);
+        if (restart < 0) {
+            restart = 0;
+            scanner.begin(edited, 0, 1, 1);
+        } else {
+            scanner.begin(edited, previous.getStart(restart), previous.getLine(restart), previous.getColumn(restart));
+        }
+
+        TokenBuffer fresh = new TokenBuffer(edited, 64);
+        int old = restart;
+        int resync = -1;
+        int lineShift = 0;
+        while (scanner.scanNext(fresh)) {
+            int last = fresh.size() - 1;
+            int start = fresh.getStart(last);
+            if (start < editEnd) continue;
+
+            while (old < eof && previous.getStart(old) < start - delta) old++;
+            if (old < eof && previous.getStart(old) == start - delta
+                    && previous.getType(old) == fresh.getType(last)
+                    && previous.getColumn(old) == fresh.getColumn(last)
+                    && isRestartPoint(previous, old)) {
+                resync = old;
+                lineShift = fresh.getLine(last) - previous.getLine(old);
+                fresh.truncate(last);
+                break;
+            }
+        }
+        if (resync < 0) {
+            fresh.add(TokenType.EOF, scanner.getPosition(), 0, scanner.getLine(), scanner.getColumn());
+        }
+
+        int tail = resync < 0 ? previous.size() : resync;
+        TokenBuffer updated = new TokenBuffer(edited, restart + fresh.size() + (previous.size() - tail));
+        updated.appendShifted(previous, 0, restart, 0, 0);
+        updated.appendShifted(fresh, 0, fresh.size(), 0, 0);
+        updated.appendShifted(previous, tail, previous.size(), delta, lineShift);
+        updateSymbols(previous, restart, tail, fresh, updated, delta, lineShift);
+        return updated;
+    }
+
+    // Last restart token whose predecessors cannot see the edit. Lexing a token reads
+    // at most the two chars after it (a "." looks for the ".." of an ellipsis), and the
+    // restart token starts no earlier than its predecessor ends, so it must start two
+    // chars before the edit. Token ends are searched because they always increase.
+    // Returns -1 to restart from the beginning of the source.
+    private static int findRestart(TokenBuffer tokens, int offset) {
+        int low = 0;
+        int high = tokens.size() - 2;
+        int lastBefore = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (tokens.getStart(mid) + tokens.getLength(mid) <= offset) {
+                lastBefore = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+
+        // The token after lastBefore may start before the edit and span it
+        int candidate = Math.min(lastBefore + 1, tokens.size() - 2);
+        while (candidate >= 0
+                && (!isRestartPoint(tokens, candidate) || tokens.getStart(candidate) + 2 > offset)) {
+            candidate--;
+        }
+        return candidate;
+    }
+
+    private static boolean isRestartPoint(TokenBuffer tokens, int index) {
+        switch (tokens.getType(index)) {
+            case STRING_LITERAL:
+            case PREPROCESSOR:
+            case EOF:
+                return false;
+            case COMMENT:
+                return tokens.getSource().charAt(tokens.getStart(index) + 1) == '*';
+            default:
+                return true;
+        }
+    }
+
+    // Tokens [from, to) of previous were replaced by fresh; updated holds the prefix,
+    // the fresh tokens and the tail from to on, moved by delta chars and lineShift lines
+    private void updateSymbols(TokenBuffer previous, int from, int to, TokenBuffer fresh, TokenBuffer updated,
+            int delta, int lineShift) {
+        // A symbol whose registered occurrence is removed but which still occurs is
+        // marked LOST until a fresh token or the unchanged prefix provides its last one
+        int lost = 0;
+        for (int i = from; i < to; i++) {
+            if (previous.getType(i) != TokenType.IDENTIFIER) continue;
+            int start = previous.getStart(i);
+            int id = lexemePool.intern(previous.getSource(), start, start + previous.getLength(i));
+            if (--identifierCounts[id] == 0) {
+                if (lastStarts[id] == LOST) lost--;
+                lastStarts[id] = NONE;
+                symbolTable.removeSymbol(lexemePool.getName(id));
+            } else if (lastStarts[id] == start) {
+                lastStarts[id] = LOST;
+                lost++;
+            }
+        }
+
+        // Registrations in the tail come after every fresh token
+        int tailStart = Integer.MAX_VALUE;
+        if (to < previous.size()) {
+            tailStart = previous.getStart(to) + delta;
+            if (delta != 0 || lineShift != 0) {
+                shiftTailSymbols(updated, from + fresh.size(), previous.getStart(to), delta);
+            }
+        }
+
+        for (int i = 0; i < fresh.size(); i++) {
+            if (fresh.getType(i) != TokenType.IDENTIFIER) continue;
+            Token token = fresh.getSymbol(i, lexemePool);
+            int id = token.getSymbolId();
+            if (id >= identifierCounts.length) {
+                identifierCounts = Arrays.copyOf(identifierCounts, lexemePool.size() * 2);
+                int[] grown = newLastStarts(identifierCounts.length);
+                System.arraycopy(lastStarts, 0, grown, 0, lastStarts.length);
+                lastStarts = grown;
+            }
+            identifierCounts[id]++;
+            if (lastStarts[id] >= tailStart) continue;
+            if (lastStarts[id] == LOST) lost--;
+            lastStarts[id] = fresh.getStart(i);
+            symbolTable.addSymbol(id, token);
+        }
+
+        // The prefix is unchanged, so its tokens keep their positions
+        for (int i = from - 1; i >= 0 && lost > 0; i--) {
+            if (previous.getType(i) != TokenType.IDENTIFIER) continue;
+            Token token = previous.getSymbol(i, lexemePool);
+            int id = token.getSymbolId();
+            if (lastStarts[id] != LOST) continue;
+            lastStarts[id] = previous.getStart(i);
+            symbolTable.addSymbol(id, token);
+            lost--;
+        }
+    }
+
+    // Moves the entries registered at or after oldTailStart by delta and re-registers
+    // them from the tail of updated, which starts at token firstTail. Costs one pass
+    // over the symbol ids and a binary search per entry moved.
+    private void shiftTailSymbols(TokenBuffer updated, int firstTail, int oldTailStart, int delta) {
+        int last = updated.size() - 2;
+        for (int id = 0; id < lastStarts.length; id++) {
+            if (lastStarts[id] < oldTailStart) continue;
+            int start = lastStarts[id] + delta;
+            int low = firstTail;
+            int high = last;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (updated.getStart(mid) < start) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            lastStarts[id] = start;
+            symbolTable.addSymbol(id, updated.getSymbol(low, lexemePool));
+        }
+    }
+
+    private static int[] newLastStarts(int length) {
+        int[] starts = new int[length];
+        Arrays.fill(starts, NONE);
+        return starts;
+    }
+}
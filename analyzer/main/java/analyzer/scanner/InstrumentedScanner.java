@@ -0,0 +1,138 @@
+package analyzer.scanner;
+
+import analyzer.interfaces.IScanListener;
+import analyzer.interfaces.IScanner;
+import analyzer.interfaces.ISymbolTable;
+import analyzer.interfaces.ITokenValidator;
+import analyzer.Token.LexemePool;
+import analyzer.Token.Token;
+import analyzer.Token.TokenBuffer;
+import analyzer.Token.TokenType;
+import analyzer.exceptions.Diagnostics;
+import analyzer.exceptions.ScannerException;
+import java.util.ArrayList;
+import java.util.List;
+
+// CScanner with a listener: drives the scanner one token at a time and reports
+// each token with the time spent on it, then the outcome of the scan. CScanner
+// itself carries no instrumentation, so scans that do not go through this class pay
+// nothing for it. Produces the same tokens as the CScanner it wraps.
+public class InstrumentedScanner implements IScanner {
+    private final CScanner scanner;
+    private final ISymbolTable symbolTable;
+    private final IScanListener listener;
+    private boolean streaming = false;
+
+    public InstrumentedScanner(ITokenValidator validator, ISymbolTable symbolTable, IScanListener listener) {
+        this(validator, symbolTable, ScannerOptions.DEFAULT, listener);
+    }
+
+    public InstrumentedScanner(ITokenValidator validator, ISymbolTable symbolTable, ScannerOptions options,
+                               IScanListener listener) {
+        this.scanner = new CScanner(validator, symbolTable, options);
+        this.symbolTable = symbolTable;
+        this.listener = listener;
+    }
+
+    @Override
+    public List<Token> scanTokens(String source) throws ScannerException {
+        setSource(source);
+        List<Token> tokens = new ArrayList<>();
+        Token token;
+        do {
+            token = getNextToken();
+            tokens.add(token);
+        } while (token.getType() != TokenType.EOF);
+        return tokens;
+    }
+
+    @Override
+    public TokenBuffer scanTokenBuffer(String source) throws ScannerException {
+        scanner.setSource(source);
+        streaming = false;
+        listener.scanStarted(source.length());
+
+        TokenBuffer buffer = new TokenBuffer(source);
+        LexemePool pool = scanner.getLexemePool();
+        try {
+            while (true) {
+                long started = System.nanoTime();
+                if (!scanner.scanNext(buffer)) break;
+                long nanos = System.nanoTime() - started;
+
+                int index = buffer.size() - 1;
+                TokenType type = buffer.getType(index);
+                if (type == TokenType.IDENTIFIER) {
+                    Token token = buffer.getSymbol(index, pool);
+                    symbolTable.addSymbol(token.getSymbolId(), token);
+                }
+                listener.tokenScanned(type, buffer.getLength(index), nanos);
+            }
+        } catch (ScannerException e) {
+            listener.scanFailed(e);
+            throw e;
+        }
+
+        buffer.add(TokenType.EOF, scanner.getPosition(), 0, scanner.getLine(), scanner.getColumn());
+        listener.scanFinished(symbolTable.size());
+        return buffer;
+    }
+
+    @Override
+    public void setSource(String source) {
+        scanner.setSource(source);
+        streaming = true;
+        listener.scanStarted(source.length());
+    }
+
+    // The scan is reported finished when EOF is first returned
+    @Override
+    public Token getNextToken() throws ScannerException {
+        long started = System.nanoTime();
+        Token token;
+        try {
+            token = scanner.nextToken();
+        } catch (ScannerException e) {
+            if (streaming) {
+                streaming = false;
+                listener.scanFailed(e);
+            }
+            throw e;
+        }
+        long nanos = System.nanoTime() - started;
+
+        if (token == null) {
+            if (streaming) {
+                streaming = false;
+                listener.scanFinished(symbolTable.size());
+            }
+            return new Token(TokenType.EOF, "", scanner.getLine(), scanner.getColumn());
+        }
+        if (token.getType() == TokenType.IDENTIFIER) {
+            symbolTable.addSymbol(token.getSymbolId(), token);
+        }
+        listener.tokenScanned(token.getType(), token.getLexeme().length(), nanos);
+        return token;
+    }
+
+    @Override
+    public void reset() {
+        scanner.reset();
+        streaming = false;
+    }
+
+    @Override
+    public boolean hasMoreTokens() {
+        return scanner.hasMoreTokens();
+    }
+
+    @Override
+    public LexemePool getLexemePool() {
+        return scanner.getLexemePool();
+    }
+
+    @Override
+    public Diagnostics getDiagnostics() {
+        return scanner.getDiagnostics();
+    }
+}
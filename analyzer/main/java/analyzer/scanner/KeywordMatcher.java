@@ -0,0 +1,97 @@
+package analyzer.scanner;
+
+import analyzer.Token.TokenType;
+
+// Keyword recognition over a char range without allocating: dispatch on length and
+// first character, then compare the remaining characters in place. Letters are
+// folded with c | 0x20, which matches the case-insensitive lookup TokenValidator
+// has always done; digits and '_' never fold onto a keyword letter.
+final class KeywordMatcher {
+    private KeywordMatcher() {
+    }
+
+    static TokenType match(CharSequence text, int start, int end) {
+        switch (end - start) {
+            case 2:
+                switch (lower(text.charAt(start))) {
+                    case 'd': return is(text, start, "do", TokenType.DO);
+                    case 'i': return is(text, start, "if", TokenType.IF);
+                    default: return null;
+                }
+            case 3:
+                switch (lower(text.charAt(start))) {
+                    case 'f': return is(text, start, "for", TokenType.FOR);
+                    case 'i': return is(text, start, "int", TokenType.INT);
+                    default: return null;
+                }
+            case 4:
+                switch (lower(text.charAt(start))) {
+                    case 'a': return is(text, start, "auto", TokenType.AUTO);
+                    case 'c': return either(text, start, "case", TokenType.CASE, "char", TokenType.CHAR);
+                    case 'e': return either(text, start, "else", TokenType.ELSE, "enum", TokenType.ENUM);
+                    case 'g': return is(text, start, "goto", TokenType.GOTO);
+                    case 'l': return is(text, start, "long", TokenType.LONG);
+                    case 'v': return is(text, start, "void", TokenType.VOID);
+                    default: return null;
+                }
+            case 5:
+                switch (lower(text.charAt(start))) {
+                    case 'b': return is(text, start, "break", TokenType.BREAK);
+                    case 'c': return is(text, start, "const", TokenType.CONST);
+                    case 'f': return is(text, start, "float", TokenType.FLOAT);
+                    case 's': return is(text, start, "short", TokenType.SHORT);
+                    case 'u': return is(text, start, "union", TokenType.UNION);
+                    case 'w': return is(text, start, "while", TokenType.WHILE);
+                    default: return null;
+                }
+            case 6:
+                switch (lower(text.charAt(start))) {
+                    case 'd': return is(text, start, "double", TokenType.DOUBLE);
+                    case 'e': return is(text, start, "extern", TokenType.EXTERN);
+                    case 'r': return is(text, start, "return", TokenType.RETURN);
+                    case 's':
+                        switch (lower(text.charAt(start + 1))) {
+                            case 'i': return either(text, start, "signed", TokenType.SIGNED, "sizeof", TokenType.SIZEOF);
+                            case 't': return either(text, start, "static", TokenType.STATIC, "struct", TokenType.STRUCT);
+                            case 'w': return is(text, start, "switch", TokenType.SWITCH);
+                            default: return null;
+                        }
+                    default: return null;
+                }
+            case 7:
+                switch (lower(text.charAt(start))) {
+                    case 'd': return is(text, start, "default", TokenType.DEFAULT);
+                    case 't': return is(text, start, "typedef", TokenType.TYPEDEF);
+                    default: return null;
+                }
+            case 8:
+                switch (lower(text.charAt(start))) {
+                    case 'c': return is(text, start, "continue", TokenType.CONTINUE);
+                    case 'r': return is(text, start, "register", TokenType.REGISTER);
+                    case 'u': return is(text, start, "unsigned", TokenType.UNSIGNED);
+                    case 'v': return is(text, start, "volatile", TokenType.VOLATILE);
+                    default: return null;
+                }
+            default:
+                return null;
+        }
+    }
+
+    private static TokenType either(CharSequence text, int start, String first, TokenType firstType,
+                                    String second, TokenType secondType) {
+        TokenType type = is(text, start, first, firstType);
+        return type != null ? type : is(text, start, second, secondType);
+    }
+
+    // The caller has already checked the length and the first character
+    private static TokenType is(CharSequence text, int start, String keyword, TokenType type) {
+        for (int i = 1; i < keyword.length(); i++) {
+            if (lower(text.charAt(start + i)) != keyword.charAt(i)) return null;
+        }
+        return type;
+    }
+
+    private static char lower(char c) {
+        return (char) (c | 0x20);
+    }
+}
@@ -0,0 +1,162 @@
+package analyzer.scanner;
+
+import analyzer.interfaces.ISymbolTable;
+import analyzer.interfaces.ITokenValidator;
+import analyzer.Token.Token;
+import analyzer.Token.TokenType;
+import analyzer.exceptions.Diagnostics;
+import analyzer.exceptions.ScannerException;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Streams tokens out of a file through a sliding memory-mapped window, so the
+// file is never copied onto the heap and tokens are available as soon as they
+// are scanned. Line and column numbers carry over from one window to the next;
+// columns count bytes.
+//
+// snapshot() and restore() save and resume the position in the file, so a scan can
+// start anywhere it has been before. Given a CheckpointIndex, the scanner adds a
+// snapshot to it at the first token boundary past every interval of the file.
+public class MappedFileScanner implements AutoCloseable {
+    private static final int DEFAULT_WINDOW_SIZE = 64 * 1024 * 1024;
+
+    private final FileChannel channel;
+    private final long fileSize;
+    private final CScanner scanner;
+    private final ISymbolTable symbolTable;
+    private long windowBase = 0;
+    private int windowSize;
+    private ByteCharSequence window;
+    private boolean done = false;
+    private CheckpointIndex checkpoints = null;
+
+    public MappedFileScanner(Path path, ITokenValidator validator, ISymbolTable symbolTable) throws IOException {
+        this(path, validator, symbolTable, DEFAULT_WINDOW_SIZE, ScannerOptions.DEFAULT);
+    }
+
+    public MappedFileScanner(Path path, ITokenValidator validator, ISymbolTable symbolTable, int windowSize)
+            throws IOException {
+        this(path, validator, symbolTable, windowSize, ScannerOptions.DEFAULT);
+    }
+
+    public MappedFileScanner(Path path, ITokenValidator validator, ISymbolTable symbolTable,
+                             ScannerOptions options) throws IOException {
+        this(path, validator, symbolTable, DEFAULT_WINDOW_SIZE, options);
+    }
+
+    public MappedFileScanner(Path path, ITokenValidator validator, ISymbolTable symbolTable, int windowSize,
+                             ScannerOptions options) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        this.fileSize = channel.size();
+        this.scanner = new CScanner(validator, symbolTable, options);
+        this.symbolTable = symbolTable;
+        this.windowSize = windowSize;
+
+        symbolTable.clear();
+        map(0, 0, 1, 1);
+    }
+
+    // Returns the next token; EOF is returned once the whole file has been consumed
+    public Token nextToken() throws ScannerException, IOException {
+        while (true) {
+            int start = scanner.getPosition();
+            int line = scanner.getLine();
+            int column = scanner.getColumn();
+            int reported = scanner.getDiagnostics().getReportedCount();
+
+            Token token;
+            try {
+                token = scanner.nextToken();
+            } catch (ScannerException e) {
+                if (!touchedWindowEnd()) throw e;
+                scanner.getDiagnostics().truncate(reported);
+                slide(start, line, column);
+                continue;
+            }
+
+            // A lexeme that ran into the end of a non-final window may continue past it
+            if (touchedWindowEnd()) {
+                scanner.getDiagnostics().truncate(reported);
+                slide(start, line, column);
+                continue;
+            }
+
+            if (token == null) {
+                done = true;
+                return new Token(TokenType.EOF, "", scanner.getLine(), scanner.getColumn());
+            }
+            if (token.getType() == TokenType.IDENTIFIER) {
+                symbolTable.addSymbol(token.getSymbolId(), token);
+            }
+            if (checkpoints != null && checkpoints.isDue(windowBase + scanner.getPosition())) {
+                checkpoints.add(snapshot());
+            }
+            return token;
+        }
+    }
+
+    public boolean hasMoreTokens() {
+        return !done;
+    }
+
+    // Where the scan stands, as a byte offset into the file
+    public ScannerState snapshot() {
+        return new ScannerState(windowBase + scanner.getPosition(), scanner.getLine(), scanner.getColumn());
+    }
+
+    // Continues from a snapshot of a scan of the same file, such as a checkpoint.
+    // The symbol table and diagnostics are kept.
+    public void restore(ScannerState state) throws IOException {
+        if (state.getOffset() > fileSize) {
+            throw new IOException("Scanner state " + state + " is past the end of the file");
+        }
+        done = false;
+        map(state.getOffset(), 0, state.getLine(), state.getColumn());
+    }
+
+    // Records checkpoints into the index from now on, or stops recording with null
+    public void recordCheckpoints(CheckpointIndex checkpoints) {
+        this.checkpoints = checkpoints;
+    }
+
+    // Errors recovered so far, with ScannerOptions that recover them
+    public Diagnostics getDiagnostics() {
+        return scanner.getDiagnostics();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    // The scanner looks at most one char past where it stops (e.g. "=" after "<", or
+    // the third "." after "..")
+    private boolean touchedWindowEnd() {
+        return scanner.getPosition() + 1 >= window.length() && windowBase + window.length() < fileSize;
+    }
+
+    // Re-maps so that the lexeme starting at the given window position fits. The new
+    // window starts where the scanner's column count says the line begins.
+    private void slide(int start, int line, int column) throws IOException {
+        long lineStart = Math.max(0, windowBase + start - (column - 1));
+        if (lineStart == windowBase) {
+            if (windowSize > Integer.MAX_VALUE / 2) {
+                throw new IOException("Lexeme at offset " + (windowBase + start) + " does not fit in a mapped window");
+            }
+            windowSize *= 2;
+        }
+        map(lineStart, (int) (windowBase + start - lineStart), line, column);
+    }
+
+    private void map(long base, int current, int line, int column) throws IOException {
+        int size = (int) Math.min(windowSize, fileSize - base);
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, base, size);
+        windowBase = base;
+        window = new ByteCharSequence(buffer);
+        scanner.begin(window, current, line, column);
+        scanner.expectMoreInput(base + size < fileSize);
+    }
+}
@@ -0,0 +1,52 @@
+package analyzer.scanner;
+
+// Flags that change which tokens CScanner produces. Skipped comments and
+// preprocessor lines are jumped over in bulk and never become tokens; line and
+// column numbers of the remaining tokens are the same as in a full scan.
+//
+// In recovery mode lexical errors do not throw. The bad text becomes an UNKNOWN
+// token, the problem is recorded in the scanner's Diagnostics (at most
+// maxDiagnostics are kept) and scanning resumes at the next safe point:
+//   unexpected characters   the run of chars that cannot start a token
+//   unterminated string     the rest of the line the string starts on
+//   unterminated char       just the opening quote
+//   unterminated comment    the rest of the input
+// Diagnostics carry the position where the bad text starts.
+public final class ScannerOptions {
+    public static final int DEFAULT_MAX_DIAGNOSTICS = 100;
+
+    public static final ScannerOptions DEFAULT = new ScannerOptions(false, false);
+    public static final ScannerOptions SKIP_TRIVIA = new ScannerOptions(true, true);
+    public static final ScannerOptions RECOVER = new ScannerOptions(false, false, true, DEFAULT_MAX_DIAGNOSTICS);
+
+    private final boolean skipComments;
+    private final boolean skipPreprocessor;
+    private final boolean recoverErrors;
+    private final int maxDiagnostics;
+
+    public ScannerOptions(boolean skipComments, boolean skipPreprocessor) {
+        this(skipComments, skipPreprocessor, false, 0);
+    }
+
+    public ScannerOptions(boolean skipComments, boolean skipPreprocessor, boolean recoverErrors, int maxDiagnostics) {
+        if (maxDiagnostics < 0) {
+            throw new IllegalArgumentException("Diagnostic limit must not be negative: " + maxDiagnostics);
+        }
+        this.skipComments = skipComments;
+        this.skipPreprocessor = skipPreprocessor;
+        this.recoverErrors = recoverErrors;
+        this.maxDiagnostics = maxDiagnostics;
+    }
+
+    // Getters
+    public boolean skipsComments() { return skipComments; }
+    public boolean skipsPreprocessor() { return skipPreprocessor; }
+    public boolean recoversErrors() { return recoverErrors; }
+    public int getMaxDiagnostics() { return maxDiagnostics; }
+
+    @Override
+    public String toString() {
+        return String.format("ScannerOptions{skipComments=%s, skipPreprocessor=%s, recoverErrors=%s, maxDiagnostics=%d}",
+                skipComments, skipPreprocessor, recoverErrors, maxDiagnostics);
+    }
+}
@@ -0,0 +1,46 @@
+package analyzer.scanner;
+
+// Where a scanner stands between two tokens: the offset of the next char and the
+// line and column it is at. CScanner always consumes a lexeme whole, so a comment
+// or string never spans a snapshot and nothing else needs saving; restoring a
+// state and scanning on yields the same tokens as scanning from the start would.
+// Offsets count chars of a String source and bytes of a file.
+public final class ScannerState {
+    private final long offset;
+    private final int line;
+    private final int column;
+
+    public ScannerState(long offset, int line, int column) {
+        if (offset < 0 || line < 1 || column < 1) {
+            throw new IllegalArgumentException("Invalid scanner state: " + offset + " " + line + ":" + column);
+        }
+        this.offset = offset;
+        this.line = line;
+        this.column = column;
+    }
+
+    // Getters
+    public long getOffset() { return offset; }
+    public int getLine() { return line; }
+    public int getColumn() { return column; }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) return true;
+        if (!(other instanceof ScannerState)) return false;
+        ScannerState state = (ScannerState) other;
+        return offset == state.offset &&
+                line == state.line &&
+                column == state.column;
+    }
+
+    @Override
+    public int hashCode() {
+        return java.util.Objects.hash(offset, line, column);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ScannerState{offset=%d, line=%d, col=%d}", offset, line, column);
+    }
+}
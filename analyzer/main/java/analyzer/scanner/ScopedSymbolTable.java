@@ -0,0 +1,332 @@
+package analyzer.scanner;
+
+import analyzer.interfaces.ISymbolTable;
+import analyzer.Token.LexemePool;
+import analyzer.Token.Token;
+import analyzer.Token.TokenBuffer;
+import analyzer.Token.TokenType;
+import java.util.Arrays;
+
+// Symbol table for cross-referencing: keeps every occurrence of every identifier
+// and the brace-nesting scope it appeared in, rather than just the last Token.
+//
+// Storage is primitive throughout. Occurrences are rows of parallel int arrays
+// (token index, line, column, scope) chained per symbol in scan order; symbols are
+// the dense ids of a LexemePool; scopes are rows holding their parent, depth and
+// opening line, so entering or leaving a block is O(1). An occurrence limit bounds
+// memory: past it, further occurrences are counted as dropped, while the last
+// position of each symbol is still kept up to date.
+//
+// Scanners only report identifiers, so symbols registered through ISymbolTable land
+// in the current scope without a token index. Their symbol ids are used as they are
+// only when the table was given the scanner's pool; a table with a pool of its own
+// interns their lexemes instead. index() reads a scanned TokenBuffer
+// instead and tracks scopes from its LEFT_BRACE / RIGHT_BRACE tokens. The scanner
+// cannot tell a declaration from a use; the first occurrence of a symbol stands in
+// for its declaration.
+public class ScopedSymbolTable implements ISymbolTable {
+    public static final int FILE_SCOPE = 0;
+    public static final int NONE = -1;
+
+    private static final int MIN_CAPACITY = 64;
+
+    private final LexemePool pool;
+    private final boolean sharedPool;
+    private final int maxOccurrences;
+
+    // Per symbol id
+    private int[] firsts = filled(MIN_CAPACITY);
+    private int[] lasts = new int[MIN_CAPACITY];
+    private int[] counts = new int[MIN_CAPACITY];
+    private int[] lastLines = new int[MIN_CAPACITY];
+    private int[] lastColumns = new int[MIN_CAPACITY];
+    private boolean[] recorded = new boolean[MIN_CAPACITY];
+    private int symbolCount = 0;
+
+    // Ids recorded since clear(), in first-seen order. A shared pool keeps growing, so
+    // clearing and walking the table go by these rather than by every id in the pool.
+    private int[] recordedIds = new int[MIN_CAPACITY];
+    private int recordedCount = 0;
+
+    // Per occurrence
+    private int[] tokenIndexes = new int[MIN_CAPACITY];
+    private int[] lines = new int[MIN_CAPACITY];
+    private int[] columns = new int[MIN_CAPACITY];
+    private int[] scopes = new int[MIN_CAPACITY];
+    private int[] nexts = new int[MIN_CAPACITY];
+    private int occurrenceCount = 0;
+    private long droppedOccurrences = 0;
+
+    // Per scope
+    private int[] scopeParents = new int[MIN_CAPACITY];
+    private int[] scopeDepths = new int[MIN_CAPACITY];
+    private int[] scopeLines = new int[MIN_CAPACITY];
+    private int scopeCount;
+    private int currentScope;
+
+    public ScopedSymbolTable() {
+        this(new LexemePool(), false, Integer.MAX_VALUE);
+    }
+
+    // Share the scanner's pool so that symbol ids on tokens index this table directly
+    public ScopedSymbolTable(LexemePool pool) {
+        this(pool, Integer.MAX_VALUE);
+    }
+
+    public ScopedSymbolTable(LexemePool pool, int maxOccurrences) {
+        this(pool, true, maxOccurrences);
+    }
+
+    private ScopedSymbolTable(LexemePool pool, boolean sharedPool, int maxOccurrences) {
+        if (maxOccurrences < 0) {
+            throw new IllegalArgumentException("Occurrence limit must not be negative: " + maxOccurrences);
+        }
+        this.pool = pool;
+        this.sharedPool = sharedPool;
+        this.maxOccurrences = maxOccurrences;
+        resetScopes();
+    }
+
+    // Records the identifiers of a scanned buffer with their token indexes, entering
+    // a scope at every '{' and leaving it at the matching '}'
+    public void index(TokenBuffer tokens) {
+        CharSequence source = tokens.getSource();
+        for (int i = 0; i < tokens.size(); i++) {
+            switch (tokens.getType(i)) {
+                case IDENTIFIER:
+                    int start = tokens.getStart(i);
+                    int id = pool.intern(source, start, start + tokens.getLength(i));
+                    record(id, i, tokens.getLine(i), tokens.getColumn(i));
+                    break;
+                case LEFT_BRACE:
+                    enterScope(tokens.getLine(i));
+                    break;
+                case RIGHT_BRACE:
+                    exitScope();
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
+    @Override
+    public void addSymbol(String name, Token token) {
+        int id = sharedPool && token.getSymbolId() != Token.NO_SYMBOL ? token.getSymbolId() : pool.intern(name);
+        record(id, NONE, token.getLine(), token.getColumn());
+    }
+
+    @Override
+    public void addSymbol(int symbolId, Token token) {
+        int id = sharedPool ? symbolId : pool.intern(token.getLexeme());
+        record(id, NONE, token.getLine(), token.getColumn());
+    }
+
+    // The last occurrence, materialized
+    @Override
+    public Token getSymbol(String name) {
+        return getSymbol(pool.find(name));
+    }
+
+    @Override
+    public Token getSymbol(int symbolId) {
+        if (!isPresent(symbolId)) return null;
+        return new Token(TokenType.IDENTIFIER, pool.getName(symbolId),
+                lastLines[symbolId], lastColumns[symbolId], null, symbolId);
+    }
+
+    @Override
+    public boolean containsSymbol(String name) {
+        return isPresent(pool.find(name));
+    }
+
+    // Unlinks the symbol; its occurrence rows are only reclaimed by clear()
+    @Override
+    public void removeSymbol(String name) {
+        int id = pool.find(name);
+        if (!isPresent(id)) return;
+        firsts[id] = NONE;
+        counts[id] = 0;
+        symbolCount--;
+    }
+
+    @Override
+    public void clear() {
+        for (int i = 0; i < recordedCount; i++) {
+            int id = recordedIds[i];
+            firsts[id] = NONE;
+            counts[id] = 0;
+            recorded[id] = false;
+        }
+        recordedCount = 0;
+        symbolCount = 0;
+        occurrenceCount = 0;
+        droppedOccurrences = 0;
+        resetScopes();
+    }
+
+    @Override
+    public int size() {
+        return symbolCount;
+    }
+
+    public LexemePool getLexemePool() {
+        return pool;
+    }
+
+    // Scopes
+    public int enterScope(int line) {
+        if (scopeCount == scopeParents.length) {
+            int capacity = grow(scopeCount);
+            scopeParents = Arrays.copyOf(scopeParents, capacity);
+            scopeDepths = Arrays.copyOf(scopeDepths, capacity);
+            scopeLines = Arrays.copyOf(scopeLines, capacity);
+        }
+        int scope = scopeCount++;
+        scopeParents[scope] = currentScope;
+        scopeDepths[scope] = scopeDepths[currentScope] + 1;
+        scopeLines[scope] = line;
+        currentScope = scope;
+        return scope;
+    }
+
+    // An unmatched '}' at file scope is ignored
+    public void exitScope() {
+        if (currentScope != FILE_SCOPE) {
+            currentScope = scopeParents[currentScope];
+        }
+    }
+
+    public int getCurrentScope() { return currentScope; }
+    public int getScopeCount() { return scopeCount; }
+    public int getParentScope(int scope) { return scopeParents[checkScope(scope)]; }
+    public int getScopeDepth(int scope) { return scopeDepths[checkScope(scope)]; }
+    public int getScopeLine(int scope) { return scopeLines[checkScope(scope)]; }
+
+    // Occurrences, walked with getFirstOccurrence / getNextOccurrence until NONE
+    public int getOccurrenceCount(int symbolId) {
+        return isPresent(symbolId) ? counts[symbolId] : 0;
+    }
+
+    public int getFirstOccurrence(int symbolId) {
+        return isPresent(symbolId) ? firsts[symbolId] : NONE;
+    }
+
+    public int getNextOccurrence(int occurrence) { return nexts[checkOccurrence(occurrence)]; }
+    public int getTokenIndex(int occurrence) { return tokenIndexes[checkOccurrence(occurrence)]; }
+    public int getLine(int occurrence) { return lines[checkOccurrence(occurrence)]; }
+    public int getColumn(int occurrence) { return columns[checkOccurrence(occurrence)]; }
+    public int getScope(int occurrence) { return scopes[checkOccurrence(occurrence)]; }
+
+    // Scope of the first occurrence, or NONE
+    public int getDeclarationScope(int symbolId) {
+        int first = getFirstOccurrence(symbolId);
+        return first == NONE ? NONE : scopes[first];
+    }
+
+    // Ids recorded since clear(), by index in first-seen order; a removed symbol stays
+    // listed with no occurrences
+    public int getRecordedCount() { return recordedCount; }
+
+    public int getRecordedId(int index) {
+        if (index < 0 || index >= recordedCount) {
+            throw new IndexOutOfBoundsException("Recorded id " + index + " out of bounds for count " + recordedCount);
+        }
+        return recordedIds[index];
+    }
+
+    public int getTotalOccurrences() { return occurrenceCount; }
+    public long getDroppedOccurrences() { return droppedOccurrences; }
+
+    private void record(int id, int tokenIndex, int line, int column) {
+        if (id >= firsts.length) growSymbols(id + 1);
+        if (!recorded[id]) {
+            recorded[id] = true;
+            if (recordedCount == recordedIds.length) recordedIds = Arrays.copyOf(recordedIds, grow(recordedCount));
+            recordedIds[recordedCount++] = id;
+        }
+        if (firsts[id] == NONE && counts[id] == 0) symbolCount++;
+        lastLines[id] = line;
+        lastColumns[id] = column;
+
+        if (occurrenceCount == maxOccurrences) {
+            droppedOccurrences++;
+            counts[id]++;
+            return;
+        }
+        if (occurrenceCount == tokenIndexes.length) growOccurrences();
+
+        int occurrence = occurrenceCount++;
+        tokenIndexes[occurrence] = tokenIndex;
+        lines[occurrence] = line;
+        columns[occurrence] = column;
+        scopes[occurrence] = currentScope;
+        nexts[occurrence] = NONE;
+
+        if (firsts[id] == NONE) {
+            firsts[id] = occurrence;
+        } else {
+            nexts[lasts[id]] = occurrence;
+        }
+        lasts[id] = occurrence;
+        counts[id]++;
+    }
+
+    private boolean isPresent(int symbolId) {
+        return symbolId >= 0 && symbolId < counts.length && counts[symbolId] > 0;
+    }
+
+    private void resetScopes() {
+        scopeCount = 1;
+        currentScope = FILE_SCOPE;
+        scopeParents[FILE_SCOPE] = NONE;
+        scopeDepths[FILE_SCOPE] = 0;
+        scopeLines[FILE_SCOPE] = 1;
+    }
+
+    private int checkScope(int scope) {
+        if (scope < 0 || scope >= scopeCount) {
+            throw new IndexOutOfBoundsException("Scope " + scope + " out of bounds for count " + scopeCount);
+        }
+        return scope;
+    }
+
+    private int checkOccurrence(int occurrence) {
+        if (occurrence < 0 || occurrence >= occurrenceCount) {
+            throw new IndexOutOfBoundsException("Occurrence " + occurrence + " out of bounds for count " + occurrenceCount);
+        }
+        return occurrence;
+    }
+
+    private void growSymbols(int required) {
+        int capacity = Math.max(required, grow(firsts.length));
+        int previous = firsts.length;
+        firsts = Arrays.copyOf(firsts, capacity);
+        Arrays.fill(firsts, previous, capacity, NONE);
+        lasts = Arrays.copyOf(lasts, capacity);
+        counts = Arrays.copyOf(counts, capacity);
+        lastLines = Arrays.copyOf(lastLines, capacity);
+        lastColumns = Arrays.copyOf(lastColumns, capacity);
+        recorded = Arrays.copyOf(recorded, capacity);
+    }
+
+    private void growOccurrences() {
+        int capacity = (int) Math.min(maxOccurrences, (long) grow(tokenIndexes.length));
+        tokenIndexes = Arrays.copyOf(tokenIndexes, capacity);
+        lines = Arrays.copyOf(lines, capacity);
+        columns = Arrays.copyOf(columns, capacity);
+        scopes = Arrays.copyOf(scopes, capacity);
+        nexts = Arrays.copyOf(nexts, capacity);
+    }
+
+    // 1.5x growth, capped below the VM's array size limit
+    private static int grow(int capacity) {
+        return (int) Math.min(Integer.MAX_VALUE - 8, capacity + (capacity >> 1) + 1L);
+    }
+
+    private static int[] filled(int capacity) {
+        int[] values = new int[capacity];
+        Arrays.fill(values, NONE);
+        return values;
+    }
+}
@@ -0,0 +1,113 @@
+package analyzer.scanner;
+
+import java.nio.ByteBuffer;
+
+// SIMD-within-a-register searches over big-endian byte buffers: eight bytes are
+// loaded as one long and compared against a byte broadcast to every lane, so the
+// loops below classify a word per iteration instead of a byte. The match mask is
+// exact (no false positives across lanes), which lets it be counted with bitCount.
+// Ranges are absolute buffer indexes [from, to); leftovers shorter than a word
+// take the scalar path. Buffers must be in big-endian order (ByteBuffer's default).
+public final class Swar {
+    private static final long ONES = 0x0101010101010101L;
+    private static final long LOW_BITS = 0x7F7F7F7F7F7F7F7FL;
+
+    private Swar() {
+    }
+
+    // First index of b, or to
+    public static int indexOf(ByteBuffer bytes, int from, int to, byte b) {
+        long pattern = broadcast(b);
+        int i = from;
+        for (; i + Long.BYTES <= to; i += Long.BYTES) {
+            long found = matches(bytes.getLong(i), pattern);
+            if (found != 0) return i + firstLane(found);
+        }
+        for (; i < to; i++) {
+            if (bytes.get(i) == b) return i;
+        }
+        return to;
+    }
+
+    // First index of any of the three bytes, or to
+    public static int indexOfAny(ByteBuffer bytes, int from, int to, byte a, byte b, byte c) {
+        long patternA = broadcast(a);
+        long patternB = broadcast(b);
+        long patternC = broadcast(c);
+        int i = from;
+        for (; i + Long.BYTES <= to; i += Long.BYTES) {
+            long word = bytes.getLong(i);
+            long found = matches(word, patternA) | matches(word, patternB) | matches(word, patternC);
+            if (found != 0) return i + firstLane(found);
+        }
+        for (; i < to; i++) {
+            byte value = bytes.get(i);
+            if (value == a || value == b || value == c) return i;
+        }
+        return to;
+    }
+
+    // First index of a byte that is none of the three, or to
+    public static int skipAny(ByteBuffer bytes, int from, int to, byte a, byte b, byte c) {
+        long patternA = broadcast(a);
+        long patternB = broadcast(b);
+        long patternC = broadcast(c);
+        int i = from;
+        for (; i + Long.BYTES <= to; i += Long.BYTES) {
+            long word = bytes.getLong(i);
+            long other = ~(matches(word, patternA) | matches(word, patternB) | matches(word, patternC))
+                    & ~LOW_BITS;
+            if (other != 0) return i + firstLane(other);
+        }
+        for (; i < to; i++) {
+            byte value = bytes.get(i);
+            if (value != a && value != b && value != c) return i;
+        }
+        return to;
+    }
+
+    // Number of occurrences of b
+    public static int count(ByteBuffer bytes, int from, int to, byte b) {
+        long pattern = broadcast(b);
+        int count = 0;
+        int i = from;
+        for (; i + Long.BYTES <= to; i += Long.BYTES) {
+            count += Long.bitCount(matches(bytes.getLong(i), pattern));
+        }
+        for (; i < to; i++) {
+            if (bytes.get(i) == b) count++;
+        }
+        return count;
+    }
+
+    // Number of UTF-8 continuation bytes (10xxxxxx), which the code point count of a
+    // range leaves out: shifting the word left by one lines bit 6 of every byte up
+    // under its bit 7
+    public static int countContinuationBytes(ByteBuffer bytes, int from, int to) {
+        int count = 0;
+        int i = from;
+        for (; i + Long.BYTES <= to; i += Long.BYTES) {
+            long word = bytes.getLong(i);
+            count += Long.bitCount(word & ~(word << 1) & ~LOW_BITS);
+        }
+        for (; i < to; i++) {
+            if ((bytes.get(i) & 0xC0) == 0x80) count++;
+        }
+        return count;
+    }
+
+    // High bit set in exactly the bytes of word that equal the pattern's byte
+    private static long matches(long word, long pattern) {
+        long x = word ^ pattern;
+        return ~(((x & LOW_BITS) + LOW_BITS) | x | LOW_BITS);
+    }
+
+    private static long broadcast(byte b) {
+        return (b & 0xFFL) * ONES;
+    }
+
+    // Big-endian: the byte at the lowest index sits in the most significant lane
+    private static int firstLane(long mask) {
+        return Long.numberOfLeadingZeros(mask) >>> 3;
+    }
+}
@@ -2,12 +2,18 @@ package analyzer.scanner;
 
 import analyzer.interfaces.ISymbolTable;
 import analyzer.Token.Token;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 
 public class SymbolTable implements ISymbolTable {
     private final Map<String, Token> symbols;
 
+    // Interned symbols by id; the lexemes of these tokens are the pool's canonical
+    // strings, whose hash codes are computed once per name rather than per occurrence
+    private Token[] byId = new Token[64];
+    private int idLimit = 0;
+
     public SymbolTable() {
         this.symbols = new HashMap<>();
     }
@@ -15,6 +21,15 @@ public class SymbolTable implements ISymbolTable {
     @Override
     public void addSymbol(String name, Token token) {
         symbols.put(name, token);
+        if (token.getSymbolId() != Token.NO_SYMBOL) {
+            setById(token.getSymbolId(), token);
+        }
+    }
+
+    @Override
+    public void addSymbol(int symbolId, Token token) {
+        symbols.put(token.getLexeme(), token);
+        setById(symbolId, token);
     }
 
     @Override
@@ -22,17 +37,41 @@ public class SymbolTable implements ISymbolTable {
         return symbols.get(name);
     }
 
+    @Override
+    public Token getSymbol(int symbolId) {
+        return symbolId >= 0 && symbolId < idLimit ? byId[symbolId] : null;
+    }
+
     @Override
     public boolean containsSymbol(String name) {
         return symbols.containsKey(name);
     }
 
+    @Override
+    public void removeSymbol(String name) {
+        Token token = symbols.remove(name);
+        if (token != null && token.getSymbolId() >= 0 && token.getSymbolId() < idLimit) {
+            byId[token.getSymbolId()] = null;
+        }
+    }
+
     @Override
     public void clear() {
         symbols.clear();
+        Arrays.fill(byId, 0, idLimit, null);
+        idLimit = 0;
     }
 
+    @Override
     public int size() {
         return symbols.size();
     }
-}
\ No newline at end of file
+
+    private void setById(int symbolId, Token token) {
+        if (symbolId >= byId.length) {
+            byId = Arrays.copyOf(byId, Math.max(symbolId + 1, byId.length * 2));
+        }
+        byId[symbolId] = token;
+        idLimit = Math.max(idLimit, symbolId + 1);
+    }
+}
@@ -0,0 +1,605 @@
+package analyzer.scanner;
+
+import analyzer.interfaces.IScanner;
+import analyzer.interfaces.ISymbolTable;
+import analyzer.interfaces.ITokenValidator;
+import analyzer.Token.LexemePool;
+import analyzer.Token.NumericLiteral;
+import analyzer.Token.Token;
+import analyzer.Token.TokenBuffer;
+import analyzer.Token.TokenType;
+import analyzer.exceptions.Diagnostics;
+import analyzer.exceptions.ScannerException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// DFA-based alternative to CScanner. Each input char is mapped to a character class
+// with one table lookup and the next state comes from a flat transition table, with
+// maximal munch and backtracking to the last accepting state. Numbers are taken as
+// whole preprocessing numbers and then parsed by NumericLiteral. Line numbers are only counted on newlines; columns are
+// derived from the offset of the current line start.
+//
+// The output is token-for-token identical to CScanner, including its positions:
+// string literals and directives report the line they end on, line comments and
+// directives report the column after their last char, and a newline inside a block
+// comment, string or directive leaves the following chars one column further right
+// than after a plain newline.
+public class TableDrivenScanner implements IScanner {
+    // Character classes
+    private static final int C_OTHER = 0;
+    private static final int C_SPACE = 1;
+    private static final int C_NEWLINE = 2;
+    private static final int C_ALPHA = 3;
+    private static final int C_DIGIT = 4;
+    private static final int C_HASH = 5;
+    private static final int C_SLASH = 6;
+    private static final int C_STAR = 7;
+    private static final int C_DQUOTE = 8;
+    private static final int C_SQUOTE = 9;
+    private static final int C_BACKSLASH = 10;
+    private static final int C_PLUS = 11;
+    private static final int C_MINUS = 12;
+    private static final int C_PERCENT = 13;
+    private static final int C_EQUALS = 14;
+    private static final int C_BANG = 15;
+    private static final int C_LESS = 16;
+    private static final int C_GREATER = 17;
+    private static final int C_AMP = 18;
+    private static final int C_PIPE = 19;
+    private static final int C_DOT = 20;
+    private static final int C_SEMICOLON = 21;
+    private static final int C_COMMA = 22;
+    private static final int C_LPAREN = 23;
+    private static final int C_RPAREN = 24;
+    private static final int C_LBRACE = 25;
+    private static final int C_RBRACE = 26;
+    private static final int C_LBRACKET = 27;
+    private static final int C_RBRACKET = 28;
+    private static final int C_CARET = 29;
+    private static final int C_TILDE = 30;
+    private static final int C_QUESTION = 31;
+    private static final int C_EXPONENT = 32; // e, E, p and P: letters that a sign may follow in a number
+    private static final int C_COLON = 33;
+    private static final int CLASS_COUNT = 34;
+
+    // States; DEAD means no transition
+    private static final int S_DEAD = 0;
+    private static final int S_START = 1;
+    private static final int S_IDENT = 2;
+    private static final int S_NUMBER = 3;
+    private static final int S_NUMBER_EXPONENT = 4;
+    private static final int S_PREPROCESSOR = 5;
+    private static final int S_SLASH = 6;
+    private static final int S_SLASH_EQ = 7;
+    private static final int S_LINE_COMMENT = 8;
+    private static final int S_BLOCK = 9;
+    private static final int S_BLOCK_STAR = 10;
+    private static final int S_BLOCK_END = 11;
+    private static final int S_STRING = 12;
+    private static final int S_STRING_ESCAPE = 13;
+    private static final int S_STRING_END = 14;
+    private static final int S_CHAR_OPEN = 15;
+    private static final int S_CHAR_ESCAPE = 16;
+    private static final int S_CHAR_BODY = 17;
+    private static final int S_CHAR_END = 18;
+    private static final int S_PLUS = 19;
+    private static final int S_INCREMENT = 20;
+    private static final int S_PLUS_EQ = 21;
+    private static final int S_MINUS = 22;
+    private static final int S_DECREMENT = 23;
+    private static final int S_MINUS_EQ = 24;
+    private static final int S_ARROW = 25;
+    private static final int S_STAR = 26;
+    private static final int S_STAR_EQ = 27;
+    private static final int S_PERCENT = 28;
+    private static final int S_PERCENT_EQ = 29;
+    private static final int S_ASSIGN = 30;
+    private static final int S_EQUAL = 31;
+    private static final int S_BANG = 32;
+    private static final int S_NOT_EQUAL = 33;
+    private static final int S_LESS = 34;
+    private static final int S_LESS_EQ = 35;
+    private static final int S_SHIFT_LEFT = 36;
+    private static final int S_GREATER = 37;
+    private static final int S_GREATER_EQ = 38;
+    private static final int S_SHIFT_RIGHT = 39;
+    private static final int S_AMP = 40;
+    private static final int S_AND = 41;
+    private static final int S_PIPE = 42;
+    private static final int S_OR = 43;
+    private static final int S_SHIFT_LEFT_EQ = 44;
+    private static final int S_SHIFT_RIGHT_EQ = 45;
+    private static final int S_AMP_EQ = 46;
+    private static final int S_PIPE_EQ = 47;
+    private static final int S_CARET_EQ = 48;
+    private static final int S_DOT_DOT = 49; // not accepting: ".." backtracks to one "."
+    private static final int S_ELLIPSIS = 50;
+    private static final int S_PP_BACKSLASH = 51; // a directive line that may be continued
+    private static final int S_PP_SLASH = 52;
+    private static final int S_PP_LINE_COMMENT = 53;
+    private static final int S_PP_LINE_BACKSLASH = 54;
+    private static final int S_PP_BLOCK = 55;
+    private static final int S_PP_BLOCK_STAR = 56;
+    private static final int S_PP_STRING = 57;
+    private static final int S_PP_STRING_ESCAPE = 58;
+    private static final int S_PP_CHAR = 59;
+    private static final int S_PP_CHAR_ESCAPE = 60;
+    private static final int S_SINGLE = 61; // single-char tokens, one state per class below
+    private static final int STATE_COUNT = S_SINGLE + CLASS_COUNT;
+
+    // Errors raised when the automaton stops in a state that cannot backtrack
+    private static final int E_NONE = 0;
+    private static final int E_STRING = 1;
+    private static final int E_BLOCK_COMMENT = 2;
+    private static final int E_CHAR = 3;
+
+    private static final byte[] CHAR_CLASS = new byte[128];
+    private static final byte[] TRANSITIONS = new byte[STATE_COUNT * CLASS_COUNT];
+    private static final TokenType[] ACCEPTS = new TokenType[STATE_COUNT];
+    private static final byte[] ERRORS = new byte[STATE_COUNT];
+    private static final boolean[] COUNTS_NEWLINES = new boolean[STATE_COUNT];
+
+    static {
+        for (char c = 'a'; c <= 'z'; c++) CHAR_CLASS[c] = C_ALPHA;
+        for (char c = 'A'; c <= 'Z'; c++) CHAR_CLASS[c] = C_ALPHA;
+        for (char c = '0'; c <= '9'; c++) CHAR_CLASS[c] = C_DIGIT;
+        CHAR_CLASS['_'] = C_ALPHA;
+        CHAR_CLASS[' '] = C_SPACE;
+        CHAR_CLASS['\t'] = C_SPACE;
+        CHAR_CLASS['\r'] = C_SPACE;
+        CHAR_CLASS['\n'] = C_NEWLINE;
+        CHAR_CLASS['#'] = C_HASH;
+        CHAR_CLASS['/'] = C_SLASH;
+        CHAR_CLASS['*'] = C_STAR;
+        CHAR_CLASS['"'] = C_DQUOTE;
+        CHAR_CLASS['\''] = C_SQUOTE;
+        CHAR_CLASS['\\'] = C_BACKSLASH;
+        CHAR_CLASS['+'] = C_PLUS;
+        CHAR_CLASS['-'] = C_MINUS;
+        CHAR_CLASS['%'] = C_PERCENT;
+        CHAR_CLASS['='] = C_EQUALS;
+        CHAR_CLASS['!'] = C_BANG;
+        CHAR_CLASS['<'] = C_LESS;
+        CHAR_CLASS['>'] = C_GREATER;
+        CHAR_CLASS['&'] = C_AMP;
+        CHAR_CLASS['|'] = C_PIPE;
+        CHAR_CLASS['.'] = C_DOT;
+        CHAR_CLASS[';'] = C_SEMICOLON;
+        CHAR_CLASS[','] = C_COMMA;
+        CHAR_CLASS['('] = C_LPAREN;
+        CHAR_CLASS[')'] = C_RPAREN;
+        CHAR_CLASS['{'] = C_LBRACE;
+        CHAR_CLASS['}'] = C_RBRACE;
+        CHAR_CLASS['['] = C_LBRACKET;
+        CHAR_CLASS[']'] = C_RBRACKET;
+        CHAR_CLASS['^'] = C_CARET;
+        CHAR_CLASS['~'] = C_TILDE;
+        CHAR_CLASS['?'] = C_QUESTION;
+        CHAR_CLASS[':'] = C_COLON;
+        CHAR_CLASS['e'] = C_EXPONENT;
+        CHAR_CLASS['E'] = C_EXPONENT;
+        CHAR_CLASS['p'] = C_EXPONENT;
+        CHAR_CLASS['P'] = C_EXPONENT;
+
+        // Identifiers and numbers. A number runs on over letters, digits, dots and
+        // signs after an exponent letter; its type is settled when it is parsed.
+        on(S_START, C_ALPHA, S_IDENT);
+        on(S_START, C_EXPONENT, S_IDENT);
+        on(S_IDENT, C_ALPHA, S_IDENT);
+        on(S_IDENT, C_EXPONENT, S_IDENT);
+        on(S_IDENT, C_DIGIT, S_IDENT);
+        on(S_START, C_DIGIT, S_NUMBER);
+        on(S_SINGLE + C_DOT, C_DIGIT, S_NUMBER);
+        for (int state : new int[] {S_NUMBER, S_NUMBER_EXPONENT}) {
+            on(state, C_DIGIT, S_NUMBER);
+            on(state, C_ALPHA, S_NUMBER);
+            on(state, C_DOT, S_NUMBER);
+            on(state, C_EXPONENT, S_NUMBER_EXPONENT);
+        }
+        on(S_NUMBER_EXPONENT, C_PLUS, S_NUMBER);
+        on(S_NUMBER_EXPONENT, C_MINUS, S_NUMBER);
+        accept(S_IDENT, TokenType.IDENTIFIER);
+        accept(S_NUMBER, TokenType.INTEGER_LITERAL);
+        accept(S_NUMBER_EXPONENT, TokenType.INTEGER_LITERAL);
+
+        // Preprocessor lines (see CScanner.directiveEnd) and comments
+        on(S_START, C_HASH, S_PREPROCESSOR);
+        directiveText(S_PREPROCESSOR);
+        directiveText(S_PP_BACKSLASH);
+        on(S_PP_BACKSLASH, C_NEWLINE, S_PREPROCESSOR);
+        on(S_PP_BACKSLASH, C_SPACE, S_PP_BACKSLASH);
+        directiveText(S_PP_SLASH);
+        on(S_PP_SLASH, C_SLASH, S_PP_LINE_COMMENT);
+        on(S_PP_SLASH, C_STAR, S_PP_BLOCK);
+        anyExceptNewline(S_PP_LINE_COMMENT, S_PP_LINE_COMMENT);
+        on(S_PP_LINE_COMMENT, C_BACKSLASH, S_PP_LINE_BACKSLASH);
+        any(S_PP_LINE_BACKSLASH, S_PP_LINE_COMMENT);
+        on(S_PP_LINE_BACKSLASH, C_BACKSLASH, S_PP_LINE_BACKSLASH);
+        on(S_PP_LINE_BACKSLASH, C_SPACE, S_PP_LINE_BACKSLASH);
+        any(S_PP_BLOCK, S_PP_BLOCK);
+        on(S_PP_BLOCK, C_STAR, S_PP_BLOCK_STAR);
+        any(S_PP_BLOCK_STAR, S_PP_BLOCK);
+        on(S_PP_BLOCK_STAR, C_STAR, S_PP_BLOCK_STAR);
+        on(S_PP_BLOCK_STAR, C_SLASH, S_PREPROCESSOR);
+        anyExceptNewline(S_PP_STRING, S_PP_STRING);
+        on(S_PP_STRING, C_BACKSLASH, S_PP_STRING_ESCAPE);
+        on(S_PP_STRING, C_DQUOTE, S_PREPROCESSOR);
+        any(S_PP_STRING_ESCAPE, S_PP_STRING);
+        anyExceptNewline(S_PP_CHAR, S_PP_CHAR);
+        on(S_PP_CHAR, C_BACKSLASH, S_PP_CHAR_ESCAPE);
+        on(S_PP_CHAR, C_SQUOTE, S_PREPROCESSOR);
+        any(S_PP_CHAR_ESCAPE, S_PP_CHAR);
+        for (int state = S_PP_BACKSLASH; state <= S_PP_CHAR_ESCAPE; state++) {
+            accept(state, TokenType.PREPROCESSOR);
+        }
+        accept(S_PREPROCESSOR, TokenType.PREPROCESSOR);
+        COUNTS_NEWLINES[S_PP_BACKSLASH] = true;
+        COUNTS_NEWLINES[S_PP_LINE_BACKSLASH] = true;
+        COUNTS_NEWLINES[S_PP_BLOCK] = true;
+        COUNTS_NEWLINES[S_PP_BLOCK_STAR] = true;
+        COUNTS_NEWLINES[S_PP_STRING_ESCAPE] = true;
+        COUNTS_NEWLINES[S_PP_CHAR_ESCAPE] = true;
+
+        on(S_START, C_SLASH, S_SLASH);
+        on(S_SLASH, C_EQUALS, S_SLASH_EQ);
+        on(S_SLASH, C_SLASH, S_LINE_COMMENT);
+        anyExceptNewline(S_LINE_COMMENT, S_LINE_COMMENT);
+        on(S_SLASH, C_STAR, S_BLOCK);
+        any(S_BLOCK, S_BLOCK);
+        on(S_BLOCK, C_STAR, S_BLOCK_STAR);
+        any(S_BLOCK_STAR, S_BLOCK);
+        on(S_BLOCK_STAR, C_STAR, S_BLOCK_STAR);
+        on(S_BLOCK_STAR, C_SLASH, S_BLOCK_END);
+        accept(S_SLASH, TokenType.DIVIDE);
+        accept(S_SLASH_EQ, TokenType.DIVIDE_ASSIGN);
+        accept(S_LINE_COMMENT, TokenType.COMMENT);
+        accept(S_BLOCK_END, TokenType.COMMENT);
+        error(S_BLOCK, E_BLOCK_COMMENT);
+        error(S_BLOCK_STAR, E_BLOCK_COMMENT);
+        COUNTS_NEWLINES[S_BLOCK] = true;
+        COUNTS_NEWLINES[S_BLOCK_STAR] = true;
+
+        // String and character literals; an escaped char is taken as is, even a newline
+        on(S_START, C_DQUOTE, S_STRING);
+        any(S_STRING, S_STRING);
+        on(S_STRING, C_BACKSLASH, S_STRING_ESCAPE);
+        on(S_STRING, C_DQUOTE, S_STRING_END);
+        any(S_STRING_ESCAPE, S_STRING);
+        accept(S_STRING_END, TokenType.STRING_LITERAL);
+        error(S_STRING, E_STRING);
+        error(S_STRING_ESCAPE, E_STRING);
+        COUNTS_NEWLINES[S_STRING] = true;
+
+        on(S_START, C_SQUOTE, S_CHAR_OPEN);
+        any(S_CHAR_OPEN, S_CHAR_BODY);
+        on(S_CHAR_OPEN, C_BACKSLASH, S_CHAR_ESCAPE);
+        any(S_CHAR_ESCAPE, S_CHAR_BODY);
+        on(S_CHAR_BODY, C_SQUOTE, S_CHAR_END);
+        accept(S_CHAR_END, TokenType.CHAR_LITERAL);
+        error(S_CHAR_OPEN, E_CHAR);
+        error(S_CHAR_ESCAPE, E_CHAR);
+        error(S_CHAR_BODY, E_CHAR);
+
+        // Operators
+        operator(S_PLUS, C_PLUS, TokenType.PLUS);
+        operator(S_PLUS, C_PLUS, S_INCREMENT, TokenType.INCREMENT);
+        operator(S_PLUS, C_EQUALS, S_PLUS_EQ, TokenType.PLUS_ASSIGN);
+        operator(S_MINUS, C_MINUS, TokenType.MINUS);
+        operator(S_MINUS, C_MINUS, S_DECREMENT, TokenType.DECREMENT);
+        operator(S_MINUS, C_EQUALS, S_MINUS_EQ, TokenType.MINUS_ASSIGN);
+        operator(S_MINUS, C_GREATER, S_ARROW, TokenType.ARROW);
+        operator(S_STAR, C_STAR, TokenType.MULTIPLY);
+        operator(S_STAR, C_EQUALS, S_STAR_EQ, TokenType.MULTIPLY_ASSIGN);
+        operator(S_PERCENT, C_PERCENT, TokenType.MODULO);
+        operator(S_PERCENT, C_EQUALS, S_PERCENT_EQ, TokenType.MODULO_ASSIGN);
+        operator(S_ASSIGN, C_EQUALS, TokenType.ASSIGN);
+        operator(S_ASSIGN, C_EQUALS, S_EQUAL, TokenType.EQUAL);
+        operator(S_BANG, C_BANG, TokenType.LOGICAL_NOT);
+        operator(S_BANG, C_EQUALS, S_NOT_EQUAL, TokenType.NOT_EQUAL);
+        operator(S_LESS, C_LESS, TokenType.LESS_THAN);
+        operator(S_LESS, C_EQUALS, S_LESS_EQ, TokenType.LESS_EQUAL);
+        operator(S_LESS, C_LESS, S_SHIFT_LEFT, TokenType.LEFT_SHIFT);
+        operator(S_SHIFT_LEFT, C_EQUALS, S_SHIFT_LEFT_EQ, TokenType.LEFT_SHIFT_ASSIGN);
+        operator(S_GREATER, C_GREATER, TokenType.GREATER_THAN);
+        operator(S_GREATER, C_EQUALS, S_GREATER_EQ, TokenType.GREATER_EQUAL);
+        operator(S_GREATER, C_GREATER, S_SHIFT_RIGHT, TokenType.RIGHT_SHIFT);
+        operator(S_SHIFT_RIGHT, C_EQUALS, S_SHIFT_RIGHT_EQ, TokenType.RIGHT_SHIFT_ASSIGN);
+        operator(S_AMP, C_AMP, TokenType.BITWISE_AND);
+        operator(S_AMP, C_AMP, S_AND, TokenType.LOGICAL_AND);
+        operator(S_AMP, C_EQUALS, S_AMP_EQ, TokenType.AND_ASSIGN);
+        operator(S_PIPE, C_PIPE, TokenType.BITWISE_OR);
+        operator(S_PIPE, C_PIPE, S_OR, TokenType.LOGICAL_OR);
+        operator(S_PIPE, C_EQUALS, S_PIPE_EQ, TokenType.OR_ASSIGN);
+        single(C_DOT, TokenType.DOT);
+        on(S_SINGLE + C_DOT, C_DOT, S_DOT_DOT);
+        operator(S_DOT_DOT, C_DOT, S_ELLIPSIS, TokenType.ELLIPSIS);
+        single(C_SEMICOLON, TokenType.SEMICOLON);
+        single(C_COMMA, TokenType.COMMA);
+        single(C_LPAREN, TokenType.LEFT_PAREN);
+        single(C_RPAREN, TokenType.RIGHT_PAREN);
+        single(C_LBRACE, TokenType.LEFT_BRACE);
+        single(C_RBRACE, TokenType.RIGHT_BRACE);
+        single(C_LBRACKET, TokenType.LEFT_BRACKET);
+        single(C_RBRACKET, TokenType.RIGHT_BRACKET);
+        single(C_CARET, TokenType.BITWISE_XOR);
+        operator(S_SINGLE + C_CARET, C_EQUALS, S_CARET_EQ, TokenType.XOR_ASSIGN);
+        single(C_TILDE, TokenType.BITWISE_NOT);
+        single(C_QUESTION, TokenType.CONDITIONAL);
+        single(C_COLON, TokenType.COLON);
+    }
+
+    private static void on(int state, int charClass, int next) {
+        TRANSITIONS[state * CLASS_COUNT + charClass] = (byte) next;
+    }
+
+    private static void any(int state, int next) {
+        Arrays.fill(TRANSITIONS, state * CLASS_COUNT, (state + 1) * CLASS_COUNT, (byte) next);
+    }
+
+    private static void anyExceptNewline(int state, int next) {
+        any(state, next);
+        on(state, C_NEWLINE, S_DEAD);
+    }
+
+    // Directive text outside quotes and comments; the newline ends the directive
+    private static void directiveText(int state) {
+        anyExceptNewline(state, S_PREPROCESSOR);
+        on(state, C_BACKSLASH, S_PP_BACKSLASH);
+        on(state, C_SLASH, S_PP_SLASH);
+        on(state, C_DQUOTE, S_PP_STRING);
+        on(state, C_SQUOTE, S_PP_CHAR);
+    }
+
+    private static void accept(int state, TokenType type) {
+        ACCEPTS[state] = type;
+    }
+
+    private static void error(int state, int error) {
+        ERRORS[state] = (byte) error;
+    }
+
+    // First char of an operator: START --charClass--> state
+    private static void operator(int state, int charClass, TokenType type) {
+        on(S_START, charClass, state);
+        accept(state, type);
+    }
+
+    // Second char of an operator
+    private static void operator(int state, int charClass, int next, TokenType type) {
+        on(state, charClass, next);
+        accept(next, type);
+    }
+
+    private static void single(int charClass, TokenType type) {
+        operator(S_SINGLE + charClass, charClass, type);
+    }
+
+    private static final Diagnostics NO_DIAGNOSTICS = new Diagnostics(0);
+
+    private final ITokenValidator validator;
+    private final ISymbolTable symbolTable;
+    private final LexemePool lexemePool;
+    private final NumericLiteral numbers = new NumericLiteral();
+    private CharSequence source;
+    private int end;
+    private int current = 0;
+    private int line = 1;
+    private int lineStart = 0;
+
+    // Position of the lexeme recognized by the last scanToken() call
+    private int tokenStart;
+    private int tokenLine;
+    private int tokenColumn;
+    private long tokenValue;
+
+    public TableDrivenScanner(ITokenValidator validator, ISymbolTable symbolTable) {
+        this(validator, symbolTable, new LexemePool());
+    }
+
+    // A pool shared with the symbol table lets it index symbols by the ids on tokens
+    public TableDrivenScanner(ITokenValidator validator, ISymbolTable symbolTable, LexemePool lexemePool) {
+        this.validator = validator;
+        this.symbolTable = symbolTable;
+        this.lexemePool = lexemePool;
+    }
+
+    @Override
+    public List<Token> scanTokens(String source) throws ScannerException {
+        begin(source);
+
+        List<Token> tokens = new ArrayList<>();
+        TokenType type;
+        while ((type = scanToken()) != null) {
+            Token token = makeToken(type);
+            tokens.add(token);
+
+            if (type == TokenType.IDENTIFIER) {
+                symbolTable.addSymbol(token.getSymbolId(), token);
+            }
+        }
+
+        tokens.add(new Token(TokenType.EOF, "", line, currentColumn()));
+        return tokens;
+    }
+
+    @Override
+    public TokenBuffer scanTokenBuffer(String source) throws ScannerException {
+        begin(source);
+
+        TokenBuffer buffer = new TokenBuffer(source);
+        TokenType type;
+        while ((type = scanToken()) != null) {
+            buffer.add(type, tokenStart, current - tokenStart, tokenLine, tokenColumn, tokenValue);
+
+            if (type == TokenType.IDENTIFIER) {
+                Token token = buffer.getSymbol(buffer.size() - 1, lexemePool);
+                symbolTable.addSymbol(token.getSymbolId(), token);
+            }
+        }
+
+        buffer.add(TokenType.EOF, current, 0, line, currentColumn());
+        return buffer;
+    }
+
+    @Override
+    public void setSource(String source) {
+        begin(source);
+    }
+
+    // Skips whitespace and returns the next token, or EOF at the end of the source
+    @Override
+    public Token getNextToken() throws ScannerException {
+        TokenType type = scanToken();
+        if (type == null) {
+            return new Token(TokenType.EOF, "", line, currentColumn());
+        }
+
+        Token token = makeToken(type);
+        if (type == TokenType.IDENTIFIER) {
+            symbolTable.addSymbol(token.getSymbolId(), token);
+        }
+        return token;
+    }
+
+    @Override
+    public void reset() {
+        current = 0;
+        line = 1;
+        lineStart = 0;
+        symbolTable.clear();
+    }
+
+    @Override
+    public boolean hasMoreTokens() {
+        return current < end;
+    }
+
+    @Override
+    public LexemePool getLexemePool() {
+        return lexemePool;
+    }
+
+    // Errors always throw here; error recovery is a CScanner option
+    @Override
+    public Diagnostics getDiagnostics() {
+        return NO_DIAGNOSTICS;
+    }
+
+    private void begin(String source) {
+        this.source = source;
+        this.end = source.length();
+        reset();
+    }
+
+    // Runs the automaton over one lexeme. Returns null at the end of the source.
+    private TokenType scanToken() throws ScannerException {
+        while (current < end) {
+            int charClass = classOf(source.charAt(current));
+            if (charClass == C_SPACE) {
+                current++;
+            } else if (charClass == C_NEWLINE) {
+                current++;
+                line++;
+                lineStart = current;
+            } else {
+                break;
+            }
+        }
+        if (current >= end) return null;
+
+        int start = current;
+        int startLine = line;
+        int startColumn = currentColumn();
+        int state = S_START;
+        int acceptState = S_DEAD;
+        int acceptEnd = start;
+
+        for (int pos = start; pos < end; ) {
+            int charClass = classOf(source.charAt(pos));
+            int next = TRANSITIONS[state * CLASS_COUNT + charClass];
+            if (next == S_DEAD) break;
+            if (charClass == C_NEWLINE && COUNTS_NEWLINES[state]) {
+                line++;
+                lineStart = pos;
+            }
+            state = next;
+            pos++;
+            if (ACCEPTS[state] != null) {
+                acceptState = state;
+                acceptEnd = pos;
+            }
+        }
+
+        switch (ERRORS[state]) {
+            case E_STRING:
+                throw new ScannerException("Unterminated string", line, startColumn);
+            case E_BLOCK_COMMENT:
+                throw new ScannerException("Unterminated block comment", startLine, startColumn);
+            case E_CHAR:
+                throw new ScannerException("Unterminated character literal", startLine, startColumn);
+            default:
+                break;
+        }
+        if (acceptState == S_DEAD) {
+            throw new ScannerException("Unexpected character: " + source.charAt(start), startLine, startColumn);
+        }
+
+        current = acceptEnd;
+        tokenStart = start;
+        tokenLine = startLine;
+        tokenColumn = startColumn;
+        tokenValue = 0;
+
+        TokenType type = ACCEPTS[acceptState];
+        switch (acceptState) {
+            case S_NUMBER:
+            case S_NUMBER_EXPONENT:
+                if (!numbers.parse(source, start, current)) {
+                    Diagnostics.Kind kind = numbers.isTooLarge()
+                            ? Diagnostics.Kind.INTEGER_TOO_LARGE
+                            : Diagnostics.Kind.INVALID_NUMBER;
+                    throw new ScannerException(kind.getMessage(), startLine, startColumn);
+                }
+                tokenValue = numbers.getBits();
+                return numbers.getType();
+            case S_IDENT:
+                TokenType keyword = validator.getKeywordType(source, start, current);
+                return keyword != null ? keyword : type;
+            case S_STRING_END:
+                tokenLine = line;
+                return type;
+            case S_LINE_COMMENT:
+                tokenColumn = currentColumn();
+                return type;
+            default:
+                // A directive may stop in any of its states
+                if (type == TokenType.PREPROCESSOR) {
+                    tokenLine = line;
+                    tokenColumn = currentColumn();
+                }
+                return type;
+        }
+    }
+
+    private int currentColumn() {
+        return current - lineStart + 1;
+    }
+
+    private static int classOf(char c) {
+        return c < 128 ? CHAR_CLASS[c] : C_OTHER;
+    }
+
+    private Token makeToken(TokenType type) {
+        if (type == TokenType.IDENTIFIER) {
+            int id = lexemePool.intern(source, tokenStart, current);
+            return new Token(type, lexemePool.getName(id), tokenLine, tokenColumn, null, id);
+        }
+
+        String lexeme = source.subSequence(tokenStart, current).toString();
+        if (Token.isNumber(type)) {
+            return new Token(type, lexeme, tokenLine, tokenColumn, null, Token.NO_SYMBOL, tokenValue);
+        }
+        return new Token(type, lexeme, tokenLine, tokenColumn, Token.literalValue(type, lexeme));
+    }
+}
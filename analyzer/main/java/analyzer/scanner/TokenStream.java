@@ -0,0 +1,185 @@
+package analyzer.scanner;
+
+import analyzer.interfaces.IScanner;
+import analyzer.interfaces.ISymbolTable;
+import analyzer.interfaces.ITokenValidator;
+import analyzer.Token.Token;
+import analyzer.Token.TokenType;
+import analyzer.exceptions.Diagnostics;
+import analyzer.exceptions.ScannerException;
+import analyzer.exceptions.UncheckedScannerException;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+// Pull-based token stream for parsers. Tokens are scanned only when next() or
+// peek(k) asks for them and are held in a small ring buffer for lookahead, so
+// memory stays constant however long the input is. Whitespace never shows up,
+// identifiers are registered as they are scanned, and the stream ends with EOF
+// (peeking past it keeps returning EOF).
+//
+// Scanner errors are thrown as ScannerException from next() and peek(), and as
+// UncheckedScannerException from the Iterator and Stream views. Read errors of
+// file and channel streams surface as UncheckedIOException.
+public class TokenStream implements Iterable<Token>, AutoCloseable {
+    private static final int DEFAULT_LOOKAHEAD = 8;
+
+    // Produces tokens in order, ending with EOF
+    @FunctionalInterface
+    private interface Source {
+        Token next() throws ScannerException, IOException;
+    }
+
+    private final Source source;
+    private final Closeable resource;
+    private final Diagnostics diagnostics;
+    private final Token[] ring;
+    private final int mask;
+    private int head = 0;
+    private int count = 0;
+    private Token eof = null;
+    private boolean finished = false;
+
+    private TokenStream(Source source, Closeable resource, Diagnostics diagnostics, int lookahead) {
+        if (lookahead < 1) {
+            throw new IllegalArgumentException("Lookahead must be at least 1: " + lookahead);
+        }
+        int capacity = Integer.highestOneBit(lookahead * 2 - 1);
+        this.source = source;
+        this.resource = resource;
+        this.diagnostics = diagnostics;
+        this.ring = new Token[capacity];
+        this.mask = capacity - 1;
+    }
+
+    public static TokenStream of(IScanner scanner, String source) {
+        return of(scanner, source, DEFAULT_LOOKAHEAD);
+    }
+
+    // peek(k) is allowed for k < lookahead
+    public static TokenStream of(IScanner scanner, String source, int lookahead) {
+        scanner.setSource(source);
+        return new TokenStream(scanner::getNextToken, null, scanner.getDiagnostics(), lookahead);
+    }
+
+    // Streams a file through a memory-mapped window
+    public static TokenStream open(Path path, ITokenValidator validator, ISymbolTable symbolTable)
+            throws IOException {
+        return open(path, validator, symbolTable, ScannerOptions.DEFAULT);
+    }
+
+    public static TokenStream open(Path path, ITokenValidator validator, ISymbolTable symbolTable,
+                                   ScannerOptions options) throws IOException {
+        MappedFileScanner scanner = new MappedFileScanner(path, validator, symbolTable, options);
+        return new TokenStream(scanner::nextToken, scanner::close, scanner.getDiagnostics(), DEFAULT_LOOKAHEAD);
+    }
+
+    // Streams any channel, e.g. standard input; closing the stream closes the channel
+    public static TokenStream open(ReadableByteChannel channel, ITokenValidator validator,
+                                   ISymbolTable symbolTable) throws IOException {
+        return open(channel, validator, symbolTable, ScannerOptions.DEFAULT);
+    }
+
+    public static TokenStream open(ReadableByteChannel channel, ITokenValidator validator,
+                                   ISymbolTable symbolTable, ScannerOptions options) throws IOException {
+        ChannelScanner scanner = new ChannelScanner(channel, validator, symbolTable,
+                ChannelScanner.DEFAULT_BUFFER_SIZE, options);
+        return new TokenStream(scanner::nextToken, scanner::close, scanner.getDiagnostics(), DEFAULT_LOOKAHEAD);
+    }
+
+    // True until the EOF token has been consumed
+    public boolean hasNext() {
+        return !finished;
+    }
+
+    public Token next() throws ScannerException {
+        if (finished) throw new NoSuchElementException("Token stream is exhausted");
+
+        Token token = fill(0);
+        ring[head] = null;
+        head = (head + 1) & mask;
+        count--;
+        if (token.getType() == TokenType.EOF) finished = true;
+        return token;
+    }
+
+    public Token peek() throws ScannerException {
+        return peek(0);
+    }
+
+    // The token k positions ahead of the next one, scanning it if necessary
+    public Token peek(int k) throws ScannerException {
+        if (k < 0 || k >= ring.length) {
+            throw new IllegalArgumentException("Lookahead " + k + " out of range [0, " + ring.length + ")");
+        }
+        return fill(k);
+    }
+
+    // Single-use views; both consume this stream
+    @Override
+    public Iterator<Token> iterator() {
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return TokenStream.this.hasNext();
+            }
+
+            @Override
+            public Token next() {
+                try {
+                    return TokenStream.this.next();
+                } catch (ScannerException e) {
+                    throw new UncheckedScannerException(e);
+                }
+            }
+        };
+    }
+
+    @Override
+    public Spliterator<Token> spliterator() {
+        return Spliterators.spliteratorUnknownSize(iterator(),
+                Spliterator.ORDERED | Spliterator.NONNULL | Spliterator.IMMUTABLE);
+    }
+
+    public Stream<Token> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    // Errors recovered in the tokens scanned so far (which may be ahead of next())
+    public Diagnostics getDiagnostics() {
+        return diagnostics;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (resource != null) resource.close();
+    }
+
+    private Token fill(int k) throws ScannerException {
+        while (count <= k) {
+            if (eof != null) return eof;
+
+            Token token = read();
+            ring[(head + count) & mask] = token;
+            count++;
+            if (token.getType() == TokenType.EOF) eof = token;
+        }
+        return ring[(head + k) & mask];
+    }
+
+    private Token read() throws ScannerException {
+        try {
+            return source.next();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package analyzer.scanner;
+
+import analyzer.interfaces.ISymbolTable;
+import analyzer.interfaces.ITokenValidator;
+import analyzer.Token.LexemePool;
+import analyzer.Token.TokenBuffer;
+import analyzer.exceptions.Diagnostics;
+import analyzer.exceptions.ScannerException;
+import java.nio.ByteBuffer;
+
+// Scans UTF-8 source held in memory as bytes, without decoding it into a String
+// first. The returned TokenBuffer refers to the bytes: a lexeme is decoded only when
+// asked for, an ASCII one straight into a compact Latin-1 String, so the source is
+// never held twice.
+//
+// Everything the scanner recognizes is ASCII, so UTF-8 text can only appear inside
+// strings, character literals, comments and directives, where it is carried along
+// byte by byte; a multi-byte character constant is taken whole. Outside them, a
+// non-ASCII character is unexpected and reported as the character it encodes.
+// Columns count bytes, as streaming scanners do, or code points.
+public class Utf8Scanner {
+    public enum ColumnUnit { BYTES, CODE_POINTS }
+
+    private final CScanner scanner;
+
+    public Utf8Scanner(ITokenValidator validator, ISymbolTable symbolTable) {
+        this(validator, symbolTable, ColumnUnit.BYTES, ScannerOptions.DEFAULT);
+    }
+
+    public Utf8Scanner(ITokenValidator validator, ISymbolTable symbolTable, ColumnUnit columns) {
+        this(validator, symbolTable, columns, ScannerOptions.DEFAULT);
+    }
+
+    public Utf8Scanner(ITokenValidator validator, ISymbolTable symbolTable, ColumnUnit columns,
+                       ScannerOptions options) {
+        this.scanner = new CScanner(validator, symbolTable, options);
+        scanner.countCodePointColumns(columns == ColumnUnit.CODE_POINTS);
+    }
+
+    public TokenBuffer scanTokenBuffer(byte[] source) throws ScannerException {
+        return scanTokenBuffer(ByteBuffer.wrap(source));
+    }
+
+    // Scans the buffer from its position to its limit; the buffer must not change
+    // while the tokens are in use
+    public TokenBuffer scanTokenBuffer(ByteBuffer source) throws ScannerException {
+        return scanner.scanBuffer(new ByteCharSequence(source, source.position(), source.remaining()));
+    }
+
+    public LexemePool getLexemePool() {
+        return scanner.getLexemePool();
+    }
+
+    // Errors recovered during the last scan (see ScannerOptions)
+    public Diagnostics getDiagnostics() {
+        return scanner.getDiagnostics();
+    }
+}
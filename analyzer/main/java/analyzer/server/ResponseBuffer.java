@@ -0,0 +1,44 @@
+package analyzer.server;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+// A response frame built in place: the header is reserved first, the body is
+// written behind it, and the length is filled in at the end. The array is kept
+// between responses, so a warm worker does not allocate one per request.
+final class ResponseBuffer extends ByteArrayOutputStream {
+    ResponseBuffer() {
+        super(64 * 1024);
+    }
+
+    void begin(int id, int status) {
+        reset();
+        writeInt(0);
+        writeInt(id);
+        write(status);
+    }
+
+    // A whole error response
+    void error(int id, int status, String message) {
+        begin(id, status);
+        writeBytes(message.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // The finished frame, length included; valid until the next begin()
+    ByteBuffer frame() {
+        int length = count - Integer.BYTES;
+        buf[0] = (byte) (length >>> 24);
+        buf[1] = (byte) (length >>> 16);
+        buf[2] = (byte) (length >>> 8);
+        buf[3] = (byte) length;
+        return ByteBuffer.wrap(buf, 0, count);
+    }
+
+    private void writeInt(int value) {
+        write(value >>> 24);
+        write(value >>> 16);
+        write(value >>> 8);
+        write(value);
+    }
+}
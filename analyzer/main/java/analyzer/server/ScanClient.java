@@ -0,0 +1,95 @@
+package analyzer.server;
+
+import analyzer.exceptions.ScannerException;
+import analyzer.output.BinaryTokenReader;
+import java.io.IOException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+// Blocking client for a ScanServer: one request at a time, each answered with a
+// BinaryTokenReader over the response. The reader shares the client's receive
+// buffer, so it is only valid until the next request. Tools that want to keep many
+// requests in flight speak ScanProtocol directly.
+public class ScanClient implements AutoCloseable {
+    private final ReadableByteChannel in;
+    private final WritableByteChannel out;
+    private final ByteBuffer header = ByteBuffer.allocate(Integer.BYTES);
+    private ByteBuffer frame = ByteBuffer.allocate(64 * 1024);
+    private int nextId = 1;
+
+    public ScanClient(ReadableByteChannel in, WritableByteChannel out) {
+        this.in = in;
+        this.out = out;
+    }
+
+    public static ScanClient connect(Path socketPath) throws IOException {
+        SocketChannel channel = SocketChannel.open(StandardProtocolFamily.UNIX);
+        try {
+            channel.connect(UnixDomainSocketAddress.of(socketPath));
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        return new ScanClient(channel, channel);
+    }
+
+    // Tokens of a file the server reads itself
+    public synchronized BinaryTokenReader scanFile(Path path, boolean payloads)
+            throws IOException, ScannerException {
+        return request(ScanProtocol.KIND_PATH, path.toString(), payloads);
+    }
+
+    public synchronized BinaryTokenReader scanSource(String source, boolean payloads)
+            throws IOException, ScannerException {
+        return request(ScanProtocol.KIND_SOURCE, source, payloads);
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            in.close();
+        } finally {
+            out.close();
+        }
+    }
+
+    private BinaryTokenReader request(int kind, String body, boolean payloads) throws IOException, ScannerException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        int id = nextId++;
+        ByteBuffer request = ByteBuffer.allocate(Integer.BYTES + ScanProtocol.REQUEST_HEADER_BYTES + bytes.length);
+        request.putInt(ScanProtocol.REQUEST_HEADER_BYTES + bytes.length)
+                .putInt(id)
+                .put((byte) kind)
+                .put((byte) (payloads ? ScanProtocol.FLAG_PAYLOADS : 0))
+                .put(bytes)
+                .flip();
+        while (request.hasRemaining()) {
+            out.write(request);
+        }
+
+        ByteBuffer response = ScanProtocol.readFrame(in, header, frame);
+        if (response == null) {
+            throw new IOException("Server closed the connection");
+        }
+        frame = response;
+        if (response.remaining() < ScanProtocol.RESPONSE_HEADER_BYTES || response.getInt() != id) {
+            throw new IOException("Unexpected response from server");
+        }
+
+        int status = response.get();
+        if (status == ScanProtocol.STATUS_OK) {
+            return new BinaryTokenReader(response);
+        }
+        String message = StandardCharsets.UTF_8.decode(response).toString();
+        if (status == ScanProtocol.STATUS_SCAN_ERROR) {
+            throw new ScannerException(message);
+        }
+        throw new IOException(message);
+    }
+}
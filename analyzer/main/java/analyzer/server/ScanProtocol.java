@@ -0,0 +1,71 @@
+package analyzer.server;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+
+// Framing between a ScanServer and its clients. Every message is one frame:
+//
+//   u32 length of the rest of the frame
+//   request:  u32 id, u8 kind, u8 flags, UTF-8 path (KIND_PATH) or source (KIND_SOURCE)
+//   response: u32 id, u8 status, TokenFormat stream (STATUS_OK) or UTF-8 error message
+//
+// Integers are big-endian. A client may send many requests without waiting; each
+// response carries the id of its request, and responses come back in the order the
+// scans finish, not the order they were sent.
+public final class ScanProtocol {
+    // Request kinds
+    public static final int KIND_PATH = 1;
+    public static final int KIND_SOURCE = 2;
+
+    // Request flags
+    public static final int FLAG_PAYLOADS = 1;
+
+    // Response statuses
+    public static final int STATUS_OK = 0;
+    public static final int STATUS_SCAN_ERROR = 1;
+    public static final int STATUS_IO_ERROR = 2;
+    public static final int STATUS_BAD_REQUEST = 3;
+    public static final int STATUS_INTERNAL_ERROR = 4;
+
+    public static final int REQUEST_HEADER_BYTES = 6;
+    public static final int RESPONSE_HEADER_BYTES = 5;
+
+    // Largest frame either side accepts
+    public static final int MAX_FRAME_BYTES = 1 << 30;
+
+    private ScanProtocol() {
+    }
+
+    // Reads the next frame after its length field into [0, limit) of the given buffer,
+    // or of a larger one if it does not fit. Returns null at a clean end of input.
+    static ByteBuffer readFrame(ReadableByteChannel in, ByteBuffer header, ByteBuffer frame) throws IOException {
+        header.clear();
+        if (!readFully(in, header, true)) return null;
+        int length = header.getInt(0);
+        if (length < 0 || length > MAX_FRAME_BYTES) {
+            throw new IOException("Invalid frame length " + length);
+        }
+
+        if (frame == null || frame.capacity() < length) {
+            frame = ByteBuffer.allocate(Math.max(length, frame == null ? 0 : frame.capacity() * 2));
+        }
+        frame.clear().limit(length);
+        readFully(in, frame, false);
+        frame.flip();
+        return frame;
+    }
+
+    // Fills the buffer; false if the input ended before the first byte and that is allowed
+    private static boolean readFully(ReadableByteChannel in, ByteBuffer buffer, boolean endAllowed)
+            throws IOException {
+        while (buffer.hasRemaining()) {
+            if (in.read(buffer) < 0) {
+                if (endAllowed && buffer.position() == 0) return false;
+                throw new EOFException("Truncated frame");
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,229 @@
+package analyzer.server;
+
+import analyzer.Token.TokenBuffer;
+import analyzer.exceptions.ScannerException;
+import analyzer.output.BinaryTokenWriter;
+import java.io.IOException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+// Long-running scanner for build tools that would otherwise start a JVM per file.
+// Requests (see ScanProtocol) arrive over standard input or a Unix domain socket
+// and are scanned concurrently by a pool of scanners that were warmed up before the
+// first request, so a file costs a scan and an encode instead of a JVM start and a
+// cold JIT. Each connection may have up to MAX_IN_FLIGHT requests outstanding; its
+// reader blocks beyond that, which pushes back on the client.
+public class ScanServer implements AutoCloseable {
+    public static final int MAX_IN_FLIGHT = 1024;
+    public static final int DEFAULT_WARMUP_ROUNDS = 200;
+
+    // Touches every kind of lexeme, so warm-up compiles all paths of scanToken
+    private static final String WARMUP_SOURCE = String.join("\n",
+            "#include <stdio.h>",
+            "#define LIMIT 0x7FFFFFFFUL",
+            "/* Block comment",
+            " * over several lines */",
+            "typedef struct node { int value; struct node *next; } node_t;",
+            "static const char *names[] = { \"alpha\", \"beta\\n\", \"gamma \\\"quoted\\\"\" };",
+            "unsigned long sum(const node_t *list, double scale) {",
+            "    unsigned long total = 0; // running total",
+            "    for (int i = 0; i < 10 && list != NULL; i++, list = list->next) {",
+            "        total += list->value * 3 + (total >> 2) % 7;",
+            "        if (total >= LIMIT || !scale) break; else continue;",
+            "    }",
+            "    char c = '\\t'; float f = 1.5f; double d = .25e-3 + 017;",
+            "    return total ^ (unsigned long) (scale * d) | (c & ~0u);",
+            "}",
+            "");
+
+    private final ScannerPool pool;
+    private final ExecutorService workers;
+    private ServerSocketChannel listener;
+    private Path socketPath;
+
+    public ScanServer(ScannerPool pool) {
+        this.pool = pool;
+        this.workers = Executors.newFixedThreadPool(pool.size(), runnable -> {
+            Thread thread = new Thread(runnable, "scan-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // Runs rounds of sample requests through every pooled scanner and the encoder
+    public void warmUp(int rounds) throws InterruptedException {
+        byte[] source = WARMUP_SOURCE.repeat(16).getBytes(StandardCharsets.UTF_8);
+        ByteBuffer request = ByteBuffer.allocate(ScanProtocol.REQUEST_HEADER_BYTES + source.length);
+        request.putInt(0).put((byte) ScanProtocol.KIND_SOURCE).put((byte) ScanProtocol.FLAG_PAYLOADS).put(source);
+        request.flip();
+
+        for (int round = 0; round < rounds; round++) {
+            for (int i = 0; i < pool.size(); i++) {
+                ScannerPool.Entry entry = pool.borrow();
+                try {
+                    respond(entry, request.duplicate());
+                } finally {
+                    pool.release(entry);
+                }
+            }
+        }
+    }
+
+    // Serves one connection until its input ends and every response is written
+    public void serve(ReadableByteChannel in, WritableByteChannel out) throws IOException, InterruptedException {
+        Semaphore inFlight = new Semaphore(MAX_IN_FLIGHT);
+        ByteBuffer header = ByteBuffer.allocate(Integer.BYTES);
+        try {
+            ByteBuffer frame;
+            while ((frame = ScanProtocol.readFrame(in, header, null)) != null) {
+                ByteBuffer request = frame;
+                inFlight.acquire();
+                workers.execute(() -> {
+                    try {
+                        handle(request, out);
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+        } finally {
+            // Let the requests already read finish before the caller closes the channels
+            inFlight.acquireUninterruptibly(MAX_IN_FLIGHT);
+        }
+    }
+
+    // Accepts connections on a Unix domain socket until close(); each connection gets a
+    // reader thread and shares the worker pool. A socket file left behind by a server
+    // that is gone is replaced.
+    public void serve(Path socketPath) throws IOException {
+        UnixDomainSocketAddress address = UnixDomainSocketAddress.of(socketPath);
+        if (Files.exists(socketPath)) {
+            if (isListening(address)) {
+                throw new IOException("A server is already listening on " + socketPath);
+            }
+            Files.delete(socketPath);
+        }
+
+        synchronized (this) {
+            this.listener = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+            this.socketPath = socketPath;
+            listener.bind(address);
+        }
+        try {
+            while (true) {
+                SocketChannel connection = listener.accept();
+                Thread reader = new Thread(() -> serveConnection(connection), "scan-connection");
+                reader.setDaemon(true);
+                reader.start();
+            }
+        } catch (ClosedChannelException e) {
+            // close() was called
+        }
+    }
+
+    // Stops accepting connections and removes the socket file
+    @Override
+    public synchronized void close() throws IOException {
+        workers.shutdown();
+        if (listener != null) {
+            listener.close();
+            Files.deleteIfExists(socketPath);
+            listener = null;
+        }
+    }
+
+    // A broken connection only ends itself; the client sees it closed
+    private void serveConnection(SocketChannel connection) {
+        try (connection) {
+            serve(connection, connection);
+        } catch (IOException e) {
+            // Nothing more can be sent on it
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static boolean isListening(UnixDomainSocketAddress address) {
+        try {
+            SocketChannel.open(address).close();
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private void handle(ByteBuffer request, WritableByteChannel out) {
+        ScannerPool.Entry entry;
+        try {
+            entry = pool.borrow();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        try {
+            ByteBuffer frame = respond(entry, request);
+            synchronized (out) {
+                while (frame.hasRemaining()) {
+                    out.write(frame);
+                }
+            }
+        } catch (IOException e) {
+            // The client went away; its reader sees the end of the connection
+        } finally {
+            pool.release(entry);
+        }
+    }
+
+    // Scans the request with the borrowed scanner into its response buffer
+    private ByteBuffer respond(ScannerPool.Entry entry, ByteBuffer request) {
+        ResponseBuffer response = entry.response;
+        if (request.remaining() < ScanProtocol.REQUEST_HEADER_BYTES) {
+            response.error(0, ScanProtocol.STATUS_BAD_REQUEST, "Request too short");
+            return response.frame();
+        }
+        int id = request.getInt();
+        int kind = request.get();
+        boolean payloads = (request.get() & ScanProtocol.FLAG_PAYLOADS) != 0;
+        String body = new String(request.array(), request.arrayOffset() + request.position(),
+                request.remaining(), StandardCharsets.UTF_8);
+
+        try {
+            String source;
+            if (kind == ScanProtocol.KIND_SOURCE) {
+                source = body;
+            } else if (kind == ScanProtocol.KIND_PATH) {
+                source = new String(Files.readAllBytes(Path.of(body)), StandardCharsets.UTF_8);
+            } else {
+                response.error(id, ScanProtocol.STATUS_BAD_REQUEST, "Unknown request kind " + kind);
+                return response.frame();
+            }
+
+            TokenBuffer tokens = entry.scanner.scanTokenBuffer(source);
+            response.begin(id, ScanProtocol.STATUS_OK);
+            BinaryTokenWriter writer = entry.writer(payloads);
+            writer.write(tokens);
+            writer.flush();
+        } catch (ScannerException e) {
+            response.error(id, ScanProtocol.STATUS_SCAN_ERROR, e.getMessage());
+        } catch (IOException | InvalidPathException e) {
+            response.error(id, ScanProtocol.STATUS_IO_ERROR, "Error reading file: " + e.getMessage());
+        } catch (RuntimeException e) {
+            // A failed request must still be answered, or its client would wait forever
+            response.error(id, ScanProtocol.STATUS_INTERNAL_ERROR, String.valueOf(e));
+        }
+        return response.frame();
+    }
+}
@@ -0,0 +1,77 @@
+package analyzer.server;
+
+import analyzer.interfaces.IScanner;
+import analyzer.interfaces.ISymbolTable;
+import analyzer.interfaces.ITokenValidator;
+import analyzer.output.BinaryTokenWriter;
+import analyzer.scanner.CScanner;
+import analyzer.scanner.SymbolTable;
+import analyzer.scanner.TokenValidator;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.function.BiFunction;
+
+// Fixed set of scanners with everything a request needs next to each one: its
+// validator and symbol table, the response buffer and token writers over it.
+// Scanners are stateful, so a request borrows one for the whole scan and gives it
+// back afterwards; instances, and the JIT profile they built up, live as long as
+// the server.
+public class ScannerPool {
+    private final BlockingQueue<Entry> idle;
+    private final int size;
+
+    public ScannerPool(int size) {
+        this(size, CScanner::new);
+    }
+
+    public ScannerPool(int size, BiFunction<ITokenValidator, ISymbolTable, IScanner> scannerFactory) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Pool size must be at least 1: " + size);
+        }
+        this.size = size;
+        this.idle = new ArrayBlockingQueue<>(size);
+        for (int i = 0; i < size; i++) {
+            SymbolTable symbolTable = new SymbolTable();
+            idle.add(new Entry(scannerFactory.apply(new TokenValidator(), symbolTable)));
+        }
+    }
+
+    public int size() { return size; }
+
+    // Waits for an idle scanner
+    Entry borrow() throws InterruptedException {
+        return idle.take();
+    }
+
+    void release(Entry entry) {
+        idle.add(entry);
+    }
+
+    static final class Entry {
+        final IScanner scanner;
+        final ResponseBuffer response = new ResponseBuffer();
+        private final BinaryTokenWriter plainWriter;
+        private final BinaryTokenWriter payloadWriter;
+
+        private Entry(IScanner scanner) {
+            this.scanner = scanner;
+            try {
+                this.plainWriter = new BinaryTokenWriter(Channels.newChannel(response), false);
+                this.payloadWriter = new BinaryTokenWriter(Channels.newChannel(response), true);
+            } catch (IOException e) {
+                // Nothing is written before the first flush
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        // A writer that starts a fresh stream in the response buffer
+        BinaryTokenWriter writer(boolean payloads) {
+            BinaryTokenWriter writer = payloads ? payloadWriter : plainWriter;
+            writer.reset();
+            return writer;
+        }
+    }
+}